@@ -2,6 +2,7 @@ package com.wx.renewableCalculator.backend.controller;
 
 import com.wx.renewableCalculator.backend.entity.Battery;
 import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.service.EquipmentCatalogService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -11,18 +12,22 @@ import java.util.List;
 public class BatteryController {
 
     private final BatteryRepository batteryRepository;
+    private final EquipmentCatalogService equipmentCatalogService;
 
-    public BatteryController(BatteryRepository batteryRepository) {
+    public BatteryController(BatteryRepository batteryRepository, EquipmentCatalogService equipmentCatalogService) {
         this.batteryRepository = batteryRepository;
+        this.equipmentCatalogService = equipmentCatalogService;
     }
 
     @GetMapping
     public List<Battery> getAllBatteries() {
-        return batteryRepository.findAll();
+        return equipmentCatalogService.getBatteryCatalog().getAll();
     }
 
     @PostMapping
     public Battery addBattery(@RequestBody Battery battery) {
-        return batteryRepository.save(battery);
+        Battery saved = batteryRepository.save(battery);
+        equipmentCatalogService.refresh();
+        return saved;
     }
 }
@@ -1,12 +1,22 @@
 package com.wx.renewableCalculator.backend.controller;
 
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsResult;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsRequest;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsResult;
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonResult;
+import com.wx.renewableCalculator.backend.service.CarbonImpactService;
+import com.wx.renewableCalculator.backend.service.CarbonIntensityService;
 import com.wx.renewableCalculator.backend.service.CarbonSavingsService;
+import com.wx.renewableCalculator.backend.service.GridTrajectoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/carbon")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -15,6 +25,15 @@ public class CarbonSavingsController {
     @Autowired
     private CarbonSavingsService carbonSavingsService;
     
+    @Autowired
+    private CarbonIntensityService carbonIntensityService;
+    
+    @Autowired
+    private CarbonImpactService carbonImpactService;
+    
+    @Autowired
+    private GridTrajectoryService gridTrajectoryService;
+    
     /**
      * Calculate monthly carbon savings for renewable energy systems
      * 
@@ -108,4 +127,68 @@ public class CarbonSavingsController {
             public final String scope2Description = "Indirect emissions from electricity consumption";
         });
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Get the regions with half-hourly carbon intensity data (values for carbonIntensityRegion)
+     */
+    @GetMapping("/intensity-regions")
+    public ResponseEntity<List<String>> getIntensityRegions() {
+        return ResponseEntity.ok(carbonIntensityService.getRegions());
+    }
+    
+    /**
+     * Calculate carbon savings for all twelve months in one call
+     * 
+     * Same formulas as /savings/monthly for each month
+     * 
+     * @param request Equipment selection with 12-element monthly energy arrays
+     * @return 12-element emissions arrays plus annual totals
+     */
+    @PostMapping("/savings/annual")
+    public ResponseEntity<AnnualCarbonSavingsResult> calculateAnnualCarbonSavings(
+            @RequestBody AnnualCarbonSavingsRequest request) {
+        
+        try {
+            AnnualCarbonSavingsResult result = carbonSavingsService.calculateAnnualCarbonSavings(request);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Project lifetime carbon savings under grid decarbonisation trajectories, side by side
+     * 
+     * Year y saves ∑m E[y][m] × I[y][m] + fuel avoided × fuel factor, with E the grid energy displaced
+     * (solar, degraded yearly, minus heat pump use) and I the trajectory's monthly grid intensity
+     * 
+     * @param request First-year monthly energy, lifetime and trajectories (all if empty)
+     * @return Lifetime and yearly savings per trajectory
+     */
+    @PostMapping("/lifetime")
+    public ResponseEntity<LifetimeCarbonResult> projectLifetimeCarbon(@RequestBody LifetimeCarbonRequest request) {
+        try {
+            LifetimeCarbonResult result = carbonImpactService.projectLifetimeCarbon(request);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Get the grid decarbonisation trajectories available for lifetime projections
+     */
+    @GetMapping("/grid-trajectories")
+    public ResponseEntity<List<String>> getGridTrajectories() {
+        List<String> trajectories = new ArrayList<>();
+        trajectories.add(CarbonImpactService.CURRENT_GRID_TRAJECTORY);
+        trajectories.addAll(gridTrajectoryService.getScenarios());
+        return ResponseEntity.ok(trajectories);
+    }
+}
@@ -2,10 +2,13 @@ package com.wx.renewableCalculator.backend.controller;
 
 import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
 import com.wx.renewableCalculator.backend.dto.ElectricityDemandResult;
+import com.wx.renewableCalculator.backend.dto.MeterUploadResult;
 import com.wx.renewableCalculator.backend.service.EnergyDemandService;
+import com.wx.renewableCalculator.backend.service.SmartMeterImportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
 
@@ -17,6 +20,9 @@ public class ElectricityDemandController {
     @Autowired
     private EnergyDemandService energyDemandService;
 
+    @Autowired
+    private SmartMeterImportService smartMeterImportService;
+
     /**
      * Calculate monthly electricity demand
      * POST /api/electricity-demand/calculate
@@ -60,4 +66,26 @@ public class ElectricityDemandController {
             "message", isValid ? "Monthly usage input is valid" : "Monthly usage input is invalid or incomplete"
         ));
     }
+
+    /**
+     * Upload a smart-meter electricity export (CSV) and calculate demand from it
+     * POST /api/electricity-demand/upload
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<MeterUploadResult> uploadMeterData(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "hasHeatPump", required = false) Boolean hasHeatPump) {
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            MeterUploadResult result = smartMeterImportService.importElectricity(file.getInputStream(), hasHeatPump);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 } 
\ No newline at end of file
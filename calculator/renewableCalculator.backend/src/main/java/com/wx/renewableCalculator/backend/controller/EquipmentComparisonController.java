@@ -1,10 +1,14 @@
 package com.wx.renewableCalculator.backend.controller;
 
+import com.wx.renewableCalculator.backend.dto.ConfigurationFrontierResult;
 import com.wx.renewableCalculator.backend.dto.EquipmentComparisonRequest;
 import com.wx.renewableCalculator.backend.dto.EquipmentComparisonResult;
+import com.wx.renewableCalculator.backend.dto.SystemSizingRequest;
+import com.wx.renewableCalculator.backend.dto.SystemSizingResult;
+import com.wx.renewableCalculator.backend.service.EquipmentCatalogService;
 import com.wx.renewableCalculator.backend.service.EquipmentComparisonService;
+import com.wx.renewableCalculator.backend.service.SystemSizingService;
 import com.wx.renewableCalculator.backend.entity.*;
-import com.wx.renewableCalculator.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,13 +24,10 @@ public class EquipmentComparisonController {
     private EquipmentComparisonService equipmentComparisonService;
     
     @Autowired
-    private SolarPanelTypeRepository solarPanelTypeRepository;
+    private EquipmentCatalogService equipmentCatalogService;
     
     @Autowired
-    private BatteryRepository batteryRepository;
-    
-    @Autowired
-    private HeatPumpRepository heatPumpRepository;
+    private SystemSizingService systemSizingService;
     
     /**
      * Compare selected equipment options with detailed annual and monthly analysis
@@ -56,16 +57,66 @@ public class EquipmentComparisonController {
         }
     }
     
+    /**
+     * Pareto-optimal configurations over installation cost, annual CO₂ savings and payback
+     * 
+     * @param request Selected categories, optional equipment ids per category (all catalog items when omitted)
+     *                and user property parameters
+     * @return Non-dominated configurations, cheapest first, with the cost-effective, eco-friendly and balanced ones marked
+     */
+    @PostMapping("/frontier")
+    public ResponseEntity<ConfigurationFrontierResult> findConfigurationFrontier(
+            @RequestBody EquipmentComparisonRequest request) {
+        
+        try {
+            if (!Boolean.TRUE.equals(request.getHasSolarPanels()) && 
+                !Boolean.TRUE.equals(request.getHasHeatPump()) && 
+                !Boolean.TRUE.equals(request.getHasBattery())) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            return ResponseEntity.ok(equipmentComparisonService.findConfigurationFrontier(request));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Size a solar array (and optionally a battery) for maximum lifetime NPV or fastest payback
+     * 
+     * @param request Panel type, roof, household, prices, and optional budget and subsidy
+     * @return Best size for each panel count and the overall optimum
+     */
+    @PostMapping("/sizing")
+    public ResponseEntity<SystemSizingResult> optimiseSystemSize(@RequestBody SystemSizingRequest request) {
+        try {
+            return ResponseEntity.ok(systemSizingService.optimiseSize(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     /**
      * Get available solar panel types for selection
      * 
-     * @return List of all solar panel types in database
+     * @param sortBy Optional order: price (cheapest first), efficiency or capacity (highest first)
+     * @return List of all solar panel types in the equipment catalog
      */
     @GetMapping("/solar-panels/available")
-    public ResponseEntity<List<SolarPanelType>> getAvailableSolarPanels() {
+    public ResponseEntity<List<SolarPanelType>> getAvailableSolarPanels(@RequestParam(required = false) String sortBy) {
         try {
-            List<SolarPanelType> solarPanels = solarPanelTypeRepository.findAll();
+            EquipmentCatalogService.Catalog<SolarPanelType, ?> catalog = equipmentCatalogService.getSolarPanelCatalog();
+            List<SolarPanelType> solarPanels = sortBy != null
+                ? catalog.sortedBy(EquipmentCatalogService.SortKey.fromParameter(sortBy))
+                : catalog.getAll();
             return ResponseEntity.ok(solarPanels);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -74,13 +125,19 @@ public class EquipmentComparisonController {
     /**
      * Get available heat pump types for selection
      * 
-     * @return List of all heat pump types in database
+     * @param sortBy Optional order: price (cheapest first) or efficiency (highest COP first)
+     * @return List of all heat pump types in the equipment catalog
      */
     @GetMapping("/heat-pumps/available")
-    public ResponseEntity<List<HeatPump>> getAvailableHeatPumps() {
+    public ResponseEntity<List<HeatPump>> getAvailableHeatPumps(@RequestParam(required = false) String sortBy) {
         try {
-            List<HeatPump> heatPumps = heatPumpRepository.findAll();
+            EquipmentCatalogService.Catalog<HeatPump, ?> catalog = equipmentCatalogService.getHeatPumpCatalog();
+            List<HeatPump> heatPumps = sortBy != null
+                ? catalog.sortedBy(EquipmentCatalogService.SortKey.fromParameter(sortBy))
+                : catalog.getAll();
             return ResponseEntity.ok(heatPumps);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -89,13 +146,19 @@ public class EquipmentComparisonController {
     /**
      * Get available battery types for selection
      * 
-     * @return List of all battery types in database
+     * @param sortBy Optional order: price (cheapest first), efficiency or capacity (highest first)
+     * @return List of all battery types in the equipment catalog
      */
     @GetMapping("/batteries/available")
-    public ResponseEntity<List<Battery>> getAvailableBatteries() {
+    public ResponseEntity<List<Battery>> getAvailableBatteries(@RequestParam(required = false) String sortBy) {
         try {
-            List<Battery> batteries = batteryRepository.findAll();
+            EquipmentCatalogService.Catalog<Battery, ?> catalog = equipmentCatalogService.getBatteryCatalog();
+            List<Battery> batteries = sortBy != null
+                ? catalog.sortedBy(EquipmentCatalogService.SortKey.fromParameter(sortBy))
+                : catalog.getAll();
             return ResponseEntity.ok(batteries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -175,25 +238,25 @@ public class EquipmentComparisonController {
     
     // Helper methods for recommendations
     private List<Long> getSolarRecommendations(Double roofArea) {
-        List<SolarPanelType> panels = solarPanelTypeRepository.findAll();
+        List<SolarPanelType> panels = equipmentCatalogService.getSolarPanelCatalog().sortedBy(EquipmentCatalogService.SortKey.EFFICIENCY);
         return panels.stream()
-                .filter(p -> p.getEfficiency() != null && p.getEfficiency() > 18) // High efficiency panels
+                .filter(p -> p.getEfficiency() != null && p.getEfficiency() > 18) // Most efficient panels first
                 .limit(3)
                 .map(SolarPanelType::getId)
                 .collect(java.util.stream.Collectors.toList());
     }
     
     private List<Long> getHeatPumpRecommendations(Double houseArea) {
-        List<HeatPump> heatPumps = heatPumpRepository.findAll();
+        List<HeatPump> heatPumps = equipmentCatalogService.getHeatPumpCatalog().sortedBy(EquipmentCatalogService.SortKey.EFFICIENCY);
         return heatPumps.stream()
-                .filter(hp -> hp.getCop() != null && hp.getCop().doubleValue() > 3.0) // High COP
+                .filter(hp -> hp.getCop() != null && hp.getCop().doubleValue() > 3.0) // Highest COP first
                 .limit(3)
                 .map(hp -> hp.getId().longValue())
                 .collect(java.util.stream.Collectors.toList());
     }
     
     private List<Long> getBatteryRecommendations(Double annualElectricityUsage) {
-        List<Battery> batteries = batteryRepository.findAll();
+        List<Battery> batteries = equipmentCatalogService.getBatteryCatalog().getAll();
         double dailyUsage = annualElectricityUsage / 365.0;
         return batteries.stream()
                 .filter(b -> b.getCapacityKwh() != null && 
@@ -0,0 +1,65 @@
+package com.wx.renewableCalculator.backend.controller;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowResult;
+import com.wx.renewableCalculator.backend.dto.SensitivityRequest;
+import com.wx.renewableCalculator.backend.dto.SensitivityResult;
+import com.wx.renewableCalculator.backend.service.LifetimeCashFlowService;
+import com.wx.renewableCalculator.backend.service.SensitivityAnalysisService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/financial")
+@CrossOrigin(origins = "http://localhost:3000")
+public class FinancialAnalysisController {
+    
+    @Autowired
+    private LifetimeCashFlowService lifetimeCashFlowService;
+    
+    @Autowired
+    private SensitivityAnalysisService sensitivityAnalysisService;
+    
+    /**
+     * Project yearly cash flows over the equipment lifetime
+     * 
+     * CFt = S1 × (1 - d)^(t-1) × (1 + e)^(t-1) + X1 × (1 - d)^(t-1) × (1 + x)^(t-1) - maintenance - replacements
+     * NPV = ∑ CFt / (1 + r)^t, IRR solves NPV = 0
+     * 
+     * @param request Installation cost, first-year savings and lifetime assumptions
+     * @return NPV, IRR, simple and discounted payback with the yearly cash flows
+     */
+    @PostMapping("/lifetime-cash-flow")
+    public ResponseEntity<LifetimeCashFlowResult> calculateLifetimeCashFlow(@RequestBody LifetimeCashFlowRequest request) {
+        try {
+            LifetimeCashFlowResult result = lifetimeCashFlowService.toResult(lifetimeCashFlowService.project(request));
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Tornado analysis: move each input down and up by the variation and rank inputs by the swing
+     * of payback (default), NPV or first-year savings
+     * 
+     * @param request Base system, household and prices with the variation to apply
+     * @return Base outcome and the ranked low/high outcomes per input
+     */
+    @PostMapping("/sensitivity")
+    public ResponseEntity<SensitivityResult> analyseSensitivity(@RequestBody SensitivityRequest request) {
+        try {
+            SensitivityResult result = sensitivityAnalysisService.analyse(request);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.wx.renewableCalculator.backend.controller;
 
 import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
 import com.wx.renewableCalculator.backend.dto.GasDemandResult;
+import com.wx.renewableCalculator.backend.dto.MeterUploadResult;
 import com.wx.renewableCalculator.backend.service.GasDemandService;
+import com.wx.renewableCalculator.backend.service.SmartMeterImportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
 
@@ -17,6 +20,9 @@ public class GasDemandController {
     @Autowired
     private GasDemandService gasDemandService;
 
+    @Autowired
+    private SmartMeterImportService smartMeterImportService;
+
     /**
      * Calculate monthly gas demand
      * POST /api/gas-demand/calculate
@@ -60,4 +66,26 @@ public class GasDemandController {
             "message", isValid ? "Monthly gas usage input is valid" : "Monthly gas usage input is invalid or incomplete"
         ));
     }
+
+    /**
+     * Upload a smart-meter gas export (CSV, kWh or m3) and calculate demand from it
+     * POST /api/gas-demand/upload
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<MeterUploadResult> uploadMeterData(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "unit", required = false) String unit) {
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            MeterUploadResult result = smartMeterImportService.importGas(file.getInputStream(), unit);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 } 
\ No newline at end of file
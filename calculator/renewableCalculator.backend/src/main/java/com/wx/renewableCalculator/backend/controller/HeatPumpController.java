@@ -2,6 +2,7 @@ package com.wx.renewableCalculator.backend.controller;
 
 import com.wx.renewableCalculator.backend.entity.HeatPump;
 import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.service.EquipmentCatalogService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -11,18 +12,22 @@ import java.util.List;
 public class HeatPumpController {
 
     private final HeatPumpRepository heatPumpRepository;
+    private final EquipmentCatalogService equipmentCatalogService;
 
-    public HeatPumpController(HeatPumpRepository heatPumpRepository) {
+    public HeatPumpController(HeatPumpRepository heatPumpRepository, EquipmentCatalogService equipmentCatalogService) {
         this.heatPumpRepository = heatPumpRepository;
+        this.equipmentCatalogService = equipmentCatalogService;
     }
 
     @GetMapping
     public List<HeatPump> getAllHeatPumps() {
-        return heatPumpRepository.findAll();
+        return equipmentCatalogService.getHeatPumpCatalog().getAll();
     }
 
     @PostMapping
     public HeatPump addHeatPump(@RequestBody HeatPump pump) {
-        return heatPumpRepository.save(pump);
+        HeatPump saved = heatPumpRepository.save(pump);
+        equipmentCatalogService.refresh();
+        return saved;
     }
 }
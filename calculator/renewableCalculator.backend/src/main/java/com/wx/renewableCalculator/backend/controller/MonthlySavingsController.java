@@ -1,7 +1,12 @@
 package com.wx.renewableCalculator.backend.controller;
 
+import com.wx.renewableCalculator.backend.dto.AnnualSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.AnnualSavingsResult;
+import com.wx.renewableCalculator.backend.dto.MonteCarloRequest;
+import com.wx.renewableCalculator.backend.dto.MonteCarloResult;
 import com.wx.renewableCalculator.backend.dto.MonthlySavingsRequest;
 import com.wx.renewableCalculator.backend.dto.MonthlySavingsResult;
+import com.wx.renewableCalculator.backend.service.MonteCarloSavingsService;
 import com.wx.renewableCalculator.backend.service.MonthlySavingsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +20,9 @@ public class MonthlySavingsController {
     @Autowired
     private MonthlySavingsService monthlySavingsService;
     
+    @Autowired
+    private MonteCarloSavingsService monteCarloSavingsService;
+    
     /**
      * Calculate monthly savings for renewable energy systems
      * 
@@ -89,4 +97,49 @@ public class MonthlySavingsController {
             return ResponseEntity.internalServerError().build();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Monte Carlo ranges for savings, NPV, payback and carbon
+     * Samples solar yield and energy price each year, occupancy and heat pump COP per household.
+     * 
+     * @param request Expected household figures, prices, investment and uncertainty
+     * @return P10/P50/P90 and mean of each output
+     */
+    @PostMapping("/monte-carlo")
+    public ResponseEntity<MonteCarloResult> simulateSavingsUncertainty(@RequestBody MonteCarloRequest request) {
+        try {
+            MonteCarloResult result = monteCarloSavingsService.simulate(request);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Calculate savings for all twelve months in one call
+     * 
+     * Same formula as /monthly for each month: Stm = Ssolar,m + Sheat pump,m + Sbattery,m + Ssupport,m
+     * 
+     * @param request Equipment selection with 12-element monthly generation, usage and gas arrays
+     * @return 12-element savings arrays plus annual totals
+     */
+    @PostMapping("/annual")
+    public ResponseEntity<AnnualSavingsResult> calculateAnnualSavings(@RequestBody AnnualSavingsRequest request) {
+        try {
+            if (request.getElectricityUsageKwh() == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            AnnualSavingsResult result = monthlySavingsService.calculateAnnualSavings(request);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
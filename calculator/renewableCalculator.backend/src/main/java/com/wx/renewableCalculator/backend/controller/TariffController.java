@@ -1,20 +1,33 @@
 package com.wx.renewableCalculator.backend.controller;
 
 
+import com.wx.renewableCalculator.backend.dto.TariffComparisonRequest;
+import com.wx.renewableCalculator.backend.dto.TariffComparisonResult;
 import com.wx.renewableCalculator.backend.entity.Tariff;
 import com.wx.renewableCalculator.backend.repository.TariffRepository;
+import com.wx.renewableCalculator.backend.service.TariffComparisonService;
+import com.wx.renewableCalculator.backend.service.TariffScheduleService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tariffs")
 public class TariffController {
 
     private final TariffRepository tariffRepository;
+    private final TariffScheduleService tariffScheduleService;
+    private final TariffComparisonService tariffComparisonService;
 
-    public TariffController(TariffRepository tariffRepository) {
+    public TariffController(TariffRepository tariffRepository, TariffScheduleService tariffScheduleService,
+                            TariffComparisonService tariffComparisonService) {
         this.tariffRepository = tariffRepository;
+        this.tariffScheduleService = tariffScheduleService;
+        this.tariffComparisonService = tariffComparisonService;
     }
 
     @GetMapping
@@ -24,6 +37,50 @@ public class TariffController {
 
     @PostMapping
     public Tariff addTariff(@RequestBody Tariff tariff) {
-        return tariffRepository.save(tariff);
+        Tariff saved = tariffRepository.save(tariff);
+        tariffScheduleService.evict(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Upload dynamic half-hourly prices (CSV of timestamp, price in pence/kWh)
+     * POST /api/tariffs/{id}/prices
+     */
+    @PostMapping("/{id}/prices")
+    public ResponseEntity<Map<String, Object>> uploadPrices(
+            @PathVariable Integer id,
+            @RequestParam("file") MultipartFile file) {
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            int priced = tariffScheduleService.importDynamicPrices(id, file.getInputStream());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("tariffId", id);
+            response.put("pricedHalfHours", priced);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Rank every electricity tariff by annual cost for a household profile
+     * POST /api/tariffs/compare
+     */
+    @PostMapping("/compare")
+    public ResponseEntity<TariffComparisonResult> compareTariffs(@RequestBody TariffComparisonRequest request) {
+        try {
+            TariffComparisonResult result = tariffComparisonService.compareTariffs(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
     }
 }
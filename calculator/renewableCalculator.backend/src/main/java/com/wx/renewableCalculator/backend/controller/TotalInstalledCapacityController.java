@@ -1,5 +1,7 @@
 package com.wx.renewableCalculator.backend.controller;
 
+import com.wx.renewableCalculator.backend.dto.PanelSweepRequest;
+import com.wx.renewableCalculator.backend.dto.PanelSweepResult;
 import com.wx.renewableCalculator.backend.dto.TotalInstalledCapacityRequest;
 import com.wx.renewableCalculator.backend.dto.TotalInstalledCapacityResult;
 import com.wx.renewableCalculator.backend.entity.SolarPanelType;
@@ -30,10 +32,31 @@ public class TotalInstalledCapacityController {
     public ResponseEntity<TotalInstalledCapacityResult> calculateTotalInstalledCapacity(
             @RequestBody TotalInstalledCapacityRequest request) {
         
-        TotalInstalledCapacityResult result = totalInstalledCapacityService
-                .calculateTotalInstalledCapacity(request);
-        
-        return ResponseEntity.ok(result);
+        try {
+            TotalInstalledCapacityResult result = totalInstalledCapacityService
+                    .calculateTotalInstalledCapacity(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Evaluate every solar panel type for one roof and location, sorted
+     * POST /api/solar-capacity/sweep
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<PanelSweepResult> sweepPanelCatalog(@RequestBody PanelSweepRequest request) {
+        try {
+            PanelSweepResult result = totalInstalledCapacityService.sweepPanelCatalog(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
     }
 
     /**
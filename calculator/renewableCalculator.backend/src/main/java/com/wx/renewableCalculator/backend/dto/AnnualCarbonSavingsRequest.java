@@ -0,0 +1,33 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnualCarbonSavingsRequest {
+    
+    // Equipment selection flags
+    private Boolean hasSolarPanels;
+    private Boolean hasHeatPump;
+    private Boolean hasBattery;
+    
+    // Monthly values, January to December (12 elements each, kWh)
+    private double[] gasConsumptionKwh;           // Egas
+    private double[] totalElectricityDemandKwh;   // Etotal before upgrade
+    private double[] solarSelfConsumedKwh;        // Esolar,cm (derived from the hourly balance if null)
+    private double[] solarGenerationKwh;
+    private double[] heatPumpElectricitySavedKwh; // Eheat_pump
+    private double[] hotWaterHeatPumpUsageKwh;    // Dhot_water
+    private double[] heatingHeatPumpUsageKwh;     // Dheating,m
+    
+    private Double homeOccupancyFactor;           // s: 0=away, 0.5=half day, 1=most day
+    private Double latitude;                      // For the hourly solar shape (London if null)
+    
+    // Optional: specific emission factors (use defaults if not provided)
+    private Double gasEmissionFactor;             // Default: 0.183 kgCO₂/kWh
+    private Double electricityEmissionFactor;     // Default: 0.148 kgCO₂/kWh
+    private String carbonIntensityRegion;         // Half-hourly grid intensity region, used when no factor is given
+}
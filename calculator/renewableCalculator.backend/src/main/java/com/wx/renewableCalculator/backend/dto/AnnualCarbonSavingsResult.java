@@ -0,0 +1,35 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnualCarbonSavingsResult {
+    
+    // Monthly values, January to December (kgCO₂ unless stated)
+    private double[] totalCarbonSavingsKgCO2;
+    private double[] directEmissionsSavingsKgCO2;   // CSdirect,save
+    private double[] indirectEmissionsBeforeKgCO2;  // CSbefore
+    private double[] indirectEmissionsAfterKgCO2;   // CSindirect,after
+    private double[] indirectEmissionsSavingsKgCO2; // Before - After + export credit
+    private double[] solarExportDisplacedKgCO2;     // Regional intensity only
+    private double[] solarSelfConsumedKwh;
+    private double[] totalElectricityAfterKwh;
+    private double[] electricityEmissionFactor;     // kgCO₂/kWh (load-weighted per month when regional)
+    
+    // Annual totals
+    private Double annualCarbonSavingsKgCO2;
+    private Double annualDirectEmissionsSavingsKgCO2;
+    private Double annualIndirectEmissionsSavingsKgCO2;
+    private Double carbonReductionPercentage;       // Annual reduction as percentage
+    
+    // Equipment status and parameters used
+    private Boolean hasSolarPanels;
+    private Boolean hasHeatPump;
+    private Boolean hasBattery;
+    private Double gasEmissionFactor;
+    private String carbonIntensityRegion;
+}
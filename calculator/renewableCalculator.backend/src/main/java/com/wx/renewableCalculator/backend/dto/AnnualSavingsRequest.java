@@ -0,0 +1,46 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnualSavingsRequest {
+    
+    // Equipment selection flags
+    private Boolean hasSolarPanels;
+    private Boolean hasHeatPump;
+    private Boolean hasBattery;
+    private Boolean hasSupportEquipment;
+    
+    // Monthly values, January to December (12 elements each)
+    private double[] solarGenerationKwh;      // Solar generation per month
+    private double[] electricityUsageKwh;     // Electricity consumption per month
+    private double[] gasConsumptionKwh;       // Gas consumption to replace per month
+    
+    // Rates (pence/kWh)
+    private Double electricityRate;
+    private Double exportRate;
+    private Integer tariffId;                 // Import tariff schedule, overrides the electricity rates
+    private Double gasRate;
+    private Double peakElectricityRate;
+    private Double offPeakElectricityRate;
+    
+    // Self-consumption parameters
+    private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
+    private Double selfConsumptionRate;       // Optional SCR override (0-1), skips the hourly balance
+    private Double latitude;                  // For the hourly solar shape (London if null)
+    
+    // Heat pump parameters
+    private Double heatPumpCop;               // Heat pump COP
+    
+    // Battery parameters
+    private Double batteryCapacityKwh;
+    private Double batteryMaxPowerKw;         // Charge/discharge limit (default 0.5 × capacity)
+    private Double batteryRoundTripEfficiency; // 0-1 (default 0.9)
+    
+    // Support equipment
+    private Double supportEquipmentSavings;   // Additional savings per month
+}
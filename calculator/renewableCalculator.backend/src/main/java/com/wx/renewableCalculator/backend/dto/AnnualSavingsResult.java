@@ -0,0 +1,40 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnualSavingsResult {
+    
+    // Monthly values, January to December (pence unless stated)
+    private double[] totalMonthlySavings;     // Stm
+    private double[] solarSavings;            // Ssolar,m
+    private double[] heatPumpSavings;         // Sheat pump,m
+    private double[] batterySavings;          // Sbattery,m
+    private double[] supportEquipmentSavings; // Ssupport,m
+    private double[] selfConsumptionRate;     // SCRm (%)
+    private double[] solarSelfConsumedKwh;
+    private double[] solarExportedKwh;
+    private double[] gasReplacedKwh;
+    private double[] heatPumpElectricityUsedKwh;
+    private double[] batteryStoredEnergyKwh;  // Energy delivered from battery
+    
+    // Annual totals
+    private Double totalAnnualSavings;
+    private Double annualSolarSavings;
+    private Double annualHeatPumpSavings;
+    private Double annualBatterySavings;
+    private Double annualSupportEquipmentSavings;
+    private Double annualSelfConsumptionRate; // %
+    private Double batteryEquivalentCycles;   // Full cycles in the year
+    
+    // Equipment status
+    private Boolean hasSolarPanels;
+    private Boolean hasHeatPump;
+    private Boolean hasBattery;
+    private Boolean hasSupportEquipment;
+    private Double homeOccupancyFactor;
+}
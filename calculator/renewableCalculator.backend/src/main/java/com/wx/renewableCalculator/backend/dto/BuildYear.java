@@ -0,0 +1,54 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Build year band for the heat-loss model
+ * Unknown or missing codes resolve to FROM_1981_TO_2002 (the calculator default)
+ */
+public enum BuildYear {
+    BEFORE_1930("before-1930", 0.9),
+    FROM_1930_TO_1980("1930-1980", 0.7),
+    FROM_1981_TO_2002("1981-2002", 0.55),
+    AFTER_2003("after-2003", 0.45);
+
+    private static final BuildYear DEFAULT = FROM_1981_TO_2002;
+
+    private final String code;
+    private final double airChangeRate;  // Air change rate (h⁻¹)
+
+    BuildYear(String code, double airChangeRate) {
+        this.code = code;
+        this.airChangeRate = airChangeRate;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getAirChangeRate() {
+        return airChangeRate;
+    }
+
+    @JsonCreator
+    public static BuildYear fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (BuildYear value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static BuildYear orDefault(BuildYear value) {
+        return value != null ? value : DEFAULT;
+    }
+}
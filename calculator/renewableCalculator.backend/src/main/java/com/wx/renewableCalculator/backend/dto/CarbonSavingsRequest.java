@@ -22,6 +22,9 @@ public class CarbonSavingsRequest {
     
     // Solar energy parameters
     private Double solarSelfConsumedKwh;        // Esolar,cm - Solar self-consumed energy (kWh)
+    private Double solarGenerationKwh;          // Used to derive Esolar,cm from the hourly balance when it is not given
+    private Double homeOccupancyFactor;         // s: 0=away, 0.5=half day, 1=most day
+    private Double latitude;                    // For the hourly solar shape (London if null)
     
     // Heat pump parameters
     private Double heatPumpElectricitySavedKwh; // Eheat_pump - Electricity saved by heat pump (kWh)
@@ -34,4 +37,5 @@ public class CarbonSavingsRequest {
     // Optional: specific emission factors (use defaults if not provided)
     private Double gasEmissionFactor;           // Default: 0.183 kgCO₂/kWh
     private Double electricityEmissionFactor;   // Default: 0.148 kgCO₂/kWh
+    private String carbonIntensityRegion;       // Half-hourly grid intensity region, used when no factor is given
 } 
\ No newline at end of file
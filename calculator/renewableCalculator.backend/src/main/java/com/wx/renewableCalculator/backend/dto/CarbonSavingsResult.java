@@ -25,7 +25,8 @@ public class CarbonSavingsResult {
     private Double totalElectricityAfterKwh;     // Total electricity demand after upgrade
     
     // Indirect emissions savings
-    private Double indirectEmissionsSavingsKgCO2; // Before - After
+    private Double indirectEmissionsSavingsKgCO2; // Before - After + export credit
+    private Double solarExportDisplacedKgCO2;    // Grid generation displaced by exported solar (regional intensity only)
     
     // Breakdown of electricity changes
     private Double solarSelfConsumedKwh;         // Solar energy self-consumed
@@ -41,7 +42,8 @@ public class CarbonSavingsResult {
     // Calculation parameters used
     private Integer month;
     private Double gasEmissionFactor;            // kgCO₂/kWh for gas
-    private Double electricityEmissionFactor;    // kgCO₂/kWh for electricity
+    private Double electricityEmissionFactor;    // kgCO₂/kWh for electricity (load-weighted when regional)
+    private String carbonIntensityRegion;        // Region of the half-hourly intensity used, if any
     
     // Percentage reduction
     private Double carbonReductionPercentage;    // Total carbon reduction as percentage
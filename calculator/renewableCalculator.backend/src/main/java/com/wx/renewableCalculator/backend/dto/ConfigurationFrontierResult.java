@@ -0,0 +1,35 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationFrontierResult {
+    
+    private Long candidateCount;              // Configurations considered (one option per selected category)
+    private List<Configuration> frontier;     // Pareto-optimal configurations, cheapest first
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Configuration {
+        private Long solarPanelTypeId;        // null when solar is not selected
+        private String solarPanelName;
+        private Long heatPumpTypeId;
+        private String heatPumpName;
+        private Long batteryId;
+        private String batteryName;
+        
+        private Double installationCost;      // £
+        private Double annualSavings;         // £
+        private Double annualCO2Savings;      // kg
+        private Double paybackYears;          // Installation cost / annual savings (null if no savings)
+        
+        private List<String> archetypes;      // "Most Cost-Effective", "Most Eco-Friendly", "Balanced Option"
+    }
+}
@@ -24,6 +24,7 @@ public class EquipmentComparisonRequest {
     private Double houseArea;                // m²
     private Integer occupants;
     private Double roofArea;                 // Total roof area for solar installation
+    private Boolean optimiseSolarSize;       // Size each array for maximum lifetime NPV instead of filling the roof
     private Double latitude;
     private Double longitude;
     
@@ -39,6 +40,13 @@ public class EquipmentComparisonRequest {
     private Double exportRate;             // pence/kWh for solar export
     private Double peakElectricityRate;    // For battery calculations
     private Double offPeakElectricityRate;
+    private Integer tariffId;              // Import tariff schedule, overrides the electricity rates
+    private String carbonIntensityRegion;  // Half-hourly grid carbon intensity region
+    
+    // Lifetime financial assumptions (fractions per year, defaults in LifetimeCashFlowService)
+    private Double discountRate;
+    private Double energyPriceEscalation;
+    private Double inflationRate;
     
     // Installation factors
     private Double solarInstallationComplexity; // 1.0 = standard, 1.5 = complex
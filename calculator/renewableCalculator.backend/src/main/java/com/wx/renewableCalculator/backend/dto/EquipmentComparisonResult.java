@@ -49,8 +49,13 @@ public class EquipmentComparisonResult {
         private List<Double> monthlyIndirectCO2Savings; // 12 months of indirect CO2 savings
         
         // Performance metrics
-        private Double paybackPeriodYears;   // Simple payback period
+        private Double paybackPeriodYears;   // Simple payback period from the lifetime cash flows
         private Double roi10Years;           // 10-year ROI percentage
+        private Double netPresentValue;      // Lifetime NPV (£)
+        private Double internalRateOfReturn; // IRR (% per year, null if undefined)
+        private Double discountedPaybackYears; // null if not recovered within the lifetime
+        private Double lifetimeNetSavings;   // Undiscounted lifetime cash flow after installation (£)
+        private Integer lifetimeYears;       // Analysis period for the lifetime figures
         private Double efficiency;           // Equipment efficiency (%)
         
         // Installation details
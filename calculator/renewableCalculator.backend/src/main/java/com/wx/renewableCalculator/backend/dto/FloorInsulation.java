@@ -0,0 +1,53 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Floor insulation for the heat-loss model
+ * Unknown or missing codes resolve to NO (the calculator default)
+ */
+public enum FloorInsulation {
+    YES("yes", 0.13),  // With insulation
+    NO("no", 0.6),  // Without insulation
+    MODERN("modern", 0.18);  // Modern
+
+    private static final FloorInsulation DEFAULT = NO;
+
+    private final String code;
+    private final double uValue;  // U-value (W/m²·K)
+
+    FloorInsulation(String code, double uValue) {
+        this.code = code;
+        this.uValue = uValue;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getUValue() {
+        return uValue;
+    }
+
+    @JsonCreator
+    public static FloorInsulation fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (FloorInsulation value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static FloorInsulation orDefault(FloorInsulation value) {
+        return value != null ? value : DEFAULT;
+    }
+}
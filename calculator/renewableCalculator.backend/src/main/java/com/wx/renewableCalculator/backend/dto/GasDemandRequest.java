@@ -22,12 +22,12 @@ public class GasDemandRequest {
     
     // Space heating calculation parameters
     private Double houseArea;     // House area in m²
-    private String buildYear;     // e.g., "before-1930", "1930-1980", "1981-2002", "after-2003"
-    private String wallType;      // e.g., "brick", "cavity", "stone", "modern"
-    private String windowType;    // e.g., "single", "double", "triple", "terraced"
-    private String roofInsulation; // e.g., "yes", "no"
-    private String floorInsulation; // e.g., "yes", "no"
-    private String houseType;     // e.g., "semi-detached", "detached"
+    private BuildYear buildYear;     // e.g., "before-1930", "1930-1980", "1981-2002", "after-2003"
+    private WallType wallType;      // e.g., "brick", "cavity", "stone", "modern"
+    private WindowType windowType;    // e.g., "single", "double", "triple", "terraced"
+    private RoofInsulation roofInsulation; // e.g., "yes", "no"
+    private FloorInsulation floorInsulation; // e.g., "yes", "no"
+    private HouseType houseType;     // e.g., "semi-detached", "detached"
     private String epcRating;     // e.g., "A", "B", "C", "D", "E", "F", "G"
 
     // Location information (may affect demand patterns)
@@ -0,0 +1,54 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * House type for the heat-loss model
+ * Unknown or missing codes resolve to SEMI_DETACHED (the calculator default)
+ */
+public enum HouseType {
+    DETACHED("detached", 1.0),
+    SEMI_DETACHED("semi-detached", 0.85),
+    END_TERRACED("end-terraced", 0.8),
+    TERRACED("terraced", 0.7);
+
+    private static final HouseType DEFAULT = SEMI_DETACHED;
+
+    private final String code;
+    private final double shapeFactor;  // Shape factor (φshape)
+
+    HouseType(String code, double shapeFactor) {
+        this.code = code;
+        this.shapeFactor = shapeFactor;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getShapeFactor() {
+        return shapeFactor;
+    }
+
+    @JsonCreator
+    public static HouseType fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (HouseType value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static HouseType orDefault(HouseType value) {
+        return value != null ? value : DEFAULT;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifetimeCarbonRequest {
+    
+    // First-year monthly values, January to December (12 elements each, kWh)
+    private double[] solarGenerationKwh;          // Grid electricity displaced by solar
+    private double[] heatPumpElectricityKwh;      // Grid electricity used by the heat pump
+    private double[] fuelReplacedKwh;             // Heating fuel no longer burnt
+    private String replacedFuelType;              // natural_gas (default), oil, lpg, coal
+    
+    private Integer startYear;                    // First year of operation (default: current year)
+    private Integer lifetimeYears;                // Default 25
+    private Double degradationRate;               // Solar output loss per year (default 0.005)
+    private List<String> trajectories;            // Grid scenarios to compare (default: all, plus current-grid)
+}
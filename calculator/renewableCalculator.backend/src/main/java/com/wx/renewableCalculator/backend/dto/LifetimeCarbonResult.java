@@ -0,0 +1,29 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifetimeCarbonResult {
+    
+    private Integer startYear;
+    private Integer lifetimeYears;
+    private List<TrajectoryProjection> projections; // One per grid scenario, in request order
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TrajectoryProjection {
+        private String trajectory;
+        private Double lifetimeCarbonSavingsKg;
+        private Double solarCarbonSavingsKg;      // Grid emissions displaced by solar
+        private Double heatPumpCarbonSavingsKg;   // Fuel emissions avoided - heat pump grid emissions
+        private Double averageGridIntensity;      // kgCO₂/kWh over the lifetime
+        private double[] yearlyCarbonSavingsKg;   // Year 1 to lifetime
+    }
+}
@@ -0,0 +1,38 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifetimeCashFlowRequest {
+    
+    private Double installationCost;          // Year 0 outlay (£)
+    private Double firstYearSavings;          // Bill savings in year 1 (£)
+    private Double firstYearExportRevenue;    // Export payments in year 1 (£)
+    private Integer lifetimeYears;            // Analysis period (default 25)
+    
+    // Annual rates as fractions, e.g. 0.005 = 0.5%
+    private Double degradationRate;           // Output loss per year
+    private Double energyPriceEscalation;     // Import price growth (default 0.03)
+    private Double exportPriceEscalation;     // Export price growth (default 0)
+    private Double inflationRate;             // Growth of maintenance and replacement costs (default 0.02)
+    private Double discountRate;              // For NPV and discounted payback (default 0.035)
+    
+    private Double annualMaintenanceCost;     // Year 1 maintenance (£)
+    private List<ComponentReplacement> replacements = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ComponentReplacement {
+        private String component;             // e.g. "inverter"
+        private Integer intervalYears;        // Replaced every n years within the lifetime
+        private Double cost;                  // Today's cost (£), inflated to the replacement year
+    }
+}
@@ -0,0 +1,26 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifetimeCashFlowResult {
+    
+    private Double netPresentValue;           // £
+    private Double internalRateOfReturn;      // % per year (null if undefined)
+    private Double simplePaybackYears;        // null if the investment is never recovered
+    private Double discountedPaybackYears;    // null if never recovered after discounting
+    private Double lifetimeNetSavings;        // Undiscounted cash flows minus installation cost (£)
+    private Double lifetimeROI;               // Lifetime net savings / installation cost (%)
+    private Integer lifetimeYears;
+    
+    // Year 0 (installation) to the final year
+    private List<Double> yearlyCashFlows;     // £
+    private List<Double> cumulativeCashFlows; // £
+    private List<Double> discountedCumulativeCashFlows; // £
+}
@@ -0,0 +1,47 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Household load archetype for the half-hourly load profile library
+ * Unknown or missing codes resolve to STANDARD
+ */
+public enum LoadArchetype {
+    STANDARD("standard"),  // Gas or other non-electric heating
+    HEAT_PUMP("heat-pump"),  // Heat pump space heating
+    ELECTRIC_HEATING("electric-heating");  // Night storage / direct electric heating
+
+    private static final LoadArchetype DEFAULT = STANDARD;
+
+    private final String code;
+
+    LoadArchetype(String code) {
+        this.code = code;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    @JsonCreator
+    public static LoadArchetype fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (LoadArchetype value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the default
+     */
+    public static LoadArchetype orDefault(LoadArchetype value) {
+        return value != null ? value : DEFAULT;
+    }
+}
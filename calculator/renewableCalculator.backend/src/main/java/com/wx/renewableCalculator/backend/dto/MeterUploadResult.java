@@ -0,0 +1,29 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MeterUploadResult {
+
+    // Parsing summary
+    private Long rowsParsed;           // Readings used
+    private Long rowsSkipped;          // Rows or values that could not be parsed
+    private Integer readingsPerDay;    // Detected resolution (48 = half-hourly, 24 = hourly, 1 = daily)
+    private String firstReadingDate;   // yyyy-MM-dd
+    private String lastReadingDate;    // yyyy-MM-dd
+
+    // Months (1-12) without enough readings, filled from standard monthly proportions
+    private List<Integer> estimatedMonths;
+
+    // Average daily shape over the year (48 half-hours, sums to 1.0)
+    private double[] averageDayProfile;
+
+    // Consumption per half-hour of the reference year (17520 values, electricity only);
+    // can be sent as TariffComparisonRequest.halfHourlyImportKwh
+    private float[] halfHourlyConsumptionKwh;
+
+    // Demand calculated from the meter data (one of the two is set)
+    private ElectricityDemandResult electricityDemand;
+    private GasDemandResult gasDemand;
+}
@@ -0,0 +1,45 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonteCarloRequest {
+    
+    // Household and equipment (expected values)
+    private List<Double> monthlySolarGenerationKwh;  // 12 values, empty or null without solar
+    private List<Double> monthlyElectricityUsageKwh; // 12 values
+    private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
+    private Double latitude;                  // For the hourly solar shape (London if null)
+    private Boolean hasHeatPump;
+    private Double annualGasReplacedKwh;      // Gas demand replaced by the heat pump
+    private Double heatPumpCop;               // Expected seasonal COP (default 3.0)
+    
+    // Prices (pence/kWh)
+    private Double electricityRate;
+    private Double exportRate;
+    private Double gasRate;
+    
+    // Investment
+    private Double installationCost;          // £
+    private Integer lifetimeYears;            // Default 25
+    private Double degradationRate;           // Solar output loss per year (default 0.005)
+    private Double annualMaintenanceCost;     // £ per year at today's prices
+    private Double energyPriceEscalation;     // Expected yearly price growth (default 0.03)
+    private Double discountRate;              // Default 0.035
+    
+    // Uncertainty (standard deviations)
+    private Double irradianceVariability;     // Year-to-year solar yield, fraction of the mean (default 0.05)
+    private Double energyPriceVolatility;     // Yearly log price change (default 0.10)
+    private Double occupancyUncertainty;      // Absolute, on the occupancy factor (default 0.15)
+    private Double copUncertainty;            // Fraction of the expected COP (default 0.10)
+    
+    // Simulation
+    private Integer scenarios;                // Default 10000
+    private Long seed;                        // Fixed seed for reproducible runs
+}
@@ -0,0 +1,31 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonteCarloResult {
+    
+    private Integer scenarios;
+    private Double elapsedMillis;
+    
+    private Distribution firstYearSavings;    // £
+    private Distribution netPresentValue;     // £
+    private Distribution lifetimeNetSavings;  // £, undiscounted after installation
+    private Distribution paybackYears;        // Percentiles are null where payback is not reached
+    private Distribution annualCarbonSavedKg; // First year, kgCO₂
+    private Double probabilityOfPayback;      // % of scenarios paying back within the lifetime
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private Double p10;
+        private Double p50;
+        private Double p90;
+        private Double mean;                  // null if any scenario is unbounded
+    }
+}
@@ -2,6 +2,8 @@ package com.wx.renewableCalculator.backend.dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class MonthlyElectricityGenerationRequest {
     private Integer totalInstalledCapacity;  // Total Installed Capacity (kW)
@@ -9,4 +11,9 @@ public class MonthlyElectricityGenerationRequest {
     private Integer tiltAngle;  // Tilt angle in degrees
     private String orientation;  // Roof orientation (e.g., 's', 'sw', 'n')
     private String shadingLevel;  // Shading level (e.g., 'no-shading', 'light', etc.)
+    private Integer month;  // Month (1-12), selects the monthly horizon shading factor (optional)
+    private Double latitude;  // Site latitude in degrees (optional, used with horizon profile)
+    private List<Double> horizonProfile;  // Horizon elevation angles by azimuth bin clockwise from north (optional, overrides shadingLevel)
+    private Double inverterCapacityKw;  // Inverter AC rating in kW (optional, defaults to installed capacity)
+    private Double exportLimitKw;  // Export limit in kW, e.g. 3.68 under G98 (optional, no limit if null)
 } 
\ No newline at end of file
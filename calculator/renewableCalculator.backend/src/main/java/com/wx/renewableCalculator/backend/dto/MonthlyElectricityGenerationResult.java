@@ -10,4 +10,7 @@ public class MonthlyElectricityGenerationResult {
     private BigDecimal locationSpecificYieldPerMonth;  // Location Specific Yield Per Month used
     private BigDecimal tiltOrientationCorrectionFactor;  // Tilt and Orientation Correction Factor
     private BigDecimal shadingCorrectionFactor;  // Shading Correction Factor
+    private BigDecimal dcElectricityGeneration;  // DC generation before inverter clipping and export limit (kWh)
+    private BigDecimal clippedEnergy;  // Energy lost to inverter clipping (kWh)
+    private BigDecimal curtailedEnergy;  // Energy lost to the export limit (kWh)
 } 
\ No newline at end of file
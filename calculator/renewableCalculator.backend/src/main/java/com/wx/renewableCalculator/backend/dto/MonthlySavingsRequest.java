@@ -19,10 +19,13 @@ public class MonthlySavingsRequest {
     private Double solarGenerationKwh;        // Monthly solar generation
     private Double electricityRate;           // Electricity rate (pence/kWh)
     private Double exportRate;                // Export rate for excess electricity
+    private Integer tariffId;                 // Import tariff schedule, overrides the electricity rates
     
     // Self-consumption parameters
     private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
     private Double monthlyElectricityUsageKwh; // Monthly electricity consumption
+    private Double selfConsumptionRate;       // Optional SCR override (0-1), skips the hourly balance
+    private Double latitude;                  // For the hourly solar shape (London if null)
     
     // Heat pump parameters
     private Double gasConsumptionKwh;         // Monthly gas consumption to replace
@@ -31,6 +34,8 @@ public class MonthlySavingsRequest {
     
     // Battery parameters
     private Double batteryCapacityKwh;        // Battery capacity
+    private Double batteryMaxPowerKw;         // Charge/discharge limit (default 0.5 × capacity)
+    private Double batteryRoundTripEfficiency; // 0-1 (default 0.9)
     private Double peakElectricityRate;       // Peak rate (pence/kWh)
     private Double offPeakElectricityRate;    // Off-peak rate (pence/kWh)
     
@@ -31,8 +31,11 @@ public class MonthlySavingsResult {
     private Double netHeatPumpSavings;        // Net savings after electricity cost
     
     // Battery calculations
-    private Double batteryStoredEnergyKwh;    // Energy stored in battery
+    private Double batteryStoredEnergyKwh;    // Energy delivered from battery
     private Double peakShiftingSavings;       // Savings from peak shifting
+    private Double batterySolarChargedKwh;    // Solar surplus stored
+    private Double batteryGridChargedKwh;     // Off-peak grid energy stored
+    private Double batteryEquivalentCycles;   // Full cycles in the month
     
     // Equipment status
     private Boolean hasSolarPanels;
@@ -0,0 +1,46 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Daytime occupancy pattern for the half-hourly load profile library
+ * Unknown or missing codes resolve to OUT_DURING_DAY
+ */
+public enum OccupancyPattern {
+    OUT_DURING_DAY("out-during-day"),  // House empty on weekday daytimes
+    HOME_ALL_DAY("home-all-day");  // Someone at home most of the day
+
+    private static final OccupancyPattern DEFAULT = OUT_DURING_DAY;
+
+    private final String code;
+
+    OccupancyPattern(String code) {
+        this.code = code;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    @JsonCreator
+    public static OccupancyPattern fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (OccupancyPattern value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the default
+     */
+    public static OccupancyPattern orDefault(OccupancyPattern value) {
+        return value != null ? value : DEFAULT;
+    }
+}
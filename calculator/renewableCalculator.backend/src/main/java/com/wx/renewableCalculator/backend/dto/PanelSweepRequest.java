@@ -0,0 +1,24 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PanelSweepRequest {
+    private Double roofArea;  // Roof Area in square meters
+    private String utilisationLevel;  // Area Utilisation Factor level (e.g., 'minimal-obstacles')
+    private Double latitude;  // Site latitude (London used if null)
+    private Double longitude;  // Site longitude (London used if null)
+    private Integer tiltAngle;  // Tilt angle in degrees
+    private String orientation;  // Roof orientation (e.g., 's', 'sw', 'n')
+    private String shadingLevel;  // Shading level (e.g., 'no-shading', 'light', etc.)
+    private List<Double> horizonProfile;  // Horizon elevation angles by azimuth bin clockwise from north (optional, overrides shadingLevel)
+    private Double annualElectricityUsageKwh;  // Annual household usage for the hourly self-consumption balance (optional)
+    private Double homeOccupancyFactor;  // s: 0=away, 0.5=half day, 1=most day
+    private Boolean hasHeatPump;  // Use the heat pump load shape
+    private Double selfConsumptionRate;  // Share of generation used on site, 0-1 (overrides the hourly balance; 0.4 without usage)
+    private Double electricityRate;  // pence/kWh (default 24.5)
+    private Double exportRate;  // pence/kWh (default 15.0)
+    private String sortBy;  // payback (default), capacity, generation, cost, savings
+}
@@ -0,0 +1,27 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class PanelSweepResult {
+    private BigDecimal roofArea;  // Roof Area used in calculation
+    private BigDecimal areaUtilisationFactor;  // Area Utilisation Factor used
+    private BigDecimal annualSpecificYield;  // Annual yield per kWp after tilt and shading (kWh/kWp)
+    private String sortBy;  // Sort key applied to the options
+    private List<PanelOption> options;  // One entry per catalog panel, sorted
+
+    @Data
+    public static class PanelOption {
+        private Long solarPanelTypeId;
+        private String solarPanelName;
+        private String solarPanelManufacturer;
+        private Integer panelCount;  // Whole panels that fit the usable roof area
+        private BigDecimal totalInstalledCapacity;  // kW
+        private BigDecimal annualGeneration;  // kWh
+        private BigDecimal installationCost;  // £, panels plus average installation cost
+        private BigDecimal annualSavings;  // £, bill savings plus export income
+        private BigDecimal paybackPeriodYears;  // Simple payback (null if no savings)
+    }
+}
@@ -0,0 +1,52 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Roof insulation for the heat-loss model
+ * Unknown or missing codes resolve to NO (the calculator default)
+ */
+public enum RoofInsulation {
+    YES("yes", 0.2),  // With insulation
+    NO("no", 0.6);  // Without insulation
+
+    private static final RoofInsulation DEFAULT = NO;
+
+    private final String code;
+    private final double uValue;  // U-value (W/m²·K)
+
+    RoofInsulation(String code, double uValue) {
+        this.code = code;
+        this.uValue = uValue;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getUValue() {
+        return uValue;
+    }
+
+    @JsonCreator
+    public static RoofInsulation fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (RoofInsulation value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static RoofInsulation orDefault(RoofInsulation value) {
+        return value != null ? value : DEFAULT;
+    }
+}
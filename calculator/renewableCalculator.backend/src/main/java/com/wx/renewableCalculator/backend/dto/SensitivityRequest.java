@@ -0,0 +1,41 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensitivityRequest {
+    
+    // Solar system and site
+    private Double latitude;                  // London if null
+    private Double longitude;
+    private Double capacityKw;                // Installed solar capacity, 0 or null without solar
+    private Integer tiltAngle;                // Degrees (default 30)
+    private String orientation;               // Roof orientation (e.g., 's', 'sw', 'n')
+    private String shadingLevel;              // Shading level (e.g., 'no-shading', 'light', etc.)
+    
+    // Household
+    private List<Double> monthlyElectricityUsageKwh; // 12 values
+    private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
+    private Boolean hasHeatPump;
+    private Double annualGasReplacedKwh;      // Gas demand replaced by the heat pump
+    private Double heatPumpCop;               // Default 3.0
+    
+    // Prices (pence/kWh) and investment
+    private Double electricityRate;
+    private Double exportRate;
+    private Double gasRate;
+    private Double installationCost;          // £, average solar installation cost for the capacity if null
+    private Double discountRate;              // Lifetime assumptions, defaults in LifetimeCashFlowService
+    private Double energyPriceEscalation;
+    
+    // Perturbation
+    private Double variation;                 // Relative change up and down (default 0.2 = ±20%), absolute for occupancy
+    private Integer tiltStep;                 // Degrees up and down (default 10)
+    private String rankBy;                    // payback (default), npv, savings
+}
@@ -0,0 +1,45 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensitivityResult {
+    
+    private String rankBy;
+    private Double variation;
+    private Outcome base;
+    private List<InputSensitivity> inputs;    // Largest swing first
+    private Integer scenarios;                // Base plus two per input
+    private Double elapsedMillis;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+        private Double annualSavings;         // First year (£)
+        private Double paybackYears;          // null if not reached within the lifetime
+        private Double netPresentValue;       // £
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InputSensitivity {
+        private Integer rank;
+        private String input;                 // electricityRate, exportRate, tiltAngle, homeOccupancyFactor, ...
+        private Double baseValue;
+        private Double lowValue;
+        private Double highValue;
+        private Outcome low;
+        private Outcome high;
+        private Double deltaLow;              // Ranked metric at the low value minus the base
+        private Double deltaHigh;
+        private Double swing;                 // |deltaHigh - deltaLow|
+    }
+}
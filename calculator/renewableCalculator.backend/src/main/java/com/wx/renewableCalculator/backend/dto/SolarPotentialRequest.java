@@ -2,6 +2,8 @@ package com.wx.renewableCalculator.backend.dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class SolarPotentialRequest {
     private Double roofSize;           // Roof area in m²
@@ -9,4 +11,6 @@ public class SolarPotentialRequest {
     private String utilisationLevel;   // Utilisation level code (minimal-obstacles, slightly-complex, etc.)
     private Integer tiltAngle;         // Roof tilt angle in degrees
     private String orientation;        // Roof orientation code (n, ne, e, se, s, sw, w, nw, etc.)
+    private Double latitude;           // Site latitude in degrees (optional, used with horizon profile)
+    private List<Double> horizonProfile; // Horizon elevation angles by azimuth bin clockwise from north (optional, overrides shadingLevel)
 } 
\ No newline at end of file
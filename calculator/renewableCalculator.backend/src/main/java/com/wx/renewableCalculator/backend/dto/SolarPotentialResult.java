@@ -2,6 +2,7 @@ package com.wx.renewableCalculator.backend.dto;
 
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Data
 public class SolarPotentialResult {
@@ -10,4 +11,5 @@ public class SolarPotentialResult {
     private BigDecimal utilisationFactor;   // Applied utilisation factor
     private BigDecimal tiltOrientationFactor; // Applied tilt and orientation factor
     private Integer solarPanelCount;        // Estimated number of solar panels that can be installed
+    private Map<Integer, BigDecimal> monthlyShadingFactors; // Month (1-12) -> shading factor from horizon profile (null if not provided)
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SystemSizingRequest {
+    
+    // Equipment to size
+    private Long solarPanelTypeId;            // Required
+    private Double roofArea;                  // m², bounds the panel count (default 30)
+    private Integer maxPanelCount;            // Optional cap below the roof maximum
+    private Boolean hasBattery;               // Also choose a battery (or none)
+    private List<Long> batteryIds;            // Batteries to consider (all catalog batteries if null)
+    private List<Double> monthlyYieldKwhPerKw; // 12 values, e.g. from the location yield (seasonal UK yield if null)
+    
+    // Search
+    private String objective;                 // "npv" (default) or "payback"
+    private Double budget;                    // Maximum net cost (£, optional)
+    private Double subsidyAmount;             // Grant deducted from the installation cost (£, optional)
+    
+    // Household
+    private Double annualElectricityUsageKwh;
+    private Double monthlyElectricityUsageKwh; // Used for every month instead of the annual usage
+    private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
+    private Double latitude;                  // For the hourly solar shape (London if null)
+    private Boolean hasHeatPump;              // Heat pump load archetype
+    
+    // Prices (pence/kWh)
+    private Double electricityRate;           // Default 24.5
+    private Double exportRate;                // Default 15.0
+    private Double peakElectricityRate;       // Battery time-of-use prices without a tariff
+    private Double offPeakElectricityRate;
+    private Integer tariffId;                 // Import tariff schedule, overrides the electricity rates
+    
+    // Lifetime cash flows
+    private Double discountRate;
+    private Double energyPriceEscalation;
+    private Double inflationRate;
+}
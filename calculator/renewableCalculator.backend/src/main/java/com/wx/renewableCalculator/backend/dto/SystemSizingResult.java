@@ -0,0 +1,40 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SystemSizingResult {
+    
+    private Long solarPanelTypeId;
+    private String solarPanelName;
+    private String objective;                 // "npv" or "payback"
+    private Integer maxPanelCount;            // Largest panel count searched
+    private SizingOption optimum;             // Best size within the budget (null if none fits)
+    private List<SizingOption> options;       // Best battery choice for each panel count within the budget
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SizingOption {
+        private Integer panelCount;
+        private Double systemCapacityKw;
+        private Long batteryId;               // null without a battery
+        private String batteryName;
+        private Double batteryCapacityKwh;
+        private Double installationCost;      // Panels, installation and battery (£)
+        private Double subsidy;               // £
+        private Double netCost;               // Installation cost less subsidy (£)
+        private Double annualGeneration;      // kWh
+        private Double annualSelfConsumed;    // kWh used on site without a battery
+        private Double selfConsumptionRate;   // Self-consumed / generation
+        private Double annualSavings;         // First-year bill savings and export income (£)
+        private Double netPresentValue;       // Lifetime NPV after subsidy (£)
+        private Double paybackYears;          // Simple payback (null if never recovered)
+    }
+}
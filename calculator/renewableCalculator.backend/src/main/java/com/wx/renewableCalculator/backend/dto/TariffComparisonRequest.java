@@ -0,0 +1,32 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffComparisonRequest {
+    
+    // Measured profile (takes precedence over the monthly inputs)
+    private float[] halfHourlyImportKwh;      // Grid import per half-hour (17520 values)
+    private float[] halfHourlyExportKwh;      // Grid export per half-hour (17520 values, optional)
+    
+    // Monthly inputs, spread over the hourly solar and load shapes
+    private Double annualElectricityUsageKwh;
+    private List<Double> monthlyElectricityUsageKwh;  // 12 values, overrides the annual usage
+    private List<Double> monthlySolarGenerationKwh;   // 12 values (no solar if empty)
+    private Double homeOccupancyFactor;       // s: 0=away, 0.5=half day, 1=most day
+    private Double latitude;
+    private Boolean hasHeatPump;
+    
+    // Battery, dispatched against each tariff's prices (monthly inputs only)
+    private Double batteryCapacityKwh;
+    private Double batteryMaxPowerKw;
+    private Double batteryRoundTripEfficiency;
+    
+    private Double exportRate;                // pence/kWh for solar export
+}
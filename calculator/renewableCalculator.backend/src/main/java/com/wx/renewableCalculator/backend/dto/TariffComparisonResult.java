@@ -0,0 +1,34 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffComparisonResult {
+    
+    private List<TariffCost> tariffs;         // Cheapest first
+    private Integer tariffsEvaluated;
+    private Double annualImportKwh;           // Without battery
+    private Double annualExportKwh;           // Without battery
+    private Long calculationTimeMicros;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TariffCost {
+        private Integer rank;
+        private Integer tariffId;
+        private String tariffName;
+        private Double annualImportCost;      // £
+        private Double annualExportRevenue;   // £
+        private Double annualNetCost;         // Import cost - export revenue (£)
+        private Double differenceFromCheapest; // £ per year
+        private Double averageImportPrice;    // pence/kWh paid on average
+        private List<Double> monthlyNetCost;  // £, January to December
+    }
+}
@@ -0,0 +1,58 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Wall construction type for the heat-loss model
+ * Unknown or missing codes resolve to CAVITY_UNINSULATED (the calculator default)
+ */
+public enum WallType {
+    BRICK("brick", 2.0),
+    CAVITY_UNINSULATED("cavity-uninsulated", 1.5),  // Cavity (has no insulation)
+    CAVITY_INSULATED("cavity-insulated", 0.5),  // Cavity (has insulation)
+    STONE("stone", 1.7),
+    MODERN("modern", 0.3);
+
+    private static final WallType DEFAULT = CAVITY_UNINSULATED;
+
+    private final String code;
+    private final double uValue;  // U-value (W/m²·K)
+
+    WallType(String code, double uValue) {
+        this.code = code;
+        this.uValue = uValue;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getUValue() {
+        return uValue;
+    }
+
+    @JsonCreator
+    public static WallType fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        if ("cavity".equals(code)) {
+            return CAVITY_UNINSULATED;  // Fallback for old data
+        }
+        for (WallType value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static WallType orDefault(WallType value) {
+        return value != null ? value : DEFAULT;
+    }
+}
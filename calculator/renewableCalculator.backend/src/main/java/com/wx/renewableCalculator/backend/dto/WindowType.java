@@ -0,0 +1,53 @@
+package com.wx.renewableCalculator.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Window glazing type for the heat-loss model
+ * Unknown or missing codes resolve to DOUBLE (the calculator default)
+ */
+public enum WindowType {
+    SINGLE("single", 5.0),
+    DOUBLE("double", 2.8),
+    TRIPLE("triple", 1.0);
+
+    private static final WindowType DEFAULT = DOUBLE;
+
+    private final String code;
+    private final double uValue;  // U-value (W/m²·K)
+
+    WindowType(String code, double uValue) {
+        this.code = code;
+        this.uValue = uValue;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public double getUValue() {
+        return uValue;
+    }
+
+    @JsonCreator
+    public static WindowType fromCode(String code) {
+        if (code == null) {
+            return DEFAULT;
+        }
+        for (WindowType value : values()) {
+            if (value.code.equals(code)) {
+                return value;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Resolve a possibly missing value to the calculator default
+     */
+    public static WindowType orDefault(WindowType value) {
+        return value != null ? value : DEFAULT;
+    }
+}
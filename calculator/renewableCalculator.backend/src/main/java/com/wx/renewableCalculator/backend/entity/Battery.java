@@ -18,5 +18,11 @@ public class Battery {
     @Column(name = "capacity_kwh")
     private BigDecimal capacityKwh;
 
+    @Column(name = "max_power_kw")
+    private BigDecimal maxPowerKw;          // Charge/discharge power limit (default 0.5 × capacity)
+
+    @Column(name = "round_trip_efficiency")
+    private BigDecimal roundTripEfficiency; // 0-1 (default 0.9)
+
     private BigDecimal cost;
 }
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "heat_pump")
@@ -18,4 +20,9 @@ public class HeatPump {
     private BigDecimal cop;
 
     private BigDecimal cost;
+
+    // COP vs outdoor and flow temperature; when empty the rated COP is used as the A7/W35 point
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "heat_pump_performance", joinColumns = @JoinColumn(name = "heat_pump_id"))
+    private List<HeatPumpPerformancePoint> performanceMap = new ArrayList<>();
 }
@@ -0,0 +1,28 @@
+package com.wx.renewableCalculator.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One measured point of a heat pump performance map (e.g. A2/W35 from the datasheet)
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatPumpPerformancePoint {
+
+    @Column(name = "outdoor_temperature", nullable = false)
+    private BigDecimal outdoorTemperature;  // Source (outdoor air) temperature in °C
+
+    @Column(name = "flow_temperature", nullable = false)
+    private BigDecimal flowTemperature;     // Sink (flow) temperature in °C
+
+    @Column(nullable = false)
+    private BigDecimal cop;                 // COP at this operating point
+}
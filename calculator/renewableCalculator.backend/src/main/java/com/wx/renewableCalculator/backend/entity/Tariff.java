@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "tariff")
@@ -19,7 +21,13 @@ public class Tariff {
     private EnergyType type;
 
     @Column(name = "price_per_kwh")
-    private BigDecimal pricePerKwh;
+    private BigDecimal pricePerKwh;         // Base rate (pence/kWh) where no band applies
+
+    // Time-of-day, weekday/weekend and seasonal bands; later bands take precedence
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "tariff_rate", joinColumns = @JoinColumn(name = "tariff_id"))
+    @OrderColumn(name = "rate_order")
+    private List<TariffRate> rates = new ArrayList<>();
 
     public enum EnergyType {
         electricity, gas
@@ -0,0 +1,22 @@
+package com.wx.renewableCalculator.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Dynamic (agile) half-hourly prices of a tariff for the reference year
+ * Kept apart from Tariff so listing tariffs does not load the series.
+ */
+@Entity
+@Table(name = "tariff_price_series")
+@Data
+public class TariffPriceSeries {
+    @Id
+    @Column(name = "tariff_id")
+    private Integer tariffId;
+
+    // 17520 little-endian floats (pence/kWh), NaN where no price was published
+    @Lob
+    @Column(name = "half_hourly_prices", columnDefinition = "MEDIUMBLOB")
+    private byte[] halfHourlyPrices;
+}
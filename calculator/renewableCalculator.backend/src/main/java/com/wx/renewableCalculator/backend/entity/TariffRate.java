@@ -0,0 +1,47 @@
+package com.wx.renewableCalculator.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+
+/**
+ * One price band of a tariff schedule, e.g. Economy 7 night rate 00:00-07:00
+ * A band applies on its days between its start and end time (end exclusive, may wrap past midnight)
+ * and in months startMonth..endMonth (may wrap past December). Empty fields match everything.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffRate {
+
+    @Column(name = "start_time")
+    private LocalTime startTime;        // Band start (whole or half hours)
+
+    @Column(name = "end_time")
+    private LocalTime endTime;          // Band end, exclusive
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_type")
+    private DayType dayType;            // Weekday/weekend variant (all days if null)
+
+    @Column(name = "start_month")
+    private Integer startMonth;         // Seasonal period start (1-12)
+
+    @Column(name = "end_month")
+    private Integer endMonth;           // Seasonal period end, inclusive (1-12)
+
+    @Column(name = "price_per_kwh", nullable = false)
+    private BigDecimal pricePerKwh;     // pence/kWh
+
+    public enum DayType {
+        all, weekday, weekend
+    }
+}
@@ -0,0 +1,7 @@
+package com.wx.renewableCalculator.backend.repository;
+
+import com.wx.renewableCalculator.backend.entity.TariffPriceSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TariffPriceSeriesRepository extends JpaRepository<TariffPriceSeries, Integer> {
+}
@@ -0,0 +1,248 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.City;
+import com.wx.renewableCalculator.backend.repository.CityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Precomputed archetype demand cube for O(1) thermal demand estimation
+ * The estimation inputs form a small finite space: envelope combinations (wall × window × roof × floor ×
+ * house type × build year), occupants 1-8 and a 0.25° UK climate cell. A background job computes, per cell:
+ * Space heating per m²[envelope][month] = max(0, H × (20 - Tmonth) × hours / 1000 - 15 / 12)
+ * and stores it as floats in one direct (off-heap) buffer, so an estimate is an index plus a multiply by floor area.
+ * Heating and hot water types are not cube dimensions: fuel and heat pump electricity are projections
+ * of the thermal demand (see HouseholdThermalModelService).
+ * The cube holds up to archetype-demand-cube.max-cells climate cells; locations beyond that use the thermal model.
+ */
+@Service
+public class ArchetypeDemandCubeService {
+
+    @Autowired
+    private WeatherDataService weatherDataService;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Value("${archetype-demand-cube.max-cells:128}")
+    private int maxCells;
+
+    // UK climate grid (0.25°, the resolution of the reanalysis behind the weather archive)
+    private static final double GRID_STEP = 0.25;
+    private static final double MIN_LATITUDE = 49.5;
+    private static final double MAX_LATITUDE = 61.0;
+    private static final double MIN_LONGITUDE = -8.5;
+    private static final double MAX_LONGITUDE = 2.0;
+    private static final int GRID_ROWS = (int) Math.round((MAX_LATITUDE - MIN_LATITUDE) / GRID_STEP);
+    private static final int GRID_COLUMNS = (int) Math.round((MAX_LONGITUDE - MIN_LONGITUDE) / GRID_STEP);
+
+    // Cube dimensions
+    public static final int MAX_OCCUPANTS = 8;
+    private static final int ENVELOPES = HouseholdThermalModelService.ENVELOPE_COMBINATIONS;
+    private static final int SLAB_FLOATS = ENVELOPES * 12;
+    private static final int HOT_WATER_FLOATS = MAX_OCCUPANTS * 12;
+
+    // Cell states in slotByCell (values >= 0 are cube slots)
+    private static final int CELL_UNKNOWN = -1;
+    private static final int CELL_PENDING = -2;
+
+    // [hot water: occupants × month][slot 0: envelope × month][slot 1]...
+    private FloatBuffer cube;
+    private double[][] cellDailyTemperatures;
+    private final AtomicIntegerArray slotByCell = new AtomicIntegerArray(GRID_ROWS * GRID_COLUMNS);
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicBoolean fullReported = new AtomicBoolean();
+
+    private ExecutorService cubeBuilder;
+
+    /**
+     * Allocate the cube and start the builder thread
+     */
+    @PostConstruct
+    public void start() {
+        if (maxCells < 1) {
+            throw new IllegalStateException("archetype-demand-cube.max-cells must be at least 1");
+        }
+        cellDailyTemperatures = new double[maxCells][];
+        cube = ByteBuffer.allocateDirect((HOT_WATER_FLOATS + maxCells * SLAB_FLOATS) * Float.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asFloatBuffer();
+        for (int occupants = 1; occupants <= MAX_OCCUPANTS; occupants++) {
+            for (int month = 1; month <= 12; month++) {
+                cube.put((occupants - 1) * 12 + month - 1, (float) HouseholdThermalModelService.hotWaterDemand(occupants, month));
+            }
+        }
+        for (int cell = 0; cell < slotByCell.length(); cell++) {
+            slotByCell.set(cell, CELL_UNKNOWN);
+        }
+
+        cubeBuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "archetype-demand-cube");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue the climate cells of all known cities once startup data initialisation has run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void queueCityCells() {
+        cubeBuilder.submit(this::precomputeCityCells);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (cubeBuilder != null) {
+            cubeBuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the cube slot for a location, or -1 if the cell is not built yet (the build is then queued)
+     */
+    public int findSlot(double latitude, double longitude) {
+        int cell = cellOf(latitude, longitude);
+        if (cell < 0) {
+            return -1;
+        }
+        int slot = slotByCell.get(cell);
+        if (slot == CELL_UNKNOWN) {
+            scheduleBuild(cell);
+        }
+        return slot >= 0 ? slot : -1;
+    }
+
+    /**
+     * Space heating thermal demand per m² for a built cell slot (kWh/m²)
+     */
+    public double getSpaceHeatingPerArea(int slot, int envelopeIndex, int month) {
+        return cube.get(HOT_WATER_FLOATS + slot * SLAB_FLOATS + envelopeIndex * 12 + month - 1);
+    }
+
+    /**
+     * Hot water thermal demand for 1-8 occupants (kWh)
+     */
+    public double getHotWater(int occupants, int month) {
+        return cube.get((occupants - 1) * 12 + month - 1);
+    }
+
+    /**
+     * Daily temperatures of a built cell slot; shared, must not be modified
+     */
+    public double[] getDailyTemperatures(int slot) {
+        return cellDailyTemperatures[slot];
+    }
+
+    /**
+     * Snap a coordinate to the centre of its climate cell (unchanged outside the UK grid)
+     */
+    public static double snapLatitude(double latitude) {
+        return latitude >= MIN_LATITUDE && latitude < MAX_LATITUDE
+            ? MIN_LATITUDE + (Math.floor((latitude - MIN_LATITUDE) / GRID_STEP) + 0.5) * GRID_STEP
+            : latitude;
+    }
+
+    public static double snapLongitude(double longitude) {
+        return longitude >= MIN_LONGITUDE && longitude < MAX_LONGITUDE
+            ? MIN_LONGITUDE + (Math.floor((longitude - MIN_LONGITUDE) / GRID_STEP) + 0.5) * GRID_STEP
+            : longitude;
+    }
+
+    private static int cellOf(double latitude, double longitude) {
+        if (latitude < MIN_LATITUDE || latitude >= MAX_LATITUDE || longitude < MIN_LONGITUDE || longitude >= MAX_LONGITUDE) {
+            return -1;
+        }
+        int row = (int) ((latitude - MIN_LATITUDE) / GRID_STEP);
+        int column = (int) ((longitude - MIN_LONGITUDE) / GRID_STEP);
+        return row * GRID_COLUMNS + column;
+    }
+
+    private void scheduleBuild(int cell) {
+        if (nextSlot.get() >= maxCells) {
+            reportFull();
+        } else if (slotByCell.compareAndSet(cell, CELL_UNKNOWN, CELL_PENDING)) {
+            cubeBuilder.submit(() -> buildCell(cell));
+        }
+    }
+
+    /**
+     * Log once that new cells are no longer cached
+     */
+    private void reportFull() {
+        if (fullReported.compareAndSet(false, true)) {
+            System.err.println(String.format("Archetype demand cube is full (%d cells): further locations use the thermal model;"
+                + " raise archetype-demand-cube.max-cells to cache more", maxCells));
+        }
+    }
+
+    /**
+     * Warm-up job: queue every cell that contains a city from the database
+     */
+    private void precomputeCityCells() {
+        try {
+            List<City> cities = cityRepository.findAll();
+            for (City city : cities) {
+                if (city.getLatitude() != null && city.getLongitude() != null) {
+                    int cell = cellOf(city.getLatitude(), city.getLongitude());
+                    if (cell >= 0) {
+                        scheduleBuild(cell);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error queuing archetype demand cube cells: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the cell's weather and fill its slab for every envelope combination
+     */
+    private void buildCell(int cell) {
+        double latitude = MIN_LATITUDE + (cell / GRID_COLUMNS + 0.5) * GRID_STEP;
+        double longitude = MIN_LONGITUDE + (cell % GRID_COLUMNS + 0.5) * GRID_STEP;
+
+        double[] dailyTemperatures = weatherDataService.getDailyTemperatures(latitude, longitude);
+        if (dailyTemperatures == null) {
+            // Weather unavailable: leave the cell to the model and retry on a later request
+            slotByCell.set(cell, CELL_UNKNOWN);
+            return;
+        }
+
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= maxCells) {
+            slotByCell.set(cell, CELL_UNKNOWN);
+            reportFull();
+            return;
+        }
+
+        double[] monthlyTemperatures = HouseholdThermalModelService.monthlyMeans(dailyTemperatures);
+        int offset = HOT_WATER_FLOATS + slot * SLAB_FLOATS;
+        for (int envelope = 0; envelope < ENVELOPES; envelope++) {
+            double heatLossCoefficient = HouseholdThermalModelService.heatLossCoefficient(envelope);
+            for (int month = 1; month <= 12; month++) {
+                cube.put(offset + envelope * 12 + month - 1, (float) HouseholdThermalModelService
+                    .spaceHeatingPerArea(heatLossCoefficient, monthlyTemperatures[month - 1], month));
+            }
+        }
+        cellDailyTemperatures[slot] = dailyTemperatures;
+
+        // Publishing the slot makes the slab and temperatures visible to readers
+        slotByCell.set(cell, slot);
+    }
+}
@@ -0,0 +1,291 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.Battery;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hourly battery state-of-charge dispatch simulator
+ * Each hour, in order:
+ * 1. Solar surplus (generation - load) charges the battery, limited by power and free capacity; the rest is exported
+ * 2. A deficit is met from the battery unless the hour is the day's cheapest import price
+ * 3. In the day's cheapest hours, the battery is charged from the grid when price / efficiency is below the
+ *    day's peak price, up to the energy the day's peak hours can use and leaving room for the day's solar surplus
+ * Charging and discharging each lose √(round-trip efficiency). Costs are compared with the same year without a battery.
+ */
+@Service
+public class BatteryDispatchService {
+
+    public static final double DEFAULT_ROUND_TRIP_EFFICIENCY = 0.9;
+    public static final double DEFAULT_C_RATE = 0.5; // Power limit as a fraction of capacity per hour
+
+    private static final double PRICE_EPSILON = 1e-6;
+
+    /**
+     * Simulate a full reference year
+     * @param generation Solar generation per hour (kWh, 8760 values)
+     * @param load Household load per hour (kWh, 8760 values)
+     * @param importPrices Import price per hour (pence/kWh, 8760 values)
+     * @param exportPrice Export price (pence/kWh)
+     */
+    public BatteryDispatchResult simulate(float[] generation, float[] load, float[] importPrices,
+                                          double exportPrice, BatterySpec battery) {
+        return simulate(generation, load, importPrices, exportPrice, battery, 1, 12);
+    }
+
+    /**
+     * Simulate the months firstMonth..lastMonth (1-12), starting with an empty battery
+     */
+    public BatteryDispatchResult simulate(float[] generation, float[] load, float[] importPrices,
+                                          double exportPrice, BatterySpec battery, int firstMonth, int lastMonth) {
+        return dispatch(generation, load, importPrices, exportPrice, battery,
+            new DaySummary(generation, load, importPrices, firstMonth, lastMonth));
+    }
+
+    /**
+     * Simulate several batteries over a full reference year against the same series
+     * The per-day summary of the series is built once and shared by every battery.
+     */
+    public BatteryDispatchResult[] simulate(float[] generation, float[] load, float[] importPrices,
+                                            double exportPrice, BatterySpec[] batteries) {
+        DaySummary days = new DaySummary(generation, load, importPrices, 1, 12);
+        BatteryDispatchResult[] results = new BatteryDispatchResult[batteries.length];
+        for (int b = 0; b < batteries.length; b++) {
+            results[b] = dispatch(generation, load, importPrices, exportPrice, batteries[b], days);
+        }
+        return results;
+    }
+
+    private BatteryDispatchResult dispatch(float[] generation, float[] load, float[] importPrices, double exportPrice,
+                                           BatterySpec battery, DaySummary days) {
+        double capacity = battery.capacityKwh();
+        double power = battery.maxPowerKw();
+        double chargeEfficiency = Math.sqrt(battery.roundTripEfficiency());
+        double dischargeEfficiency = chargeEfficiency;
+        int firstMonth = days.firstMonth;
+        int lastMonth = days.lastMonth;
+        int firstDay = days.firstDay;
+        double[] dayMinPrice = days.minPrice;
+        double[] dayMaxPrice = days.maxPrice;
+        double[] daySurplus = days.surplus;
+        double[] dayPeakDeficit = days.peakDeficit;
+
+        BatteryDispatchResult result = new BatteryDispatchResult(capacity);
+        double soc = 0.0;
+        for (int month = firstMonth; month <= lastMonth; month++) {
+            double imported = 0.0;
+            double exported = 0.0;
+            double solarCharged = 0.0;
+            double gridCharged = 0.0;
+            double discharged = 0.0;
+            double importCost = 0.0;
+            double baselineCost = 0.0;
+
+            int end = ReferenceYear.monthEndHour(month);
+            for (int h = ReferenceYear.monthStartHour(month); h < end; h++) {
+                int d = h / ReferenceYear.HOURS_PER_DAY - firstDay;
+                double price = importPrices[h];
+                double net = generation[h] - load[h];
+
+                // Baseline without battery
+                baselineCost += net < 0 ? -net * price : -net * exportPrice;
+
+                double gridImport = 0.0;
+                double gridExport = 0.0;
+                if (net >= 0) {
+                    // 1. Solar surplus charging
+                    double charge = Math.min(Math.min(net, power), (capacity - soc) / chargeEfficiency);
+                    soc += charge * chargeEfficiency;
+                    solarCharged += charge;
+                    gridExport = net - charge;
+                } else {
+                    double deficit = -net;
+                    boolean flatDay = dayMaxPrice[d] - dayMinPrice[d] <= PRICE_EPSILON;
+                    if (flatDay || price > dayMinPrice[d] + PRICE_EPSILON) {
+                        // 2. Discharge to cover the deficit
+                        double delivered = Math.min(Math.min(deficit, power), soc * dischargeEfficiency);
+                        soc -= delivered / dischargeEfficiency;
+                        discharged += delivered;
+                        deficit -= delivered;
+                    }
+                    gridImport = deficit;
+                }
+
+                // 3. Tariff arbitrage in the day's cheapest hours
+                if (price <= dayMinPrice[d] + PRICE_EPSILON
+                        && price < dayMaxPrice[d] * battery.roundTripEfficiency() - PRICE_EPSILON) {
+                    double target = Math.min(capacity - Math.min(capacity, daySurplus[d]),
+                        dayPeakDeficit[d] / dischargeEfficiency);
+                    if (soc < target) {
+                        double headroom = power - (net >= 0 ? net - gridExport : 0.0);
+                        double charge = Math.max(0.0, Math.min(headroom, (target - soc) / chargeEfficiency));
+                        soc += charge * chargeEfficiency;
+                        gridCharged += charge;
+                        gridImport += charge;
+                    }
+                }
+
+                imported += gridImport;
+                exported += gridExport;
+                importCost += gridImport * price;
+            }
+
+            result.set(month, imported, exported, solarCharged, gridCharged, discharged,
+                importCost - exported * exportPrice, baselineCost);
+        }
+        return result;
+    }
+
+    /**
+     * Hourly import prices for a peak/off-peak tariff (see TariffScheduleService.scalarPrices)
+     * A flat tariff results when only one rate is known.
+     */
+    public float[] timeOfUsePrices(Double peakRate, Double offPeakRate, Double flatRate) {
+        return TariffScheduleService.toHourly(TariffScheduleService.scalarPrices(peakRate, offPeakRate, flatRate));
+    }
+
+    /**
+     * Battery parameters used by the simulator
+     */
+    public record BatterySpec(double capacityKwh, double maxPowerKw, double roundTripEfficiency) {
+
+        public static BatterySpec of(Battery battery) {
+            double capacity = battery.getCapacityKwh() != null ? battery.getCapacityKwh().doubleValue() : 0.0;
+            return of(capacity,
+                battery.getMaxPowerKw() != null ? battery.getMaxPowerKw().doubleValue() : null,
+                battery.getRoundTripEfficiency() != null ? battery.getRoundTripEfficiency().doubleValue() : null);
+        }
+
+        public static BatterySpec of(double capacityKwh, Double maxPowerKw, Double roundTripEfficiency) {
+            double efficiency = roundTripEfficiency != null && roundTripEfficiency > 0 && roundTripEfficiency <= 1
+                ? roundTripEfficiency : DEFAULT_ROUND_TRIP_EFFICIENCY;
+            double power = maxPowerKw != null && maxPowerKw > 0 ? maxPowerKw : capacityKwh * DEFAULT_C_RATE;
+            return new BatterySpec(Math.max(0.0, capacityKwh), power, efficiency);
+        }
+    }
+
+    /**
+     * Per-day price range, solar surplus and peak-hour deficit for the arbitrage rule
+     */
+    private static final class DaySummary {
+        private final int firstMonth;
+        private final int lastMonth;
+        private final int firstDay;
+        private final double[] minPrice;
+        private final double[] maxPrice;
+        private final double[] surplus;
+        private final double[] peakDeficit;
+
+        DaySummary(float[] generation, float[] load, float[] importPrices, int firstMonth, int lastMonth) {
+            if (generation.length != ReferenceYear.HOURS_PER_YEAR || load.length != ReferenceYear.HOURS_PER_YEAR
+                    || importPrices.length != ReferenceYear.HOURS_PER_YEAR) {
+                throw new IllegalArgumentException("Generation, load and price series must contain 8760 hourly values");
+            }
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+            this.firstDay = ReferenceYear.monthStartDay(firstMonth);
+            int days = ReferenceYear.monthEndDay(lastMonth) - firstDay;
+            this.minPrice = new double[days];
+            this.maxPrice = new double[days];
+            this.surplus = new double[days];
+            this.peakDeficit = new double[days];
+            for (int d = 0; d < days; d++) {
+                int start = (firstDay + d) * ReferenceYear.HOURS_PER_DAY;
+                double min = Double.MAX_VALUE;
+                double max = -Double.MAX_VALUE;
+                for (int h = start; h < start + ReferenceYear.HOURS_PER_DAY; h++) {
+                    min = Math.min(min, importPrices[h]);
+                    max = Math.max(max, importPrices[h]);
+                    surplus[d] += Math.max(0.0, generation[h] - load[h]);
+                }
+                minPrice[d] = min;
+                maxPrice[d] = max;
+                for (int h = start; h < start + ReferenceYear.HOURS_PER_DAY; h++) {
+                    if (importPrices[h] > min + PRICE_EPSILON) {
+                        peakDeficit[d] += Math.max(0.0, load[h] - generation[h]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Monthly dispatch results (kWh and pence), January (index 0) to December (index 11)
+     */
+    public static final class BatteryDispatchResult {
+        private final double capacityKwh;
+        private final double[] imported = new double[12];
+        private final double[] exported = new double[12];
+        private final double[] solarCharged = new double[12];
+        private final double[] gridCharged = new double[12];
+        private final double[] discharged = new double[12];
+        private final double[] netCost = new double[12];       // Import cost - export revenue with battery
+        private final double[] baselineCost = new double[12];  // Import cost - export revenue without battery
+
+        private BatteryDispatchResult(double capacityKwh) {
+            this.capacityKwh = capacityKwh;
+        }
+
+        private void set(int month, double importedKwh, double exportedKwh, double solarChargedKwh, double gridChargedKwh,
+                         double dischargedKwh, double netCostPence, double baselineCostPence) {
+            int i = month - 1;
+            imported[i] = importedKwh;
+            exported[i] = exportedKwh;
+            solarCharged[i] = solarChargedKwh;
+            gridCharged[i] = gridChargedKwh;
+            discharged[i] = dischargedKwh;
+            netCost[i] = netCostPence;
+            baselineCost[i] = baselineCostPence;
+        }
+
+        public double getImported(int month) {
+            return imported[month - 1];
+        }
+
+        public double getExported(int month) {
+            return exported[month - 1];
+        }
+
+        public double getSolarCharged(int month) {
+            return solarCharged[month - 1];
+        }
+
+        public double getGridCharged(int month) {
+            return gridCharged[month - 1];
+        }
+
+        public double getDischarged(int month) {
+            return discharged[month - 1];
+        }
+
+        /** Import cost - export revenue with the battery (pence) */
+        public double getNetCost(int month) {
+            return netCost[month - 1];
+        }
+
+        /** Savings against no battery (pence) */
+        public double getSavings(int month) {
+            return baselineCost[month - 1] - netCost[month - 1];
+        }
+
+        public double getAnnualSavings() {
+            double total = 0.0;
+            for (int i = 0; i < 12; i++) {
+                total += baselineCost[i] - netCost[i];
+            }
+            return total;
+        }
+
+        public double getAnnualDischarged() {
+            double total = 0.0;
+            for (double value : discharged) {
+                total += value;
+            }
+            return total;
+        }
+
+        /** Equivalent full cycles over the simulated period */
+        public double getEquivalentCycles() {
+            return capacityKwh > 0 ? getAnnualDischarged() / capacityKwh : 0.0;
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.wx.renewableCalculator.backend.service;
 
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonResult;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class CarbonImpactService {
 
+    @Autowired
+    private GridTrajectoryService gridTrajectoryService;
+
+    // Flat trajectory at today's grid_electricity factor, always available for comparison
+    public static final String CURRENT_GRID_TRAJECTORY = "current-grid";
+    private static final int DEFAULT_LIFETIME_YEARS = 25;
+    private static final double DEFAULT_SOLAR_DEGRADATION = 0.005;
+
     // UK Carbon intensity factors (kg CO2 per kWh)
     private static final Map<String, BigDecimal> CARBON_INTENSITY_FACTORS = new HashMap<>();
     static {
@@ -63,6 +78,7 @@ public class CarbonImpactService {
 
     /**
      * Calculate lifetime CO2 reduction over system lifespan
+     * Uses a constant decarbonisation rate; projectLifetimeCarbon follows year-by-year grid trajectories
      * @param annualCO2Reduction First year CO2 reduction in kg
      * @param systemLifespan System lifespan in years
      * @param annualDegradation Annual system degradation rate (for solar)
@@ -91,6 +107,104 @@ public class CarbonImpactService {
         return totalReduction.setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Lifetime carbon savings under each grid decarbonisation trajectory
+     * With E[y][m] the grid energy displaced in year y, month m (solar × (1 - d)^y - heat pump use)
+     * and I[y][m] the trajectory's grid intensity, year y saves ∑m E[y][m] × I[y][m] + fuel × fuel factor.
+     * The energy matrix is built once and each trajectory is one pass of row dot products over it.
+     *
+     * @param request First-year monthly energy, lifetime and the trajectories to compare
+     * @return One projection per trajectory with the yearly savings
+     */
+    public LifetimeCarbonResult projectLifetimeCarbon(LifetimeCarbonRequest request) {
+        double[] solar = MonthlyValues.fromArray(request.getSolarGenerationKwh(), "solarGenerationKwh");
+        double[] heatPump = MonthlyValues.fromArray(request.getHeatPumpElectricityKwh(), "heatPumpElectricityKwh");
+        double[] fuel = MonthlyValues.fromArray(request.getFuelReplacedKwh(), "fuelReplacedKwh");
+        int startYear = request.getStartYear() != null ? request.getStartYear() : Year.now().getValue();
+        int years = request.getLifetimeYears() != null ? request.getLifetimeYears() : DEFAULT_LIFETIME_YEARS;
+        if (years < 1 || years > 100) {
+            throw new IllegalArgumentException("Lifetime must be between 1 and 100 years");
+        }
+        double degradation = request.getDegradationRate() != null ? request.getDegradationRate() : DEFAULT_SOLAR_DEGRADATION;
+        String fuelType = request.getReplacedFuelType() != null ? request.getReplacedFuelType() : "natural_gas";
+        double fuelFactor = CARBON_INTENSITY_FACTORS.getOrDefault(fuelType, CARBON_INTENSITY_FACTORS.get("natural_gas")).doubleValue();
+
+        // Year × month grid energy matrices, shared by every trajectory
+        double[] solarMatrix = new double[years * 12];
+        double output = 1.0;
+        for (int y = 0; y < years; y++) {
+            for (int m = 0; m < 12; m++) {
+                solarMatrix[y * 12 + m] = solar[m] * output;
+            }
+            output *= 1.0 - degradation;
+        }
+        double annualFuelSaving = Arrays.stream(fuel).sum() * fuelFactor;
+
+        List<String> trajectories = request.getTrajectories();
+        if (trajectories == null || trajectories.isEmpty()) {
+            trajectories = new ArrayList<>();
+            trajectories.add(CURRENT_GRID_TRAJECTORY);
+            trajectories.addAll(gridTrajectoryService.getScenarios());
+        }
+
+        List<LifetimeCarbonResult.TrajectoryProjection> projections = new ArrayList<>(trajectories.size());
+        for (String trajectory : trajectories) {
+            double[] intensity = getIntensityMatrix(trajectory, startYear, years);
+            double[] yearly = new double[years];
+            double solarSavings = 0.0;
+            double heatPumpSavings = 0.0;
+            double intensitySum = 0.0;
+            for (int y = 0; y < years; y++) {
+                int row = y * 12;
+                double solarKg = 0.0;
+                double heatPumpGridKg = 0.0;
+                for (int m = 0; m < 12; m++) {
+                    double grid = intensity[row + m];
+                    solarKg += solarMatrix[row + m] * grid;
+                    heatPumpGridKg += heatPump[m] * grid;
+                    intensitySum += grid;
+                }
+                yearly[y] = solarKg + annualFuelSaving - heatPumpGridKg;
+                solarSavings += solarKg;
+                heatPumpSavings += annualFuelSaving - heatPumpGridKg;
+            }
+
+            LifetimeCarbonResult.TrajectoryProjection projection = new LifetimeCarbonResult.TrajectoryProjection();
+            projection.setTrajectory(trajectory);
+            projection.setSolarCarbonSavingsKg(round(solarSavings));
+            projection.setHeatPumpCarbonSavingsKg(round(heatPumpSavings));
+            projection.setLifetimeCarbonSavingsKg(round(solarSavings + heatPumpSavings));
+            projection.setAverageGridIntensity(Math.round(intensitySum / (years * 12) * 10000.0) / 10000.0);
+            for (int y = 0; y < years; y++) {
+                yearly[y] = round(yearly[y]);
+            }
+            projection.setYearlyCarbonSavingsKg(yearly);
+            projections.add(projection);
+        }
+
+        LifetimeCarbonResult result = new LifetimeCarbonResult();
+        result.setStartYear(startYear);
+        result.setLifetimeYears(years);
+        result.setProjections(projections);
+        return result;
+    }
+
+    /**
+     * Grid intensity matrix of a trajectory; current-grid holds today's factor for every month
+     */
+    private double[] getIntensityMatrix(String trajectory, int startYear, int years) {
+        if (CURRENT_GRID_TRAJECTORY.equals(trajectory)) {
+            double[] matrix = new double[years * 12];
+            Arrays.fill(matrix, CARBON_INTENSITY_FACTORS.get("grid_electricity").doubleValue());
+            return matrix;
+        }
+        return gridTrajectoryService.getIntensityMatrix(trajectory, startYear, years);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
     /**
      * Calculate equivalent environmental benefits
      * @param annualCO2ReductionKg Annual CO2 reduction in kg
@@ -0,0 +1,356 @@
+package com.wx.renewableCalculator.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Regional half-hourly grid carbon intensity (gCO₂/kWh) for the reference year
+ * Each <region>.csv in the data directory (timestamp, intensity rows, e.g. a regional Carbon Intensity API export)
+ * is averaged onto the 17520 half-hours of the reference year and written to one binary store:
+ * [magic][region count][half-hours][region names][region 0 floats][region 1 floats]...
+ * The store is memory-mapped read-only, so series are read in place without heap copies; a store that
+ * cannot be mapped (truncated or corrupt) is rebuilt from the CSV files.
+ * Monthly mean intensities are cached per region.
+ */
+@Service
+public class CarbonIntensityService {
+
+    @Value("${carbon-intensity.directory:carbon-intensity}")
+    private String dataDirectory;
+
+    private static final String STORE_FILE = "carbon-intensity.bin";
+    private static final int STORE_MAGIC = 0x43495331; // "CIS1"
+    private static final int REGION_NAME_BYTES = 32;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int SLOTS = ReferenceYear.HALF_HOURS_PER_YEAR;
+
+    // Region key -> region index in the store
+    private volatile Map<String, Integer> regionIndex = Collections.emptyMap();
+    private volatile FloatBuffer intensities;
+
+    private final Map<String, double[]> monthlyMeans = new ConcurrentHashMap<>();
+
+    /**
+     * Import new or changed CSV files into the store and map it
+     */
+    @PostConstruct
+    public void loadStore() {
+        Path directory = Paths.get(dataDirectory);
+        if (!Files.isDirectory(directory)) {
+            System.out.println(String.format("No carbon intensity data in %s, using flat emission factors", directory.toAbsolutePath()));
+            return;
+        }
+
+        try {
+            Path store = directory.resolve(STORE_FILE);
+            List<Path> csvFiles;
+            try (Stream<Path> files = Files.list(directory)) {
+                csvFiles = files
+                    .filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            }
+            if (!csvFiles.isEmpty() && isStale(store, csvFiles)) {
+                buildStore(csvFiles, store);
+            }
+            if (Files.exists(store)) {
+                try {
+                    mapStore(store);
+                } catch (IOException e) {
+                    if (csvFiles.isEmpty()) {
+                        throw e;
+                    }
+                    System.err.println("Rebuilding carbon intensity store: " + e.getMessage());
+                    buildStore(csvFiles, store);
+                    mapStore(store);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading carbon intensity store: " + e.getMessage());
+        }
+    }
+
+    public boolean hasRegion(String region) {
+        return region != null && regionIndex.containsKey(normaliseRegion(region));
+    }
+
+    public List<String> getRegions() {
+        return new ArrayList<>(regionIndex.keySet());
+    }
+
+    /**
+     * Hourly intensity of a region (kgCO₂/kWh, mean of the hour's two half-hours), read from the mapped store
+     * @return Intensity of hour h of the reference year, or null if the region is unknown
+     */
+    public IntToDoubleFunction getHourlyIntensity(String region) {
+        Integer index = region != null ? regionIndex.get(normaliseRegion(region)) : null;
+        if (index == null) {
+            return null;
+        }
+        FloatBuffer series = intensities;
+        int offset = index * SLOTS;
+        return h -> (series.get(offset + 2 * h) + series.get(offset + 2 * h + 1)) * 0.0005; // g -> kg, mean of 2
+    }
+
+    /**
+     * Mean intensity of a region by month (kgCO₂/kWh, January at index 0), or null if the region is unknown
+     */
+    public double[] getMonthlyMeanIntensity(String region) {
+        Integer index = region != null ? regionIndex.get(normaliseRegion(region)) : null;
+        if (index == null) {
+            return null;
+        }
+        return monthlyMeans.computeIfAbsent(normaliseRegion(region), key -> {
+            FloatBuffer series = intensities;
+            int offset = index * SLOTS;
+            double[] means = new double[12];
+            for (int month = 1; month <= 12; month++) {
+                double total = 0.0;
+                int start = ReferenceYear.monthStartHalfHour(month);
+                int end = ReferenceYear.monthEndHalfHour(month);
+                for (int t = start; t < end; t++) {
+                    total += series.get(offset + t);
+                }
+                means[month - 1] = total / (end - start) / 1000.0;
+            }
+            return means;
+        });
+    }
+
+    private boolean isStale(Path store, List<Path> csvFiles) throws IOException {
+        if (!Files.exists(store)) {
+            return true;
+        }
+        long storeModified = Files.getLastModifiedTime(store).toMillis();
+        for (Path file : csvFiles) {
+            if (Files.getLastModifiedTime(file).toMillis() > storeModified) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert every CSV file into a reference-year series and write the binary store
+     */
+    private void buildStore(List<Path> csvFiles, Path store) throws IOException {
+        Map<String, float[]> series = new LinkedHashMap<>();
+        for (Path file : csvFiles) {
+            String name = file.getFileName().toString();
+            String region = normaliseRegion(name.substring(0, name.length() - 4));
+            if (region.getBytes(StandardCharsets.UTF_8).length > REGION_NAME_BYTES) {
+                System.err.println("Skipping carbon intensity file with a region name over 32 bytes: " + name);
+                continue;
+            }
+            float[] values = parseSeries(file);
+            if (values != null) {
+                series.put(region, values);
+            } else {
+                System.err.println("Skipping carbon intensity file without readings: " + name);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + series.size() * (REGION_NAME_BYTES + SLOTS * Float.BYTES))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(STORE_MAGIC).putInt(series.size()).putInt(SLOTS);
+        for (String region : series.keySet()) {
+            byte[] nameBytes = region.getBytes(StandardCharsets.UTF_8);
+            buffer.put(nameBytes).put(new byte[REGION_NAME_BYTES - nameBytes.length]);
+        }
+        for (float[] values : series.values()) {
+            buffer.asFloatBuffer().put(values);
+            buffer.position(buffer.position() + SLOTS * Float.BYTES);
+        }
+        buffer.flip();
+
+        // Write beside the store and swap, so a mapped older store is never overwritten in place
+        Path temporary = store.resolveSibling(STORE_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(String.format("Carbon intensity store: imported %d regions", series.size()));
+    }
+
+    private void mapStore(Path store) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(store, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != STORE_MAGIC || mapped.getInt(2 * Integer.BYTES) != SLOTS) {
+            throw new IOException("Unrecognised carbon intensity store " + store);
+        }
+
+        int regions = mapped.getInt(Integer.BYTES);
+        long expectedBytes = HEADER_BYTES + (long) regions * (REGION_NAME_BYTES + SLOTS * Float.BYTES);
+        if (regions < 0 || mapped.limit() != expectedBytes) {
+            throw new IOException("Truncated carbon intensity store " + store);
+        }
+        Map<String, Integer> index = new LinkedHashMap<>();
+        byte[] nameBytes = new byte[REGION_NAME_BYTES];
+        for (int i = 0; i < regions; i++) {
+            mapped.get(HEADER_BYTES + i * REGION_NAME_BYTES, nameBytes);
+            int length = 0;
+            while (length < REGION_NAME_BYTES && nameBytes[length] != 0) {
+                length++;
+            }
+            index.put(new String(nameBytes, 0, length, StandardCharsets.UTF_8), i);
+        }
+
+        int dataOffset = HEADER_BYTES + regions * REGION_NAME_BYTES;
+        intensities = mapped.slice(dataOffset, regions * SLOTS * Float.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .asFloatBuffer();
+        monthlyMeans.clear();
+        regionIndex = index;
+        System.out.println(String.format("Carbon intensity store: mapped regions %s", index.keySet()));
+    }
+
+    /**
+     * Average all readings onto the reference year's half-hours; half-hours without readings take the
+     * mean of the same time of day in that month, or the overall mean
+     */
+    private float[] parseSeries(Path file) throws IOException {
+        double[] sums = new double[SLOTS];
+        int[] counts = new int[SLOTS];
+        int valueColumn = 1;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (first) {
+                    first = false;
+                    int column = findValueColumn(fields);
+                    if (column >= 0) {
+                        valueColumn = column;
+                        continue;
+                    }
+                }
+                if (fields.length <= valueColumn) {
+                    continue;
+                }
+                LocalDateTime timestamp = parseTimestamp(fields[0].trim().replace("\"", ""));
+                Double value = parseValue(fields[valueColumn].trim().replace("\"", ""));
+                if (timestamp == null || value == null) {
+                    continue;
+                }
+                int slot = ReferenceYear.halfHourOfYear(timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+                    timestamp.getHour(), timestamp.getMinute());
+                if (slot >= 0) {
+                    sums[slot] += value;
+                    counts[slot]++;
+                }
+            }
+        }
+
+        double total = 0.0;
+        int filled = 0;
+        for (int t = 0; t < SLOTS; t++) {
+            if (counts[t] > 0) {
+                total += sums[t] / counts[t];
+                filled++;
+            }
+        }
+        if (filled == 0) {
+            return null;
+        }
+        double overallMean = total / filled;
+
+        float[] values = new float[SLOTS];
+        for (int month = 1; month <= 12; month++) {
+            int startDay = ReferenceYear.monthStartDay(month);
+            int endDay = ReferenceYear.monthEndDay(month);
+            for (int slotOfDay = 0; slotOfDay < ReferenceYear.HALF_HOURS_PER_DAY; slotOfDay++) {
+                double slotTotal = 0.0;
+                int slotCount = 0;
+                for (int day = startDay; day < endDay; day++) {
+                    int t = day * ReferenceYear.HALF_HOURS_PER_DAY + slotOfDay;
+                    if (counts[t] > 0) {
+                        slotTotal += sums[t] / counts[t];
+                        slotCount++;
+                    }
+                }
+                double fallback = slotCount > 0 ? slotTotal / slotCount : overallMean;
+                for (int day = startDay; day < endDay; day++) {
+                    int t = day * ReferenceYear.HALF_HOURS_PER_DAY + slotOfDay;
+                    values[t] = (float) (counts[t] > 0 ? sums[t] / counts[t] : fallback);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Intensity column of a header row (actual, else intensity, else forecast), or -1 if the row is data
+     */
+    private int findValueColumn(String[] header) {
+        if (parseTimestamp(header[0].trim().replace("\"", "")) != null) {
+            return -1;
+        }
+        for (String name : new String[]{"actual", "intensity", "forecast"}) {
+            for (int i = 1; i < header.length; i++) {
+                if (header[i].toLowerCase(Locale.ROOT).contains(name)) {
+                    return i;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private LocalDateTime parseTimestamp(String text) {
+        try {
+            return OffsetDateTime.parse(text).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(text.replace(' ', 'T'));
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private Double parseValue(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String normaliseRegion(String region) {
+        return region.trim().toLowerCase(Locale.ROOT).replace(' ', '-');
+    }
+}
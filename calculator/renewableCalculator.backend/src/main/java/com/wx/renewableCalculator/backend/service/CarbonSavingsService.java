@@ -1,15 +1,27 @@
 package com.wx.renewableCalculator.backend.service;
 
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsResult;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsRequest;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsResult;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
 @Service
 public class CarbonSavingsService {
     
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+    
+    @Autowired
+    private CarbonIntensityService carbonIntensityService;
+    
     // UK 2025 emission factors (from the document)
-    private static final double DEFAULT_GAS_EMISSION_FACTOR = 0.183;        // kgCO₂/kWh for gas
-    private static final double DEFAULT_ELECTRICITY_EMISSION_FACTOR = 0.148; // kgCO₂/kWh for electricity
+    static final double DEFAULT_GAS_EMISSION_FACTOR = 0.183;        // kgCO₂/kWh for gas
+    static final double DEFAULT_ELECTRICITY_EMISSION_FACTOR = 0.148; // kgCO₂/kWh for electricity
     
     /**
      * Calculate monthly carbon savings for renewable energy systems
@@ -19,6 +31,10 @@ public class CarbonSavingsService {
      * 2. Indirect emissions before: CSbefore = Etotal × 0.148
      * 3. Indirect emissions after: CSindirect,after = (Etotal - Esolar,cm - Eheat_pump + Dhot_water + Dheating,m) × 0.148
      * 
+     * With a half-hourly intensity region, each electricity flow takes the intensity of the hours it happens in
+     * (∑ energy(h) × intensity(h) / ∑ energy(h)), and exported solar is credited at the intensity it displaces.
+     * Heat pump usage has no hourly shape, so it takes the month's cached mean intensity.
+     * 
      * @param request Contains equipment selection and energy consumption parameters
      * @return CarbonSavingsResult with detailed breakdown of carbon savings
      */
@@ -38,6 +54,13 @@ public class CarbonSavingsService {
         double electricityEmissionFactor = request.getElectricityEmissionFactor() != null ? 
             request.getElectricityEmissionFactor() : DEFAULT_ELECTRICITY_EMISSION_FACTOR;
         
+        // Hour-weighted intensities of the household's load, self-consumption and export
+        EnergyBalanceService.WeightedBalance regionalIntensity = getRegionalIntensity(request);
+        if (regionalIntensity != null) {
+            electricityEmissionFactor = regionalIntensity.getLoadAverage();
+            result.setCarbonIntensityRegion(request.getCarbonIntensityRegion());
+        }
+        
         result.setGasEmissionFactor(gasEmissionFactor);
         result.setElectricityEmissionFactor(electricityEmissionFactor);
         
@@ -53,10 +76,19 @@ public class CarbonSavingsService {
         
         // Calculate indirect emissions after upgrade (Scope 2)
         double indirectEmissionsAfter = calculateIndirectEmissionsAfter(request, electricityEmissionFactor, result);
+        double exportCredit = 0.0;
+        if (regionalIntensity != null) {
+            // Self-consumption displaces imports at the intensity of sunny hours, not the load average
+            double selfConsumed = getSolarSelfConsumed(request);
+            indirectEmissionsAfter = weightedEmissionsAfter(indirectEmissionsAfter, selfConsumed,
+                getHeatPumpUsage(request), electricityEmissionFactor, regionalIntensity, getMeanIntensity(request, regionalIntensity));
+            exportCredit = getSolarExported(request, selfConsumed) * regionalIntensity.getExportedAverage();
+        }
         result.setIndirectEmissionsAfterKgCO2(indirectEmissionsAfter);
+        result.setSolarExportDisplacedKgCO2(exportCredit);
         
         // Calculate indirect emissions savings
-        double indirectEmissionsSavings = indirectEmissionsBefore - indirectEmissionsAfter;
+        double indirectEmissionsSavings = indirectEmissionsBefore - indirectEmissionsAfter + exportCredit;
         result.setIndirectEmissionsSavingsKgCO2(indirectEmissionsSavings);
         
         // Calculate total carbon savings
@@ -75,19 +107,115 @@ public class CarbonSavingsService {
         return result;
     }
     
+    /**
+     * Calculate all twelve months in one pass over monthly arrays
+     * Same formulas as calculateCarbonSavings; solar self-consumption comes from one hourly balance for the year.
+     * 
+     * @param request Equipment selection and 12-element monthly energy arrays
+     * @return Monthly arrays of each emissions component plus annual totals
+     */
+    public AnnualCarbonSavingsResult calculateAnnualCarbonSavings(AnnualCarbonSavingsRequest request) {
+        boolean hasSolar = Boolean.TRUE.equals(request.getHasSolarPanels());
+        boolean hasHeatPump = Boolean.TRUE.equals(request.getHasHeatPump());
+        double[] gas = MonthlyValues.fromArray(request.getGasConsumptionKwh(), "gasConsumptionKwh");
+        double[] demand = MonthlyValues.fromArray(request.getTotalElectricityDemandKwh(), "totalElectricityDemandKwh");
+        double[] generation = hasSolar ? MonthlyValues.fromArray(request.getSolarGenerationKwh(), "solarGenerationKwh") : new double[12];
+        double[] heatPumpSaved = hasHeatPump ? MonthlyValues.fromArray(request.getHeatPumpElectricitySavedKwh(), "heatPumpElectricitySavedKwh") : new double[12];
+        double[] hotWater = hasHeatPump ? MonthlyValues.fromArray(request.getHotWaterHeatPumpUsageKwh(), "hotWaterHeatPumpUsageKwh") : new double[12];
+        double[] heating = hasHeatPump ? MonthlyValues.fromArray(request.getHeatingHeatPumpUsageKwh(), "heatingHeatPumpUsageKwh") : new double[12];
+        
+        double gasEmissionFactor = request.getGasEmissionFactor() != null ? 
+            request.getGasEmissionFactor() : DEFAULT_GAS_EMISSION_FACTOR;
+        double electricityEmissionFactor = request.getElectricityEmissionFactor() != null ? 
+            request.getElectricityEmissionFactor() : DEFAULT_ELECTRICITY_EMISSION_FACTOR;
+        IntToDoubleFunction hourlyIntensity = request.getElectricityEmissionFactor() == null && request.getCarbonIntensityRegion() != null
+            ? carbonIntensityService.getHourlyIntensity(request.getCarbonIntensityRegion()) : null;
+        double[] monthlyMeanIntensity = hourlyIntensity != null
+            ? carbonIntensityService.getMonthlyMeanIntensity(request.getCarbonIntensityRegion()) : null;
+        
+        // Esolar,cm: given, or from the hourly balance of generation against Etotal
+        double[] selfConsumed = new double[12];
+        if (hasSolar && request.getSolarSelfConsumedKwh() != null) {
+            selfConsumed = MonthlyValues.fromArray(request.getSolarSelfConsumedKwh(), "solarSelfConsumedKwh");
+        } else if (hasSolar) {
+            EnergyBalanceService.EnergyBalance balance = energyBalanceService.calculateMonthly(generation, demand,
+                request.getLatitude(), request.getHomeOccupancyFactor(), request.getHasHeatPump());
+            for (int m = 0; m < 12; m++) {
+                selfConsumed[m] = balance.getSelfConsumed(m + 1);
+            }
+        }
+        
+        double[] total = new double[12];
+        double[] direct = new double[12];
+        double[] before = new double[12];
+        double[] after = new double[12];
+        double[] indirectSavings = new double[12];
+        double[] exportCredit = new double[12];
+        double[] electricityAfter = new double[12];
+        double[] electricityFactors = new double[12];
+        double emissionsBefore = 0.0;
+        
+        for (int m = 0; m < 12; m++) {
+            double factor = electricityEmissionFactor;
+            EnergyBalanceService.WeightedBalance weighted = null;
+            if (monthlyMeanIntensity != null && demand[m] <= 0 && generation[m] <= 0) {
+                // No household load or solar to weight: only heat pump usage, at the month's cached mean
+                factor = monthlyMeanIntensity[m];
+            } else if (hourlyIntensity != null) {
+                weighted = energyBalanceService.calculateWeighted(m + 1, generation[m], demand[m], request.getLatitude(),
+                    request.getHomeOccupancyFactor(), request.getHasHeatPump(), hourlyIntensity);
+                factor = weighted.getLoadAverage();
+            }
+            electricityFactors[m] = factor;
+            
+            direct[m] = hasHeatPump ? directEmissionsSavings(gas[m], gasEmissionFactor) : 0.0;
+            before[m] = indirectEmissionsBefore(demand[m], factor);
+            electricityAfter[m] = electricityAfter(demand[m], selfConsumed[m], heatPumpSaved[m], hotWater[m], heating[m]);
+            after[m] = electricityAfter[m] * factor;
+            if (weighted != null) {
+                after[m] = weightedEmissionsAfter(after[m], selfConsumed[m], hotWater[m] + heating[m], factor, weighted,
+                    monthlyMeanIntensity[m]);
+                exportCredit[m] = Math.max(0, generation[m] - selfConsumed[m]) * weighted.getExportedAverage();
+            }
+            indirectSavings[m] = before[m] - after[m] + exportCredit[m];
+            total[m] = direct[m] + indirectSavings[m];
+            emissionsBefore += Math.max(0, gas[m]) * gasEmissionFactor + before[m];
+        }
+        
+        AnnualCarbonSavingsResult result = new AnnualCarbonSavingsResult();
+        result.setHasSolarPanels(request.getHasSolarPanels());
+        result.setHasHeatPump(request.getHasHeatPump());
+        result.setHasBattery(request.getHasBattery());
+        result.setGasEmissionFactor(gasEmissionFactor);
+        result.setCarbonIntensityRegion(hourlyIntensity != null ? request.getCarbonIntensityRegion() : null);
+        result.setTotalCarbonSavingsKgCO2(total);
+        result.setDirectEmissionsSavingsKgCO2(direct);
+        result.setIndirectEmissionsBeforeKgCO2(before);
+        result.setIndirectEmissionsAfterKgCO2(after);
+        result.setIndirectEmissionsSavingsKgCO2(indirectSavings);
+        result.setSolarExportDisplacedKgCO2(exportCredit);
+        result.setSolarSelfConsumedKwh(selfConsumed);
+        result.setTotalElectricityAfterKwh(electricityAfter);
+        result.setElectricityEmissionFactor(electricityFactors);
+        
+        double annualSavings = Arrays.stream(total).sum();
+        result.setAnnualCarbonSavingsKgCO2(annualSavings);
+        result.setAnnualDirectEmissionsSavingsKgCO2(Arrays.stream(direct).sum());
+        result.setAnnualIndirectEmissionsSavingsKgCO2(Arrays.stream(indirectSavings).sum());
+        result.setCarbonReductionPercentage(emissionsBefore > 0 ? annualSavings / emissionsBefore * 100 : 0);
+        return result;
+    }
+    
     /**
      * Calculate direct emissions savings (Scope 1)
      * Formula: CSdirect,save = Egas × 0.183
      * If no heat pump installed, return 0
      */
     private double calculateDirectEmissionsSavings(CarbonSavingsRequest request, double gasEmissionFactor) {
-        if (!Boolean.TRUE.equals(request.getHasHeatPump()) || 
-            request.getGasConsumptionKwh() == null || request.getGasConsumptionKwh() <= 0) {
+        if (!Boolean.TRUE.equals(request.getHasHeatPump()) || request.getGasConsumptionKwh() == null) {
             return 0.0;
         }
-        
-        double gasConsumption = request.getGasConsumptionKwh();
-        return gasConsumption * gasEmissionFactor;
+        return directEmissionsSavings(request.getGasConsumptionKwh(), gasEmissionFactor);
     }
     
     /**
@@ -95,12 +223,10 @@ public class CarbonSavingsService {
      * Formula: CSbefore = Etotal × 0.148
      */
     private double calculateIndirectEmissionsBefore(CarbonSavingsRequest request, double electricityEmissionFactor) {
-        if (request.getTotalElectricityDemandKwh() == null || request.getTotalElectricityDemandKwh() <= 0) {
+        if (request.getTotalElectricityDemandKwh() == null) {
             return 0.0;
         }
-        
-        double totalElectricityDemand = request.getTotalElectricityDemandKwh();
-        return totalElectricityDemand * electricityEmissionFactor;
+        return indirectEmissionsBefore(request.getTotalElectricityDemandKwh(), electricityEmissionFactor);
     }
     
     /**
@@ -115,8 +241,7 @@ public class CarbonSavingsService {
             request.getTotalElectricityDemandKwh() : 0.0;
         
         // Esolar,cm - Solar self-consumed energy (reduces grid demand)
-        double solarSelfConsumed = Boolean.TRUE.equals(request.getHasSolarPanels()) && 
-            request.getSolarSelfConsumedKwh() != null ? request.getSolarSelfConsumedKwh() : 0.0;
+        double solarSelfConsumed = getSolarSelfConsumed(request);
         
         // Eheat_pump - Electricity saved by heat pump (reduces grid demand)
         double heatPumpElectricitySaved = Boolean.TRUE.equals(request.getHasHeatPump()) && 
@@ -130,21 +255,123 @@ public class CarbonSavingsService {
         double heatingHeatPumpUsage = Boolean.TRUE.equals(request.getHasHeatPump()) && 
             request.getHeatingHeatPumpUsageKwh() != null ? request.getHeatingHeatPumpUsageKwh() : 0.0;
         
-        // Apply the formula: (Etotal - Esolar,cm - Eheat_pump + Dhot_water + Dheating,m)
-        double totalElectricityAfter = totalElectricityDemand 
-                                     - solarSelfConsumed 
-                                     - heatPumpElectricitySaved 
-                                     + hotWaterHeatPumpUsage 
-                                     + heatingHeatPumpUsage;
-        
-        // Ensure non-negative
-        totalElectricityAfter = Math.max(0, totalElectricityAfter);
+        // (Etotal - Esolar,cm - Eheat_pump + Dhot_water + Dheating,m), non-negative
+        double totalElectricityAfter = electricityAfter(totalElectricityDemand, solarSelfConsumed,
+            heatPumpElectricitySaved, hotWaterHeatPumpUsage, heatingHeatPumpUsage);
         
         result.setTotalElectricityAfterKwh(totalElectricityAfter);
         
         return totalElectricityAfter * electricityEmissionFactor;
     }
     
+    /**
+     * CSdirect,save = Egas × 0.183 (0 without gas)
+     */
+    static double directEmissionsSavings(double gasConsumption, double gasEmissionFactor) {
+        return gasConsumption > 0 ? gasConsumption * gasEmissionFactor : 0.0;
+    }
+    
+    /**
+     * CSbefore = Etotal × 0.148 (0 without demand)
+     */
+    static double indirectEmissionsBefore(double totalElectricityDemand, double electricityEmissionFactor) {
+        return Math.max(0, totalElectricityDemand) * electricityEmissionFactor;
+    }
+    
+    /**
+     * Grid electricity after the upgrade: Etotal - Esolar,cm - Eheat_pump + Dhot_water + Dheating,m (non-negative)
+     */
+    static double electricityAfter(double totalElectricityDemand, double solarSelfConsumed, double heatPumpElectricitySaved,
+                                   double hotWaterHeatPumpUsage, double heatingHeatPumpUsage) {
+        return Math.max(0, totalElectricityDemand - solarSelfConsumed - heatPumpElectricitySaved
+            + hotWaterHeatPumpUsage + heatingHeatPumpUsage);
+    }
+    
+    /**
+     * Re-value the self-consumed share of emissions after at the solar-weighted intensity,
+     * and heat pump usage at the mean intensity of the period
+     */
+    private static double weightedEmissionsAfter(double emissionsAfter, double selfConsumed, double heatPumpUsage,
+                                                 double loadFactor, EnergyBalanceService.WeightedBalance weighted,
+                                                 double meanIntensity) {
+        return Math.max(0, emissionsAfter + selfConsumed * (loadFactor - weighted.getSelfConsumedAverage())
+            + heatPumpUsage * (meanIntensity - loadFactor));
+    }
+    
+    /**
+     * Heat pump electricity usage (Dhot_water + Dheating,m), 0 without a heat pump
+     */
+    private static double getHeatPumpUsage(CarbonSavingsRequest request) {
+        if (!Boolean.TRUE.equals(request.getHasHeatPump())) {
+            return 0.0;
+        }
+        return (request.getHotWaterHeatPumpUsageKwh() != null ? request.getHotWaterHeatPumpUsageKwh() : 0.0)
+            + (request.getHeatingHeatPumpUsageKwh() != null ? request.getHeatingHeatPumpUsageKwh() : 0.0);
+    }
+    
+    /**
+     * Mean regional intensity of the request's month from the cached monthly means, or of the year without a month
+     */
+    private double getMeanIntensity(CarbonSavingsRequest request, EnergyBalanceService.WeightedBalance regionalIntensity) {
+        Integer month = request.getMonth();
+        if (month == null || month < 1 || month > 12) {
+            return regionalIntensity.getMean();
+        }
+        return carbonIntensityService.getMonthlyMeanIntensity(request.getCarbonIntensityRegion())[month - 1];
+    }
+    
+    /**
+     * Get solar self-consumed energy (Esolar,cm)
+     * Given directly, or from the hourly balance of solar generation against Etotal
+     */
+    private double getSolarSelfConsumed(CarbonSavingsRequest request) {
+        if (!Boolean.TRUE.equals(request.getHasSolarPanels())) {
+            return 0.0;
+        }
+        if (request.getSolarSelfConsumedKwh() != null) {
+            return request.getSolarSelfConsumedKwh();
+        }
+        if (request.getSolarGenerationKwh() == null || request.getSolarGenerationKwh() <= 0) {
+            return 0.0;
+        }
+        
+        double generation = request.getSolarGenerationKwh();
+        double totalElectricityDemand = request.getTotalElectricityDemandKwh() != null ? 
+            request.getTotalElectricityDemandKwh() : 0.0;
+        return generation * energyBalanceService.calculateSelfConsumptionRate(request.getMonth(), generation,
+            totalElectricityDemand, request.getLatitude(), request.getHomeOccupancyFactor(), request.getHasHeatPump());
+    }
+    
+    /**
+     * Get exported solar energy (generation - self-consumed), 0 if generation is unknown
+     */
+    private double getSolarExported(CarbonSavingsRequest request, double selfConsumed) {
+        if (!Boolean.TRUE.equals(request.getHasSolarPanels()) || request.getSolarGenerationKwh() == null) {
+            return 0.0;
+        }
+        return Math.max(0, request.getSolarGenerationKwh() - selfConsumed);
+    }
+    
+    /**
+     * Weight the regional half-hourly intensity by the household's hourly load and solar shapes
+     * Null when an explicit electricity factor is given or the region has no series
+     */
+    private EnergyBalanceService.WeightedBalance getRegionalIntensity(CarbonSavingsRequest request) {
+        if (request.getElectricityEmissionFactor() != null || request.getCarbonIntensityRegion() == null) {
+            return null;
+        }
+        IntToDoubleFunction hourlyIntensity =
+            carbonIntensityService.getHourlyIntensity(request.getCarbonIntensityRegion());
+        if (hourlyIntensity == null) {
+            return null;
+        }
+        double generation = Boolean.TRUE.equals(request.getHasSolarPanels()) && request.getSolarGenerationKwh() != null
+            ? request.getSolarGenerationKwh() : 0.0;
+        double demand = request.getTotalElectricityDemandKwh() != null ? request.getTotalElectricityDemandKwh() : 0.0;
+        return energyBalanceService.calculateWeighted(request.getMonth(), generation, demand, request.getLatitude(),
+            request.getHomeOccupancyFactor(), request.getHasHeatPump(), hourlyIntensity);
+    }
+    
     /**
      * Get direct emissions before upgrade (for percentage calculation)
      */
@@ -169,10 +396,7 @@ public class CarbonSavingsService {
      * Set breakdown values in result
      */
     private void setBreakdownValues(CarbonSavingsRequest request, CarbonSavingsResult result) {
-        result.setSolarSelfConsumedKwh(
-            Boolean.TRUE.equals(request.getHasSolarPanels()) && request.getSolarSelfConsumedKwh() != null ? 
-            request.getSolarSelfConsumedKwh() : 0.0
-        );
+        result.setSolarSelfConsumedKwh(getSolarSelfConsumed(request));
         
         result.setHeatPumpElectricitySavedKwh(
             Boolean.TRUE.equals(request.getHasHeatPump()) && request.getHeatPumpElectricitySavedKwh() != null ? 
@@ -0,0 +1,301 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LoadArchetype;
+import com.wx.renewableCalculator.backend.dto.OccupancyPattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Hourly energy balance between solar generation and household load
+ * For each hour h of the reference year:
+ * Self-consumed(h) = min(Generation(h), Load(h))
+ * Exported(h) = Generation(h) - Self-consumed(h)
+ * Imported(h) = Load(h) - Self-consumed(h)
+ * Results are summed per month. The loops work on primitive arrays and allocate nothing per hour.
+ */
+@Service
+public class EnergyBalanceService {
+
+    @Autowired
+    private SolarHourlyProfileService solarHourlyProfileService;
+
+    @Autowired
+    private LoadProfileLibraryService loadProfileLibraryService;
+
+    /**
+     * Balance two explicit hourly series
+     * @param generation Solar generation per hour (kWh, 8760 values)
+     * @param load Household load per hour (kWh, 8760 values)
+     */
+    public EnergyBalance calculate(float[] generation, float[] load) {
+        if (generation.length != ReferenceYear.HOURS_PER_YEAR || load.length != ReferenceYear.HOURS_PER_YEAR) {
+            throw new IllegalArgumentException("Generation and load series must contain 8760 hourly values");
+        }
+
+        EnergyBalance balance = new EnergyBalance();
+        for (int month = 1; month <= 12; month++) {
+            double generated = 0.0;
+            double consumed = 0.0;
+            double selfConsumed = 0.0;
+            int end = ReferenceYear.monthEndHour(month);
+            for (int h = ReferenceYear.monthStartHour(month); h < end; h++) {
+                float g = generation[h];
+                float l = load[h];
+                generated += g;
+                consumed += l;
+                selfConsumed += Math.min(g, l);
+            }
+            balance.set(month, generated, consumed, selfConsumed);
+        }
+        return balance;
+    }
+
+    /**
+     * Balance monthly totals by spreading them over the hourly solar and load shapes
+     * The load shape is blended between the two occupancy patterns by the home occupancy factor s (0-1).
+     *
+     * @param monthlyGenerationKwh Solar generation per month (kWh, 12 values)
+     * @param monthlyLoadKwh Electricity demand per month (kWh, 12 values)
+     * @param latitude Site latitude for the solar shape (London if null)
+     * @param homeOccupancyFactor s: 0=away, 0.5=half day, 1=most day (0 if null)
+     * @param hasHeatPump Use the heat pump load archetype
+     */
+    public EnergyBalance calculateMonthly(double[] monthlyGenerationKwh, double[] monthlyLoadKwh, Double latitude,
+                                          Double homeOccupancyFactor, Boolean hasHeatPump) {
+        EnergyBalance balance = new EnergyBalance();
+        for (int month = 1; month <= 12; month++) {
+            balanceMonth(balance, month, monthlyGenerationKwh[month - 1], monthlyLoadKwh[month - 1],
+                latitude, homeOccupancyFactor, hasHeatPump);
+        }
+        return balance;
+    }
+
+    /**
+     * Balance a single month's totals (month 1-12)
+     */
+    public EnergyBalance calculateMonth(int month, double generationKwh, double loadKwh, Double latitude,
+                                        Double homeOccupancyFactor, Boolean hasHeatPump) {
+        EnergyBalance balance = new EnergyBalance();
+        balanceMonth(balance, month, generationKwh, loadKwh, latitude, homeOccupancyFactor, hasHeatPump);
+        return balance;
+    }
+
+    /**
+     * Self-consumption rate (self-consumed / generation) for a month, or averaged over all
+     * months' shapes when the month is unknown
+     */
+    public double calculateSelfConsumptionRate(Integer month, double generationKwh, double loadKwh, Double latitude,
+                                               Double homeOccupancyFactor, Boolean hasHeatPump) {
+        if (generationKwh <= 0) {
+            return 0.0;
+        }
+        if (month != null && month >= 1 && month <= 12) {
+            return calculateMonth(month, generationKwh, loadKwh, latitude, homeOccupancyFactor, hasHeatPump)
+                .getSelfConsumed(month) / generationKwh;
+        }
+
+        double selfConsumed = 0.0;
+        EnergyBalance balance = new EnergyBalance();
+        for (int m = 1; m <= 12; m++) {
+            balanceMonth(balance, m, generationKwh, loadKwh, latitude, homeOccupancyFactor, hasHeatPump);
+            selfConsumed += balance.getSelfConsumed(m);
+        }
+        return selfConsumed / 12.0 / generationKwh;
+    }
+
+    /**
+     * Import price of the self-consumed energy (pence/kWh): ∑ self-consumed(h) × price(h) / ∑ self-consumed(h)
+     * for a month, or over all months' shapes when the month is unknown
+     * @param hourlyPrices Import price per hour (pence/kWh, 8760 values)
+     */
+    public double calculateSelfConsumedPrice(Integer month, double generationKwh, double loadKwh, Double latitude,
+                                             Double homeOccupancyFactor, Boolean hasHeatPump, float[] hourlyPrices) {
+        return calculateWeighted(month, generationKwh, loadKwh, latitude, homeOccupancyFactor, hasHeatPump,
+            h -> hourlyPrices[h]).getSelfConsumedAverage();
+    }
+
+    /**
+     * Weight the load, self-consumed and exported energy of each hour by an hourly series (a price or
+     * carbon intensity), for a month or for every month's shapes when the month is unknown
+     * @param hourlyWeight Weight of hour h of the reference year
+     */
+    public WeightedBalance calculateWeighted(Integer month, double generationKwh, double loadKwh, Double latitude,
+                                             Double homeOccupancyFactor, Boolean hasHeatPump, IntToDoubleFunction hourlyWeight) {
+        LoadArchetype archetype = Boolean.TRUE.equals(hasHeatPump) ? LoadArchetype.HEAT_PUMP : LoadArchetype.STANDARD;
+        float[] solarShape = solarHourlyProfileService.getNormalisedProfile(latitude);
+        float[] homeShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.HOME_ALL_DAY);
+        float[] awayShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.OUT_DURING_DAY);
+        double s = homeOccupancyFactor != null ? Math.max(0.0, Math.min(1.0, homeOccupancyFactor)) : 0.0;
+        double generation = Math.max(0.0, generationKwh);
+        double homeLoad = Math.max(0.0, loadKwh) * s;
+        double awayLoad = Math.max(0.0, loadKwh) * (1.0 - s);
+
+        boolean knownMonth = month != null && month >= 1 && month <= 12;
+        int start = ReferenceYear.monthStartHour(knownMonth ? month : 1);
+        int end = ReferenceYear.monthEndHour(knownMonth ? month : 12);
+        WeightedBalance balance = new WeightedBalance();
+        for (int h = start; h < end; h++) {
+            double w = hourlyWeight.applyAsDouble(h);
+            double g = generation * solarShape[h];
+            double l = homeLoad * homeShape[h] + awayLoad * awayShape[h];
+            double selfConsumed = Math.min(g, l);
+            balance.load += l;
+            balance.weightedLoad += l * w;
+            balance.selfConsumed += selfConsumed;
+            balance.weightedSelfConsumed += selfConsumed * w;
+            balance.exported += g - selfConsumed;
+            balance.weightedExported += (g - selfConsumed) * w;
+            balance.weightTotal += w;
+        }
+        balance.hours = end - start;
+        return balance;
+    }
+
+    /**
+     * Spread monthly totals over the hourly solar and load shapes into caller-provided 8760-hour arrays
+     * (same shapes as calculateMonthly)
+     */
+    public void fillHourlySeries(double[] monthlyGenerationKwh, double[] monthlyLoadKwh, Double latitude,
+                                 Double homeOccupancyFactor, Boolean hasHeatPump, float[] generation, float[] load) {
+        LoadArchetype archetype = Boolean.TRUE.equals(hasHeatPump) ? LoadArchetype.HEAT_PUMP : LoadArchetype.STANDARD;
+        float[] solarShape = solarHourlyProfileService.getNormalisedProfile(latitude);
+        float[] homeShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.HOME_ALL_DAY);
+        float[] awayShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.OUT_DURING_DAY);
+        double s = homeOccupancyFactor != null ? Math.max(0.0, Math.min(1.0, homeOccupancyFactor)) : 0.0;
+
+        for (int month = 1; month <= 12; month++) {
+            double monthlyGeneration = Math.max(0.0, monthlyGenerationKwh[month - 1]);
+            double homeLoad = Math.max(0.0, monthlyLoadKwh[month - 1]) * s;
+            double awayLoad = Math.max(0.0, monthlyLoadKwh[month - 1]) * (1.0 - s);
+            int end = ReferenceYear.monthEndHour(month);
+            for (int h = ReferenceYear.monthStartHour(month); h < end; h++) {
+                generation[h] = (float) (monthlyGeneration * solarShape[h]);
+                load[h] = (float) (homeLoad * homeShape[h] + awayLoad * awayShape[h]);
+            }
+        }
+    }
+
+    private void balanceMonth(EnergyBalance balance, int month, double generationKwh, double loadKwh, Double latitude,
+                              Double homeOccupancyFactor, Boolean hasHeatPump) {
+        LoadArchetype archetype = Boolean.TRUE.equals(hasHeatPump) ? LoadArchetype.HEAT_PUMP : LoadArchetype.STANDARD;
+        float[] solarShape = solarHourlyProfileService.getNormalisedProfile(latitude);
+        float[] homeShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.HOME_ALL_DAY);
+        float[] awayShape = loadProfileLibraryService.getNormalisedHourlyProfile(archetype, OccupancyPattern.OUT_DURING_DAY);
+
+        double s = homeOccupancyFactor != null ? Math.max(0.0, Math.min(1.0, homeOccupancyFactor)) : 0.0;
+        double homeLoad = Math.max(0.0, loadKwh) * s;
+        double awayLoad = Math.max(0.0, loadKwh) * (1.0 - s);
+        double generation = Math.max(0.0, generationKwh);
+
+        double selfConsumed = 0.0;
+        int end = ReferenceYear.monthEndHour(month);
+        for (int h = ReferenceYear.monthStartHour(month); h < end; h++) {
+            double g = generation * solarShape[h];
+            double l = homeLoad * homeShape[h] + awayLoad * awayShape[h];
+            selfConsumed += Math.min(g, l);
+        }
+        balance.set(month, generation, homeLoad + awayLoad, selfConsumed);
+    }
+
+    /**
+     * Energy-weighted averages of an hourly series over the load, self-consumed and exported energy
+     * Each falls back to the plain mean of the series when its energy is zero.
+     */
+    public static final class WeightedBalance {
+        private double load;
+        private double weightedLoad;
+        private double selfConsumed;
+        private double weightedSelfConsumed;
+        private double exported;
+        private double weightedExported;
+        private double weightTotal;
+        private int hours;
+
+        public double getLoadAverage() {
+            return load > 0 ? weightedLoad / load : getMean();
+        }
+
+        public double getSelfConsumedAverage() {
+            return selfConsumed > 0 ? weightedSelfConsumed / selfConsumed : getMean();
+        }
+
+        public double getExportedAverage() {
+            return exported > 0 ? weightedExported / exported : getMean();
+        }
+
+        public double getMean() {
+            return hours > 0 ? weightTotal / hours : 0.0;
+        }
+    }
+
+    /**
+     * Monthly energy balance (kWh), January (index 0) to December (index 11)
+     */
+    public static final class EnergyBalance {
+        private final double[] generation = new double[12];
+        private final double[] load = new double[12];
+        private final double[] selfConsumed = new double[12];
+        private final double[] exported = new double[12];
+        private final double[] imported = new double[12];
+
+        private void set(int month, double generated, double consumed, double selfConsumedKwh) {
+            int i = month - 1;
+            generation[i] = generated;
+            load[i] = consumed;
+            selfConsumed[i] = selfConsumedKwh;
+            exported[i] = Math.max(0.0, generated - selfConsumedKwh);
+            imported[i] = Math.max(0.0, consumed - selfConsumedKwh);
+        }
+
+        public double getGeneration(int month) {
+            return generation[month - 1];
+        }
+
+        public double getLoad(int month) {
+            return load[month - 1];
+        }
+
+        public double getSelfConsumed(int month) {
+            return selfConsumed[month - 1];
+        }
+
+        public double getExported(int month) {
+            return exported[month - 1];
+        }
+
+        public double getImported(int month) {
+            return imported[month - 1];
+        }
+
+        /** Self-consumed / generation for a month (0 if nothing generated) */
+        public double getSelfConsumptionRate(int month) {
+            return generation[month - 1] > 0 ? selfConsumed[month - 1] / generation[month - 1] : 0.0;
+        }
+
+        public double getAnnualGeneration() {
+            return sum(generation);
+        }
+
+        public double getAnnualSelfConsumed() {
+            return sum(selfConsumed);
+        }
+
+        public double getAnnualExported() {
+            return sum(exported);
+        }
+
+        public double getAnnualImported() {
+            return sum(imported);
+        }
+
+        private static double sum(double[] values) {
+            double total = 0.0;
+            for (double value : values) {
+                total += value;
+            }
+            return total;
+        }
+    }
+}
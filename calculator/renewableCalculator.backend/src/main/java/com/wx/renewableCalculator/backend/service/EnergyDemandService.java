@@ -6,7 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,13 +26,13 @@ public class EnergyDemandService {
     private SpaceHeatingElectricityDemandService spaceHeatingElectricityDemandService;
 
     // Monthly electricity demand proportions for standard households (%)
-    private static final double[] STANDARD_MONTHLY_PROPORTIONS = {
+    static final double[] STANDARD_MONTHLY_PROPORTIONS = {
         11.0, 10.0, 9.0, 8.0, 7.0, 6.0,   // Jan-Jun
         6.0, 6.0, 7.0, 8.0, 9.0, 13.0     // Jul-Dec
     };
 
     // Monthly electricity demand proportions for households with heat pumps (%)
-    private static final double[] HEAT_PUMP_MONTHLY_PROPORTIONS = {
+    static final double[] HEAT_PUMP_MONTHLY_PROPORTIONS = {
         12.0, 11.0, 10.0, 8.0, 6.0, 5.0,  // Jan-Jun
         5.0, 5.0, 6.0, 7.0, 9.0, 16.0     // Jul-Dec
     };
@@ -46,8 +45,6 @@ public class EnergyDemandService {
      */
     public ElectricityDemandResult calculateElectricityDemand(ElectricityDemandRequest request) {
         
-        ElectricityDemandResult result = new ElectricityDemandResult();
-        
         // Case 1: User provided monthly electricity usage
         if (request.getMonthlyElectricityUsage() != null && !request.getMonthlyElectricityUsage().isEmpty()) {
             return calculateFromMonthlyInput(request);
@@ -71,43 +68,10 @@ public class EnergyDemandService {
      * Calculate electricity demand from user's monthly input
      */
     private ElectricityDemandResult calculateFromMonthlyInput(ElectricityDemandRequest request) {
-        ElectricityDemandResult result = new ElectricityDemandResult();
-        
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        double totalAnnual = 0.0;
-        double peakDemand = 0.0;
-        double lowDemand = Double.MAX_VALUE;
-        int peakMonth = 1;
-        int lowMonth = 1;
-        
-        // Process user's monthly input
-        for (int month = 1; month <= 12; month++) {
-            Double demandValue = request.getMonthlyElectricityUsage().getOrDefault(month, 0.0);
-            BigDecimal monthlyDemandBD = BigDecimal.valueOf(demandValue).setScale(2, RoundingMode.HALF_UP);
-            
-            monthlyDemand.put(month, monthlyDemandBD);
-            totalAnnual += demandValue;
-            
-            // Track peak and low months
-            if (demandValue > peakDemand) {
-                peakDemand = demandValue;
-                peakMonth = month;
-            }
-            if (demandValue < lowDemand) {
-                lowDemand = demandValue;
-                lowMonth = month;
-            }
-        }
+        double[] monthlyDemand = MonthlyValues.fromMap(request.getMonthlyElectricityUsage());
         
-        result.setMonthlyElectricityDemand(monthlyDemand);
-        result.setAnnualElectricityDemand(BigDecimal.valueOf(totalAnnual).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("user_monthly");
+        ElectricityDemandResult result = toResult(monthlyDemand, "user_monthly");
         result.setDescription("Monthly electricity demand calculated from user's monthly input");
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setLowMonth(lowMonth);
-        
         return result;
     }
 
@@ -115,52 +79,23 @@ public class EnergyDemandService {
      * Calculate electricity demand from user's annual input using monthly proportions
      */
     private ElectricityDemandResult calculateFromAnnualInput(ElectricityDemandRequest request) {
-        ElectricityDemandResult result = new ElectricityDemandResult();
-        
         // Determine which proportions to use
         boolean hasHeatPump = request.getHasHeatPump() != null && request.getHasHeatPump();
         double[] proportions = hasHeatPump ? HEAT_PUMP_MONTHLY_PROPORTIONS : STANDARD_MONTHLY_PROPORTIONS;
-        
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        Map<Integer, BigDecimal> monthlyProportions = new HashMap<>();
         double annualUsage = request.getAnnualElectricityUsage();
         
-        double peakDemand = 0.0;
-        double lowDemand = Double.MAX_VALUE;
-        int peakMonth = 1;
-        int lowMonth = 1;
-        
         // Distribute annual usage across months
-        for (int month = 1; month <= 12; month++) {
-            double proportion = proportions[month - 1] / 100.0;
-            double monthlyUsage = annualUsage * proportion;
-            
-            monthlyDemand.put(month, BigDecimal.valueOf(monthlyUsage).setScale(2, RoundingMode.HALF_UP));
-            monthlyProportions.put(month, BigDecimal.valueOf(proportion * 100).setScale(1, RoundingMode.HALF_UP)); // Store as percentage
-            
-            // Track peak and low months
-            if (monthlyUsage > peakDemand) {
-                peakDemand = monthlyUsage;
-                peakMonth = month;
-            }
-            if (monthlyUsage < lowDemand) {
-                lowDemand = monthlyUsage;
-                lowMonth = month;
-            }
+        double[] monthlyDemand = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthlyDemand[m] = annualUsage * proportions[m] / 100.0;
         }
         
-        result.setMonthlyElectricityDemand(monthlyDemand);
-        result.setAnnualElectricityDemand(BigDecimal.valueOf(annualUsage).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("user_annual_distributed");
+        ElectricityDemandResult result = toResult(monthlyDemand, "user_annual_distributed");
+        result.setAnnualElectricityDemand(MonthlyValues.decimal(annualUsage, 2));
         result.setUsedHeatPumpProportions(hasHeatPump);
-        result.setMonthlyProportions(monthlyProportions);
+        result.setMonthlyProportions(MonthlyValues.toMap(proportions, 1)); // Store as percentage
         result.setDescription(String.format("Annual electricity demand (%,.0f kWh) distributed using %s proportions", 
             annualUsage, hasHeatPump ? "heat pump" : "standard"));
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setLowMonth(lowMonth);
-        
         return result;
     }
 
@@ -169,8 +104,6 @@ public class EnergyDemandService {
      * Formula: Etotal = Ebasic + Ehot water + Espace heating
      */
     private ElectricityDemandResult calculateFromEstimation(ElectricityDemandRequest request) {
-        ElectricityDemandResult result = new ElectricityDemandResult();
-        
         // Validate required input
         if (!basicElectricityDemandService.validateBasicInput(request.getOccupants())) {
             throw new IllegalArgumentException("Number of occupants (residents) is required for estimation");
@@ -182,64 +115,59 @@ public class EnergyDemandService {
         double eBasicMonthly = basicElectricityDemandService.calculateEBasic(residentsNumber);
         
         // Calculate monthly hot water demands using specialized service
-        Map<Integer, Double> eHotWaterMonthly = hotWaterElectricityDemandService.calculateEHotWater(request);
+        double[] eHotWaterMonthly = MonthlyValues.fromMap(hotWaterElectricityDemandService.calculateEHotWater(request));
         
         // Calculate monthly space heating demands using specialized service with location data
-        Map<Integer, Double> eSpaceHeatingMonthly;
+        double[] eSpaceHeatingMonthly;
         if (request.getLatitude() != null && request.getLongitude() != null) {
-            eSpaceHeatingMonthly = spaceHeatingElectricityDemandService.calculateESpaceHeating(
-                request, request.getLatitude(), request.getLongitude());
+            eSpaceHeatingMonthly = MonthlyValues.fromMap(spaceHeatingElectricityDemandService.calculateESpaceHeating(
+                request, request.getLatitude(), request.getLongitude()));
         } else {
             // Use default coordinates (London) if location not provided
             System.out.println("Warning: No location coordinates provided, using London default coordinates for space heating calculation");
-            eSpaceHeatingMonthly = spaceHeatingElectricityDemandService.calculateESpaceHeating(request);
+            eSpaceHeatingMonthly = MonthlyValues.fromMap(spaceHeatingElectricityDemandService.calculateESpaceHeating(request));
         }
         
         // Calculate total monthly demand for each month: Etotal = Ebasic + Ehot water + Espace heating
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        double totalAnnual = 0.0;
-        
-        for (int month = 1; month <= 12; month++) {
-            double hotWaterForMonth = eHotWaterMonthly.getOrDefault(month, 0.0);
-            double spaceHeatingForMonth = eSpaceHeatingMonthly.getOrDefault(month, 0.0);
-            double totalForMonth = eBasicMonthly + hotWaterForMonth + spaceHeatingForMonth;
-            monthlyDemand.put(month, BigDecimal.valueOf(totalForMonth).setScale(2, RoundingMode.HALF_UP));
-            totalAnnual += totalForMonth;
+        double[] monthlyDemand = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthlyDemand[m] = eBasicMonthly + eHotWaterMonthly[m] + eSpaceHeatingMonthly[m];
         }
         
-        result.setMonthlyElectricityDemand(monthlyDemand);
-        result.setAnnualElectricityDemand(BigDecimal.valueOf(totalAnnual).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("estimated");
+        ElectricityDemandResult result = toResult(monthlyDemand, "estimated");
         
-        // Calculate average monthly hot water and space heating for description
-        double avgHotWaterMonthly = eHotWaterMonthly.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double avgSpaceHeatingMonthly = eSpaceHeatingMonthly.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        // Average monthly hot water and space heating for description
+        double totalAnnual = MonthlyValues.sum(monthlyDemand);
+        double avgHotWaterMonthly = MonthlyValues.sum(eHotWaterMonthly) / 12.0;
+        double avgSpaceHeatingMonthly = MonthlyValues.sum(eSpaceHeatingMonthly) / 12.0;
         double avgTotalMonthly = totalAnnual / 12.0;
         
         result.setDescription(String.format(
             "Estimated electricity demand for %d residents: Ebasic=%.1f + Ehot water=%.1f + Espace heating=%.1f = %.1f kWh/month avg (%.0f kWh/year)", 
             residentsNumber, eBasicMonthly, avgHotWaterMonthly, avgSpaceHeatingMonthly, avgTotalMonthly, totalAnnual));
         
-        // Find peak and low months
-        double peakDemand = monthlyDemand.values().stream().mapToDouble(bd -> bd.doubleValue()).max().orElse(0.0);
-        double lowDemand = monthlyDemand.values().stream().mapToDouble(bd -> bd.doubleValue()).min().orElse(0.0);
-        
-        int peakMonth = 1;
-        int lowMonth = 1;
-        for (Map.Entry<Integer, BigDecimal> entry : monthlyDemand.entrySet()) {
-            if (entry.getValue().doubleValue() == peakDemand) {
-                peakMonth = entry.getKey();
-            }
-            if (entry.getValue().doubleValue() == lowDemand) {
-                lowMonth = entry.getKey();
-            }
-        }
+        return result;
+    }
+
+    /**
+     * Round monthly demand into the result, with the annual total and peak/low months
+     * Estimated demand takes peak and low months from the rounded values, the latest month on ties;
+     * user input and distributed annual demand take the earliest month on ties.
+     */
+    private ElectricityDemandResult toResult(double[] monthlyDemand, String calculationMethod) {
+        Map<Integer, BigDecimal> rounded = MonthlyValues.toMap(monthlyDemand, 2);
+        boolean estimated = "estimated".equals(calculationMethod);
+        int peakMonth = estimated ? MonthlyValues.latestPeakMonth(rounded) : MonthlyValues.peakMonth(monthlyDemand);
+        int lowMonth = estimated ? MonthlyValues.latestLowMonth(rounded) : MonthlyValues.lowMonth(monthlyDemand);
         
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
+        ElectricityDemandResult result = new ElectricityDemandResult();
+        result.setMonthlyElectricityDemand(rounded);
+        result.setAnnualElectricityDemand(MonthlyValues.decimal(MonthlyValues.sum(monthlyDemand), 2));
+        result.setCalculationMethod(calculationMethod);
+        result.setPeakMonthDemand(MonthlyValues.decimal(monthlyDemand[peakMonth - 1], 2));
         result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
+        result.setLowMonthDemand(MonthlyValues.decimal(monthlyDemand[lowMonth - 1], 2));
         result.setLowMonth(lowMonth);
-        
         return result;
     }
 
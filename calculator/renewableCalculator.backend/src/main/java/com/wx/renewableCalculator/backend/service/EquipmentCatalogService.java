@@ -0,0 +1,285 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.Battery;
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Service holding an in-memory snapshot of the equipment catalog (solar panels, heat pumps, batteries)
+ * The snapshot is loaded once the application is ready and replaced atomically whenever equipment is added,
+ * so lookups by id, listings and sorted listings never query the database on the request path.
+ * Snapshot entities are shared between requests and must be treated as read-only.
+ */
+@Service
+public class EquipmentCatalogService {
+
+    // Default price per panel when the catalog has none (same as EquipmentComparisonService)
+    private static final double DEFAULT_PANEL_PRICE = 300.0;
+
+    @Autowired
+    private SolarPanelTypeRepository solarPanelTypeRepository;
+
+    @Autowired
+    private HeatPumpRepository heatPumpRepository;
+
+    @Autowired
+    private BatteryRepository batteryRepository;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Sort orders precomputed for each catalog: price ascending, efficiency and capacity descending
+     */
+    public enum SortKey {
+        PRICE, EFFICIENCY, CAPACITY;
+
+        /**
+         * Parse a request parameter ("price", "efficiency", "capacity")
+         */
+        public static SortKey fromParameter(String value) {
+            for (SortKey key : values()) {
+                if (key.name().equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort order: " + value);
+        }
+    }
+
+    /**
+     * Load the catalog after startup data initialisation has run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            CatalogSnapshot loaded = refresh();
+            System.out.println(String.format("Equipment catalog loaded: %d solar panels, %d heat pumps, %d batteries",
+                loaded.getSolarPanels().size(), loaded.getHeatPumps().size(), loaded.getBatteries().size()));
+        } catch (Exception e) {
+            System.out.println("Equipment catalog not loaded at startup, loading on first use: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the current snapshot, loading it on first use
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null) {
+            current = refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Reload all equipment from the database and swap the snapshot
+     */
+    public CatalogSnapshot refresh() {
+        CatalogSnapshot loaded = new CatalogSnapshot(
+            solarPanelTypeRepository.findAll(), heatPumpRepository.findAll(), batteryRepository.findAll());
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    public SolarPanelCatalog getSolarPanelCatalog() {
+        return getSnapshot().getSolarPanels();
+    }
+
+    public Catalog<HeatPump, Integer> getHeatPumpCatalog() {
+        return getSnapshot().getHeatPumps();
+    }
+
+    public Catalog<Battery, Integer> getBatteryCatalog() {
+        return getSnapshot().getBatteries();
+    }
+
+    /**
+     * Immutable view of all equipment at one point in time
+     */
+    public static final class CatalogSnapshot {
+        private final SolarPanelCatalog solarPanels;
+        private final Catalog<HeatPump, Integer> heatPumps;
+        private final Catalog<Battery, Integer> batteries;
+
+        CatalogSnapshot(List<SolarPanelType> solarPanels, List<HeatPump> heatPumps, List<Battery> batteries) {
+            this.solarPanels = new SolarPanelCatalog(validPanels(solarPanels));
+
+            Map<SortKey, Comparator<HeatPump>> heatPumpOrders = new EnumMap<>(SortKey.class);
+            heatPumpOrders.put(SortKey.PRICE, by(HeatPump::getCost, false));
+            heatPumpOrders.put(SortKey.EFFICIENCY, by(HeatPump::getCop, true));
+            this.heatPumps = new Catalog<>(heatPumps, HeatPump::getId, heatPumpOrders);
+
+            Map<SortKey, Comparator<Battery>> batteryOrders = new EnumMap<>(SortKey.class);
+            batteryOrders.put(SortKey.PRICE, by(Battery::getCost, false));
+            batteryOrders.put(SortKey.EFFICIENCY, by(Battery::getRoundTripEfficiency, true));
+            batteryOrders.put(SortKey.CAPACITY, by(Battery::getCapacityKwh, true));
+            this.batteries = new Catalog<>(batteries, Battery::getId, batteryOrders);
+        }
+
+        /**
+         * Panels with a positive size and rated power; any other row is logged and left out of the snapshot
+         */
+        private static List<SolarPanelType> validPanels(List<SolarPanelType> panels) {
+            List<SolarPanelType> valid = new ArrayList<>(panels.size());
+            for (SolarPanelType panel : panels) {
+                if (panel.getPanelSize() != null && panel.getPanelSize() > 0
+                        && panel.getRatedPowerPerPanel() != null && panel.getRatedPowerPerPanel() > 0) {
+                    valid.add(panel);
+                } else {
+                    System.err.println(String.format("Skipping solar panel type %d (%s): missing or invalid size or rated power",
+                        panel.getId(), panel.getName()));
+                }
+            }
+            return valid;
+        }
+
+        public SolarPanelCatalog getSolarPanels() {
+            return solarPanels;
+        }
+
+        public Catalog<HeatPump, Integer> getHeatPumps() {
+            return heatPumps;
+        }
+
+        public Catalog<Battery, Integer> getBatteries() {
+            return batteries;
+        }
+    }
+
+    /**
+     * Immutable list of one equipment type with an id index and precomputed sort orders
+     */
+    public static class Catalog<T, K> {
+        private final List<T> items;
+        private final Map<K, Integer> indexById;
+        private final Map<SortKey, List<T>> sortOrders;
+
+        Catalog(List<T> source, Function<T, K> idOf, Map<SortKey, Comparator<T>> orders) {
+            this.items = List.copyOf(source);
+
+            Map<K, Integer> index = new HashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                index.put(idOf.apply(items.get(i)), i);
+            }
+            this.indexById = Collections.unmodifiableMap(index);
+
+            Map<SortKey, List<T>> sorted = new EnumMap<>(SortKey.class);
+            for (Map.Entry<SortKey, Comparator<T>> order : orders.entrySet()) {
+                List<T> copy = new ArrayList<>(items);
+                copy.sort(order.getValue());
+                sorted.put(order.getKey(), List.copyOf(copy));
+            }
+            this.sortOrders = Collections.unmodifiableMap(sorted);
+        }
+
+        public int size() {
+            return items.size();
+        }
+
+        public T get(int index) {
+            return items.get(index);
+        }
+
+        public T findById(K id) {
+            Integer index = indexById.get(id);
+            return index != null ? items.get(index) : null;
+        }
+
+        /** Position of an item in catalog order, or -1 */
+        public int indexOf(K id) {
+            Integer index = indexById.get(id);
+            return index != null ? index : -1;
+        }
+
+        public List<T> getAll() {
+            return items;
+        }
+
+        /**
+         * Items in a precomputed order, missing values last
+         */
+        public List<T> sortedBy(SortKey key) {
+            List<T> sorted = sortOrders.get(key);
+            if (sorted == null) {
+                throw new IllegalArgumentException("No " + key.name().toLowerCase() + " order for this equipment type");
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Immutable solar panel snapshot with column arrays for sweep calculations
+     */
+    public static final class SolarPanelCatalog extends Catalog<SolarPanelType, Long> {
+        private final double[] panelSizes;       // m²
+        private final double[] ratedPowers;      // W
+        private final double[] prices;           // £ per panel
+
+        private SolarPanelCatalog(List<SolarPanelType> source) {
+            super(source, SolarPanelType::getId, panelOrders());
+            int size = source.size();
+            this.panelSizes = new double[size];
+            this.ratedPowers = new double[size];
+            this.prices = new double[size];
+
+            for (int i = 0; i < size; i++) {
+                SolarPanelType panel = get(i);
+                panelSizes[i] = panel.getPanelSize();
+                ratedPowers[i] = panel.getRatedPowerPerPanel();
+                prices[i] = panel.getPrice() != null ? panel.getPrice() : DEFAULT_PANEL_PRICE;
+            }
+        }
+
+        private static Map<SortKey, Comparator<SolarPanelType>> panelOrders() {
+            Map<SortKey, Comparator<SolarPanelType>> orders = new EnumMap<>(SortKey.class);
+            orders.put(SortKey.PRICE, by(SolarPanelType::getPrice, false));
+            orders.put(SortKey.EFFICIENCY, by(SolarPanelType::getEfficiency, true));
+            orders.put(SortKey.CAPACITY, by(SolarPanelType::getRatedPowerPerPanel, true));
+            return orders;
+        }
+
+        public List<SolarPanelType> getPanels() {
+            return getAll();
+        }
+
+        public double panelSize(int index) {
+            return panelSizes[index];
+        }
+
+        public double ratedPower(int index) {
+            return ratedPowers[index];
+        }
+
+        public double price(int index) {
+            return prices[index];
+        }
+    }
+
+    /**
+     * Order by a numeric attribute, items without a value last
+     */
+    private static <T> Comparator<T> by(Function<T, ? extends Number> attribute, boolean descending) {
+        Comparator<Double> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing((T item) -> {
+            Number value = attribute.apply(item);
+            return value != null ? value.doubleValue() : null;
+        }, Comparator.nullsLast(order));
+    }
+}
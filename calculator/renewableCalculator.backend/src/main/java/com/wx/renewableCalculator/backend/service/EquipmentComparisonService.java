@@ -2,24 +2,45 @@ package com.wx.renewableCalculator.backend.service;
 
 import com.wx.renewableCalculator.backend.dto.*;
 import com.wx.renewableCalculator.backend.entity.*;
-import com.wx.renewableCalculator.backend.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Service comparing solar, heat pump and battery options
+ * Each option is evaluated by a 12-month vector kernel, and options run concurrently on a bounded
+ * compute executor. The pool has a fixed number of threads and a bounded queue; when the queue is
+ * full the calling thread runs the option itself.
+ */
 @Service
 public class EquipmentComparisonService {
     
-    @Autowired
-    private SolarPanelTypeRepository solarPanelTypeRepository;
+    @Value("${equipment-comparison.parallelism:0}")
+    private int parallelism;
     
-    @Autowired
-    private BatteryRepository batteryRepository;
+    @Value("${equipment-comparison.max-combinations:10}")
+    private int maxCombinations;
+    
+    private static final int EXECUTOR_QUEUE_CAPACITY = 256;
+    private static final int ROI_YEARS = 10;
+    
+    private ExecutorService executor;
     
     @Autowired
-    private HeatPumpRepository heatPumpRepository;
+    private EquipmentCatalogService equipmentCatalogService;
     
     @Autowired
     private SolarInstallationCostService solarInstallationCostService;
@@ -33,65 +54,211 @@ public class EquipmentComparisonService {
     @Autowired
     private SolarElectricityGenerationService solarElectricityGenerationService;
     
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+    
+    @Autowired
+    private BatteryDispatchService batteryDispatchService;
+    
+    @Autowired
+    private TariffScheduleService tariffScheduleService;
+    
+    @Autowired
+    private LifetimeCashFlowService lifetimeCashFlowService;
+    
+    @Autowired
+    private SystemSizingService systemSizingService;
+    
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(EXECUTOR_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "equipment-comparison-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
     /**
      * Compare equipment options based on user requirements
      */
     public EquipmentComparisonResult compareEquipment(EquipmentComparisonRequest request) {
         
-        EquipmentComparisonResult result = new EquipmentComparisonResult();
+        EquipmentComparisonResult result = evaluateOptions(request,
+            request.getSolarPanelTypeIds(), request.getHeatPumpTypeIds(), request.getBatteryIds());
         
-        // Compare solar panels if selected
-        if (Boolean.TRUE.equals(request.getHasSolarPanels()) && 
-            request.getSolarPanelTypeIds() != null && !request.getSolarPanelTypeIds().isEmpty()) {
-            result.setSolarPanelOptions(compareSolarPanels(request));
-        } else {
-            result.setSolarPanelOptions(new ArrayList<>());
+        // Generate system combination recommendations
+        result.setRecommendedCombinations(generateSystemCombinations(request, result));
+        
+        return result;
+    }
+    
+    /**
+     * Pareto frontier of configurations over installation cost, annual CO₂ savings and payback
+     * A configuration takes exactly one option from each selected category; a category without ids
+     * considers the whole catalog. Options dominated within their category are dropped (they can only
+     * make a configuration costlier, slower to pay back or less green), each solar choice is scored
+     * against every heat pump and battery on the executor with a local skyline, and the skyline of the
+     * merged results is the frontier.
+     */
+    public ConfigurationFrontierResult findConfigurationFrontier(EquipmentComparisonRequest request) {
+        EquipmentCatalogService.CatalogSnapshot catalog = equipmentCatalogService.getSnapshot();
+        EquipmentComparisonResult options = evaluateOptions(request,
+            request.getSolarPanelTypeIds() != null ? request.getSolarPanelTypeIds()
+                : catalog.getSolarPanels().getAll().stream().map(SolarPanelType::getId).toList(),
+            request.getHeatPumpTypeIds() != null ? request.getHeatPumpTypeIds()
+                : catalog.getHeatPumps().getAll().stream().map(heatPump -> heatPump.getId().longValue()).toList(),
+            request.getBatteryIds() != null ? request.getBatteryIds()
+                : catalog.getBatteries().getAll().stream().map(battery -> battery.getId().longValue()).toList());
+        
+        List<EquipmentComparisonResult.EquipmentOption> solar = choices(request.getHasSolarPanels(), paretoOptions(options.getSolarPanelOptions(), true));
+        List<EquipmentComparisonResult.EquipmentOption> heatPumps = choices(request.getHasHeatPump(), paretoOptions(options.getHeatPumpOptions(), false));
+        List<EquipmentComparisonResult.EquipmentOption> batteries = choices(request.getHasBattery(), paretoOptions(options.getBatteryOptions(), false));
+        long candidateCount = (long) choices(request.getHasSolarPanels(), options.getSolarPanelOptions()).size()
+            * choices(request.getHasHeatPump(), options.getHeatPumpOptions()).size()
+            * choices(request.getHasBattery(), options.getBatteryOptions()).size();
+        
+        double referenceGeneration = 0.0;
+        for (EquipmentComparisonResult.EquipmentOption option : solar) {
+            referenceGeneration = Math.max(referenceGeneration, valueOf(option, EquipmentComparisonResult.EquipmentOption::getAnnualGeneration));
+        }
+        CombinationSpace space = new CombinationSpace(solar, heatPumps, batteries, referenceGeneration);
+        List<CompletableFuture<List<Combination>>> tasks = new ArrayList<>(solar.size());
+        for (int s = 0; s < solar.size(); s++) {
+            int solarIndex = s;
+            tasks.add(CompletableFuture.supplyAsync(() -> skyline(space.all(solarIndex)), executor));
         }
+        List<Combination> merged = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<Combination>> task : tasks) {
+                merged.addAll(task.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        List<Combination> frontier = skyline(merged);
         
-        // Compare heat pumps if selected
-        if (Boolean.TRUE.equals(request.getHasHeatPump()) && 
-            request.getHeatPumpTypeIds() != null && !request.getHeatPumpTypeIds().isEmpty()) {
-            result.setHeatPumpOptions(compareHeatPumps(request));
-        } else {
-            result.setHeatPumpOptions(new ArrayList<>());
+        Map<Combination, List<String>> archetypes = archetypes(frontier);
+        List<ConfigurationFrontierResult.Configuration> configurations = new ArrayList<>(frontier.size());
+        for (Combination combination : frontier) {
+            EquipmentComparisonResult.EquipmentOption solarOption = solar.get(combination.solar);
+            EquipmentComparisonResult.EquipmentOption heatPumpOption = heatPumps.get(combination.heatPump);
+            EquipmentComparisonResult.EquipmentOption batteryOption = batteries.get(combination.battery);
+            configurations.add(new ConfigurationFrontierResult.Configuration(
+                solarOption != null ? solarOption.getEquipmentId() : null,
+                solarOption != null ? solarOption.getEquipmentName() : null,
+                heatPumpOption != null ? heatPumpOption.getEquipmentId() : null,
+                heatPumpOption != null ? heatPumpOption.getEquipmentName() : null,
+                batteryOption != null ? batteryOption.getEquipmentId() : null,
+                batteryOption != null ? batteryOption.getEquipmentName() : null,
+                combination.cost, combination.savings, combination.co2,
+                Double.isFinite(combination.payback) ? combination.payback : null,
+                archetypes.getOrDefault(combination, List.of())));
         }
+        return new ConfigurationFrontierResult(candidateCount, configurations);
+    }
+    
+    /**
+     * Options of a selected category, or only "none" (null) when the category is not selected
+     */
+    private static List<EquipmentComparisonResult.EquipmentOption> choices(Boolean selected,
+                                                                        List<EquipmentComparisonResult.EquipmentOption> options) {
+        return Boolean.TRUE.equals(selected) ? options : Collections.singletonList(null);
+    }
+    
+    /**
+     * Evaluate the options of each selected category (ids null or empty: none)
+     */
+    private EquipmentComparisonResult evaluateOptions(EquipmentComparisonRequest request, List<Long> solarPanelTypeIds,
+                                                      List<Long> heatPumpTypeIds, List<Long> batteryIds) {
+        EquipmentComparisonResult result = new EquipmentComparisonResult();
+        double[] monthlyUsage = getMonthlyElectricityUsage(request);
+        
+        // Solar and heat pump options are independent, so both are submitted before waiting on either
+        List<CompletableFuture<EquipmentComparisonResult.EquipmentOption>> solarOptions = 
+            Boolean.TRUE.equals(request.getHasSolarPanels()) && solarPanelTypeIds != null
+                ? submitAll(lookup(solarPanelTypeIds, equipmentCatalogService.getSolarPanelCatalog()::findById),
+                    panel -> createSolarPanelOption(panel, request, monthlyUsage))
+                : List.of();
+        List<CompletableFuture<EquipmentComparisonResult.EquipmentOption>> heatPumpOptions = 
+            Boolean.TRUE.equals(request.getHasHeatPump()) && heatPumpTypeIds != null
+                ? submitAll(lookup(heatPumpTypeIds, id -> equipmentCatalogService.getHeatPumpCatalog().findById(id.intValue())),
+                    heatPump -> createHeatPumpOption(heatPump, request))
+                : List.of();
+        result.setSolarPanelOptions(joinAll(solarOptions));
         
-        // Compare batteries if selected
-        if (Boolean.TRUE.equals(request.getHasBattery()) && 
-            request.getBatteryIds() != null && !request.getBatteryIds().isEmpty()) {
-            result.setBatteryOptions(compareBatteries(request));
+        // Batteries are simulated against the best solar option
+        if (Boolean.TRUE.equals(request.getHasBattery()) && batteryIds != null && !batteryIds.isEmpty()) {
+            result.setBatteryOptions(compareBatteries(request, batteryIds, monthlyUsage, result.getSolarPanelOptions()));
         } else {
             result.setBatteryOptions(new ArrayList<>());
         }
-        
-        // Generate system combination recommendations
-        result.setRecommendedCombinations(generateSystemCombinations(request, result));
-        
+        result.setHeatPumpOptions(joinAll(heatPumpOptions));
         return result;
     }
     
     /**
-     * Compare solar panel options
+     * Catalog entries for the requested ids, skipping unknown ids
      */
-    private List<EquipmentComparisonResult.EquipmentOption> compareSolarPanels(EquipmentComparisonRequest request) {
-        List<EquipmentComparisonResult.EquipmentOption> options = new ArrayList<>();
-        
-        for (Long solarPanelId : request.getSolarPanelTypeIds()) {
-            Optional<SolarPanelType> panelOpt = solarPanelTypeRepository.findById(solarPanelId);
-            if (panelOpt.isPresent()) {
-                SolarPanelType panel = panelOpt.get();
-                EquipmentComparisonResult.EquipmentOption option = createSolarPanelOption(panel, request);
-                options.add(option);
+    private <T> List<T> lookup(List<Long> ids, Function<Long, T> findById) {
+        List<T> equipment = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = id != null ? findById.apply(id) : null;
+            if (item != null) {
+                equipment.add(item);
             }
         }
-        
+        return equipment;
+    }
+    
+    /**
+     * Evaluate each equipment option on the compute executor
+     */
+    private <T> List<CompletableFuture<EquipmentComparisonResult.EquipmentOption>> submitAll(
+            List<T> equipment, Function<T, EquipmentComparisonResult.EquipmentOption> evaluation) {
+        List<CompletableFuture<EquipmentComparisonResult.EquipmentOption>> futures = new ArrayList<>(equipment.size());
+        for (T item : equipment) {
+            futures.add(CompletableFuture.supplyAsync(() -> evaluation.apply(item), executor));
+        }
+        return futures;
+    }
+    
+    /**
+     * Wait for options in submission order, rethrowing an evaluation's own exception
+     */
+    private List<EquipmentComparisonResult.EquipmentOption> joinAll(
+            List<CompletableFuture<EquipmentComparisonResult.EquipmentOption>> futures) {
+        List<EquipmentComparisonResult.EquipmentOption> options = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<EquipmentComparisonResult.EquipmentOption> future : futures) {
+                options.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
         return options;
     }
     
     /**
      * Create solar panel comparison option
      */
-    private EquipmentComparisonResult.EquipmentOption createSolarPanelOption(SolarPanelType panel, EquipmentComparisonRequest request) {
+    private EquipmentComparisonResult.EquipmentOption createSolarPanelOption(SolarPanelType panel, EquipmentComparisonRequest request,
+                                                                            double[] monthlyUsage) {
         EquipmentComparisonResult.EquipmentOption option = new EquipmentComparisonResult.EquipmentOption();
         
         // Basic info
@@ -107,9 +274,12 @@ public class EquipmentComparisonService {
         specs.put("efficiency", panel.getEfficiency() + "%");
         option.setSpecifications(specs);
         
-        // Calculate recommended quantity and system capacity
+        // Calculate recommended quantity (the full roof, or the NPV-optimal size) and system capacity
         double roofArea = request.getRoofArea() != null ? request.getRoofArea() : 30.0;
-        int recommendedQuantity = (int) Math.floor(roofArea / panel.getPanelSize());
+        int recommendedQuantity = SystemSizingService.roofPanelCount(panel, roofArea);
+        if (Boolean.TRUE.equals(request.getOptimiseSolarSize()) && recommendedQuantity > 0) {
+            recommendedQuantity = optimalPanelCount(panel, request);
+        }
         double totalSystemCapacityKw = (recommendedQuantity * panel.getRatedPowerPerPanel()) / 1000.0;
         
         option.setRecommendedQuantity(recommendedQuantity);
@@ -123,7 +293,7 @@ public class EquipmentComparisonService {
         option.setInstallationCost(equipmentCost + installationCost);
         
         // Calculate annual and monthly performance
-        calculateSolarPerformance(option, request, totalSystemCapacityKw);
+        calculateSolarPerformance(option, request, totalSystemCapacityKw, monthlyUsage);
         
         // Calculate suitability score
         option.setSuitabilityScore(calculateSolarSuitability(panel, request));
@@ -133,94 +303,102 @@ public class EquipmentComparisonService {
     }
     
     /**
-     * Calculate solar panel performance (annual and monthly)
+     * Calculate solar panel performance (annual and monthly) as one 12-month vector kernel
+     * Savings come from a single annual savings call (one hourly energy balance for the year),
+     * and carbon from a single annual carbon call reusing that balance's self-consumption.
      */
     private void calculateSolarPerformance(EquipmentComparisonResult.EquipmentOption option, 
                                          EquipmentComparisonRequest request, 
-                                         double systemCapacityKw) {
+                                         double systemCapacityKw, double[] monthlyUsage) {
+        double[] generation = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            generation[month - 1] = calculateMonthlySolarGeneration(systemCapacityKw, month, request);
+        }
         
-        List<Double> monthlyGeneration = new ArrayList<>();
-        List<Double> monthlyCostSavings = new ArrayList<>();
-        List<Double> monthlyExportRevenue = new ArrayList<>();
-        List<Double> monthlyDirectCO2 = new ArrayList<>();
-        List<Double> monthlyIndirectCO2 = new ArrayList<>();
+        AnnualSavingsRequest savingsRequest = new AnnualSavingsRequest();
+        savingsRequest.setHasSolarPanels(true);
+        savingsRequest.setHasHeatPump(request.getHasHeatPump());
+        savingsRequest.setHasBattery(request.getHasBattery());
+        savingsRequest.setSolarGenerationKwh(generation);
+        savingsRequest.setElectricityUsageKwh(monthlyUsage);
+        savingsRequest.setElectricityRate(request.getElectricityRate());
+        savingsRequest.setExportRate(request.getExportRate());
+        savingsRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
+        savingsRequest.setLatitude(request.getLatitude());
+        savingsRequest.setTariffId(request.getTariffId());
+        AnnualSavingsResult savings = monthlySavingsService.calculateAnnualSavings(savingsRequest);
         
-        double annualGeneration = 0.0;
-        double annualCostSavings = 0.0;
-        double annualExportRevenue = 0.0;
-        double annualDirectCO2 = 0.0;
-        double annualIndirectCO2 = 0.0;
+        AnnualCarbonSavingsRequest carbonRequest = new AnnualCarbonSavingsRequest();
+        carbonRequest.setHasSolarPanels(true);
+        carbonRequest.setHasHeatPump(request.getHasHeatPump());
+        carbonRequest.setHasBattery(request.getHasBattery());
+        carbonRequest.setTotalElectricityDemandKwh(monthlyUsage);
+        carbonRequest.setSolarSelfConsumedKwh(savings.getSolarSelfConsumedKwh()); // From the hourly energy balance
+        carbonRequest.setSolarGenerationKwh(generation);
+        carbonRequest.setCarbonIntensityRegion(request.getCarbonIntensityRegion());
+        carbonRequest.setLatitude(request.getLatitude());
+        carbonRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
+        AnnualCarbonSavingsResult carbon = carbonSavingsService.calculateAnnualCarbonSavings(carbonRequest);
         
-        for (int month = 1; month <= 12; month++) {
-            // Calculate monthly solar generation using existing service
-            double monthlyGen = calculateMonthlySolarGeneration(systemCapacityKw, month, request);
-            monthlyGeneration.add(monthlyGen);
-            annualGeneration += monthlyGen;
-            
-            // Calculate monthly savings using existing services
-            MonthlySavingsRequest savingsRequest = createMonthlySavingsRequest(request, month, monthlyGen);
-            MonthlySavingsResult savingsResult = monthlySavingsService.calculateMonthlySavings(savingsRequest);
-            
-            double monthlyCost = savingsResult.getSolarSavings() != null ? savingsResult.getSolarSavings() / 100.0 : 0.0; // Convert pence to pounds
-            double monthlyExport = savingsResult.getSolarExportSavings() != null ? savingsResult.getSolarExportSavings() / 100.0 : 0.0;
-            
-            monthlyCostSavings.add(monthlyCost);
-            monthlyExportRevenue.add(monthlyExport);
-            annualCostSavings += monthlyCost;
-            annualExportRevenue += monthlyExport;
-            
-            // Calculate monthly carbon savings
-            CarbonSavingsRequest carbonRequest = createCarbonSavingsRequest(request, month, monthlyGen);
-            CarbonSavingsResult carbonResult = carbonSavingsService.calculateCarbonSavings(carbonRequest);
-            
-            double monthlyDirect = carbonResult.getDirectEmissionsSavingsKgCO2() != null ? carbonResult.getDirectEmissionsSavingsKgCO2() : 0.0;
-            double monthlyIndirect = carbonResult.getIndirectEmissionsSavingsKgCO2() != null ? carbonResult.getIndirectEmissionsSavingsKgCO2() : 0.0;
-            
-            monthlyDirectCO2.add(monthlyDirect);
-            monthlyIndirectCO2.add(monthlyIndirect);
-            annualDirectCO2 += monthlyDirect;
-            annualIndirectCO2 += monthlyIndirect;
+        // Pence to pounds
+        double exportRate = request.getExportRate() != null ? request.getExportRate() : 0.0;
+        double[] costSavings = new double[12];
+        double[] exportRevenue = new double[12];
+        for (int m = 0; m < 12; m++) {
+            costSavings[m] = savings.getSolarSavings()[m] / 100.0;
+            exportRevenue[m] = savings.getSolarExportedKwh()[m] * exportRate / 100.0;
         }
         
         // Set annual data
-        option.setAnnualGeneration(annualGeneration);
-        option.setAnnualCostSavings(annualCostSavings);
-        option.setAnnualExportRevenue(annualExportRevenue);
-        option.setAnnualDirectCO2Savings(annualDirectCO2);
-        option.setAnnualIndirectCO2Savings(annualIndirectCO2);
-        option.setAnnualTotalCO2Savings(annualDirectCO2 + annualIndirectCO2);
+        option.setAnnualGeneration(Arrays.stream(generation).sum());
+        option.setAnnualCostSavings(Arrays.stream(costSavings).sum());
+        option.setAnnualExportRevenue(Arrays.stream(exportRevenue).sum());
+        option.setAnnualDirectCO2Savings(carbon.getAnnualDirectEmissionsSavingsKgCO2());
+        option.setAnnualIndirectCO2Savings(carbon.getAnnualIndirectEmissionsSavingsKgCO2());
+        option.setAnnualTotalCO2Savings(carbon.getAnnualDirectEmissionsSavingsKgCO2() + carbon.getAnnualIndirectEmissionsSavingsKgCO2());
         
         // Set monthly data
-        option.setMonthlyGeneration(monthlyGeneration);
-        option.setMonthlyCostSavings(monthlyCostSavings);
-        option.setMonthlyExportRevenue(monthlyExportRevenue);
-        option.setMonthlyDirectCO2Savings(monthlyDirectCO2);
-        option.setMonthlyIndirectCO2Savings(monthlyIndirectCO2);
+        option.setMonthlyGeneration(toList(generation));
+        option.setMonthlyCostSavings(toList(costSavings));
+        option.setMonthlyExportRevenue(toList(exportRevenue));
+        option.setMonthlyDirectCO2Savings(toList(carbon.getDirectEmissionsSavingsKgCO2()));
+        option.setMonthlyIndirectCO2Savings(toList(carbon.getIndirectEmissionsSavingsKgCO2()));
         
         // Calculate financial metrics
-        double totalInstallationCost = option.getInstallationCost();
-        double annualSavings = annualCostSavings + annualExportRevenue;
-        
-        option.setPaybackPeriodYears(annualSavings > 0 ? totalInstallationCost / annualSavings : 999.0);
-        option.setRoi10Years(annualSavings > 0 ? ((annualSavings * 10) - totalInstallationCost) / totalInstallationCost * 100 : -100.0);
+        applyLifetimeCashFlow(option, request);
+    }
+    
+    private static List<Double> toList(double[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for (double value : values) {
+            list.add(value);
+        }
+        return list;
     }
     
     /**
-     * Compare heat pump options
+     * NPV-optimal panel count for the roof, without a battery
      */
-    private List<EquipmentComparisonResult.EquipmentOption> compareHeatPumps(EquipmentComparisonRequest request) {
-        List<EquipmentComparisonResult.EquipmentOption> options = new ArrayList<>();
-        
-        for (Long heatPumpId : request.getHeatPumpTypeIds()) {
-            Optional<HeatPump> heatPumpOpt = heatPumpRepository.findById(heatPumpId.intValue());
-            if (heatPumpOpt.isPresent()) {
-                HeatPump heatPump = heatPumpOpt.get();
-                EquipmentComparisonResult.EquipmentOption option = createHeatPumpOption(heatPump, request);
-                options.add(option);
-            }
+    private int optimalPanelCount(SolarPanelType panel, EquipmentComparisonRequest request) {
+        SystemSizingRequest sizingRequest = new SystemSizingRequest();
+        sizingRequest.setSolarPanelTypeId(panel.getId());
+        sizingRequest.setRoofArea(request.getRoofArea());
+        sizingRequest.setObjective(SystemSizingService.OBJECTIVE_NPV);
+        sizingRequest.setAnnualElectricityUsageKwh(request.getAnnualElectricityUsageKwh());
+        sizingRequest.setMonthlyElectricityUsageKwh(request.getMonthlyElectricityUsageKwh());
+        if (request.getAnnualElectricityUsageKwh() == null && request.getMonthlyElectricityUsageKwh() == null) {
+            sizingRequest.setMonthlyElectricityUsageKwh(0.0);
         }
-        
-        return options;
+        sizingRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
+        sizingRequest.setLatitude(request.getLatitude());
+        sizingRequest.setHasHeatPump(request.getHasHeatPump());
+        sizingRequest.setElectricityRate(request.getElectricityRate());
+        sizingRequest.setExportRate(request.getExportRate() != null ? request.getExportRate() : 0.0);
+        sizingRequest.setTariffId(request.getTariffId());
+        sizingRequest.setDiscountRate(request.getDiscountRate());
+        sizingRequest.setEnergyPriceEscalation(request.getEnergyPriceEscalation());
+        sizingRequest.setInflationRate(request.getInflationRate());
+        return systemSizingService.optimalPanelCount(sizingRequest);
     }
     
     /**
@@ -248,6 +426,7 @@ public class EquipmentComparisonService {
         
         // Calculate performance metrics
         calculateHeatPumpPerformance(option, request, heatPump);
+        applyLifetimeCashFlow(option, request);
         
         // Suitability
         option.setSuitabilityScore(calculateHeatPumpSuitability(heatPump, request));
@@ -259,25 +438,41 @@ public class EquipmentComparisonService {
     /**
      * Compare battery options
      */
-    private List<EquipmentComparisonResult.EquipmentOption> compareBatteries(EquipmentComparisonRequest request) {
-        List<EquipmentComparisonResult.EquipmentOption> options = new ArrayList<>();
-        
-        for (Long batteryId : request.getBatteryIds()) {
-            Optional<Battery> batteryOpt = batteryRepository.findById(batteryId.intValue());
-            if (batteryOpt.isPresent()) {
-                Battery battery = batteryOpt.get();
-                EquipmentComparisonResult.EquipmentOption option = createBatteryOption(battery, request);
-                options.add(option);
-            }
+    private List<EquipmentComparisonResult.EquipmentOption> compareBatteries(EquipmentComparisonRequest request, List<Long> batteryIds,
+                                                                           double[] monthlyUsage,
+                                                                           List<EquipmentComparisonResult.EquipmentOption> solarOptions) {
+        // Hourly household series shared by every battery: best solar option against the monthly usage
+        double[] monthlyGeneration = new double[12];
+        EquipmentComparisonResult.EquipmentOption bestSolar = solarOptions == null ? null : solarOptions.stream()
+            .filter(option -> option.getMonthlyGeneration() != null && option.getAnnualGeneration() != null)
+            .max(Comparator.comparingDouble(EquipmentComparisonResult.EquipmentOption::getAnnualGeneration))
+            .orElse(null);
+        for (int month = 1; month <= 12; month++) {
+            monthlyGeneration[month - 1] = bestSolar != null ? bestSolar.getMonthlyGeneration().get(month - 1) : 0.0;
         }
+        float[] hourlyGeneration = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] hourlyLoad = new float[ReferenceYear.HOURS_PER_YEAR];
+        energyBalanceService.fillHourlySeries(monthlyGeneration, monthlyUsage, request.getLatitude(),
+            request.getHomeOccupancyFactor(), request.getHasHeatPump(), hourlyGeneration, hourlyLoad);
+        float[] importPrices = request.getTariffId() != null
+            ? tariffScheduleService.getHourlyPrices(request.getTariffId())
+            : batteryDispatchService.timeOfUsePrices(
+                request.getPeakElectricityRate() != null ? request.getPeakElectricityRate() : 35.0,
+                request.getOffPeakElectricityRate() != null ? request.getOffPeakElectricityRate() : 15.0,
+                request.getElectricityRate());
+        double exportRate = request.getExportRate() != null ? request.getExportRate() : 0.0;
         
-        return options;
+        // The series are only read, so every battery's dispatch runs concurrently against them
+        List<Battery> batteries = lookup(batteryIds, id -> equipmentCatalogService.getBatteryCatalog().findById(id.intValue()));
+        return joinAll(submitAll(batteries, battery -> createBatteryOption(battery, request, batteryDispatchService.simulate(
+            hourlyGeneration, hourlyLoad, importPrices, exportRate, BatteryDispatchService.BatterySpec.of(battery)))));
     }
     
     /**
      * Create battery comparison option
      */
-    private EquipmentComparisonResult.EquipmentOption createBatteryOption(Battery battery, EquipmentComparisonRequest request) {
+    private EquipmentComparisonResult.EquipmentOption createBatteryOption(Battery battery, EquipmentComparisonRequest request,
+                                                                         BatteryDispatchService.BatteryDispatchResult dispatch) {
         EquipmentComparisonResult.EquipmentOption option = new EquipmentComparisonResult.EquipmentOption();
         
         // Basic info
@@ -298,7 +493,8 @@ public class EquipmentComparisonService {
         option.setInstallationCost(installationCost);
         
         // Calculate performance metrics
-        calculateBatteryPerformance(option, request, battery);
+        calculateBatteryPerformance(option, dispatch);
+        applyLifetimeCashFlow(option, request);
         
         // Suitability
         option.setSuitabilityScore(calculateBatterySuitability(battery, request));
@@ -307,36 +503,52 @@ public class EquipmentComparisonService {
         return option;
     }
     
+    /**
+     * Payback, ROI, NPV and IRR from the option's lifetime cash flows
+     * (degradation, price escalation, maintenance and replacements by equipment type)
+     */
+    private void applyLifetimeCashFlow(EquipmentComparisonResult.EquipmentOption option, EquipmentComparisonRequest request) {
+        LifetimeCashFlowRequest cashFlowRequest = LifetimeCashFlowService.defaultsFor(option.getEquipmentType(),
+            option.getInstallationCost(),
+            option.getAnnualCostSavings() != null ? option.getAnnualCostSavings() : 0.0,
+            option.getAnnualExportRevenue() != null ? option.getAnnualExportRevenue() : 0.0);
+        cashFlowRequest.setDiscountRate(request.getDiscountRate());
+        cashFlowRequest.setEnergyPriceEscalation(request.getEnergyPriceEscalation());
+        cashFlowRequest.setInflationRate(request.getInflationRate());
+        
+        LifetimeCashFlowService.CashFlowProjection projection = lifetimeCashFlowService.project(cashFlowRequest);
+        LifetimeCashFlowResult lifetime = lifetimeCashFlowService.toResult(projection);
+        double totalInstallationCost = option.getInstallationCost();
+        int roiYears = Math.min(10, projection.getLifetimeYears());
+        
+        option.setPaybackPeriodYears(lifetime.getSimplePaybackYears() != null ? lifetime.getSimplePaybackYears() : 999.0);
+        option.setRoi10Years(totalInstallationCost > 0 ? projection.getCumulative(roiYears) / totalInstallationCost * 100 : 0.0);
+        option.setNetPresentValue(lifetime.getNetPresentValue());
+        option.setInternalRateOfReturn(lifetime.getInternalRateOfReturn());
+        option.setDiscountedPaybackYears(lifetime.getDiscountedPaybackYears());
+        option.setLifetimeNetSavings(lifetime.getLifetimeNetSavings());
+        option.setLifetimeYears(lifetime.getLifetimeYears());
+    }
+    
     // Helper methods for calculations
     private double calculateMonthlySolarGeneration(double systemCapacityKw, int month, EquipmentComparisonRequest request) {
         // Simplified calculation - in real implementation, use SolarElectricityGenerationService
-        double[] monthlyFactors = {0.6, 0.8, 1.2, 1.5, 1.8, 1.9, 2.0, 1.8, 1.4, 1.0, 0.7, 0.5}; // Seasonal factors
-        return systemCapacityKw * monthlyFactors[month - 1] * 30 * 24 * 0.2; // Simplified calculation
+        return systemCapacityKw * SystemSizingService.SEASONAL_YIELD_KWH_PER_KW[month - 1];
     }
     
-    private MonthlySavingsRequest createMonthlySavingsRequest(EquipmentComparisonRequest request, int month, double solarGeneration) {
-        MonthlySavingsRequest savingsRequest = new MonthlySavingsRequest();
-        savingsRequest.setHasSolarPanels(true);
-        savingsRequest.setHasHeatPump(request.getHasHeatPump());
-        savingsRequest.setHasBattery(request.getHasBattery());
-        savingsRequest.setMonth(month);
-        savingsRequest.setSolarGenerationKwh(solarGeneration);
-        savingsRequest.setMonthlyElectricityUsageKwh(request.getMonthlyElectricityUsageKwh());
-        savingsRequest.setElectricityRate(request.getElectricityRate());
-        savingsRequest.setExportRate(request.getExportRate());
-        savingsRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
-        return savingsRequest;
-    }
-    
-    private CarbonSavingsRequest createCarbonSavingsRequest(EquipmentComparisonRequest request, int month, double solarGeneration) {
-        CarbonSavingsRequest carbonRequest = new CarbonSavingsRequest();
-        carbonRequest.setHasSolarPanels(true);
-        carbonRequest.setHasHeatPump(request.getHasHeatPump());
-        carbonRequest.setHasBattery(request.getHasBattery());
-        carbonRequest.setMonth(month);
-        carbonRequest.setTotalElectricityDemandKwh(request.getMonthlyElectricityUsageKwh());
-        carbonRequest.setSolarSelfConsumedKwh(solarGeneration * 0.4); // Assume 40% self-consumption
-        return carbonRequest;
+    /**
+     * Monthly electricity usage: the given monthly value, else annual usage × standard monthly proportion, else 0
+     */
+    private double[] getMonthlyElectricityUsage(EquipmentComparisonRequest request) {
+        double[] usage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            if (request.getMonthlyElectricityUsageKwh() != null) {
+                usage[m] = request.getMonthlyElectricityUsageKwh();
+            } else if (request.getAnnualElectricityUsageKwh() != null) {
+                usage[m] = request.getAnnualElectricityUsageKwh() * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[m] / 100.0;
+            }
+        }
+        return usage;
     }
     
     private void calculateHeatPumpPerformance(EquipmentComparisonResult.EquipmentOption option, EquipmentComparisonRequest request, HeatPump heatPump) {
@@ -348,6 +560,14 @@ public class EquipmentComparisonService {
         option.setAnnualCostSavings(annualCostSavings * 0.7); // Assume 70% efficiency gain
         option.setAnnualExportRevenue(0.0);
         
+        // Gas burnt no longer, less the grid electricity the heat pump uses instead
+        double cop = heatPump.getCop() != null && heatPump.getCop().doubleValue() > 0 ? heatPump.getCop().doubleValue() : 3.0;
+        double directCO2Savings = annualGasSaved * CarbonSavingsService.DEFAULT_GAS_EMISSION_FACTOR;
+        double indirectCO2Savings = -annualGasSaved / cop * CarbonSavingsService.DEFAULT_ELECTRICITY_EMISSION_FACTOR;
+        option.setAnnualDirectCO2Savings(directCO2Savings);
+        option.setAnnualIndirectCO2Savings(indirectCO2Savings);
+        option.setAnnualTotalCO2Savings(directCO2Savings + indirectCO2Savings);
+        
         // Set monthly data (simplified)
         List<Double> monthlyData = new ArrayList<>();
         for (int i = 0; i < 12; i++) {
@@ -356,22 +576,19 @@ public class EquipmentComparisonService {
         option.setMonthlyCostSavings(monthlyData);
     }
     
-    private void calculateBatteryPerformance(EquipmentComparisonResult.EquipmentOption option, EquipmentComparisonRequest request, Battery battery) {
-        // Simplified battery performance calculation
-        double capacity = battery.getCapacityKwh().doubleValue();
-        double peakRate = request.getPeakElectricityRate() != null ? request.getPeakElectricityRate() / 100.0 : 0.35;
-        double offPeakRate = request.getOffPeakElectricityRate() != null ? request.getOffPeakElectricityRate() / 100.0 : 0.15;
-        
-        double annualCostSavings = capacity * (peakRate - offPeakRate) * 300; // Assume 300 cycles per year
+    private void calculateBatteryPerformance(EquipmentComparisonResult.EquipmentOption option,
+                                             BatteryDispatchService.BatteryDispatchResult dispatch) {
+        // Savings from the hourly dispatch simulation (pence -> pounds)
+        double annualCostSavings = dispatch.getAnnualSavings() / 100.0;
         
         option.setAnnualGeneration(0.0); // Batteries don't generate
         option.setAnnualCostSavings(annualCostSavings);
         option.setAnnualExportRevenue(0.0);
+        option.getSpecifications().put("equivalentCycles", Math.round(dispatch.getEquivalentCycles()));
         
-        // Set monthly data (simplified)
         List<Double> monthlyData = new ArrayList<>();
-        for (int i = 0; i < 12; i++) {
-            monthlyData.add(annualCostSavings / 12.0);
+        for (int month = 1; month <= 12; month++) {
+            monthlyData.add(dispatch.getSavings(month) / 100.0);
         }
         option.setMonthlyCostSavings(monthlyData);
     }
@@ -428,8 +645,397 @@ public class EquipmentComparisonService {
         return "Battery capacity well-matched to household energy usage patterns.";
     }
     
+    /**
+     * Recommend system combinations from the solar × heat pump × battery options, with "none" in each category
+     * The result is the K fastest-payback combinations that no other combination dominates (fewer only when
+     * fewer exist). Options dominated within their category are dropped first: a costlier option with no more
+     * savings, CO₂ savings (or, for solar, generation) can never be part of a better combination.
+     * A dominating combination always pays back at least as fast and sorts first, so a scan of the fastest
+     * combinations in payback order, keeping those not dominated by one already kept, is exact. The fastest L
+     * combinations are collected with a bounded heap per solar choice on the executor; L starts at 4K and
+     * doubles until the scan finds K combinations or every paying-back combination has been collected.
+     */
     private List<EquipmentComparisonResult.SystemCombination> generateSystemCombinations(EquipmentComparisonRequest request, EquipmentComparisonResult result) {
-        // Simplified combination generation
-        return new ArrayList<>(); // TODO: Implement smart combination recommendations
+        if (maxCombinations <= 0) {
+            return new ArrayList<>();
+        }
+        List<EquipmentComparisonResult.EquipmentOption> solar = withNone(paretoOptions(result.getSolarPanelOptions(), true));
+        List<EquipmentComparisonResult.EquipmentOption> heatPumps = withNone(paretoOptions(result.getHeatPumpOptions(), false));
+        List<EquipmentComparisonResult.EquipmentOption> batteries = withNone(paretoOptions(result.getBatteryOptions(), false));
+        
+        // Batteries were simulated against the highest-generation solar option; their savings scale with the
+        // solar generation actually in the combination (all of it when there was no solar to simulate against)
+        double referenceGeneration = 0.0;
+        for (EquipmentComparisonResult.EquipmentOption option : solar) {
+            referenceGeneration = Math.max(referenceGeneration, valueOf(option, EquipmentComparisonResult.EquipmentOption::getAnnualGeneration));
+        }
+        
+        CombinationSpace space = new CombinationSpace(solar, heatPumps, batteries, referenceGeneration);
+        List<Combination> ranked;
+        for (int limit = Math.max(4 * maxCombinations, 16); ; limit = (int) Math.min(2L * limit, Integer.MAX_VALUE - 8)) {
+            List<Combination> fastest = fastestCombinations(space, solar.size(), limit);
+            ranked = nonDominated(fastest, maxCombinations);
+            if (ranked.size() >= maxCombinations || fastest.size() < limit) {
+                break;
+            }
+        }
+        Combination cheapest = ranked.stream().min(Comparator.comparingDouble((Combination c) -> c.cost)).orElse(null);
+        Combination greenest = ranked.stream().max(Comparator.comparingDouble((Combination c) -> c.co2)).orElse(null);
+        
+        List<EquipmentComparisonResult.SystemCombination> combinations = new ArrayList<>(ranked.size());
+        for (Combination combination : ranked) {
+            List<EquipmentComparisonResult.EquipmentOption> included = new ArrayList<>(3);
+            for (EquipmentComparisonResult.EquipmentOption option : Arrays.asList(solar.get(combination.solar),
+                    heatPumps.get(combination.heatPump), batteries.get(combination.battery))) {
+                if (option != null) {
+                    included.add(option);
+                }
+            }
+            
+            EquipmentComparisonResult.SystemCombination system = new EquipmentComparisonResult.SystemCombination();
+            system.setCombinationName(included.stream().map(EquipmentComparisonResult.EquipmentOption::getEquipmentName)
+                .collect(Collectors.joining(" + ")));
+            system.setIncludedEquipmentIds(included.stream().map(EquipmentComparisonResult.EquipmentOption::getEquipmentId).toList());
+            system.setTotalInstallationCost(combination.cost);
+            system.setTotalAnnualSavings(combination.savings);
+            system.setTotalAnnualCO2Savings(combination.co2);
+            system.setCombinedPaybackPeriod(combination.payback);
+            system.setCombinedROI(combination.cost > 0 ? (combination.savings * ROI_YEARS - combination.cost) / combination.cost * 100 : 0.0);
+            system.setRecommendation(combination == ranked.get(0) ? "Fastest payback of all combinations"
+                : combination == cheapest ? "Lowest installation cost"
+                : combination == greenest ? "Highest CO₂ savings"
+                : "No other combination is cheaper with higher savings and CO₂ savings");
+            combinations.add(system);
+        }
+        return combinations;
+    }
+    
+    /**
+     * The fastest-payback combinations (at most limit), in payback order
+     */
+    private List<Combination> fastestCombinations(CombinationSpace space, int solarChoices, int limit) {
+        List<CompletableFuture<TopCombinations>> tasks = new ArrayList<>(solarChoices);
+        for (int s = 0; s < solarChoices; s++) {
+            int solarIndex = s;
+            tasks.add(CompletableFuture.supplyAsync(() -> space.search(solarIndex, limit), executor));
+        }
+        TopCombinations fastest = new TopCombinations(limit);
+        try {
+            for (CompletableFuture<TopCombinations> task : tasks) {
+                for (Combination combination : task.join().ranked()) {
+                    fastest.offer(combination);
+                }
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return fastest.ranked();
+    }
+    
+    /**
+     * The first combinations (at most limit) of a payback-ordered list not dominated by an earlier one
+     */
+    private static List<Combination> nonDominated(List<Combination> byPayback, int limit) {
+        List<Combination> front = new ArrayList<>(limit);
+        for (Combination candidate : byPayback) {
+            if (front.size() >= limit) {
+                break;
+            }
+            if (front.stream().noneMatch(kept -> kept.dominates(candidate))) {
+                front.add(candidate);
+            }
+        }
+        return front;
+    }
+    
+    /**
+     * Options not dominated by another option of the same category
+     */
+    private static List<EquipmentComparisonResult.EquipmentOption> paretoOptions(List<EquipmentComparisonResult.EquipmentOption> options,
+                                                                              boolean compareGeneration) {
+        List<EquipmentComparisonResult.EquipmentOption> front = new ArrayList<>();
+        if (options == null) {
+            return front;
+        }
+        for (EquipmentComparisonResult.EquipmentOption candidate : options) {
+            boolean dominated = false;
+            for (EquipmentComparisonResult.EquipmentOption other : options) {
+                if (other != candidate && dominates(other, candidate, compareGeneration)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                front.add(candidate);
+            }
+        }
+        return front;
+    }
+    
+    private static boolean dominates(EquipmentComparisonResult.EquipmentOption a, EquipmentComparisonResult.EquipmentOption b,
+                                     boolean compareGeneration) {
+        double[] objectivesA = {-valueOf(a, EquipmentComparisonResult.EquipmentOption::getInstallationCost),
+            valueOf(a, EquipmentComparisonResult.EquipmentOption::getAnnualCostSavings),
+            valueOf(a, EquipmentComparisonResult.EquipmentOption::getAnnualTotalCO2Savings),
+            compareGeneration ? valueOf(a, EquipmentComparisonResult.EquipmentOption::getAnnualGeneration) : 0.0};
+        double[] objectivesB = {-valueOf(b, EquipmentComparisonResult.EquipmentOption::getInstallationCost),
+            valueOf(b, EquipmentComparisonResult.EquipmentOption::getAnnualCostSavings),
+            valueOf(b, EquipmentComparisonResult.EquipmentOption::getAnnualTotalCO2Savings),
+            compareGeneration ? valueOf(b, EquipmentComparisonResult.EquipmentOption::getAnnualGeneration) : 0.0};
+        boolean strictlyBetter = false;
+        for (int i = 0; i < objectivesA.length; i++) {
+            if (objectivesA[i] < objectivesB[i]) {
+                return false;
+            }
+            strictlyBetter |= objectivesA[i] > objectivesB[i];
+        }
+        // Identical options: keep only the first
+        return strictlyBetter || a.getEquipmentId() != null && b.getEquipmentId() != null && a.getEquipmentId() < b.getEquipmentId();
+    }
+    
+    /**
+     * Options plus "none" (null) at index 0
+     */
+    private static List<EquipmentComparisonResult.EquipmentOption> withNone(List<EquipmentComparisonResult.EquipmentOption> options) {
+        List<EquipmentComparisonResult.EquipmentOption> choices = new ArrayList<>(options.size() + 1);
+        choices.add(null);
+        choices.addAll(options);
+        return choices;
+    }
+    
+    private static double valueOf(EquipmentComparisonResult.EquipmentOption option,
+                                  Function<EquipmentComparisonResult.EquipmentOption, Double> field) {
+        Double value = option != null ? field.apply(option) : null;
+        return value != null ? value : 0.0;
+    }
+    
+    /**
+     * Column arrays of the choices in each category, "none" at index 0
+     */
+    private static final class CombinationSpace {
+        private final double[] solarCost, solarSavings, solarCO2, solarShare;
+        private final double[] heatPumpCost, heatPumpSavings, heatPumpCO2;
+        private final double[] batteryCost, batterySavings, batteryCO2;
+        
+        CombinationSpace(List<EquipmentComparisonResult.EquipmentOption> solar, List<EquipmentComparisonResult.EquipmentOption> heatPumps,
+                         List<EquipmentComparisonResult.EquipmentOption> batteries, double referenceGeneration) {
+            solarCost = column(solar, EquipmentComparisonResult.EquipmentOption::getInstallationCost);
+            solarSavings = column(solar, EquipmentComparisonResult.EquipmentOption::getAnnualCostSavings);
+            solarCO2 = column(solar, EquipmentComparisonResult.EquipmentOption::getAnnualTotalCO2Savings);
+            solarShare = column(solar, EquipmentComparisonResult.EquipmentOption::getAnnualGeneration);
+            for (int s = 0; s < solarShare.length; s++) {
+                solarShare[s] = referenceGeneration > 0 ? Math.min(1.0, solarShare[s] / referenceGeneration) : 1.0;
+            }
+            heatPumpCost = column(heatPumps, EquipmentComparisonResult.EquipmentOption::getInstallationCost);
+            heatPumpSavings = column(heatPumps, EquipmentComparisonResult.EquipmentOption::getAnnualCostSavings);
+            heatPumpCO2 = column(heatPumps, EquipmentComparisonResult.EquipmentOption::getAnnualTotalCO2Savings);
+            batteryCost = column(batteries, EquipmentComparisonResult.EquipmentOption::getInstallationCost);
+            batterySavings = column(batteries, EquipmentComparisonResult.EquipmentOption::getAnnualCostSavings);
+            batteryCO2 = column(batteries, EquipmentComparisonResult.EquipmentOption::getAnnualTotalCO2Savings);
+        }
+        
+        private static double[] column(List<EquipmentComparisonResult.EquipmentOption> options,
+                                       Function<EquipmentComparisonResult.EquipmentOption, Double> field) {
+            double[] values = new double[options.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = valueOf(options.get(i), field);
+            }
+            return values;
+        }
+        
+        /**
+         * Every combination containing one solar choice, payback infinite when it never pays back
+         */
+        List<Combination> all(int s) {
+            List<Combination> combinations = new ArrayList<>(heatPumpCost.length * batteryCost.length);
+            for (int h = 0; h < heatPumpCost.length; h++) {
+                for (int b = 0; b < batteryCost.length; b++) {
+                    double savings = solarSavings[s] + heatPumpSavings[h] + batterySavings[b] * solarShare[s];
+                    double cost = solarCost[s] + heatPumpCost[h] + batteryCost[b];
+                    combinations.add(new Combination(s, h, b, cost, savings,
+                        solarCO2[s] + heatPumpCO2[h] + batteryCO2[b], savings > 0 ? cost / savings : Double.POSITIVE_INFINITY));
+                }
+            }
+            return combinations;
+        }
+        
+        /**
+         * Fastest-payback combinations containing one solar choice
+         */
+        TopCombinations search(int s, int limit) {
+            TopCombinations top = new TopCombinations(limit);
+            for (int h = 0; h < heatPumpCost.length; h++) {
+                double cost = solarCost[s] + heatPumpCost[h];
+                double savings = solarSavings[s] + heatPumpSavings[h];
+                double co2 = solarCO2[s] + heatPumpCO2[h];
+                for (int b = 0; b < batteryCost.length; b++) {
+                    double totalSavings = savings + batterySavings[b] * solarShare[s];
+                    if (totalSavings <= 0) {
+                        continue; // Never pays back
+                    }
+                    double totalCost = cost + batteryCost[b];
+                    double payback = totalCost / totalSavings;
+                    if (top.isFull() && payback > top.worstPayback()) {
+                        continue; // Would be evicted
+                    }
+                    top.offer(new Combination(s, h, b, totalCost, totalSavings, co2 + batteryCO2[b], payback));
+                }
+            }
+            return top;
+        }
+    }
+    
+    static final class Combination {
+        final int solar, heatPump, battery;    // Choice indices, 0 = none
+        final double cost, savings, co2, payback;
+        
+        Combination(int solar, int heatPump, int battery, double cost, double savings, double co2, double payback) {
+            this.solar = solar;
+            this.heatPump = heatPump;
+            this.battery = battery;
+            this.cost = cost;
+            this.savings = savings;
+            this.co2 = co2;
+            this.payback = payback;
+        }
+        
+        boolean dominates(Combination other) {
+            return cost <= other.cost && savings >= other.savings && co2 >= other.co2
+                && (cost < other.cost || savings > other.savings || co2 > other.co2);
+        }
+    }
+    
+    // Fastest payback first, then cheaper, higher savings and higher CO₂ savings, so a combination dominating
+    // another always sorts before it; remaining ties by fewer and earlier choices
+    private static final Comparator<Combination> BY_PAYBACK = Comparator.comparingDouble((Combination c) -> c.payback)
+        .thenComparingDouble(c -> c.cost).thenComparingDouble(c -> -c.savings).thenComparingDouble(c -> -c.co2)
+        .thenComparingInt(c -> c.solar).thenComparingInt(c -> c.heatPump).thenComparingInt(c -> c.battery);
+    
+    /**
+     * Bounded heap of the fastest-payback combinations, worst payback at the head
+     */
+    private static final class TopCombinations {
+        private final int limit;
+        private final PriorityQueue<Combination> combinations;
+        
+        TopCombinations(int limit) {
+            this.limit = limit;
+            this.combinations = new PriorityQueue<>(Math.min(limit, 1024) + 1, BY_PAYBACK.reversed());
+        }
+        
+        boolean isFull() {
+            return combinations.size() >= limit;
+        }
+        
+        double worstPayback() {
+            return combinations.peek().payback;
+        }
+        
+        void offer(Combination candidate) {
+            combinations.add(candidate);
+            if (combinations.size() > limit) {
+                combinations.poll();
+            }
+        }
+        
+        List<Combination> ranked() {
+            List<Combination> ranked = new ArrayList<>(combinations);
+            ranked.sort(BY_PAYBACK);
+            return ranked;
+        }
+    }
+    
+    /**
+     * Combinations not dominated on (lower cost, higher CO₂ savings, lower payback), cheapest first
+     * Sorting by cost means only earlier combinations can dominate a later one; those are kept as a
+     * staircase from -CO₂ to the best payback at that CO₂ or better, so each check and insert is O(log n).
+     * Of several identical combinations only the first in sort order is kept.
+     */
+    static List<Combination> skyline(List<Combination> combinations) {
+        List<Combination> sorted = new ArrayList<>(combinations);
+        sorted.sort(BY_COST);
+        TreeMap<Double, Double> staircase = new TreeMap<>(); // -CO₂ -> payback, paybacks falling as -CO₂ rises
+        List<Combination> front = new ArrayList<>();
+        for (Combination candidate : sorted) {
+            double lessCO2 = -candidate.co2;
+            Map.Entry<Double, Double> step = staircase.floorEntry(lessCO2);
+            if (step != null && step.getValue() <= candidate.payback) {
+                continue; // Something cheaper or as cheap has at least as much CO₂ savings and payback
+            }
+            Map.Entry<Double, Double> next = staircase.ceilingEntry(lessCO2);
+            while (next != null && next.getValue() >= candidate.payback) {
+                staircase.remove(next.getKey());
+                next = staircase.higherEntry(next.getKey());
+            }
+            staircase.put(lessCO2, candidate.payback);
+            front.add(candidate);
+        }
+        return front;
+    }
+    
+    // Cheapest first, then highest CO₂ savings, fastest payback, fewer and earlier choices
+    private static final Comparator<Combination> BY_COST = Comparator.comparingDouble((Combination c) -> c.cost)
+        .thenComparingDouble(c -> -c.co2).thenComparingDouble(c -> c.payback)
+        .thenComparingInt(c -> c.solar).thenComparingInt(c -> c.heatPump).thenComparingInt(c -> c.battery);
+    
+    /**
+     * Mark the frontier's cheapest configuration, the greenest, and the balanced one: the configuration
+     * closest to the ideal point once cost, CO₂ savings and payback are scaled to the frontier's range.
+     * The balanced choice prefers a configuration not already marked and one that pays back.
+     */
+    private static Map<Combination, List<String>> archetypes(List<Combination> frontier) {
+        Map<Combination, List<String>> archetypes = new IdentityHashMap<>();
+        if (frontier.isEmpty()) {
+            return archetypes;
+        }
+        Combination cheapest = frontier.stream().min(Comparator.comparingDouble((Combination c) -> c.cost)
+            .thenComparingDouble(c -> c.payback)).get();
+        Combination greenest = frontier.stream().max(Comparator.comparingDouble((Combination c) -> c.co2)
+            .thenComparingDouble(c -> -c.cost)).get();
+        archetypes.computeIfAbsent(cheapest, c -> new ArrayList<>()).add("Most Cost-Effective");
+        archetypes.computeIfAbsent(greenest, c -> new ArrayList<>()).add("Most Eco-Friendly");
+        
+        List<Combination> candidates = frontier.stream().filter(c -> Double.isFinite(c.payback)).toList();
+        if (candidates.isEmpty()) {
+            candidates = frontier;
+        }
+        if (candidates.stream().anyMatch(c -> !archetypes.containsKey(c))) {
+            candidates = candidates.stream().filter(c -> !archetypes.containsKey(c)).toList();
+        }
+        double minCost = Double.MAX_VALUE, maxCost = -Double.MAX_VALUE;
+        double minCO2 = Double.MAX_VALUE, maxCO2 = -Double.MAX_VALUE;
+        double minPayback = Double.MAX_VALUE, maxPayback = -Double.MAX_VALUE;
+        for (Combination c : frontier) {
+            minCost = Math.min(minCost, c.cost);
+            maxCost = Math.max(maxCost, c.cost);
+            minCO2 = Math.min(minCO2, c.co2);
+            maxCO2 = Math.max(maxCO2, c.co2);
+            if (Double.isFinite(c.payback)) {
+                minPayback = Math.min(minPayback, c.payback);
+                maxPayback = Math.max(maxPayback, c.payback);
+            }
+        }
+        Combination balanced = null;
+        double closest = Double.MAX_VALUE;
+        for (Combination c : candidates) {
+            double cost = scaled(c.cost, minCost, maxCost);
+            double co2 = 1.0 - scaled(c.co2, minCO2, maxCO2);
+            double payback = Double.isFinite(c.payback) ? scaled(c.payback, minPayback, maxPayback) : 1.0;
+            double distance = cost * cost + co2 * co2 + payback * payback;
+            if (distance < closest) {
+                closest = distance;
+                balanced = c;
+            }
+        }
+        archetypes.computeIfAbsent(balanced, c -> new ArrayList<>()).add("Balanced Option");
+        return archetypes;
+    }
+    
+    // Position within [min, max] as 0-1, 0 when the range is empty
+    private static double scaled(double value, double min, double max) {
+        return max > min ? (value - min) / (max - min) : 0.0;
     }
-} 
\ No newline at end of file
+}
@@ -6,6 +6,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Map;
 
+/**
+ * Investment metrics with BigDecimal arguments and results
+ * Values are converted to double on entry and rounded once on return.
+ */
 @Service
 public class FinancialAnalysisService {
 
@@ -19,15 +23,16 @@ public class FinancialAnalysisService {
      */
     public BigDecimal calculateAnnualSavings(BigDecimal annualGeneration, BigDecimal electricityRate, 
                                            BigDecimal exportRate, BigDecimal selfConsumptionRate) {
+        double generation = annualGeneration.doubleValue();
+        double selfConsumption = selfConsumptionRate.doubleValue();
+        
         // Self-consumed energy savings
-        BigDecimal selfConsumed = annualGeneration.multiply(selfConsumptionRate);
-        BigDecimal selfConsumptionSavings = selfConsumed.multiply(electricityRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        double selfConsumptionSavings = generation * selfConsumption * electricityRate.doubleValue() / 100.0;
         
         // Exported energy income
-        BigDecimal exported = annualGeneration.multiply(BigDecimal.ONE.subtract(selfConsumptionRate));
-        BigDecimal exportIncome = exported.multiply(exportRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        double exportIncome = generation * (1.0 - selfConsumption) * exportRate.doubleValue() / 100.0;
         
-        return selfConsumptionSavings.add(exportIncome);
+        return BigDecimal.valueOf(selfConsumptionSavings + exportIncome).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -39,13 +44,13 @@ public class FinancialAnalysisService {
      */
     public BigDecimal calculatePaybackPeriod(BigDecimal totalInstallationCost, BigDecimal annualSavings, 
                                            BigDecimal annualMaintenanceCost) {
-        BigDecimal netAnnualSavings = annualSavings.subtract(annualMaintenanceCost);
+        double netAnnualSavings = annualSavings.doubleValue() - annualMaintenanceCost.doubleValue();
         
-        if (netAnnualSavings.compareTo(BigDecimal.ZERO) <= 0) {
+        if (netAnnualSavings <= 0) {
             return BigDecimal.valueOf(999); // Indicates no payback
         }
         
-        return totalInstallationCost.divide(netAnnualSavings, 2, RoundingMode.HALF_UP);
+        return BigDecimal.valueOf(totalInstallationCost.doubleValue() / netAnnualSavings).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -57,10 +62,10 @@ public class FinancialAnalysisService {
      */
     public BigDecimal calculateROI(BigDecimal totalSavingsOverPeriod, BigDecimal totalInstallationCost, 
                                  Integer analysisPeriodYears) {
-        BigDecimal profit = totalSavingsOverPeriod.subtract(totalInstallationCost);
-        BigDecimal roi = profit.divide(totalInstallationCost, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+        double profit = totalSavingsOverPeriod.doubleValue() - totalInstallationCost.doubleValue();
+        double roi = profit / totalInstallationCost.doubleValue() * 100.0;
         
-        return roi;
+        return BigDecimal.valueOf(roi).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -72,27 +77,16 @@ public class FinancialAnalysisService {
      */
     public BigDecimal calculateNPV(Map<Integer, BigDecimal> annualCashFlows, BigDecimal discountRate, 
                                  BigDecimal initialInvestment) {
-        // TODO: Implement comprehensive NPV calculation
-        // This will include:
-        // - Discounted cash flows
-        // - Inflation adjustments
-        // - Energy price escalation
-        // - System degradation over time
-        
-        // Placeholder implementation
-        BigDecimal npv = initialInvestment.negate();
-        
+        // Escalation and degradation are modelled by LifetimeCashFlowService; here the flows are given
+        int years = annualCashFlows.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        double[] cashFlows = new double[years + 1];
+        cashFlows[0] = -initialInvestment.doubleValue();
         for (Map.Entry<Integer, BigDecimal> entry : annualCashFlows.entrySet()) {
-            Integer year = entry.getKey();
-            BigDecimal cashFlow = entry.getValue();
-            
-            BigDecimal discountFactor = BigDecimal.ONE.divide(
-                BigDecimal.ONE.add(discountRate).pow(year), 4, RoundingMode.HALF_UP);
-            
-            npv = npv.add(cashFlow.multiply(discountFactor));
+            cashFlows[entry.getKey()] += entry.getValue().doubleValue();
         }
         
-        return npv;
+        double npv = LifetimeCashFlowService.npv(cashFlows, discountRate.doubleValue());
+        return BigDecimal.valueOf(npv).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -105,18 +99,16 @@ public class FinancialAnalysisService {
      */
     public BigDecimal calculateLifetimeSavings(BigDecimal annualSavings, Integer systemLifespan, 
                                              BigDecimal annualDegradation, BigDecimal energyPriceEscalation) {
-        BigDecimal totalSavings = BigDecimal.ZERO;
-        BigDecimal currentSavings = annualSavings;
+        double totalSavings = 0.0;
+        double currentSavings = annualSavings.doubleValue();
+        double yearlyFactor = (1.0 - annualDegradation.doubleValue())    // System degradation
+            * (1.0 + energyPriceEscalation.doubleValue());               // Energy price increase
         
         for (int year = 1; year <= systemLifespan; year++) {
-            totalSavings = totalSavings.add(currentSavings);
-            
-            // Apply degradation and price escalation
-            currentSavings = currentSavings
-                .multiply(BigDecimal.ONE.subtract(annualDegradation))  // System degradation
-                .multiply(BigDecimal.ONE.add(energyPriceEscalation));  // Energy price increase
+            totalSavings += currentSavings;
+            currentSavings *= yearlyFactor;
         }
         
-        return totalSavings;
+        return BigDecimal.valueOf(totalSavings).setScale(2, RoundingMode.HALF_UP);
     }
 } 
\ No newline at end of file
@@ -1,13 +1,11 @@
 package com.wx.renewableCalculator.backend.service;
 
-import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
 import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
 import com.wx.renewableCalculator.backend.dto.GasDemandResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,10 +19,10 @@ import java.util.Map;
 public class GasDemandService {
 
     @Autowired
-    private SpaceHeatingElectricityDemandService spaceHeatingElectricityDemandService;
+    private HouseholdThermalModelService householdThermalModelService;
 
     // Standard monthly gas demand proportions (%) - used for Case 2
-    private static final double[] STANDARD_GAS_MONTHLY_PROPORTIONS = {
+    static final double[] STANDARD_GAS_MONTHLY_PROPORTIONS = {
         15.0, 14.0, 12.0, 9.0, 6.0, 3.0, 3.0, 3.0, 5.0, 8.0, 11.0, 11.0
     };
 
@@ -68,32 +66,10 @@ public class GasDemandService {
      * Calculate gas demand from user's monthly input
      */
     private GasDemandResult calculateFromMonthlyInput(GasDemandRequest request) {
-        GasDemandResult result = new GasDemandResult();
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        
-        double totalAnnual = 0.0;
-        double peakDemand = 0.0;
-        double lowDemand = Double.MAX_VALUE;
-        int peakMonth = 1, lowMonth = 1;
-        
-        for (int month = 1; month <= 12; month++) {
-            Double demandValue = request.getMonthlyGasUsage().getOrDefault(month, 0.0);
-            monthlyDemand.put(month, BigDecimal.valueOf(demandValue).setScale(2, RoundingMode.HALF_UP));
-            totalAnnual += demandValue;
-            
-            if (demandValue > peakDemand) { peakDemand = demandValue; peakMonth = month; }
-            if (demandValue < lowDemand) { lowDemand = demandValue; lowMonth = month; }
-        }
+        double[] monthlyDemand = MonthlyValues.fromMap(request.getMonthlyGasUsage());
         
-        result.setMonthlyGasDemand(monthlyDemand);
-        result.setAnnualGasDemand(BigDecimal.valueOf(totalAnnual).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("user_monthly");
+        GasDemandResult result = toResult(monthlyDemand, "user_monthly");
         result.setDescription("Monthly gas demand calculated from user's monthly input");
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setLowMonth(lowMonth);
-        
         return result;
     }
 
@@ -101,36 +77,16 @@ public class GasDemandService {
      * Calculate gas demand from user's annual input using monthly proportions
      */
     private GasDemandResult calculateFromAnnualInput(GasDemandRequest request) {
-        GasDemandResult result = new GasDemandResult();
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        Map<Integer, BigDecimal> monthlyProportions = new HashMap<>();
-        
         double annualUsage = request.getAnnualGasUsage();
-        double peakDemand = 0.0;
-        double lowDemand = Double.MAX_VALUE;
-        int peakMonth = 1, lowMonth = 1;
-        
-        for (int month = 1; month <= 12; month++) {
-            double proportion = STANDARD_GAS_MONTHLY_PROPORTIONS[month - 1] / 100.0;
-            double monthlyUsage = annualUsage * proportion;
-            
-            monthlyDemand.put(month, BigDecimal.valueOf(monthlyUsage).setScale(2, RoundingMode.HALF_UP));
-            monthlyProportions.put(month, BigDecimal.valueOf(proportion * 100).setScale(1, RoundingMode.HALF_UP));
-            
-            if (monthlyUsage > peakDemand) { peakDemand = monthlyUsage; peakMonth = month; }
-            if (monthlyUsage < lowDemand) { lowDemand = monthlyUsage; lowMonth = month; }
+        double[] monthlyDemand = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthlyDemand[m] = annualUsage * STANDARD_GAS_MONTHLY_PROPORTIONS[m] / 100.0;
         }
         
-        result.setMonthlyGasDemand(monthlyDemand);
-        result.setAnnualGasDemand(BigDecimal.valueOf(annualUsage).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("user_annual_distributed");
-        result.setMonthlyProportions(monthlyProportions);
+        GasDemandResult result = toResult(monthlyDemand, "user_annual_distributed");
+        result.setAnnualGasDemand(MonthlyValues.decimal(annualUsage, 2));
+        result.setMonthlyProportions(MonthlyValues.toMap(STANDARD_GAS_MONTHLY_PROPORTIONS, 1));
         result.setDescription(String.format("Annual gas demand (%,.0f kWh) distributed using standard gas proportions", annualUsage));
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
-        result.setLowMonth(lowMonth);
-        
         return result;
     }
 
@@ -144,11 +100,14 @@ public class GasDemandService {
             throw new IllegalArgumentException("Number of occupants is required for gas demand estimation");
         }
         
-        GasDemandResult result = new GasDemandResult();
-        
-        // Calculate annual demands
-        double annualSpaceHeatingDemand = calculateAnnualSpaceHeatingDemand(request);
-        double annualHotWaterDemand = calculateAnnualHotWaterDemand(request);
+        // Calculate annual demands from the shared household thermal model
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            System.out.println("Warning: No location coordinates provided for gas heating calculation, using London default coordinates");
+        }
+        HouseholdThermalModelService.ThermalDemand thermalDemand = householdThermalModelService.getThermalDemand(
+            request, request.getLatitude(), request.getLongitude());
+        double annualSpaceHeatingDemand = calculateAnnualSpaceHeatingDemand(request, thermalDemand);
+        double annualHotWaterDemand = calculateAnnualHotWaterDemand(request, thermalDemand);
         
         // Apply allocation factors
         double spaceHeatingComponent = annualSpaceHeatingDemand * SPACE_HEATING_ALLOCATION;
@@ -160,77 +119,66 @@ public class GasDemandService {
             spaceHeatingComponent, hotWaterComponent, spaceHeatingComponent + hotWaterComponent));
         
         // Calculate monthly gas demand using specific proportions
-        Map<Integer, BigDecimal> monthlyDemand = new HashMap<>();
-        double totalAnnual = 0.0;
-        
-        for (int month = 1; month <= 12; month++) {
-            double spaceHeatingProportion = GAS_SPACE_HEATING_PROPORTIONS[month - 1] / 100.0;
-            double hotWaterProportion = GAS_HOT_WATER_PROPORTIONS[month - 1] / 100.0;
-            
-            double monthlySpaceHeating = spaceHeatingComponent * spaceHeatingProportion;
-            double monthlyHotWater = hotWaterComponent * hotWaterProportion;
-            double totalForMonth = monthlySpaceHeating + monthlyHotWater;
-            
-            monthlyDemand.put(month, BigDecimal.valueOf(totalForMonth).setScale(2, RoundingMode.HALF_UP));
-            totalAnnual += totalForMonth;
+        double[] monthlyDemand = new double[12];
+        for (int m = 0; m < 12; m++) {
+            double monthlySpaceHeating = spaceHeatingComponent * GAS_SPACE_HEATING_PROPORTIONS[m] / 100.0;
+            double monthlyHotWater = hotWaterComponent * GAS_HOT_WATER_PROPORTIONS[m] / 100.0;
+            monthlyDemand[m] = monthlySpaceHeating + monthlyHotWater;
         }
+        double totalAnnual = MonthlyValues.sum(monthlyDemand);
         
-        // Find peak and low months
-        double peakDemand = monthlyDemand.values().stream().mapToDouble(bd -> bd.doubleValue()).max().orElse(0.0);
-        double lowDemand = monthlyDemand.values().stream().mapToDouble(bd -> bd.doubleValue()).min().orElse(0.0);
-        
-        int peakMonth = 1, lowMonth = 1;
-        for (Map.Entry<Integer, BigDecimal> entry : monthlyDemand.entrySet()) {
-            if (entry.getValue().doubleValue() == peakDemand) peakMonth = entry.getKey();
-            if (entry.getValue().doubleValue() == lowDemand) lowMonth = entry.getKey();
-        }
-        
-        result.setMonthlyGasDemand(monthlyDemand);
-        result.setAnnualGasDemand(BigDecimal.valueOf(totalAnnual).setScale(2, RoundingMode.HALF_UP));
-        result.setCalculationMethod("estimated");
-        result.setSpaceHeatingComponent(BigDecimal.valueOf(spaceHeatingComponent).setScale(2, RoundingMode.HALF_UP));
-        result.setHotWaterComponent(BigDecimal.valueOf(hotWaterComponent).setScale(2, RoundingMode.HALF_UP));
+        GasDemandResult result = toResult(monthlyDemand, "estimated");
+        result.setSpaceHeatingComponent(MonthlyValues.decimal(spaceHeatingComponent, 2));
+        result.setHotWaterComponent(MonthlyValues.decimal(hotWaterComponent, 2));
         result.setDescription(String.format(
             "Estimated gas demand for %d residents: Space heating component=%.1f kWh/year (85%%), Hot water component=%.1f kWh/year (15%%), Total=%.1f kWh/year", 
             request.getOccupants(), spaceHeatingComponent, hotWaterComponent, totalAnnual));
-        result.setPeakMonthDemand(BigDecimal.valueOf(peakDemand).setScale(2, RoundingMode.HALF_UP));
+        
+        return result;
+    }
+
+    /**
+     * Round monthly demand into the result, with the annual total and peak/low months
+     * Estimated demand takes peak and low months from the rounded values, the latest month on ties;
+     * user input and distributed annual demand take the earliest month on ties.
+     */
+    private GasDemandResult toResult(double[] monthlyDemand, String calculationMethod) {
+        Map<Integer, BigDecimal> rounded = MonthlyValues.toMap(monthlyDemand, 2);
+        boolean estimated = "estimated".equals(calculationMethod);
+        int peakMonth = estimated ? MonthlyValues.latestPeakMonth(rounded) : MonthlyValues.peakMonth(monthlyDemand);
+        int lowMonth = estimated ? MonthlyValues.latestLowMonth(rounded) : MonthlyValues.lowMonth(monthlyDemand);
+        
+        GasDemandResult result = new GasDemandResult();
+        result.setMonthlyGasDemand(rounded);
+        result.setAnnualGasDemand(MonthlyValues.decimal(MonthlyValues.sum(monthlyDemand), 2));
+        result.setCalculationMethod(calculationMethod);
+        result.setPeakMonthDemand(MonthlyValues.decimal(monthlyDemand[peakMonth - 1], 2));
         result.setPeakMonth(peakMonth);
-        result.setLowMonthDemand(BigDecimal.valueOf(lowDemand).setScale(2, RoundingMode.HALF_UP));
+        result.setLowMonthDemand(MonthlyValues.decimal(monthlyDemand[lowMonth - 1], 2));
         result.setLowMonth(lowMonth);
-        
         return result;
     }
 
     /**
-     * Calculate annual space heating demand (reuse logic from space heating service)
+     * Calculate annual space heating demand (projection of the household thermal model)
      */
-    private double calculateAnnualSpaceHeatingDemand(GasDemandRequest request) {
+    private double calculateAnnualSpaceHeatingDemand(GasDemandRequest request, HouseholdThermalModelService.ThermalDemand thermalDemand) {
         if (!"gas".equals(request.getHeatingType()) && !"gas-boiler".equals(request.getHeatingType())) {
             return 0.0; // No gas space heating demand
         }
-        
-        ElectricityDemandRequest electricityRequest = convertToElectricityRequest(request);
-        
-        // Use coordinates if available, otherwise use default (London)
-        if (request.getLatitude() != null && request.getLongitude() != null) {
-            return spaceHeatingElectricityDemandService.calculateAnnualSpaceHeatingDemand(
-                electricityRequest, request.getLatitude(), request.getLongitude());
-        } else {
-            System.out.println("Warning: No location coordinates provided for gas heating calculation, using London default coordinates");
-            return spaceHeatingElectricityDemandService.calculateAnnualSpaceHeatingDemand(electricityRequest);
-        }
+        return thermalDemand.getAnnualSpaceHeating();
     }
 
     /**
      * Calculate annual hot water demand
      */
-    private double calculateAnnualHotWaterDemand(GasDemandRequest request) {
+    private double calculateAnnualHotWaterDemand(GasDemandRequest request, HouseholdThermalModelService.ThermalDemand thermalDemand) {
         if (!"gas-boiler".equals(request.getHotWaterType())) {
             return 0.0; // No gas hot water demand
         }
         
         int residentsNumber = request.getOccupants();
-        double baseHotWaterDemand = 1250 + residentsNumber + 600;
+        double baseHotWaterDemand = thermalDemand.getAnnualHotWater();
         
         System.out.println(String.format("Annual hot water demand: (1250 + %d + 600) = %.1f kWh/year", 
             residentsNumber, baseHotWaterDemand));
@@ -238,27 +186,6 @@ public class GasDemandService {
         return baseHotWaterDemand;
     }
 
-    /**
-     * Convert GasDemandRequest to ElectricityDemandRequest for reusing calculation logic
-     */
-    private com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest convertToElectricityRequest(GasDemandRequest gasRequest) {
-        com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest electricityRequest = 
-            new com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest();
-        
-        electricityRequest.setOccupants(gasRequest.getOccupants());
-        electricityRequest.setHeatingType(gasRequest.getHeatingType());
-        electricityRequest.setHouseArea(gasRequest.getHouseArea());
-        electricityRequest.setBuildYear(gasRequest.getBuildYear());
-        electricityRequest.setWallType(gasRequest.getWallType());
-        electricityRequest.setWindowType(gasRequest.getWindowType());
-        electricityRequest.setRoofInsulation(gasRequest.getRoofInsulation());
-        electricityRequest.setFloorInsulation(gasRequest.getFloorInsulation());
-        electricityRequest.setHouseType(gasRequest.getHouseType());
-        electricityRequest.setEpcRating(gasRequest.getEpcRating());
-        
-        return electricityRequest;
-    }
-
     /**
      * Validate monthly gas usage input
      */
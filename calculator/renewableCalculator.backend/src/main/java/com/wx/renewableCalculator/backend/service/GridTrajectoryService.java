@@ -0,0 +1,186 @@
+package com.wx.renewableCalculator.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Year-by-year grid carbon intensity trajectories (decarbonisation scenarios)
+ * Bundled pathways come from grid-trajectories/trajectories.csv (scenario, year, annual gCO₂/kWh) and are spread
+ * over the months with the seasonal shape in grid-trajectories/monthly-shape.csv.
+ * Each <scenario>.csv in the local data directory adds or replaces a scenario, with rows of either
+ * year,annual or year,jan,...,dec (gCO₂/kWh). A local file with a malformed row is logged and skipped,
+ * leaving any bundled scenario of that name in place.
+ * Intensities are returned as a flattened year × month matrix in kgCO₂/kWh.
+ */
+@Service
+public class GridTrajectoryService {
+
+    @Value("${grid-trajectories.directory:grid-trajectories}")
+    private String dataDirectory;
+
+    private static final String TRAJECTORIES_RESOURCE = "grid-trajectories/trajectories.csv";
+    private static final String MONTHLY_SHAPE_RESOURCE = "grid-trajectories/monthly-shape.csv";
+
+    // Scenario -> year -> 12 monthly intensities (kgCO₂/kWh)
+    private volatile Map<String, TreeMap<Integer, double[]>> trajectories = Collections.emptyMap();
+
+    /**
+     * Load the bundled pathways, then the local scenario files
+     */
+    @PostConstruct
+    public void loadTrajectories() throws IOException {
+        double[] shape = loadMonthlyShape();
+        Map<String, TreeMap<Integer, double[]>> loaded = new LinkedHashMap<>();
+
+        for (String[] fields : readRows(new ClassPathResource(TRAJECTORIES_RESOURCE).getInputStream(), "scenario")) {
+            if (fields.length != 3) {
+                throw new IllegalStateException("Invalid trajectory row in " + TRAJECTORIES_RESOURCE + ": " + String.join(",", fields));
+            }
+            loaded.computeIfAbsent(fields[0], key -> new TreeMap<>())
+                .put(Integer.parseInt(fields[1]), spread(Double.parseDouble(fields[2]), shape));
+        }
+
+        Path directory = Paths.get(dataDirectory);
+        if (Files.isDirectory(directory)) {
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().endsWith(".csv")).sorted().toList();
+            }
+            for (Path file : files) {
+                String scenario = file.getFileName().toString().replaceFirst("\\.csv$", "");
+                try {
+                    TreeMap<Integer, double[]> points = readLocalScenario(file, shape);
+                    if (!points.isEmpty()) {
+                        loaded.put(scenario, points);
+                    }
+                } catch (IOException | IllegalStateException | NumberFormatException e) {
+                    System.err.println(String.format("Skipping grid trajectory file %s: %s", file, e.getMessage()));
+                }
+            }
+        }
+
+        trajectories = loaded;
+        System.out.println(String.format("Loaded %d grid intensity trajectories", loaded.size()));
+    }
+
+    private TreeMap<Integer, double[]> readLocalScenario(Path file, double[] shape) throws IOException {
+        TreeMap<Integer, double[]> points = new TreeMap<>();
+        for (String[] fields : readRows(Files.newInputStream(file), "year")) {
+            double[] monthly;
+            if (fields.length == 2) {
+                monthly = spread(Double.parseDouble(fields[1]), shape);
+            } else if (fields.length == 13) {
+                monthly = new double[12];
+                for (int m = 0; m < 12; m++) {
+                    monthly[m] = Double.parseDouble(fields[1 + m]) / 1000.0;
+                }
+            } else {
+                throw new IllegalStateException("Invalid trajectory row: " + String.join(",", fields));
+            }
+            points.put(Integer.parseInt(fields[0]), monthly);
+        }
+        return points;
+    }
+
+    public List<String> getScenarios() {
+        return new ArrayList<>(trajectories.keySet());
+    }
+
+    public boolean hasScenario(String scenario) {
+        return trajectories.containsKey(scenario);
+    }
+
+    /**
+     * Monthly intensity for each year of a lifetime, interpolated between the scenario's years
+     * @return years × 12 values (kgCO₂/kWh), row y = startYear + y
+     */
+    public double[] getIntensityMatrix(String scenario, int startYear, int years) {
+        TreeMap<Integer, double[]> points = trajectories.get(scenario);
+        if (points == null) {
+            throw new IllegalArgumentException("Unknown grid trajectory: " + scenario);
+        }
+
+        double[] matrix = new double[years * 12];
+        for (int y = 0; y < years; y++) {
+            int year = startYear + y;
+            Map.Entry<Integer, double[]> floor = points.floorEntry(year);
+            Map.Entry<Integer, double[]> ceiling = points.ceilingEntry(year);
+            if (floor == null) {
+                floor = ceiling;
+            } else if (ceiling == null) {
+                ceiling = floor;
+            }
+            int span = ceiling.getKey() - floor.getKey();
+            double weight = span > 0 ? (year - floor.getKey()) / (double) span : 0.0;
+            for (int m = 0; m < 12; m++) {
+                matrix[y * 12 + m] = floor.getValue()[m] + (ceiling.getValue()[m] - floor.getValue()[m]) * weight;
+            }
+        }
+        return matrix;
+    }
+
+    private double[] loadMonthlyShape() throws IOException {
+        double[] shape = new double[12];
+        for (String[] fields : readRows(new ClassPathResource(MONTHLY_SHAPE_RESOURCE).getInputStream(), "month")) {
+            shape[Integer.parseInt(fields[0]) - 1] = Double.parseDouble(fields[1]);
+        }
+        double mean = 0.0;
+        for (double factor : shape) {
+            mean += factor / 12.0;
+        }
+        for (int m = 0; m < 12; m++) {
+            shape[m] /= mean;
+        }
+        return shape;
+    }
+
+    /**
+     * Annual gCO₂/kWh -> monthly kgCO₂/kWh
+     */
+    private static double[] spread(double annualGrams, double[] shape) {
+        double[] monthly = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthly[m] = annualGrams / 1000.0 * shape[m];
+        }
+        return monthly;
+    }
+
+    /**
+     * Data rows of a CSV, skipping comments, blank lines and a header row (first column named firstColumn)
+     */
+    private static List<String[]> readRows(InputStream input, String firstColumn) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.trim().split("\\s*,\\s*");
+                if (rows.isEmpty() && fields[0].equalsIgnoreCase(firstColumn)) {
+                    continue; // Header
+                }
+                rows.add(fields);
+            }
+        }
+        return rows;
+    }
+}
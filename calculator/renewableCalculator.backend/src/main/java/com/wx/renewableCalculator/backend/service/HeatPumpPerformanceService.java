@@ -0,0 +1,237 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.HeatPumpPerformancePoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service for temperature-dependent heat pump COP
+ * COP(Tout, Tflow) is interpolated from the heat pump's performance map (outdoor temperature × flow temperature).
+ * Without a map, the rated COP is taken as the A7/W35 point and scaled with the Carnot COP:
+ * COP(Tout, Tflow) = rated COP × [(Tflow + 273.15) / (Tflow - Tout)] / [(35 + 273.15) / (35 - 7)]
+ * Electricity = ∑ daily thermal demand / COP(daily outdoor temperature, flow temperature)
+ */
+@Service
+public class HeatPumpPerformanceService {
+
+    @Autowired
+    private EquipmentCatalogService equipmentCatalogService;
+
+    // Default COP if heat pump not found
+    public static final double DEFAULT_COP = 3.0;
+
+    // Typical flow temperatures (°C)
+    public static final double DEFAULT_SPACE_HEATING_FLOW_TEMPERATURE = 45.0;
+    public static final double HOT_WATER_FLOW_TEMPERATURE = 55.0;
+
+    // Rating point of the nameplate COP (EN 14511 A7/W35)
+    private static final double RATED_OUTDOOR_TEMPERATURE = 7.0;
+    private static final double RATED_FLOW_TEMPERATURE = 35.0;
+
+    private static final double MIN_TEMPERATURE_LIFT = 5.0; // K, keeps the Carnot term finite
+    private static final double MIN_COP = 1.0;              // Backup heater floor
+    private static final double KELVIN = 273.15;
+
+    private static final String REQUEST_MEMO_ATTRIBUTE = HeatPumpPerformanceService.class.getName() + ".memo";
+
+    /**
+     * Get the performance curve for a heat pump from the equipment catalog, compiled at most once per request
+     */
+    public HeatPumpPerformance getPerformance(Integer heatPumpId) {
+        Map<Integer, HeatPumpPerformance> requestMemo = getRequestMemo();
+        if (requestMemo != null) {
+            HeatPumpPerformance memoised = requestMemo.get(heatPumpId);
+            if (memoised != null) {
+                return memoised;
+            }
+        }
+
+        HeatPumpPerformance performance;
+        HeatPump heatPump = equipmentCatalogService.getHeatPumpCatalog().findById(heatPumpId);
+        if (heatPump != null) {
+            performance = compile(heatPump);
+        } else {
+            System.out.println(String.format("Heat pump %d not found, using default COP %.1f", heatPumpId, DEFAULT_COP));
+            performance = fromRatedCop(DEFAULT_COP);
+        }
+
+        if (requestMemo != null) {
+            requestMemo.put(heatPumpId, performance);
+        }
+        return performance;
+    }
+
+    /**
+     * Electricity demand by month from daily thermal demand and daily outdoor temperatures
+     * Monthly electricity = ∑ days of month (thermal demand / COP(outdoor temperature, flow temperature))
+     *
+     * @param dailyThermalKwh Thermal demand per day of the reference year (365 values)
+     * @param dailyTemperatures Mean outdoor temperature per day (°C, 365 values)
+     * @return Electricity demand in kWh, January (index 0) to December (index 11)
+     */
+    public double[] calculateMonthlyElectricity(HeatPumpPerformance performance, double[] dailyThermalKwh,
+                                                double[] dailyTemperatures, double flowTemperature) {
+        double[] monthlyElectricity = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            double electricity = 0.0;
+            int end = ReferenceYear.monthEndDay(month);
+            for (int day = ReferenceYear.monthStartDay(month); day < end; day++) {
+                if (dailyThermalKwh[day] > 0) {
+                    electricity += dailyThermalKwh[day] / performance.cop(dailyTemperatures[day], flowTemperature);
+                }
+            }
+            monthlyElectricity[month - 1] = electricity;
+        }
+        return monthlyElectricity;
+    }
+
+    /**
+     * Build an interpolation table from the heat pump's performance map
+     */
+    private HeatPumpPerformance compile(HeatPump heatPump) {
+        double ratedCop = heatPump.getCop() != null ? heatPump.getCop().doubleValue() : DEFAULT_COP;
+        List<HeatPumpPerformancePoint> points = heatPump.getPerformanceMap();
+        if (points == null || points.isEmpty()) {
+            return fromRatedCop(ratedCop);
+        }
+
+        // Group by flow temperature, each curve sorted by outdoor temperature
+        TreeMap<Double, TreeMap<Double, Double>> curves = new TreeMap<>();
+        for (HeatPumpPerformancePoint point : points) {
+            if (point.getOutdoorTemperature() == null || point.getFlowTemperature() == null
+                    || point.getCop() == null || point.getCop().doubleValue() <= 0) {
+                continue;
+            }
+            curves.computeIfAbsent(point.getFlowTemperature().doubleValue(), flow -> new TreeMap<>())
+                .put(point.getOutdoorTemperature().doubleValue(), point.getCop().doubleValue());
+        }
+        if (curves.isEmpty()) {
+            return fromRatedCop(ratedCop);
+        }
+
+        double[] flowTemperatures = new double[curves.size()];
+        double[][] outdoorTemperatures = new double[curves.size()][];
+        double[][] cops = new double[curves.size()][];
+        int i = 0;
+        for (Map.Entry<Double, TreeMap<Double, Double>> curve : curves.entrySet()) {
+            flowTemperatures[i] = curve.getKey();
+            outdoorTemperatures[i] = new double[curve.getValue().size()];
+            cops[i] = new double[curve.getValue().size()];
+            int j = 0;
+            for (Map.Entry<Double, Double> point : curve.getValue().entrySet()) {
+                outdoorTemperatures[i][j] = point.getKey();
+                cops[i][j] = point.getValue();
+                j++;
+            }
+            i++;
+        }
+        return new HeatPumpPerformance(ratedCop, flowTemperatures, outdoorTemperatures, cops);
+    }
+
+    /**
+     * Performance curve derived from a rated (A7/W35) COP only
+     */
+    public static HeatPumpPerformance fromRatedCop(double ratedCop) {
+        return new HeatPumpPerformance(ratedCop, null, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, HeatPumpPerformance> getRequestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(REQUEST_MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<Integer, HeatPumpPerformance>();
+            attributes.setAttribute(REQUEST_MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Integer, HeatPumpPerformance>) memo;
+    }
+
+    /**
+     * Immutable COP curve of one heat pump
+     */
+    public static final class HeatPumpPerformance {
+        private final double ratedCop;
+        private final double[] flowTemperatures;       // Sorted flow temperatures with a measured curve
+        private final double[][] outdoorTemperatures;  // Per flow temperature, sorted outdoor temperatures
+        private final double[][] cops;                 // Per flow temperature, COP at each outdoor temperature
+
+        private HeatPumpPerformance(double ratedCop, double[] flowTemperatures,
+                                    double[][] outdoorTemperatures, double[][] cops) {
+            this.ratedCop = ratedCop;
+            this.flowTemperatures = flowTemperatures;
+            this.outdoorTemperatures = outdoorTemperatures;
+            this.cops = cops;
+        }
+
+        public double getRatedCop() {
+            return ratedCop;
+        }
+
+        public boolean hasPerformanceMap() {
+            return flowTemperatures != null;
+        }
+
+        /**
+         * COP at an outdoor and flow temperature (°C)
+         */
+        public double cop(double outdoorTemperature, double flowTemperature) {
+            double cop = hasPerformanceMap()
+                ? interpolateMap(outdoorTemperature, flowTemperature)
+                : ratedCop * carnotCop(outdoorTemperature, flowTemperature)
+                    / carnotCop(RATED_OUTDOOR_TEMPERATURE, RATED_FLOW_TEMPERATURE);
+            return Math.max(MIN_COP, cop);
+        }
+
+        private double interpolateMap(double outdoorTemperature, double flowTemperature) {
+            int upper = 0;
+            while (upper < flowTemperatures.length && flowTemperatures[upper] < flowTemperature) {
+                upper++;
+            }
+            if (upper == 0) {
+                return interpolateCurve(0, outdoorTemperature);
+            }
+            if (upper == flowTemperatures.length) {
+                return interpolateCurve(flowTemperatures.length - 1, outdoorTemperature);
+            }
+
+            int lower = upper - 1;
+            double weight = (flowTemperature - flowTemperatures[lower]) / (flowTemperatures[upper] - flowTemperatures[lower]);
+            return (1.0 - weight) * interpolateCurve(lower, outdoorTemperature) + weight * interpolateCurve(upper, outdoorTemperature);
+        }
+
+        private double interpolateCurve(int curve, double outdoorTemperature) {
+            double[] temperatures = outdoorTemperatures[curve];
+            double[] values = cops[curve];
+            if (outdoorTemperature <= temperatures[0]) {
+                return values[0];
+            }
+            int last = temperatures.length - 1;
+            if (outdoorTemperature >= temperatures[last]) {
+                return values[last];
+            }
+
+            int upper = 1;
+            while (temperatures[upper] < outdoorTemperature) {
+                upper++;
+            }
+            double weight = (outdoorTemperature - temperatures[upper - 1]) / (temperatures[upper] - temperatures[upper - 1]);
+            return values[upper - 1] + weight * (values[upper] - values[upper - 1]);
+        }
+
+        private static double carnotCop(double outdoorTemperature, double flowTemperature) {
+            double lift = Math.max(MIN_TEMPERATURE_LIFT, flowTemperature - outdoorTemperature);
+            return (flowTemperature + KELVIN) / lift;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Service for calculating monthly shading losses from a horizon profile
+ * The horizon profile gives the obstruction elevation angle (degrees) for evenly spaced
+ * azimuth bins, clockwise from north. Sun positions for each month and half-hour are
+ * precomputed once per latitude band and stored as bitsets, so evaluating a horizon is
+ * a handful of array lookups and bitwise ORs rather than a ray-trace per request.
+ */
+@Service
+public class HorizonShadingService {
+
+    // Internal horizon resolution (10° azimuth bins)
+    private static final int AZIMUTH_BINS = 36;
+    private static final double BIN_WIDTH = 360.0 / AZIMUTH_BINS;
+
+    // Half-hour sun positions per day (fits one long bitset per month)
+    private static final int SLOTS_PER_DAY = 48;
+
+    // Representative day of year for each month (Klein mid-month days)
+    private static final int[] REPRESENTATIVE_DAYS = {17, 47, 75, 105, 135, 162, 198, 228, 258, 288, 318, 344};
+
+    // Fraction of monthly irradiation arriving as direct beam in the UK (remainder is diffuse)
+    private static final double[] BEAM_FRACTIONS = {
+        0.30, 0.35, 0.40, 0.45, 0.48, 0.50,   // Jan-Jun
+        0.48, 0.46, 0.42, 0.38, 0.32, 0.28    // Jul-Dec
+    };
+
+    private static final double DEFAULT_LATITUDE = 51.5074; // London
+
+    // Sun-path tables cached per whole-degree latitude band
+    private final ConcurrentMap<Integer, SunPathTable> sunPathTables = new ConcurrentHashMap<>();
+
+    /**
+     * Calculate monthly shading correction factors for a horizon profile
+     * Shading factor = 1 - beam fraction × blocked beam share - diffuse fraction × (1 - sky view factor)
+     *
+     * @param latitude Site latitude in degrees (London used if null)
+     * @param horizonProfile Obstruction elevation angles (degrees) by azimuth bin, clockwise from north
+     * @return Shading correction factors for January (index 0) to December (index 11)
+     */
+    public double[] calculateMonthlyShadingFactors(Double latitude, List<Double> horizonProfile) {
+        double[] horizon = resampleHorizon(horizonProfile);
+        SunPathTable table = getSunPathTable(latitude != null ? latitude : DEFAULT_LATITUDE);
+        double skyViewFactor = calculateSkyViewFactor(horizon);
+
+        double[] monthlyFactors = new double[12];
+        for (int month = 0; month < 12; month++) {
+            double blockedBeamShare = table.blockedBeamShare(month, horizon);
+            double beamFraction = BEAM_FRACTIONS[month];
+            double factor = 1.0 - beamFraction * blockedBeamShare - (1.0 - beamFraction) * (1.0 - skyViewFactor);
+            monthlyFactors[month] = Math.max(0.0, Math.min(1.0, factor));
+        }
+        return monthlyFactors;
+    }
+
+    /**
+     * Combine monthly shading factors into one annual factor, weighted by clear-sky beam energy per month
+     */
+    public double calculateAnnualShadingFactor(Double latitude, double[] monthlyFactors) {
+        SunPathTable table = getSunPathTable(latitude != null ? latitude : DEFAULT_LATITUDE);
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        for (int month = 0; month < 12; month++) {
+            weightedSum += monthlyFactors[month] * table.totalWeight[month];
+            totalWeight += table.totalWeight[month];
+        }
+        return totalWeight > 0 ? weightedSum / totalWeight : 1.0;
+    }
+
+    /**
+     * Check whether a request carries a usable horizon profile
+     */
+    public boolean hasHorizonProfile(List<Double> horizonProfile) {
+        return horizonProfile != null && horizonProfile.size() >= 4;
+    }
+
+    /**
+     * Resample an arbitrary number of azimuth bins onto the internal 10° grid (linear, wrapping at north)
+     */
+    private double[] resampleHorizon(List<Double> horizonProfile) {
+        if (!hasHorizonProfile(horizonProfile)) {
+            throw new IllegalArgumentException("Horizon profile must contain at least 4 azimuth bins");
+        }
+
+        int inputBins = horizonProfile.size();
+        double inputWidth = 360.0 / inputBins;
+        double[] horizon = new double[AZIMUTH_BINS];
+
+        for (int bin = 0; bin < AZIMUTH_BINS; bin++) {
+            double position = (bin * BIN_WIDTH) / inputWidth;
+            int lower = (int) Math.floor(position) % inputBins;
+            int upper = (lower + 1) % inputBins;
+            double fraction = position - Math.floor(position);
+
+            double lowerValue = elevationOrZero(horizonProfile.get(lower));
+            double upperValue = elevationOrZero(horizonProfile.get(upper));
+            horizon[bin] = lowerValue + (upperValue - lowerValue) * fraction;
+        }
+        return horizon;
+    }
+
+    private double elevationOrZero(Double elevation) {
+        if (elevation == null || elevation < 0) {
+            return 0.0;
+        }
+        return Math.min(90.0, elevation);
+    }
+
+    /**
+     * Isotropic sky view factor: mean over azimuth of cos²(horizon elevation)
+     */
+    private double calculateSkyViewFactor(double[] horizon) {
+        double sum = 0.0;
+        for (double elevation : horizon) {
+            double cos = Math.cos(Math.toRadians(elevation));
+            sum += cos * cos;
+        }
+        return sum / horizon.length;
+    }
+
+    private SunPathTable getSunPathTable(double latitude) {
+        int band = (int) Math.round(Math.max(-66.0, Math.min(66.0, latitude)));
+        return sunPathTables.computeIfAbsent(band, SunPathTable::new);
+    }
+
+    /**
+     * Precomputed sun positions for one latitude band
+     * For each month and azimuth bin, the sun positions falling in that bin are sorted by elevation,
+     * with a prefix bitset so that "every position below elevation e" is a single lookup.
+     */
+    private static final class SunPathTable {
+        private final double[][] slotWeights = new double[12][SLOTS_PER_DAY];
+        private final double[] totalWeight = new double[12];
+        private final double[][][] binElevations = new double[12][AZIMUTH_BINS][];
+        private final long[][][] binPrefixMasks = new long[12][AZIMUTH_BINS][];
+
+        private SunPathTable(int latitudeBand) {
+            double latitude = Math.toRadians(latitudeBand);
+
+            for (int month = 0; month < 12; month++) {
+                double declination = Math.toRadians(23.45 * Math.sin(2 * Math.PI * (284 + REPRESENTATIVE_DAYS[month]) / 365.0));
+
+                double[] elevations = new double[SLOTS_PER_DAY];
+                int[] bins = new int[SLOTS_PER_DAY];
+                int[] binCounts = new int[AZIMUTH_BINS];
+
+                for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                    double solarTime = slot * 0.5 + 0.25;
+                    double hourAngle = Math.toRadians(15.0 * (solarTime - 12.0));
+
+                    double sinElevation = Math.sin(latitude) * Math.sin(declination)
+                            + Math.cos(latitude) * Math.cos(declination) * Math.cos(hourAngle);
+                    if (sinElevation <= 0) {
+                        bins[slot] = -1;
+                        continue;
+                    }
+
+                    double azimuth = Math.toDegrees(Math.atan2(Math.sin(hourAngle),
+                            Math.cos(hourAngle) * Math.sin(latitude) - Math.tan(declination) * Math.cos(latitude))) + 180.0;
+                    int bin = (int) Math.floor(((azimuth + BIN_WIDTH / 2) % 360.0) / BIN_WIDTH);
+
+                    // Clear-sky beam on the horizontal: DNI = 1367 × 0.7^(AM^0.678)
+                    double airMass = 1.0 / Math.max(sinElevation, 0.05);
+                    double directNormal = 1367.0 * Math.pow(0.7, Math.pow(airMass, 0.678));
+
+                    elevations[slot] = Math.toDegrees(Math.asin(sinElevation));
+                    bins[slot] = bin;
+                    binCounts[bin]++;
+                    slotWeights[month][slot] = directNormal * sinElevation;
+                    totalWeight[month] += slotWeights[month][slot];
+                }
+
+                buildBinMasks(month, elevations, bins, binCounts);
+            }
+        }
+
+        private void buildBinMasks(int month, double[] elevations, int[] bins, int[] binCounts) {
+            for (int bin = 0; bin < AZIMUTH_BINS; bin++) {
+                int count = binCounts[bin];
+                int[] slots = new int[count];
+                int index = 0;
+                for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                    if (bins[slot] == bin) {
+                        slots[index++] = slot;
+                    }
+                }
+
+                // Insertion sort by elevation (at most a few positions per bin)
+                for (int i = 1; i < count; i++) {
+                    int current = slots[i];
+                    int j = i - 1;
+                    while (j >= 0 && elevations[slots[j]] > elevations[current]) {
+                        slots[j + 1] = slots[j];
+                        j--;
+                    }
+                    slots[j + 1] = current;
+                }
+
+                double[] sortedElevations = new double[count];
+                long[] prefixMasks = new long[count];
+                long mask = 0L;
+                for (int i = 0; i < count; i++) {
+                    sortedElevations[i] = elevations[slots[i]];
+                    mask |= 1L << slots[i];
+                    prefixMasks[i] = mask;
+                }
+                binElevations[month][bin] = sortedElevations;
+                binPrefixMasks[month][bin] = prefixMasks;
+            }
+        }
+
+        /**
+         * Share of the month's clear-sky beam energy hidden behind the horizon
+         */
+        private double blockedBeamShare(int month, double[] horizon) {
+            if (totalWeight[month] <= 0) {
+                return 0.0;
+            }
+
+            long blocked = 0L;
+            for (int bin = 0; bin < AZIMUTH_BINS; bin++) {
+                double[] sortedElevations = binElevations[month][bin];
+                int below = 0;
+                while (below < sortedElevations.length && sortedElevations[below] < horizon[bin]) {
+                    below++;
+                }
+                if (below > 0) {
+                    blocked |= binPrefixMasks[month][bin][below - 1];
+                }
+            }
+
+            double blockedWeight = 0.0;
+            double[] weights = slotWeights[month];
+            while (blocked != 0L) {
+                int slot = Long.numberOfTrailingZeros(blocked);
+                blockedWeight += weights[slot];
+                blocked &= blocked - 1;
+            }
+            return blockedWeight / totalWeight[month];
+        }
+    }
+}
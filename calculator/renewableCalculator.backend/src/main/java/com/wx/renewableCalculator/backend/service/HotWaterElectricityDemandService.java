@@ -1,19 +1,16 @@
 package com.wx.renewableCalculator.backend.service;
 
 import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
-import com.wx.renewableCalculator.backend.entity.HeatPump;
-import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Service for calculating hot water electricity demand (Ehot water)
  * Formula: hot water demand = (1250 + Residents number + 600) * monthly proportion
- * Ehot water = hot water demand / heat pump COP (if heat pump)
+ * Ehot water = ∑ daily hot water demand / COP(daily outdoor temperature, 55°C flow) (if heat pump)
  * Ehot water = 0 (if gas boiler) 
  * Ehot water = hot water demand (if electricity)
  */
@@ -21,7 +18,10 @@ import java.util.Optional;
 public class HotWaterElectricityDemandService {
 
     @Autowired
-    private HeatPumpRepository heatPumpRepository;
+    private HeatPumpPerformanceService heatPumpPerformanceService;
+
+    @Autowired
+    private HouseholdThermalModelService householdThermalModelService;
 
     // Monthly hot water demand proportions (%)
     private static final double[] HOT_WATER_MONTHLY_PROPORTIONS = {
@@ -48,22 +48,27 @@ public class HotWaterElectricityDemandService {
         int residentsNumber = request.getOccupants();
         String hotWaterType = request.getHotWaterType();
         
-        // Calculate base hot water demand: (1250 + Residents number + 600)
-        double baseHotWaterDemand = 1250 + residentsNumber + 600;
+        // Hot water thermal demand from the shared household model: (1250 + Residents number + 600) × proportion
+        HouseholdThermalModelService.ThermalDemand thermalDemand = householdThermalModelService.getThermalDemand(
+            request, request.getLatitude(), request.getLongitude());
         
         System.out.println(String.format("Base hot water demand: (1250 + %d + 600) = %.1f", 
-            residentsNumber, baseHotWaterDemand));
+            residentsNumber, thermalDemand.getAnnualHotWater()));
         
-        // Get heat pump COP if using heat pump
-        Double heatPumpCOP = getHeatPumpCOP(request);
+        // Heat pump: evaluate COP day by day at the hot water flow temperature
+        double[] heatPumpElectricity = null;
+        if ("heat-pump".equals(hotWaterType) && request.getHeatPumpId() != null) {
+            heatPumpElectricity = heatPumpPerformanceService.calculateMonthlyElectricity(
+                heatPumpPerformanceService.getPerformance(request.getHeatPumpId()),
+                thermalDemand.getDailyHotWater(), thermalDemand.getDailyTemperatures(),
+                HeatPumpPerformanceService.HOT_WATER_FLOW_TEMPERATURE);
+        }
         
         // Calculate monthly hot water electricity demand
         for (int month = 1; month <= 12; month++) {
-            double monthlyProportion = HOT_WATER_MONTHLY_PROPORTIONS[month - 1] / 100.0;
-            double monthlyHotWaterDemandKWh = baseHotWaterDemand * monthlyProportion;
-            
-            double monthlyElectricityDemandKWh = calculateMonthlyElectricityDemand(
-                monthlyHotWaterDemandKWh, hotWaterType, heatPumpCOP);
+            double monthlyElectricityDemandKWh = heatPumpElectricity != null
+                ? heatPumpElectricity[month - 1]
+                : calculateMonthlyElectricityDemand(thermalDemand.getHotWater(month), hotWaterType);
             
             monthlyElectricityDemand.put(month, monthlyElectricityDemandKWh);
         }
@@ -75,34 +80,10 @@ public class HotWaterElectricityDemandService {
     }
 
     /**
-     * Get heat pump COP if using heat pump for hot water
-     */
-    private Double getHeatPumpCOP(ElectricityDemandRequest request) {
-        String hotWaterType = request.getHotWaterType();
-        
-        if ("heat-pump".equals(hotWaterType) && request.getHeatPumpId() != null) {
-            Optional<HeatPump> heatPumpOpt = heatPumpRepository.findById(request.getHeatPumpId());
-            if (heatPumpOpt.isPresent()) {
-                Double cop = heatPumpOpt.get().getCop().doubleValue();
-                System.out.println(String.format("Heat pump COP: %.2f", cop));
-                return cop;
-            } else {
-                System.out.println("Heat pump not found, using default COP 3.0");
-                return 3.0; // Default COP if heat pump not found
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Calculate monthly electricity demand based on hot water type
+     * Calculate monthly electricity demand for non heat pump hot water types
      */
-    private double calculateMonthlyElectricityDemand(double monthlyHotWaterDemandKWh, 
-                                                    String hotWaterType, Double heatPumpCOP) {
-        if ("heat-pump".equals(hotWaterType) && heatPumpCOP != null) {
-            // Ehot water = hot water demand / heat pump COP
-            return monthlyHotWaterDemandKWh / heatPumpCOP;
-        } else if ("gas-boiler".equals(hotWaterType)) {
+    private double calculateMonthlyElectricityDemand(double monthlyHotWaterDemandKWh, String hotWaterType) {
+        if ("gas-boiler".equals(hotWaterType)) {
             // Ehot water = 0 (gas boiler doesn't use electricity for hot water)
             return 0.0;
         } else if ("electricity".equals(hotWaterType)) {
@@ -0,0 +1,498 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.BuildYear;
+import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
+import com.wx.renewableCalculator.backend.dto.FloorInsulation;
+import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
+import com.wx.renewableCalculator.backend.dto.HouseType;
+import com.wx.renewableCalculator.backend.dto.RoofInsulation;
+import com.wx.renewableCalculator.backend.dto.WallType;
+import com.wx.renewableCalculator.backend.dto.WindowType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Household thermal model shared by the electricity and gas demand calculations
+ * Computes the thermal (not fuel) demand of a house once:
+ * 1. Space heating: heat loss coefficient (Ufabric + Hv) × monthly temperature difference - internal gains
+ * 2. Hot water: (1250 + Residents number + 600) × monthly proportion
+ * Monthly space heating is spread over days by daily degree-days so heat pump COP can be evaluated per day.
+ * Electricity and gas demand are projections of this result by heating/hot water type.
+ * Results are memoised per HTTP request and in a bounded cache keyed by the canonical building parameters.
+ * UK locations are resolved to 0.25° climate cells; once a cell is in the archetype demand cube,
+ * space heating and hot water are read from it instead of running the model.
+ */
+@Service
+public class HouseholdThermalModelService {
+
+    @Autowired
+    private WeatherDataService weatherDataService;
+
+    @Autowired
+    private ArchetypeDemandCubeService archetypeDemandCubeService;
+
+    // Building component area weights from Table 1 (U-values live on the envelope enums)
+    private static final double WALL_WEIGHT = 0.3;
+    private static final double WINDOW_WEIGHT = 0.15;
+    private static final double ROOF_WEIGHT = 0.2;
+    private static final double FLOOR_WEIGHT = 0.2;
+
+    // Monthly hot water demand proportions (%)
+    private static final double[] HOT_WATER_MONTHLY_PROPORTIONS = {
+        9.4, 8.5, 9.1, 8.1, 8.2, 7.5,     // Jan-Jun
+        6.8, 7.3, 7.8, 8.3, 8.4, 10.1     // Jul-Dec
+    };
+
+    // Constants
+    private static final double CEILING_HEIGHT = 2.4; // meters
+    private static final double AIR_HEAT_CONSTANT = 0.33; // W/(m³·K) = ρ·c_p conversion
+    private static final double INDOOR_TEMPERATURE = 20.0; // °C
+    private static final double ANNUAL_INTERNAL_GAINS = 15.0; // kWh/m²·yr
+    private static final double DEFAULT_LATITUDE = 51.5074; // London
+    private static final double DEFAULT_LONGITUDE = -0.1278;
+
+    // Default UK monthly temperatures (°C) used when weather data is unavailable
+    private static final double[] DEFAULT_MONTHLY_TEMPERATURES = {4.0, 4.5, 7.0, 9.5, 13.0, 16.0, 18.0, 17.5, 15.0, 11.0, 7.5, 5.0};
+
+    // Days in each month
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // Heat loss coefficient (W/m²·K) for every envelope combination, indexed by enum ordinals
+    private static final int WALL_TYPES = WallType.values().length;
+    private static final int WINDOW_TYPES = WindowType.values().length;
+    private static final int ROOF_TYPES = RoofInsulation.values().length;
+    private static final int FLOOR_TYPES = FloorInsulation.values().length;
+    private static final int HOUSE_TYPES = HouseType.values().length;
+    private static final int BUILD_YEARS = BuildYear.values().length;
+    static final int ENVELOPE_COMBINATIONS = WALL_TYPES * WINDOW_TYPES * ROOF_TYPES * FLOOR_TYPES * HOUSE_TYPES * BUILD_YEARS;
+    private static final double[] HEAT_LOSS_COEFFICIENTS = new double[ENVELOPE_COMBINATIONS];
+    static {
+        for (WallType wall : WallType.values()) {
+            for (WindowType window : WindowType.values()) {
+                for (RoofInsulation roof : RoofInsulation.values()) {
+                    for (FloorInsulation floor : FloorInsulation.values()) {
+                        for (HouseType house : HouseType.values()) {
+                            for (BuildYear buildYear : BuildYear.values()) {
+                                HEAT_LOSS_COEFFICIENTS[envelopeIndex(wall, window, roof, floor, house, buildYear)] =
+                                    calculateHeatLossCoefficient(wall, window, roof, floor, house, buildYear);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Bounded LRU cache of thermal results by building parameters
+    private static final int MAX_CACHED_HOUSEHOLDS = 256;
+    private static final String REQUEST_MEMO_ATTRIBUTE = HouseholdThermalModelService.class.getName() + ".memo";
+
+    private final Map<BuildingKey, ThermalDemand> thermalDemandCache = Collections.synchronizedMap(
+        new LinkedHashMap<BuildingKey, ThermalDemand>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BuildingKey, ThermalDemand> eldest) {
+                return size() > MAX_CACHED_HOUSEHOLDS;
+            }
+        });
+
+    /**
+     * Get thermal demand for the house described by an electricity demand request
+     */
+    public ThermalDemand getThermalDemand(ElectricityDemandRequest request, Double latitude, Double longitude) {
+        return getThermalDemand(new BuildingKey(request.getHouseArea(),
+            envelopeIndex(request.getWallType(), request.getWindowType(), request.getRoofInsulation(),
+                request.getFloorInsulation(), request.getHouseType(), request.getBuildYear()),
+            request.getOccupants(), resolveLatitude(latitude), resolveLongitude(longitude)));
+    }
+
+    /**
+     * Get thermal demand for the house described by a gas demand request
+     */
+    public ThermalDemand getThermalDemand(GasDemandRequest request, Double latitude, Double longitude) {
+        return getThermalDemand(new BuildingKey(request.getHouseArea(),
+            envelopeIndex(request.getWallType(), request.getWindowType(), request.getRoofInsulation(),
+                request.getFloorInsulation(), request.getHouseType(), request.getBuildYear()),
+            request.getOccupants(), resolveLatitude(latitude), resolveLongitude(longitude)));
+    }
+
+    /**
+     * Look up the request memo, then the shared cache, and only then run the model
+     */
+    private ThermalDemand getThermalDemand(BuildingKey key) {
+        Map<BuildingKey, ThermalDemand> requestMemo = getRequestMemo();
+        if (requestMemo != null) {
+            ThermalDemand memoised = requestMemo.get(key);
+            if (memoised != null) {
+                return memoised;
+            }
+        }
+
+        ThermalDemand demand = thermalDemandCache.get(key);
+        if (demand == null) {
+            demand = computeThermalDemand(key);
+            // Results based on fallback temperatures are not shared, so the weather fetch is retried
+            if (!demand.weatherFallback) {
+                thermalDemandCache.put(key, demand);
+            }
+        }
+
+        if (requestMemo != null) {
+            requestMemo.put(key, demand);
+        }
+        return demand;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<BuildingKey, ThermalDemand> getRequestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(REQUEST_MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<BuildingKey, ThermalDemand>();
+            attributes.setAttribute(REQUEST_MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<BuildingKey, ThermalDemand>) memo;
+    }
+
+    /**
+     * Run the thermal model for one building
+     */
+    private ThermalDemand computeThermalDemand(BuildingKey key) {
+        double[] spaceHeating = new double[12];
+        double[] hotWater = new double[12];
+        double[] dailyTemperatures = null;
+        double heatLossCoefficient = 0.0;
+        double annualHotWater = 0.0;
+        boolean weatherFallback = false;
+
+        // Precomputed archetype cube when the climate cell is ready
+        int cubeSlot = archetypeDemandCubeService.findSlot(key.latitude(), key.longitude());
+        if (cubeSlot >= 0) {
+            return lookupThermalDemand(key, cubeSlot);
+        }
+
+        // Space heating (requires house area)
+        if (key.houseArea() != null && key.houseArea() > 0) {
+            try {
+                dailyTemperatures = weatherDataService.getDailyTemperatures(key.latitude(), key.longitude());
+                if (dailyTemperatures == null) {
+                    // Use default UK temperatures if API fails
+                    dailyTemperatures = interpolateDailyTemperatures(DEFAULT_MONTHLY_TEMPERATURES);
+                    weatherFallback = true;
+                }
+                double[] monthlyTemperatures = monthlyMeans(dailyTemperatures);
+                heatLossCoefficient = HEAT_LOSS_COEFFICIENTS[key.envelopeIndex()];
+
+                for (int month = 1; month <= 12; month++) {
+                    spaceHeating[month - 1] = spaceHeatingPerArea(heatLossCoefficient, monthlyTemperatures[month - 1], month)
+                        * key.houseArea();
+                }
+
+                double annualDemand = 0.0;
+                for (double monthly : spaceHeating) {
+                    annualDemand += monthly;
+                }
+                System.out.println(String.format("New space heating calculation: Heat loss coefficient: %.3f W/m²·K, Annual demand: %.1f kWh",
+                    heatLossCoefficient, annualDemand));
+
+            } catch (Exception e) {
+                System.err.println("Error in space heating calculation: " + e.getMessage());
+                // Zero demand if calculation fails
+                spaceHeating = new double[12];
+            }
+        }
+        if (dailyTemperatures == null) {
+            dailyTemperatures = interpolateDailyTemperatures(DEFAULT_MONTHLY_TEMPERATURES);
+        }
+
+        // Hot water: (1250 + Residents number + 600) × monthly proportion
+        if (key.occupants() != null && key.occupants() > 0) {
+            annualHotWater = 1250 + key.occupants() + 600;
+            for (int month = 1; month <= 12; month++) {
+                hotWater[month - 1] = hotWaterDemand(key.occupants(), month);
+            }
+        }
+
+        return new ThermalDemand(spaceHeating, hotWater, annualHotWater, heatLossCoefficient,
+            dailyTemperatures, distributeByDegreeDays(spaceHeating, dailyTemperatures), weatherFallback);
+    }
+
+    /**
+     * Read a building's thermal demand from the archetype cube: per-m² values × floor area
+     */
+    private ThermalDemand lookupThermalDemand(BuildingKey key, int cubeSlot) {
+        double[] spaceHeating = new double[12];
+        double[] hotWater = new double[12];
+        double annualHotWater = 0.0;
+        double heatLossCoefficient = 0.0;
+
+        if (key.houseArea() != null && key.houseArea() > 0) {
+            heatLossCoefficient = HEAT_LOSS_COEFFICIENTS[key.envelopeIndex()];
+            for (int month = 1; month <= 12; month++) {
+                spaceHeating[month - 1] = archetypeDemandCubeService.getSpaceHeatingPerArea(cubeSlot, key.envelopeIndex(), month)
+                    * key.houseArea();
+            }
+        }
+
+        if (key.occupants() != null && key.occupants() > 0) {
+            annualHotWater = 1250 + key.occupants() + 600;
+            boolean inCube = key.occupants() <= ArchetypeDemandCubeService.MAX_OCCUPANTS;
+            for (int month = 1; month <= 12; month++) {
+                hotWater[month - 1] = inCube
+                    ? archetypeDemandCubeService.getHotWater(key.occupants(), month)
+                    : hotWaterDemand(key.occupants(), month);
+            }
+        }
+
+        double[] dailyTemperatures = archetypeDemandCubeService.getDailyTemperatures(cubeSlot);
+        return new ThermalDemand(spaceHeating, hotWater, annualHotWater, heatLossCoefficient,
+            dailyTemperatures, distributeByDegreeDays(spaceHeating, dailyTemperatures), false);
+    }
+
+    /**
+     * Net monthly space heating per unit floor area (kWh/m²)
+     * = max(0, heat loss coefficient × (20 - Tmonth) × hours in month / 1000 - 15 / 12)
+     */
+    static double spaceHeatingPerArea(double heatLossCoefficient, double monthlyTemperature, int month) {
+        double temperatureDifference = INDOOR_TEMPERATURE - monthlyTemperature;
+
+        // Skip heating if outdoor temperature is above indoor temperature
+        if (temperatureDifference <= 0) {
+            return 0.0;
+        }
+
+        // Calculate monthly heat loss per unit area (kWh/m²)
+        double hoursInMonth = DAYS_IN_MONTH[month - 1] * 24.0;
+        double monthlyHeatLossPerArea = heatLossCoefficient * temperatureDifference * hoursInMonth / 1000.0; // Convert W to kWh
+
+        // Subtract monthly internal gains (15 kWh/m²·yr ÷ 12 months)
+        double monthlyInternalGains = ANNUAL_INTERNAL_GAINS / 12.0;
+        return Math.max(0.0, monthlyHeatLossPerArea - monthlyInternalGains);
+    }
+
+    /**
+     * Monthly hot water demand: (1250 + Residents number + 600) × monthly proportion
+     */
+    static double hotWaterDemand(int occupants, int month) {
+        return (1250 + occupants + 600) * HOT_WATER_MONTHLY_PROPORTIONS[month - 1] / 100.0;
+    }
+
+    /**
+     * Heat loss coefficient (W/m²·K) for a dense envelope index
+     */
+    static double heatLossCoefficient(int envelopeIndex) {
+        return HEAT_LOSS_COEFFICIENTS[envelopeIndex];
+    }
+
+    /**
+     * Dense table index for an envelope combination (missing values resolve to the calculator defaults)
+     */
+    private static int envelopeIndex(WallType wall, WindowType window, RoofInsulation roof,
+                                     FloorInsulation floor, HouseType house, BuildYear buildYear) {
+        int index = WallType.orDefault(wall).ordinal();
+        index = index * WINDOW_TYPES + WindowType.orDefault(window).ordinal();
+        index = index * ROOF_TYPES + RoofInsulation.orDefault(roof).ordinal();
+        index = index * FLOOR_TYPES + FloorInsulation.orDefault(floor).ordinal();
+        index = index * HOUSE_TYPES + HouseType.orDefault(house).ordinal();
+        return index * BUILD_YEARS + BuildYear.orDefault(buildYear).ordinal();
+    }
+
+    /**
+     * Calculate heat loss coefficient per unit floor area (W/m²·K)
+     * Heat Loss = Ufabric + Hv
+     * Ufabric = (∑Ui×ωi) × φshape
+     * Hv = 0.33 × air change rate × height
+     */
+    private static double calculateHeatLossCoefficient(WallType wall, WindowType window, RoofInsulation roof,
+                                                       FloorInsulation floor, HouseType house, BuildYear buildYear) {
+        // Sum of U-values weighted by area factors
+        double sumUiWi = wall.getUValue() * WALL_WEIGHT + window.getUValue() * WINDOW_WEIGHT
+            + roof.getUValue() * ROOF_WEIGHT + floor.getUValue() * FLOOR_WEIGHT;
+
+        // Apply shape factor
+        double fabricLoss = sumUiWi * house.getShapeFactor();
+
+        // Calculate ventilation heat loss coefficient (Hv)
+        double ventilationLoss = AIR_HEAT_CONSTANT * buildYear.getAirChangeRate() * CEILING_HEIGHT;
+
+        return fabricLoss + ventilationLoss;
+    }
+
+    /**
+     * Mean temperature of each month from daily temperatures
+     */
+    static double[] monthlyMeans(double[] dailyTemperatures) {
+        double[] monthlyTemperatures = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            double sum = 0.0;
+            int end = ReferenceYear.monthEndDay(month);
+            for (int day = ReferenceYear.monthStartDay(month); day < end; day++) {
+                sum += dailyTemperatures[day];
+            }
+            monthlyTemperatures[month - 1] = sum / DAYS_IN_MONTH[month - 1];
+        }
+        return monthlyTemperatures;
+    }
+
+    /**
+     * Daily temperatures from monthly means: linear between mid-month points, then shifted so each month keeps its mean
+     */
+    private static double[] interpolateDailyTemperatures(double[] monthlyTemperatures) {
+        double[] dailyTemperatures = new double[ReferenceYear.DAYS_PER_YEAR];
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            int month = ReferenceYear.monthOfDay(day);
+            double midMonth = ReferenceYear.monthStartDay(month) + DAYS_IN_MONTH[month - 1] / 2.0;
+            int neighbour = day + 0.5 < midMonth ? (month + 10) % 12 + 1 : month % 12 + 1;
+            double neighbourMid = ReferenceYear.monthStartDay(neighbour) + DAYS_IN_MONTH[neighbour - 1] / 2.0;
+            // Wrap around the year end
+            if (neighbour == 12 && month == 1) {
+                neighbourMid -= ReferenceYear.DAYS_PER_YEAR;
+            } else if (neighbour == 1 && month == 12) {
+                neighbourMid += ReferenceYear.DAYS_PER_YEAR;
+            }
+            double weight = Math.abs(day + 0.5 - midMonth) / Math.abs(neighbourMid - midMonth);
+            dailyTemperatures[day] = (1.0 - weight) * monthlyTemperatures[month - 1] + weight * monthlyTemperatures[neighbour - 1];
+        }
+
+        double[] interpolatedMeans = monthlyMeans(dailyTemperatures);
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            int month = ReferenceYear.monthOfDay(day);
+            dailyTemperatures[day] += monthlyTemperatures[month - 1] - interpolatedMeans[month - 1];
+        }
+        return dailyTemperatures;
+    }
+
+    /**
+     * Spread each month's space heating over its days in proportion to daily degree-days (20°C base)
+     * Monthly totals are unchanged; days warmer than indoors get no heating.
+     */
+    private static double[] distributeByDegreeDays(double[] monthlySpaceHeating, double[] dailyTemperatures) {
+        double[] dailySpaceHeating = new double[ReferenceYear.DAYS_PER_YEAR];
+        for (int month = 1; month <= 12; month++) {
+            double monthly = monthlySpaceHeating[month - 1];
+            if (monthly <= 0) {
+                continue;
+            }
+            int start = ReferenceYear.monthStartDay(month);
+            int end = ReferenceYear.monthEndDay(month);
+
+            double degreeDays = 0.0;
+            for (int day = start; day < end; day++) {
+                degreeDays += Math.max(0.0, INDOOR_TEMPERATURE - dailyTemperatures[day]);
+            }
+            for (int day = start; day < end; day++) {
+                dailySpaceHeating[day] = degreeDays > 0
+                    ? monthly * Math.max(0.0, INDOOR_TEMPERATURE - dailyTemperatures[day]) / degreeDays
+                    : monthly / DAYS_IN_MONTH[month - 1];
+            }
+        }
+        return dailySpaceHeating;
+    }
+
+    /**
+     * Resolve coordinates to the climate cell centre inside the UK grid, else round to 4 decimals
+     */
+    private static double resolveLatitude(Double latitude) {
+        double value = ArchetypeDemandCubeService.snapLatitude(latitude != null ? latitude : DEFAULT_LATITUDE);
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+
+    private static double resolveLongitude(Double longitude) {
+        double value = ArchetypeDemandCubeService.snapLongitude(longitude != null ? longitude : DEFAULT_LONGITUDE);
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+
+    /**
+     * Canonical building parameters that determine the thermal demand
+     */
+    private record BuildingKey(Double houseArea, int envelopeIndex, Integer occupants,
+                               double latitude, double longitude) {
+    }
+
+    /**
+     * Immutable monthly thermal demand of a household (kWh)
+     */
+    public static final class ThermalDemand {
+        private final double[] spaceHeating;
+        private final double[] hotWater;
+        private final double heatLossCoefficient;
+        private final double annualSpaceHeating;
+        private final double annualHotWater;
+        private final double[] dailyTemperatures;
+        private final double[] dailySpaceHeating;
+        private final double[] dailyHotWater;
+        private final boolean weatherFallback;
+
+        private ThermalDemand(double[] spaceHeating, double[] hotWater, double annualHotWater,
+                              double heatLossCoefficient, double[] dailyTemperatures,
+                              double[] dailySpaceHeating, boolean weatherFallback) {
+            this.spaceHeating = spaceHeating;
+            this.hotWater = hotWater;
+            this.annualHotWater = annualHotWater;
+            this.heatLossCoefficient = heatLossCoefficient;
+            this.dailyTemperatures = dailyTemperatures;
+            this.dailySpaceHeating = dailySpaceHeating;
+            this.weatherFallback = weatherFallback;
+
+            // Hot water is spread evenly over the days of each month
+            this.dailyHotWater = new double[ReferenceYear.DAYS_PER_YEAR];
+            for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+                int month = ReferenceYear.monthOfDay(day);
+                dailyHotWater[day] = hotWater[month - 1] / ReferenceYear.daysInMonth(month);
+            }
+
+            double spaceHeatingSum = 0.0;
+            for (double monthly : spaceHeating) {
+                spaceHeatingSum += monthly;
+            }
+            this.annualSpaceHeating = spaceHeatingSum;
+        }
+
+        /** Space heating thermal demand for a month (1-12) in kWh */
+        public double getSpaceHeating(int month) {
+            return spaceHeating[month - 1];
+        }
+
+        /** Hot water thermal demand for a month (1-12) in kWh */
+        public double getHotWater(int month) {
+            return hotWater[month - 1];
+        }
+
+        public double getAnnualSpaceHeating() {
+            return annualSpaceHeating;
+        }
+
+        /** Annual hot water demand (1250 + Residents number + 600) in kWh */
+        public double getAnnualHotWater() {
+            return annualHotWater;
+        }
+
+        public double getHeatLossCoefficient() {
+            return heatLossCoefficient;
+        }
+
+        /** Mean outdoor temperature per day of the reference year (°C); shared, must not be modified */
+        public double[] getDailyTemperatures() {
+            return dailyTemperatures;
+        }
+
+        /** Space heating thermal demand per day of the reference year (kWh); shared, must not be modified */
+        public double[] getDailySpaceHeating() {
+            return dailySpaceHeating;
+        }
+
+        /** Hot water thermal demand per day of the reference year (kWh); shared, must not be modified */
+        public double[] getDailyHotWater() {
+            return dailyHotWater;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.wx.renewableCalculator.backend.service;
+
+import lombok.Data;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for simulating inverter clipping and export limitation hour by hour
+ * Hourly DC energy = monthly DC generation × normalised hourly profile
+ * Clipped energy = DC energy above the inverter AC rating
+ * Curtailed energy = AC energy above the export limit (e.g. 3.68 kW under G98)
+ */
+@Service
+public class InverterClippingService {
+
+    // Single-phase G98 export limit (16 A × 230 V)
+    public static final double G98_EXPORT_LIMIT_KW = 3.68;
+
+    /**
+     * Simulate one month of the reference year
+     * @param profile Normalised hourly profile (hours of each month sum to 1.0)
+     * @param month Month (1-12)
+     * @param monthlyDcKwh DC generation for the month before clipping (kWh)
+     * @param inverterKw Inverter AC rating (kW)
+     * @param exportLimitKw Export limit (kW), Double.POSITIVE_INFINITY when not limited
+     */
+    public ClippingResult simulateMonth(float[] profile, int month, double monthlyDcKwh,
+                                        double inverterKw, double exportLimitKw) {
+        double clipped = 0.0;
+        double curtailed = 0.0;
+
+        int end = ReferenceYear.monthEndHour(month);
+        for (int h = ReferenceYear.monthStartHour(month); h < end; h++) {
+            double dc = monthlyDcKwh * profile[h];
+            if (dc > inverterKw) {
+                clipped += dc - inverterKw;
+                dc = inverterKw;
+            }
+            // No simultaneous household load is assumed, so this is an upper bound on curtailment
+            if (dc > exportLimitKw) {
+                curtailed += dc - exportLimitKw;
+            }
+        }
+
+        ClippingResult result = new ClippingResult();
+        result.setDcKwh(monthlyDcKwh);
+        result.setClippedKwh(clipped);
+        result.setCurtailedKwh(curtailed);
+        result.setDeliveredKwh(monthlyDcKwh - clipped - curtailed);
+        return result;
+    }
+
+    /**
+     * Simulate a month when the month is unknown: run the same monthly DC energy through
+     * every month's hourly shape and average the losses
+     */
+    public ClippingResult simulateAverageMonth(float[] profile, double monthlyDcKwh,
+                                               double inverterKw, double exportLimitKw) {
+        double clipped = 0.0;
+        double curtailed = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            ClippingResult monthResult = simulateMonth(profile, month, monthlyDcKwh, inverterKw, exportLimitKw);
+            clipped += monthResult.getClippedKwh();
+            curtailed += monthResult.getCurtailedKwh();
+        }
+
+        ClippingResult result = new ClippingResult();
+        result.setDcKwh(monthlyDcKwh);
+        result.setClippedKwh(clipped / 12.0);
+        result.setCurtailedKwh(curtailed / 12.0);
+        result.setDeliveredKwh(monthlyDcKwh - result.getClippedKwh() - result.getCurtailedKwh());
+        return result;
+    }
+
+    @Data
+    public static class ClippingResult {
+        private double dcKwh;         // DC generation before inverter (kWh)
+        private double clippedKwh;    // Energy lost to inverter clipping (kWh)
+        private double curtailedKwh;  // Energy lost to the export limit (kWh)
+        private double deliveredKwh;  // Energy delivered to the house/grid (kWh)
+    }
+}
@@ -0,0 +1,297 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowResult;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lifetime cash-flow engine for equipment investments
+ * For year t = 1..N:
+ * CFt = S1 × (1 - d)^(t-1) × (1 + e)^(t-1) + X1 × (1 - d)^(t-1) × (1 + x)^(t-1)
+ *       - M × (1 + i)^(t-1) - ∑ replacements due in year t × (1 + i)^t
+ * with CF0 = -installation cost. NPV = ∑ CFt / (1 + r)^t, IRR solves NPV = 0 by Newton's method.
+ * Everything runs on double arrays; values are rounded only when converted to a result.
+ */
+@Service
+public class LifetimeCashFlowService {
+
+    public static final int DEFAULT_LIFETIME_YEARS = 25;
+    public static final double DEFAULT_ENERGY_PRICE_ESCALATION = 0.03;
+    public static final double DEFAULT_EXPORT_PRICE_ESCALATION = 0.0;
+    public static final double DEFAULT_INFLATION_RATE = 0.02;
+    public static final double DEFAULT_DISCOUNT_RATE = 0.035; // HM Treasury Green Book rate
+
+    // Typical lifetimes and running costs by equipment type
+    private static final int SOLAR_LIFETIME_YEARS = 25;
+    private static final double SOLAR_DEGRADATION = 0.005;
+    private static final int INVERTER_REPLACEMENT_YEARS = 12;
+    private static final double INVERTER_COST_SHARE = 0.12;   // Of installation cost
+    private static final int HEAT_PUMP_LIFETIME_YEARS = 20;
+    private static final double HEAT_PUMP_SERVICE_COST = 150.0; // Annual service (£)
+    private static final int BATTERY_LIFETIME_YEARS = 15;
+    private static final double BATTERY_DEGRADATION = 0.02;   // Capacity fade
+
+    private static final int IRR_MAX_ITERATIONS = 50;
+    private static final double IRR_TOLERANCE = 1e-10;
+    private static final double IRR_MIN_RATE = -0.99;
+    private static final double IRR_MAX_RATE = 10.0;
+
+    /**
+     * Project yearly cash flows and investment metrics
+     */
+    public CashFlowProjection project(LifetimeCashFlowRequest request) {
+        if (request.getInstallationCost() == null || request.getInstallationCost() < 0) {
+            throw new IllegalArgumentException("Installation cost is required");
+        }
+        int years = request.getLifetimeYears() != null ? request.getLifetimeYears() : DEFAULT_LIFETIME_YEARS;
+        if (years < 1 || years > 100) {
+            throw new IllegalArgumentException("Lifetime must be between 1 and 100 years");
+        }
+
+        double savings = valueOrDefault(request.getFirstYearSavings(), 0.0);
+        double exportRevenue = valueOrDefault(request.getFirstYearExportRevenue(), 0.0);
+        double maintenance = valueOrDefault(request.getAnnualMaintenanceCost(), 0.0);
+        double degradation = valueOrDefault(request.getDegradationRate(), 0.0);
+        double energyEscalation = valueOrDefault(request.getEnergyPriceEscalation(), DEFAULT_ENERGY_PRICE_ESCALATION);
+        double exportEscalation = valueOrDefault(request.getExportPriceEscalation(), DEFAULT_EXPORT_PRICE_ESCALATION);
+        double inflation = valueOrDefault(request.getInflationRate(), DEFAULT_INFLATION_RATE);
+        double discountRate = valueOrDefault(request.getDiscountRate(), DEFAULT_DISCOUNT_RATE);
+
+        double[] cashFlows = new double[years + 1];
+        cashFlows[0] = -request.getInstallationCost();
+
+        // Growth factors are carried forward instead of calling pow each year
+        double output = 1.0;
+        double energyPrice = 1.0;
+        double exportPrice = 1.0;
+        double costLevel = 1.0;
+        for (int t = 1; t <= years; t++) {
+            cashFlows[t] = savings * output * energyPrice + exportRevenue * output * exportPrice - maintenance * costLevel;
+            output *= 1.0 - degradation;
+            energyPrice *= 1.0 + energyEscalation;
+            exportPrice *= 1.0 + exportEscalation;
+            costLevel *= 1.0 + inflation;
+
+            // Replacements within the lifetime, at year-t prices
+            if (request.getReplacements() != null) {
+                for (LifetimeCashFlowRequest.ComponentReplacement replacement : request.getReplacements()) {
+                    Integer interval = replacement.getIntervalYears();
+                    if (interval != null && interval > 0 && t % interval == 0 && t < years && replacement.getCost() != null) {
+                        cashFlows[t] -= replacement.getCost() * costLevel;
+                    }
+                }
+            }
+        }
+
+        return new CashFlowProjection(cashFlows, discountRate);
+    }
+
+    /**
+     * Round a projection for the API
+     */
+    public LifetimeCashFlowResult toResult(CashFlowProjection projection) {
+        LifetimeCashFlowResult result = new LifetimeCashFlowResult();
+        result.setNetPresentValue(round(projection.getNpv()));
+        result.setInternalRateOfReturn(Double.isNaN(projection.getIrr()) ? null : round(projection.getIrr() * 100));
+        result.setSimplePaybackYears(finiteOrNull(projection.getSimplePaybackYears()));
+        result.setDiscountedPaybackYears(finiteOrNull(projection.getDiscountedPaybackYears()));
+        result.setLifetimeNetSavings(round(projection.getLifetimeNetSavings()));
+        double installationCost = -projection.cashFlows[0];
+        result.setLifetimeROI(installationCost > 0 ? round(projection.getLifetimeNetSavings() / installationCost * 100) : null);
+        result.setLifetimeYears(projection.getLifetimeYears());
+        result.setYearlyCashFlows(roundAll(projection.cashFlows));
+        result.setCumulativeCashFlows(roundAll(projection.cumulative));
+        result.setDiscountedCumulativeCashFlows(roundAll(projection.discountedCumulative));
+        return result;
+    }
+
+    /**
+     * Typical lifetime assumptions for an equipment type ("solar", "heatpump", "battery")
+     * Solar: 25 years, 0.5%/year degradation, inverter replaced every 12 years
+     * Heat pump: 20 years, annual service. Battery: 15 years, 2%/year capacity fade.
+     */
+    public static LifetimeCashFlowRequest defaultsFor(String equipmentType, double installationCost,
+                                                      double firstYearSavings, double firstYearExportRevenue) {
+        LifetimeCashFlowRequest request = new LifetimeCashFlowRequest();
+        request.setInstallationCost(installationCost);
+        request.setFirstYearSavings(firstYearSavings);
+        request.setFirstYearExportRevenue(firstYearExportRevenue);
+
+        if ("heatpump".equals(equipmentType)) {
+            request.setLifetimeYears(HEAT_PUMP_LIFETIME_YEARS);
+            request.setDegradationRate(0.0);
+            request.setAnnualMaintenanceCost(HEAT_PUMP_SERVICE_COST);
+        } else if ("battery".equals(equipmentType)) {
+            request.setLifetimeYears(BATTERY_LIFETIME_YEARS);
+            request.setDegradationRate(BATTERY_DEGRADATION);
+        } else {
+            request.setLifetimeYears(SOLAR_LIFETIME_YEARS);
+            request.setDegradationRate(SOLAR_DEGRADATION);
+            request.getReplacements().add(new LifetimeCashFlowRequest.ComponentReplacement(
+                "inverter", INVERTER_REPLACEMENT_YEARS, installationCost * INVERTER_COST_SHARE));
+        }
+        return request;
+    }
+
+    /**
+     * NPV = ∑ CFt / (1 + r)^t
+     */
+    public static double npv(double[] cashFlows, double rate) {
+        double npv = 0.0;
+        double discount = 1.0;
+        for (double cashFlow : cashFlows) {
+            npv += cashFlow * discount;
+            discount /= 1.0 + rate;
+        }
+        return npv;
+    }
+
+    /**
+     * IRR by Newton's method from 10%, falling back to bisection when Newton leaves the bracket
+     * @return IRR as a fraction, or NaN if the cash flows never change sign
+     */
+    public static double irr(double[] cashFlows) {
+        if (npv(cashFlows, IRR_MIN_RATE) * npv(cashFlows, IRR_MAX_RATE) > 0) {
+            return Double.NaN;
+        }
+
+        double rate = 0.1;
+        for (int iteration = 0; iteration < IRR_MAX_ITERATIONS; iteration++) {
+            double value = 0.0;
+            double derivative = 0.0;
+            double discount = 1.0;
+            for (int t = 0; t < cashFlows.length; t++) {
+                value += cashFlows[t] * discount;
+                derivative -= t * cashFlows[t] * discount / (1.0 + rate);
+                discount /= 1.0 + rate;
+            }
+            if (derivative == 0.0) {
+                break;
+            }
+            double next = rate - value / derivative;
+            if (!(next > IRR_MIN_RATE && next < IRR_MAX_RATE)) {
+                break;
+            }
+            if (Math.abs(next - rate) < IRR_TOLERANCE) {
+                return next;
+            }
+            rate = next;
+        }
+
+        double low = IRR_MIN_RATE;
+        double high = IRR_MAX_RATE;
+        double lowValue = npv(cashFlows, low);
+        for (int iteration = 0; iteration < 200 && high - low > IRR_TOLERANCE; iteration++) {
+            double mid = (low + high) / 2.0;
+            double midValue = npv(cashFlows, mid);
+            if (midValue * lowValue > 0) {
+                low = mid;
+                lowValue = midValue;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2.0;
+    }
+
+    /**
+     * Years until a cumulative series first turns non-negative, interpolated within the year
+     * @return Positive infinity if it never does
+     */
+    static double paybackYears(double[] cumulative) {
+        for (int t = 1; t < cumulative.length; t++) {
+            if (cumulative[t] >= 0) {
+                double yearFlow = cumulative[t] - cumulative[t - 1];
+                return yearFlow > 0 ? t - 1 + (-cumulative[t - 1]) / yearFlow : t;
+            }
+        }
+        return cumulative.length > 0 && cumulative[0] >= 0 ? 0.0 : Double.POSITIVE_INFINITY;
+    }
+
+    private static double valueOrDefault(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? round(value) : null;
+    }
+
+    private static List<Double> roundAll(double[] values) {
+        List<Double> rounded = new ArrayList<>(values.length);
+        for (double value : values) {
+            rounded.add(round(value));
+        }
+        return rounded;
+    }
+
+    /**
+     * Yearly cash flows (year 0 = installation) and the metrics derived from them
+     */
+    public static final class CashFlowProjection {
+        private final double[] cashFlows;
+        private final double[] cumulative;
+        private final double[] discountedCumulative;
+        private final double npv;
+        private final double irr;
+
+        private CashFlowProjection(double[] cashFlows, double discountRate) {
+            this.cashFlows = cashFlows;
+            this.cumulative = new double[cashFlows.length];
+            this.discountedCumulative = new double[cashFlows.length];
+            double running = 0.0;
+            double discounted = 0.0;
+            double discount = 1.0;
+            for (int t = 0; t < cashFlows.length; t++) {
+                running += cashFlows[t];
+                discounted += cashFlows[t] * discount;
+                cumulative[t] = running;
+                discountedCumulative[t] = discounted;
+                discount /= 1.0 + discountRate;
+            }
+            this.npv = discounted;
+            this.irr = irr(cashFlows);
+        }
+
+        public int getLifetimeYears() {
+            return cashFlows.length - 1;
+        }
+
+        /** Cash flow of year t (0 = installation) */
+        public double getCashFlow(int year) {
+            return cashFlows[year];
+        }
+
+        /** Cumulative undiscounted cash flow at the end of year t */
+        public double getCumulative(int year) {
+            return cumulative[year];
+        }
+
+        public double getNpv() {
+            return npv;
+        }
+
+        /** IRR as a fraction, NaN if undefined */
+        public double getIrr() {
+            return irr;
+        }
+
+        public double getSimplePaybackYears() {
+            return paybackYears(cumulative);
+        }
+
+        public double getDiscountedPaybackYears() {
+            return paybackYears(discountedCumulative);
+        }
+
+        public double getLifetimeNetSavings() {
+            return cumulative[cumulative.length - 1];
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LoadArchetype;
+import com.wx.renewableCalculator.backend.dto.OccupancyPattern;
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Library of normalised half-hourly household load profiles (17,520 points per year)
+ * Day shapes by archetype, occupancy pattern, weekday/weekend and season are loaded from
+ * load-profiles/day-shapes.csv at startup and expanded over the reference year.
+ * Each profile is normalised so the half-hours of every month sum to 1.0, so scaling a
+ * monthly total into a full-year profile is one multiply per half-hour.
+ */
+@Service
+public class LoadProfileLibraryService {
+
+    private static final String DAY_SHAPES_RESOURCE = "load-profiles/day-shapes.csv";
+    private static final int SLOTS = ReferenceYear.HALF_HOURS_PER_DAY;
+
+    // Winter share of the day shape by month (winter Nov-Feb, summer May-Aug, blended otherwise)
+    private static final double[] WINTER_WEIGHTS = {1.0, 1.0, 0.5, 0.5, 0.0, 0.0, 0.0, 0.0, 0.5, 0.5, 1.0, 1.0};
+
+    // Normalised profiles indexed by [archetype][occupancy]
+    private float[][][] profiles;
+    private float[][][] hourlyProfiles;
+
+    /**
+     * Load day shapes and expand them into full-year profiles
+     */
+    @PostConstruct
+    public void loadProfiles() throws IOException {
+        int archetypes = LoadArchetype.values().length;
+        int occupancies = OccupancyPattern.values().length;
+
+        // dayShapes[archetype][occupancy][weekend ? 1 : 0][summer ? 1 : 0]
+        float[][][][][] dayShapes = new float[archetypes][occupancies][2][2][];
+
+        ClassPathResource resource = new ClassPathResource(DAY_SHAPES_RESOURCE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                if (fields.length != 4 + SLOTS) {
+                    throw new IllegalStateException("Invalid day shape row in " + DAY_SHAPES_RESOURCE + ": " + fields[0]);
+                }
+
+                int archetype = LoadArchetype.fromCode(fields[0]).ordinal();
+                int occupancy = OccupancyPattern.fromCode(fields[1]).ordinal();
+                int dayType = "weekend".equals(fields[2]) ? 1 : 0;
+                int season = "summer".equals(fields[3]) ? 1 : 0;
+
+                float[] shape = new float[SLOTS];
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    shape[slot] = Float.parseFloat(fields[4 + slot]);
+                }
+                dayShapes[archetype][occupancy][dayType][season] = shape;
+            }
+        }
+
+        float[][][] expanded = new float[archetypes][occupancies][];
+        float[][][] hourly = new float[archetypes][occupancies][];
+        for (int a = 0; a < archetypes; a++) {
+            for (int o = 0; o < occupancies; o++) {
+                expanded[a][o] = expandYear(dayShapes[a][o], LoadArchetype.values()[a], OccupancyPattern.values()[o]);
+                hourly[a][o] = toHourly(expanded[a][o]);
+            }
+        }
+        profiles = expanded;
+        hourlyProfiles = hourly;
+    }
+
+    /**
+     * Expand weekday/weekend and winter/summer day shapes over the reference year, normalised per month
+     */
+    private float[] expandYear(float[][][] shapes, LoadArchetype archetype, OccupancyPattern occupancy) {
+        for (float[][] byDayType : shapes) {
+            for (float[] shape : byDayType) {
+                if (shape == null) {
+                    throw new IllegalStateException("Missing day shape for " + archetype.getCode() + "/" + occupancy.getCode());
+                }
+            }
+        }
+
+        float[] profile = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        for (int month = 1; month <= 12; month++) {
+            double winterWeight = WINTER_WEIGHTS[month - 1];
+            double monthTotal = 0.0;
+
+            for (int day = ReferenceYear.monthStartDay(month); day < ReferenceYear.monthEndDay(month); day++) {
+                int dayType = ReferenceYear.isWeekend(day) ? 1 : 0;
+                float[] winter = shapes[dayType][0];
+                float[] summer = shapes[dayType][1];
+                int offset = day * SLOTS;
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    double value = winterWeight * winter[slot] + (1.0 - winterWeight) * summer[slot];
+                    profile[offset + slot] = (float) value;
+                    monthTotal += value;
+                }
+            }
+
+            int end = ReferenceYear.monthEndHalfHour(month);
+            for (int i = ReferenceYear.monthStartHalfHour(month); i < end; i++) {
+                profile[i] = (float) (profile[i] / monthTotal);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Get the shared normalised profile (half-hours of each month sum to 1.0); callers must not modify it
+     */
+    public float[] getNormalisedProfile(LoadArchetype archetype, OccupancyPattern occupancy) {
+        return profiles[LoadArchetype.orDefault(archetype).ordinal()][OccupancyPattern.orDefault(occupancy).ordinal()];
+    }
+
+    /**
+     * Get the shared normalised hourly profile (8760 points, hours of each month sum to 1.0); callers must not modify it
+     */
+    public float[] getNormalisedHourlyProfile(LoadArchetype archetype, OccupancyPattern occupancy) {
+        return hourlyProfiles[LoadArchetype.orDefault(archetype).ordinal()][OccupancyPattern.orDefault(occupancy).ordinal()];
+    }
+
+    /**
+     * Scale monthly totals into a full-year half-hourly profile
+     * Profile[t] = Monthly total[month of t] × Normalised profile[t]
+     *
+     * @param monthlyKwh Monthly totals in kWh, January (index 0) to December (index 11)
+     * @return float[17520] in kWh per half-hour
+     */
+    public float[] scaleMonthly(LoadArchetype archetype, OccupancyPattern occupancy, double[] monthlyKwh) {
+        if (monthlyKwh == null || monthlyKwh.length != 12) {
+            throw new IllegalArgumentException("Monthly totals must contain 12 values");
+        }
+
+        float[] normalised = getNormalisedProfile(archetype, occupancy);
+        float[] scaled = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        for (int month = 1; month <= 12; month++) {
+            float total = (float) monthlyKwh[month - 1];
+            int end = ReferenceYear.monthEndHalfHour(month);
+            for (int i = ReferenceYear.monthStartHalfHour(month); i < end; i++) {
+                scaled[i] = normalised[i] * total;
+            }
+        }
+        return scaled;
+    }
+
+    /**
+     * Scale monthly totals given as a month (1-12) -> kWh map
+     */
+    public float[] scaleMonthly(LoadArchetype archetype, OccupancyPattern occupancy, Map<Integer, Double> monthlyKwh) {
+        double[] totals = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            Double value = monthlyKwh != null ? monthlyKwh.get(month) : null;
+            totals[month - 1] = value != null ? value : 0.0;
+        }
+        return scaleMonthly(archetype, occupancy, totals);
+    }
+
+    /**
+     * Scale an annual total into a full-year half-hourly profile
+     * The annual total is split across months with the electricity demand proportions
+     * (heat pump proportions for electrically heated archetypes).
+     */
+    public float[] scaleAnnual(LoadArchetype archetype, OccupancyPattern occupancy, double annualKwh) {
+        double[] proportions = LoadArchetype.orDefault(archetype) == LoadArchetype.STANDARD
+            ? EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS
+            : EnergyDemandService.HEAT_PUMP_MONTHLY_PROPORTIONS;
+
+        double[] monthlyKwh = new double[12];
+        for (int month = 0; month < 12; month++) {
+            monthlyKwh[month] = annualKwh * proportions[month] / 100.0;
+        }
+        return scaleMonthly(archetype, occupancy, monthlyKwh);
+    }
+
+    /**
+     * Aggregate a half-hourly series into hourly values for the 8760-hour engines
+     */
+    public static float[] toHourly(float[] halfHourly) {
+        float[] hourly = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int h = 0; h < ReferenceYear.HOURS_PER_YEAR; h++) {
+            hourly[h] = halfHourly[2 * h] + halfHourly[2 * h + 1];
+        }
+        return hourly;
+    }
+}
@@ -7,8 +7,6 @@ import com.wx.renewableCalculator.backend.repository.MonthlySolarIrradianceRepos
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Year;
 import java.util.HashMap;
 import java.util.List;
@@ -25,7 +23,7 @@ public class LocationSpecificYieldService {
     private NASAPowerService nasaPowerService;
 
     // Conversion factor as specified in the formula
-    private static final Double CONVERSION_FACTOR = 0.8;
+    private static final double CONVERSION_FACTOR = 0.8;
 
     /**
      * Calculate Location Specific Yield Per Month using the formula:
@@ -35,47 +33,50 @@ public class LocationSpecificYieldService {
      * @return Location specific yield calculation results for all 12 months
      */
     public LocationSpecificYieldResult calculateLocationSpecificYield(LocationSpecificYieldRequest request) {
+        MonthlyYield monthlyYield = calculateMonthlyYield(request);
+        
         LocationSpecificYieldResult result = new LocationSpecificYieldResult();
         result.setLatitude(request.getLatitude());
         result.setLongitude(request.getLongitude());
         result.setLocation(request.getLocation());
+        result.setMonthlyYield(MonthlyValues.toMap(monthlyYield.yield(), 2));
+        result.setMonthlySolarIrradiance(MonthlyValues.toMap(monthlyYield.dailySolarIrradiance(), 4));
+        Map<Integer, Integer> daysInMonth = new HashMap<>(16);
+        for (int m = 0; m < 12; m++) {
+            daysInMonth.put(m + 1, monthlyYield.daysInMonth()[m]);
+        }
+        result.setDaysInMonth(daysInMonth);
+        result.setAverageYearlyYield(MonthlyValues.decimal(MonthlyValues.sum(monthlyYield.yield()) / 12.0, 2));
         
+        return result;
+    }
+
+    /**
+     * Unrounded monthly yield (kWh/kWp) for calculations that feed other services
+     */
+    public MonthlyYield calculateMonthlyYield(LocationSpecificYieldRequest request) {
         // First, try to get or fetch solar irradiance data using NASA POWER API
         Map<String, Object> nasaResult = nasaPowerService.fetchAndStoreSolarData(
             request.getLatitude(), request.getLongitude(), request.getLocation());
         
-        Map<Integer, BigDecimal> monthlyYield = new HashMap<>();
-        Map<Integer, BigDecimal> monthlySolarIrradiance = new HashMap<>();
-        Map<Integer, Integer> daysInMonth = new HashMap<>();
+        // Number of days per month in the current year (could be made configurable)
+        int year = Year.now().getValue();
+        double[] yield = new double[12];
+        double[] dailySolarIrradiance = new double[12];
+        int[] daysInMonth = new int[12];
         
-        double totalYearlyYield = 0.0;
-        
-        // Calculate for each month (1-12)
         for (int month = 1; month <= 12; month++) {
-            // Get solar irradiance data for this month
-            Double dailySolarIrradiance = getSolarIrradianceForMonth(nasaResult, month, 
+            double irradiance = getSolarIrradianceForMonth(nasaResult, month, 
                 request.getLatitude(), request.getLongitude());
-            
-            // Get number of days in this month (using current year, could be made configurable)
-            int daysInThisMonth = getDaysInMonth(month, Year.now().getValue());
+            int days = getDaysInMonth(month, year);
             
             // Apply the formula: Solar Irradiance Daily × Days in Month × 0.8
-            Double monthlyYieldValue = dailySolarIrradiance * daysInThisMonth * CONVERSION_FACTOR;
-            
-            // Store results
-            monthlyYield.put(month, BigDecimal.valueOf(monthlyYieldValue).setScale(2, RoundingMode.HALF_UP));
-            monthlySolarIrradiance.put(month, BigDecimal.valueOf(dailySolarIrradiance).setScale(4, RoundingMode.HALF_UP));
-            daysInMonth.put(month, daysInThisMonth);
-            
-            totalYearlyYield += monthlyYieldValue;
+            yield[month - 1] = irradiance * days * CONVERSION_FACTOR;
+            dailySolarIrradiance[month - 1] = irradiance;
+            daysInMonth[month - 1] = days;
         }
         
-        result.setMonthlyYield(monthlyYield);
-        result.setMonthlySolarIrradiance(monthlySolarIrradiance);
-        result.setDaysInMonth(daysInMonth);
-        result.setAverageYearlyYield(BigDecimal.valueOf(totalYearlyYield / 12.0).setScale(2, RoundingMode.HALF_UP));
-        
-        return result;
+        return new MonthlyYield(yield, dailySolarIrradiance, daysInMonth);
     }
 
     /**
@@ -150,4 +151,10 @@ public class LocationSpecificYieldService {
             default -> 3.0;  // Default fallback
         };
     }
-} 
\ No newline at end of file
+
+    /**
+     * Monthly yield (kWh/kWp), daily irradiance (kWh/m²/day) and days, index 0 = January
+     */
+    public record MonthlyYield(double[] yield, double[] dailySolarIrradiance, int[] daysInMonth) {
+    }
+}
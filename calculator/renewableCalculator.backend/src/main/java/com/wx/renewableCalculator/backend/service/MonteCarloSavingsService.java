@@ -0,0 +1,356 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.MonteCarloRequest;
+import com.wx.renewableCalculator.backend.dto.MonteCarloResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo ranges for savings, NPV, payback and carbon
+ * Each scenario samples the household once (occupancy factor, heat pump COP) and then every year of the
+ * lifetime (solar yield, energy price step), so one scenario is one possible lifetime:
+ * yield_t ~ N(1, σg) × (1 - d)^(t-1), P_t = P_t-1 × exp(μ + σp × z), μ = ln(1 + e) - σp²/2 so E[P_t] = (1 + e)^t
+ * CF_t = (SC(s, yield_t) × rate × P_t + (G × yield_t - SC) × export + (gas × gasRate - gas / COP × rate) × P_t) / 100 - M_t
+ * Self-consumption SC comes from a table of hourly balances over (occupancy, yield), built once per request.
+ * Scenarios run in fixed blocks on a dedicated fork-join pool; each block has its own SplittableRandom split from
+ * the seed in block order, so a seeded run gives the same distribution on any number of threads.
+ */
+@Service
+public class MonteCarloSavingsService {
+
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+
+    @Value("${monte-carlo.parallelism:0}")
+    private int parallelism;
+
+    public static final int DEFAULT_SCENARIOS = 10000;
+    public static final int MAX_SCENARIOS = 200000;
+    private static final int BLOCK_SIZE = 256;
+
+    private static final double DEFAULT_COP = 3.0;
+    private static final double DEFAULT_DEGRADATION = 0.005;
+    private static final double DEFAULT_IRRADIANCE_VARIABILITY = 0.05;
+    private static final double DEFAULT_PRICE_VOLATILITY = 0.10;
+    private static final double DEFAULT_OCCUPANCY_UNCERTAINTY = 0.15;
+    private static final double DEFAULT_COP_UNCERTAINTY = 0.10;
+    private static final double MIN_COP = 1.0;
+
+    // Self-consumption table grid: occupancy 0-1, yield (fraction of expected generation) 0.25-1.5
+    private static final int OCCUPANCY_STEPS = 5;
+    private static final double MIN_YIELD = 0.25;
+    private static final double YIELD_STEP = 0.125;
+    private static final int YIELD_STEPS = 11;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Run the scenarios and summarise each output as P10/P50/P90
+     */
+    public MonteCarloResult simulate(MonteCarloRequest request) {
+        long start = System.nanoTime();
+        int scenarios = request.getScenarios() != null ? request.getScenarios() : DEFAULT_SCENARIOS;
+        if (scenarios < 1 || scenarios > MAX_SCENARIOS) {
+            throw new IllegalArgumentException("Scenarios must be between 1 and " + MAX_SCENARIOS);
+        }
+        ScenarioModel model = buildModel(request);
+
+        ScenarioOutputs outputs = new ScenarioOutputs(scenarios);
+        int blocks = (scenarios + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        SplittableRandom root = request.getSeed() != null ? new SplittableRandom(request.getSeed()) : new SplittableRandom();
+        SplittableRandom[] generators = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            generators[b] = root.split();
+        }
+        pool.invoke(new ScenarioTask(model, generators, outputs, 0, blocks));
+
+        MonteCarloResult result = new MonteCarloResult();
+        result.setScenarios(scenarios);
+        result.setFirstYearSavings(summarise(outputs.firstYearSavings));
+        result.setNetPresentValue(summarise(outputs.netPresentValue));
+        result.setLifetimeNetSavings(summarise(outputs.lifetimeNetSavings));
+        result.setAnnualCarbonSavedKg(summarise(outputs.carbonSavedKg));
+        result.setPaybackYears(summarise(outputs.paybackYears));
+        int paidBack = 0;
+        for (double payback : outputs.paybackYears) {
+            if (Double.isFinite(payback)) {
+                paidBack++;
+            }
+        }
+        result.setProbabilityOfPayback(round(paidBack * 100.0 / scenarios));
+
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+        result.setElapsedMillis(round(elapsedMillis));
+        return result;
+    }
+
+    /**
+     * Expected values, uncertainty and the self-consumption table for one household
+     */
+    ScenarioModel buildModel(MonteCarloRequest request) {
+        if (request.getInstallationCost() == null || request.getInstallationCost() < 0) {
+            throw new IllegalArgumentException("Installation cost is required");
+        }
+        double[] usage = monthlyValues(request.getMonthlyElectricityUsageKwh(), "monthlyElectricityUsageKwh");
+        double[] generation = request.getMonthlySolarGenerationKwh() == null || request.getMonthlySolarGenerationKwh().isEmpty()
+            ? new double[12] : monthlyValues(request.getMonthlySolarGenerationKwh(), "monthlySolarGenerationKwh");
+        int years = request.getLifetimeYears() != null ? request.getLifetimeYears() : LifetimeCashFlowService.DEFAULT_LIFETIME_YEARS;
+        if (years < 1 || years > 100) {
+            throw new IllegalArgumentException("Lifetime must be between 1 and 100 years");
+        }
+
+        ScenarioModel model = new ScenarioModel();
+        model.annualGeneration = Arrays.stream(generation).sum();
+        model.selfConsumedTable = buildSelfConsumedTable(generation, usage, request);
+        model.occupancy = clamp(valueOrDefault(request.getHomeOccupancyFactor(), 0.0), 0.0, 1.0);
+        model.cop = valueOrDefault(request.getHeatPumpCop(), DEFAULT_COP);
+        model.gasReplaced = Boolean.TRUE.equals(request.getHasHeatPump()) ? valueOrDefault(request.getAnnualGasReplacedKwh(), 0.0) : 0.0;
+        model.gasRate = valueOrDefault(request.getGasRate(), 0.0);
+        model.electricityRate = valueOrDefault(request.getElectricityRate(), 0.0);
+        model.exportRate = valueOrDefault(request.getExportRate(), 0.0);
+        model.installationCost = request.getInstallationCost();
+        model.years = years;
+        model.degradation = valueOrDefault(request.getDegradationRate(), DEFAULT_DEGRADATION);
+        model.maintenance = valueOrDefault(request.getAnnualMaintenanceCost(), 0.0);
+        model.inflation = LifetimeCashFlowService.DEFAULT_INFLATION_RATE;
+        model.discountRate = valueOrDefault(request.getDiscountRate(), LifetimeCashFlowService.DEFAULT_DISCOUNT_RATE);
+        model.irradianceSigma = valueOrDefault(request.getIrradianceVariability(), DEFAULT_IRRADIANCE_VARIABILITY);
+        model.priceSigma = valueOrDefault(request.getEnergyPriceVolatility(), DEFAULT_PRICE_VOLATILITY);
+        model.occupancySigma = valueOrDefault(request.getOccupancyUncertainty(), DEFAULT_OCCUPANCY_UNCERTAINTY);
+        model.copSigma = valueOrDefault(request.getCopUncertainty(), DEFAULT_COP_UNCERTAINTY);
+        double escalation = valueOrDefault(request.getEnergyPriceEscalation(), LifetimeCashFlowService.DEFAULT_ENERGY_PRICE_ESCALATION);
+        model.priceDrift = Math.log(1.0 + escalation) - model.priceSigma * model.priceSigma / 2.0;
+        return model;
+    }
+
+    /**
+     * Annual self-consumed kWh at each (occupancy, yield) grid point from the hourly balance
+     */
+    private double[] buildSelfConsumedTable(double[] generation, double[] usage, MonteCarloRequest request) {
+        double[] table = new double[OCCUPANCY_STEPS * YIELD_STEPS];
+        double[] scaled = new double[12];
+        for (int si = 0; si < OCCUPANCY_STEPS; si++) {
+            double occupancy = si / (double) (OCCUPANCY_STEPS - 1);
+            for (int yi = 0; yi < YIELD_STEPS; yi++) {
+                double yield = MIN_YIELD + yi * YIELD_STEP;
+                for (int m = 0; m < 12; m++) {
+                    scaled[m] = generation[m] * yield;
+                }
+                table[si * YIELD_STEPS + yi] = energyBalanceService.calculateMonthly(scaled, usage,
+                    request.getLatitude(), occupancy, request.getHasHeatPump()).getAnnualSelfConsumed();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * One block of scenarios; no allocation inside the loops
+     */
+    static void runScenarios(ScenarioModel m, SplittableRandom random, ScenarioOutputs out, int from, int to) {
+        double growth = 1.0 + m.discountRate;
+        for (int i = from; i < to; i++) {
+            double occupancy = clamp(m.occupancy + m.occupancySigma * random.nextGaussian(), 0.0, 1.0);
+            double cop = Math.max(MIN_COP, m.cop * (1.0 + m.copSigma * random.nextGaussian()));
+            double heatPumpElectricity = m.gasReplaced / cop;
+            double heatPumpNet = m.gasReplaced * m.gasRate - heatPumpElectricity * m.electricityRate; // pence, today's prices
+
+            double price = 1.0;
+            double output = 1.0;
+            double costLevel = 1.0;
+            double discount = 1.0;
+            double cumulative = -m.installationCost;
+            double npv = -m.installationCost;
+            double payback = m.installationCost > 0 ? Double.POSITIVE_INFINITY : 0.0;
+
+            for (int t = 1; t <= m.years; t++) {
+                double yield = Math.max(0.0, 1.0 + m.irradianceSigma * random.nextGaussian()) * output;
+                double generated = m.annualGeneration * yield;
+                double selfConsumed = Math.min(generated, selfConsumed(m.selfConsumedTable, occupancy, yield));
+                double savings = (selfConsumed * m.electricityRate * price + (generated - selfConsumed) * m.exportRate
+                    + heatPumpNet * price) / 100.0;
+                double cashFlow = savings - m.maintenance * costLevel;
+
+                if (t == 1) {
+                    out.firstYearSavings[i] = savings;
+                    out.carbonSavedKg[i] = generated * CarbonSavingsService.DEFAULT_ELECTRICITY_EMISSION_FACTOR
+                        + m.gasReplaced * CarbonSavingsService.DEFAULT_GAS_EMISSION_FACTOR
+                        - heatPumpElectricity * CarbonSavingsService.DEFAULT_ELECTRICITY_EMISSION_FACTOR;
+                }
+                if (payback == Double.POSITIVE_INFINITY && cumulative + cashFlow >= 0) {
+                    payback = t - 1 + (-cumulative) / cashFlow;
+                }
+                cumulative += cashFlow;
+                discount /= growth;
+                npv += cashFlow * discount;
+
+                price *= Math.exp(m.priceDrift + m.priceSigma * random.nextGaussian());
+                output *= 1.0 - m.degradation;
+                costLevel *= 1.0 + m.inflation;
+            }
+
+            out.netPresentValue[i] = npv;
+            out.lifetimeNetSavings[i] = cumulative;
+            out.paybackYears[i] = payback;
+        }
+    }
+
+    /**
+     * Bilinear interpolation in the self-consumption table
+     */
+    static double selfConsumed(double[] table, double occupancy, double yield) {
+        double sPos = occupancy * (OCCUPANCY_STEPS - 1);
+        int s0 = Math.min((int) sPos, OCCUPANCY_STEPS - 2);
+        double sFrac = sPos - s0;
+
+        double yPos = clamp((yield - MIN_YIELD) / YIELD_STEP, 0.0, YIELD_STEPS - 1);
+        int y0 = Math.min((int) yPos, YIELD_STEPS - 2);
+        double yFrac = yPos - y0;
+
+        int i0 = s0 * YIELD_STEPS + y0;
+        int i1 = i0 + YIELD_STEPS;
+        double low = table[i0] + (table[i0 + 1] - table[i0]) * yFrac;
+        double high = table[i1] + (table[i1 + 1] - table[i1]) * yFrac;
+        double value = low + (high - low) * sFrac;
+        // Below the grid self-consumption scales with generation
+        return yield < MIN_YIELD ? value * yield / MIN_YIELD : value;
+    }
+
+    private static MonteCarloResult.Distribution summarise(double[] values) {
+        Arrays.sort(values);
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return new MonteCarloResult.Distribution(percentile(values, 0.10), percentile(values, 0.50),
+            percentile(values, 0.90), Double.isFinite(sum) ? round(sum / values.length) : null);
+    }
+
+    /**
+     * Linear interpolation between order statistics of a sorted array; null where unbounded
+     */
+    private static Double percentile(double[] sorted, double p) {
+        double position = p * (sorted.length - 1);
+        int index = (int) position;
+        double fraction = position - index;
+        double value = fraction == 0.0 || index + 1 >= sorted.length
+            ? sorted[index]
+            : sorted[index] + (sorted[index + 1] - sorted[index]) * fraction;
+        return Double.isFinite(value) ? round(value) : null;
+    }
+
+    private static double[] monthlyValues(List<Double> values, String name) {
+        if (values == null || values.size() != 12) {
+            throw new IllegalArgumentException(name + " must contain 12 monthly values");
+        }
+        double[] monthly = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthly[m] = values.get(m) != null ? values.get(m) : 0.0;
+        }
+        return monthly;
+    }
+
+    private static double valueOrDefault(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Per-household constants shared read-only by all scenario blocks
+     */
+    static final class ScenarioModel {
+        double annualGeneration;
+        double[] selfConsumedTable;
+        double occupancy;
+        double cop;
+        double gasReplaced;
+        double gasRate;
+        double electricityRate;
+        double exportRate;
+        double installationCost;
+        int years;
+        double degradation;
+        double maintenance;
+        double inflation;
+        double discountRate;
+        double irradianceSigma;
+        double priceSigma;
+        double priceDrift;
+        double occupancySigma;
+        double copSigma;
+    }
+
+    /**
+     * One slot per scenario; each block writes only its own range
+     */
+    static final class ScenarioOutputs {
+        final double[] firstYearSavings;
+        final double[] netPresentValue;
+        final double[] lifetimeNetSavings;
+        final double[] paybackYears;
+        final double[] carbonSavedKg;
+
+        ScenarioOutputs(int scenarios) {
+            firstYearSavings = new double[scenarios];
+            netPresentValue = new double[scenarios];
+            lifetimeNetSavings = new double[scenarios];
+            paybackYears = new double[scenarios];
+            carbonSavedKg = new double[scenarios];
+        }
+    }
+
+    private static final class ScenarioTask extends RecursiveAction {
+        private final ScenarioModel model;
+        private final SplittableRandom[] generators;
+        private final ScenarioOutputs outputs;
+        private final int fromBlock;
+        private final int toBlock;
+
+        ScenarioTask(ScenarioModel model, SplittableRandom[] generators, ScenarioOutputs outputs, int fromBlock, int toBlock) {
+            this.model = model;
+            this.generators = generators;
+            this.outputs = outputs;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                int from = fromBlock * BLOCK_SIZE;
+                int to = Math.min(from + BLOCK_SIZE, outputs.paybackYears.length);
+                runScenarios(model, generators[fromBlock], outputs, from, to);
+                return;
+            }
+            int middle = (fromBlock + toBlock) >>> 1;
+            invokeAll(new ScenarioTask(model, generators, outputs, fromBlock, middle),
+                new ScenarioTask(model, generators, outputs, middle, toBlock));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.wx.renewableCalculator.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for monthly double[12] vectors (index 0 = January)
+ * Services calculate on primitive arrays; rounded BigDecimal values and month-keyed maps
+ * are only built when a result DTO is filled.
+ */
+final class MonthlyValues {
+
+    private MonthlyValues() {
+    }
+
+    /**
+     * Month-keyed map (1-12, missing months as 0) -> double[12]
+     */
+    static double[] fromMap(Map<Integer, Double> monthly) {
+        double[] values = new double[12];
+        if (monthly != null) {
+            for (int m = 0; m < 12; m++) {
+                Double value = monthly.get(m + 1);
+                values[m] = value != null ? value : 0.0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 12 monthly values (zeros if null)
+     */
+    static double[] fromArray(double[] values, String name) {
+        if (values == null) {
+            return new double[12];
+        }
+        if (values.length != 12) {
+            throw new IllegalArgumentException(name + " must contain 12 monthly values");
+        }
+        return values;
+    }
+
+    static double sum(double[] values) {
+        double total = 0.0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Month (1-12) with the highest value, the earliest on ties
+     */
+    static int peakMonth(double[] values) {
+        int peak = 0;
+        for (int m = 1; m < values.length; m++) {
+            if (values[m] > values[peak]) {
+                peak = m;
+            }
+        }
+        return peak + 1;
+    }
+
+    /**
+     * Month (1-12) with the lowest value, the earliest on ties
+     */
+    static int lowMonth(double[] values) {
+        int low = 0;
+        for (int m = 1; m < values.length; m++) {
+            if (values[m] < values[low]) {
+                low = m;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * Month (1-12) with the highest rounded value, the latest on ties
+     */
+    static int latestPeakMonth(Map<Integer, BigDecimal> rounded) {
+        int peak = 1;
+        for (int month = 1; month <= 12; month++) {
+            if (rounded.get(month).compareTo(rounded.get(peak)) >= 0) {
+                peak = month;
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Month (1-12) with the lowest rounded value, the latest on ties
+     */
+    static int latestLowMonth(Map<Integer, BigDecimal> rounded) {
+        int low = 1;
+        for (int month = 1; month <= 12; month++) {
+            if (rounded.get(month).compareTo(rounded.get(low)) <= 0) {
+                low = month;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Round half up to the given scale, from the shortest decimal string of the double
+     * (1.005 rounds to 1.01 as it always has)
+     */
+    static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * double[12] -> month (1-12) -> value rounded to the given scale
+     */
+    static Map<Integer, BigDecimal> toMap(double[] values, int scale) {
+        Map<Integer, BigDecimal> monthly = new HashMap<>(16);
+        for (int m = 0; m < values.length; m++) {
+            monthly.put(m + 1, decimal(values[m], scale));
+        }
+        return monthly;
+    }
+}
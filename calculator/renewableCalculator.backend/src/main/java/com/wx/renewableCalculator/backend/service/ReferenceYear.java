@@ -0,0 +1,94 @@
+package com.wx.renewableCalculator.backend.service;
+
+/**
+ * Calendar constants for the non-leap reference year used by the hourly and half-hourly simulations
+ * Hour 0 is 00:00 on 1 January. Month numbers are 1-12 as in the rest of the calculators.
+ * The reference year starts on a Sunday (as 2023 does, matching the weather data year).
+ */
+public final class ReferenceYear {
+
+    public static final int DAYS_PER_YEAR = 365;
+    public static final int HOURS_PER_DAY = 24;
+    public static final int HOURS_PER_YEAR = DAYS_PER_YEAR * HOURS_PER_DAY; // 8760
+    public static final int HALF_HOURS_PER_DAY = 48;
+    public static final int HALF_HOURS_PER_YEAR = DAYS_PER_YEAR * HALF_HOURS_PER_DAY; // 17520
+
+    // Day of week of 1 January (1 = Monday ... 7 = Sunday)
+    private static final int FIRST_DAY_OF_WEEK = 7;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // First day of each month (index 0-11), with index 12 marking the end of the year
+    private static final int[] MONTH_START_DAY = new int[13];
+    static {
+        for (int month = 0; month < 12; month++) {
+            MONTH_START_DAY[month + 1] = MONTH_START_DAY[month] + DAYS_IN_MONTH[month];
+        }
+    }
+
+    // Month (1-12) for each day of the year
+    private static final byte[] MONTH_OF_DAY = new byte[DAYS_PER_YEAR];
+    static {
+        for (int month = 0; month < 12; month++) {
+            for (int day = MONTH_START_DAY[month]; day < MONTH_START_DAY[month + 1]; day++) {
+                MONTH_OF_DAY[day] = (byte) (month + 1);
+            }
+        }
+    }
+
+    private ReferenceYear() {
+    }
+
+    public static int daysInMonth(int month) {
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    public static int monthStartDay(int month) {
+        return MONTH_START_DAY[month - 1];
+    }
+
+    public static int monthEndDay(int month) {
+        return MONTH_START_DAY[month];
+    }
+
+    public static int monthStartHour(int month) {
+        return MONTH_START_DAY[month - 1] * HOURS_PER_DAY;
+    }
+
+    public static int monthEndHour(int month) {
+        return MONTH_START_DAY[month] * HOURS_PER_DAY;
+    }
+
+    public static int monthStartHalfHour(int month) {
+        return MONTH_START_DAY[month - 1] * HALF_HOURS_PER_DAY;
+    }
+
+    public static int monthEndHalfHour(int month) {
+        return MONTH_START_DAY[month] * HALF_HOURS_PER_DAY;
+    }
+
+    /**
+     * Half-hour of the reference year for a calendar date and time, or -1 for 29 February
+     */
+    public static int halfHourOfYear(int month, int dayOfMonth, int hour, int minute) {
+        if (month == 2 && dayOfMonth == 29) {
+            return -1;
+        }
+        return (MONTH_START_DAY[month - 1] + dayOfMonth - 1) * HALF_HOURS_PER_DAY + hour * 2 + minute / 30;
+    }
+
+    public static int monthOfDay(int dayOfYear) {
+        return MONTH_OF_DAY[dayOfYear];
+    }
+
+    /**
+     * Day of week for a day of the year (1 = Monday ... 7 = Sunday)
+     */
+    public static int dayOfWeek(int dayOfYear) {
+        return (FIRST_DAY_OF_WEEK - 1 + dayOfYear) % 7 + 1;
+    }
+
+    public static boolean isWeekend(int dayOfYear) {
+        return dayOfWeek(dayOfYear) >= 6;
+    }
+}
@@ -0,0 +1,352 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.LocationSpecificYieldRequest;
+import com.wx.renewableCalculator.backend.dto.SensitivityRequest;
+import com.wx.renewableCalculator.backend.dto.SensitivityResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * One-at-a-time sensitivity (tornado) of first-year savings, payback and NPV
+ * Each input is moved down and up by the variation while the others stay at their base values.
+ * The climate lookup, shading and usage profile are prepared once; every scenario then only runs the
+ * kernel: monthly generation, hourly energy balance, savings and the lifetime cash flows.
+ * All scenarios are evaluated in parallel.
+ */
+@Service
+public class SensitivityAnalysisService {
+
+    @Autowired
+    private LocationSpecificYieldService locationSpecificYieldService;
+
+    @Autowired
+    private SolarElectricityGenerationService solarElectricityGenerationService;
+
+    @Autowired
+    private SolarInstallationCostService solarInstallationCostService;
+
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+
+    @Autowired
+    private LifetimeCashFlowService lifetimeCashFlowService;
+
+    private static final double DEFAULT_VARIATION = 0.2;
+    private static final int DEFAULT_TILT_ANGLE = 30;
+    private static final int DEFAULT_TILT_STEP = 10;
+    private static final double DEFAULT_COP = 3.0;
+    private static final double DEFAULT_LATITUDE = 51.5074;   // London
+    private static final double DEFAULT_LONGITUDE = -0.1278;
+
+    /**
+     * Perturb every applicable input and rank them by the swing of the chosen metric
+     */
+    public SensitivityResult analyse(SensitivityRequest request) {
+        long start = System.nanoTime();
+        String rankBy = request.getRankBy() != null ? request.getRankBy().toLowerCase() : "payback";
+        if (!rankBy.equals("payback") && !rankBy.equals("npv") && !rankBy.equals("savings")) {
+            throw new IllegalArgumentException("Unsupported rank key: " + rankBy);
+        }
+        double variation = request.getVariation() != null ? request.getVariation() : DEFAULT_VARIATION;
+        if (variation <= 0 || variation >= 1) {
+            throw new IllegalArgumentException("Variation must be between 0 and 1");
+        }
+
+        SharedInputs shared = prepare(request);
+        KernelInputs base = baseInputs(request, shared);
+        List<Perturbation> perturbations = perturbations(request, shared, base, variation);
+
+        // Scenario 0 is the base, then low/high for each input
+        List<KernelInputs> scenarios = new ArrayList<>(1 + 2 * perturbations.size());
+        scenarios.add(base);
+        for (Perturbation perturbation : perturbations) {
+            scenarios.add(perturbation.low);
+            scenarios.add(perturbation.high);
+        }
+        List<Evaluation> evaluations = scenarios.parallelStream()
+            .map(inputs -> evaluate(shared, inputs))
+            .collect(Collectors.toList());
+
+        Evaluation baseEvaluation = evaluations.get(0);
+        double baseMetric = baseEvaluation.metric(rankBy, shared.lifetimeYears);
+        List<SensitivityResult.InputSensitivity> inputs = new ArrayList<>(perturbations.size());
+        for (int p = 0; p < perturbations.size(); p++) {
+            Perturbation perturbation = perturbations.get(p);
+            Evaluation low = evaluations.get(1 + 2 * p);
+            Evaluation high = evaluations.get(2 + 2 * p);
+            double deltaLow = low.metric(rankBy, shared.lifetimeYears) - baseMetric;
+            double deltaHigh = high.metric(rankBy, shared.lifetimeYears) - baseMetric;
+
+            SensitivityResult.InputSensitivity sensitivity = new SensitivityResult.InputSensitivity();
+            sensitivity.setInput(perturbation.input);
+            sensitivity.setBaseValue(round(perturbation.baseValue));
+            sensitivity.setLowValue(round(perturbation.lowValue));
+            sensitivity.setHighValue(round(perturbation.highValue));
+            sensitivity.setLow(low.toOutcome());
+            sensitivity.setHigh(high.toOutcome());
+            sensitivity.setDeltaLow(round(deltaLow));
+            sensitivity.setDeltaHigh(round(deltaHigh));
+            sensitivity.setSwing(round(Math.abs(deltaHigh - deltaLow)));
+            inputs.add(sensitivity);
+        }
+        inputs.sort(Comparator.comparingDouble(SensitivityResult.InputSensitivity::getSwing).reversed());
+        for (int i = 0; i < inputs.size(); i++) {
+            inputs.get(i).setRank(i + 1);
+        }
+
+        SensitivityResult result = new SensitivityResult();
+        result.setRankBy(rankBy);
+        result.setVariation(variation);
+        result.setBase(baseEvaluation.toOutcome());
+        result.setInputs(inputs);
+        result.setScenarios(scenarios.size());
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+        result.setElapsedMillis(round(elapsedMillis));
+        return result;
+    }
+
+    /**
+     * Stages shared by every scenario: climate lookup, shading, usage profile and lifetime assumptions
+     */
+    private SharedInputs prepare(SensitivityRequest request) {
+        List<Double> usage = request.getMonthlyElectricityUsageKwh();
+        if (usage == null || usage.size() != 12) {
+            throw new IllegalArgumentException("monthlyElectricityUsageKwh must contain 12 monthly values");
+        }
+
+        SharedInputs shared = new SharedInputs();
+        shared.capacityKw = request.getCapacityKw() != null ? Math.max(0.0, request.getCapacityKw()) : 0.0;
+        shared.latitude = request.getLatitude() != null ? request.getLatitude() : DEFAULT_LATITUDE;
+        shared.hasHeatPump = Boolean.TRUE.equals(request.getHasHeatPump());
+        shared.gasReplaced = shared.hasHeatPump && request.getAnnualGasReplacedKwh() != null ? request.getAnnualGasReplacedKwh() : 0.0;
+        for (int m = 0; m < 12; m++) {
+            shared.monthlyUsage[m] = usage.get(m) != null ? usage.get(m) : 0.0;
+        }
+
+        if (shared.capacityKw > 0) {
+            LocationSpecificYieldRequest yieldRequest = new LocationSpecificYieldRequest();
+            yieldRequest.setLatitude(shared.latitude);
+            yieldRequest.setLongitude(request.getLongitude() != null ? request.getLongitude() : DEFAULT_LONGITUDE);
+            double[] monthlyYield = locationSpecificYieldService.calculateMonthlyYield(yieldRequest).yield();
+            double shadingFactor = solarElectricityGenerationService.getShadingCorrectionFactor(request.getShadingLevel());
+            for (int m = 0; m < 12; m++) {
+                shared.shadedMonthlyYield[m] = monthlyYield[m] * shadingFactor;
+            }
+        }
+
+        // Lifetime assumptions by the main equipment type
+        shared.equipmentType = shared.capacityKw > 0 ? "solar" : "heatpump";
+        shared.discountRate = request.getDiscountRate();
+        shared.energyPriceEscalation = request.getEnergyPriceEscalation();
+        shared.lifetimeYears = LifetimeCashFlowService.defaultsFor(shared.equipmentType, 0.0, 0.0, 0.0).getLifetimeYears();
+        return shared;
+    }
+
+    private KernelInputs baseInputs(SensitivityRequest request, SharedInputs shared) {
+        double installationCost;
+        if (request.getInstallationCost() != null) {
+            installationCost = request.getInstallationCost();
+        } else if (shared.capacityKw > 0) {
+            installationCost = solarInstallationCostService.getAverageCost(shared.capacityKw);
+        } else {
+            throw new IllegalArgumentException("Installation cost is required without a solar system");
+        }
+
+        int tilt = request.getTiltAngle() != null ? request.getTiltAngle() : DEFAULT_TILT_ANGLE;
+        return new KernelInputs(
+            solarElectricityGenerationService.getTiltOrientationCorrectionFactor(tilt, request.getOrientation()),
+            request.getElectricityRate() != null ? request.getElectricityRate() : 0.0,
+            request.getExportRate() != null ? request.getExportRate() : 0.0,
+            request.getGasRate() != null ? request.getGasRate() : 0.0,
+            request.getHomeOccupancyFactor() != null ? Math.max(0.0, Math.min(1.0, request.getHomeOccupancyFactor())) : 0.0,
+            1.0,
+            request.getHeatPumpCop() != null ? request.getHeatPumpCop() : DEFAULT_COP,
+            installationCost);
+    }
+
+    /**
+     * Low and high scenarios for each input that affects this household
+     */
+    private List<Perturbation> perturbations(SensitivityRequest request, SharedInputs shared, KernelInputs base, double variation) {
+        List<Perturbation> perturbations = new ArrayList<>();
+        double down = 1.0 - variation;
+        double up = 1.0 + variation;
+
+        perturbations.add(new Perturbation("electricityRate", base.electricityRate, base.electricityRate * down,
+            base.electricityRate * up, value -> base.withElectricityRate(value)));
+        perturbations.add(new Perturbation("electricityUsage", 1.0, down, up, value -> base.withUsageScale(value)));
+        perturbations.add(new Perturbation("installationCost", base.installationCost, base.installationCost * down,
+            base.installationCost * up, value -> base.withInstallationCost(value)));
+
+        if (shared.capacityKw > 0) {
+            perturbations.add(new Perturbation("exportRate", base.exportRate, base.exportRate * down,
+                base.exportRate * up, value -> base.withExportRate(value)));
+
+            // Tilt moves by whole steps of the tilt/orientation table
+            int tilt = request.getTiltAngle() != null ? request.getTiltAngle() : DEFAULT_TILT_ANGLE;
+            int step = request.getTiltStep() != null ? request.getTiltStep() : DEFAULT_TILT_STEP;
+            int lowTilt = Math.max(0, tilt - step);
+            int highTilt = Math.min(90, tilt + step);
+            double lowFactor = solarElectricityGenerationService.getTiltOrientationCorrectionFactor(lowTilt, request.getOrientation());
+            double highFactor = solarElectricityGenerationService.getTiltOrientationCorrectionFactor(highTilt, request.getOrientation());
+            perturbations.add(new Perturbation("tiltAngle", tilt, lowTilt, highTilt,
+                base.withTiltFactor(lowFactor), base.withTiltFactor(highFactor)));
+
+            double lowOccupancy = Math.max(0.0, base.occupancy - variation);
+            double highOccupancy = Math.min(1.0, base.occupancy + variation);
+            perturbations.add(new Perturbation("homeOccupancyFactor", base.occupancy, lowOccupancy, highOccupancy,
+                value -> base.withOccupancy(value)));
+        }
+
+        if (shared.gasReplaced > 0) {
+            perturbations.add(new Perturbation("gasRate", base.gasRate, base.gasRate * down,
+                base.gasRate * up, value -> base.withGasRate(value)));
+            perturbations.add(new Perturbation("heatPumpCop", base.cop, base.cop * down,
+                base.cop * up, value -> base.withCop(value)));
+        }
+        return perturbations;
+    }
+
+    /**
+     * Scenario kernel: generation, self-consumption, first-year savings and lifetime cash flows
+     */
+    private Evaluation evaluate(SharedInputs shared, KernelInputs inputs) {
+        double[] generation = new double[12];
+        double[] usage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            generation[m] = shared.capacityKw * shared.shadedMonthlyYield[m] * inputs.tiltFactor;
+            usage[m] = shared.monthlyUsage[m] * inputs.usageScale;
+        }
+
+        double selfConsumed = 0.0;
+        double exported = 0.0;
+        if (shared.capacityKw > 0) {
+            EnergyBalanceService.EnergyBalance balance = energyBalanceService.calculateMonthly(generation, usage,
+                shared.latitude, inputs.occupancy, shared.hasHeatPump);
+            selfConsumed = balance.getAnnualSelfConsumed();
+            exported = balance.getAnnualExported();
+        }
+        double heatPumpNet = shared.gasReplaced * inputs.gasRate - shared.gasReplaced / inputs.cop * inputs.electricityRate;
+
+        // Pence -> pounds
+        double importSavings = (selfConsumed * inputs.electricityRate + heatPumpNet) / 100.0;
+        double exportRevenue = exported * inputs.exportRate / 100.0;
+
+        LifetimeCashFlowRequest cashFlowRequest = LifetimeCashFlowService.defaultsFor(shared.equipmentType,
+            inputs.installationCost, importSavings, exportRevenue);
+        cashFlowRequest.setDiscountRate(shared.discountRate);
+        cashFlowRequest.setEnergyPriceEscalation(shared.energyPriceEscalation);
+        LifetimeCashFlowService.CashFlowProjection projection = lifetimeCashFlowService.project(cashFlowRequest);
+        return new Evaluation(importSavings + exportRevenue, projection.getSimplePaybackYears(), projection.getNpv());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Request values that stay fixed across all scenarios
+     */
+    private static final class SharedInputs {
+        final double[] shadedMonthlyYield = new double[12];  // kWh/kWp after shading
+        final double[] monthlyUsage = new double[12];
+        double capacityKw;
+        double latitude;
+        boolean hasHeatPump;
+        double gasReplaced;
+        String equipmentType;
+        Double discountRate;
+        Double energyPriceEscalation;
+        int lifetimeYears;
+    }
+
+    /**
+     * Inputs that can be perturbed (rates in pence/kWh, cost in £)
+     */
+    private record KernelInputs(double tiltFactor, double electricityRate, double exportRate, double gasRate,
+                                double occupancy, double usageScale, double cop, double installationCost) {
+
+        KernelInputs withTiltFactor(double value) {
+            return new KernelInputs(value, electricityRate, exportRate, gasRate, occupancy, usageScale, cop, installationCost);
+        }
+
+        KernelInputs withElectricityRate(double value) {
+            return new KernelInputs(tiltFactor, value, exportRate, gasRate, occupancy, usageScale, cop, installationCost);
+        }
+
+        KernelInputs withExportRate(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, value, gasRate, occupancy, usageScale, cop, installationCost);
+        }
+
+        KernelInputs withGasRate(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, exportRate, value, occupancy, usageScale, cop, installationCost);
+        }
+
+        KernelInputs withOccupancy(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, exportRate, gasRate, value, usageScale, cop, installationCost);
+        }
+
+        KernelInputs withUsageScale(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, exportRate, gasRate, occupancy, value, cop, installationCost);
+        }
+
+        KernelInputs withCop(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, exportRate, gasRate, occupancy, usageScale, value, installationCost);
+        }
+
+        KernelInputs withInstallationCost(double value) {
+            return new KernelInputs(tiltFactor, electricityRate, exportRate, gasRate, occupancy, usageScale, cop, value);
+        }
+    }
+
+    private static final class Perturbation {
+        final String input;
+        final double baseValue;
+        final double lowValue;
+        final double highValue;
+        final KernelInputs low;
+        final KernelInputs high;
+
+        Perturbation(String input, double baseValue, double lowValue, double highValue, KernelInputs low, KernelInputs high) {
+            this.input = input;
+            this.baseValue = baseValue;
+            this.lowValue = lowValue;
+            this.highValue = highValue;
+            this.low = low;
+            this.high = high;
+        }
+
+        Perturbation(String input, double baseValue, double lowValue, double highValue, DoubleFunction<KernelInputs> apply) {
+            this(input, baseValue, lowValue, highValue, apply.apply(lowValue), apply.apply(highValue));
+        }
+    }
+
+    private record Evaluation(double annualSavings, double paybackYears, double netPresentValue) {
+
+        /**
+         * Ranked metric; payback beyond the lifetime counts as the lifetime
+         */
+        double metric(String rankBy, int lifetimeYears) {
+            switch (rankBy) {
+                case "npv":
+                    return netPresentValue;
+                case "savings":
+                    return annualSavings;
+                default:
+                    return Double.isFinite(paybackYears) ? Math.min(paybackYears, lifetimeYears) : lifetimeYears;
+            }
+        }
+
+        SensitivityResult.Outcome toOutcome() {
+            return new SensitivityResult.Outcome(round(annualSavings),
+                Double.isFinite(paybackYears) ? round(paybackYears) : null, round(netPresentValue));
+        }
+    }
+}
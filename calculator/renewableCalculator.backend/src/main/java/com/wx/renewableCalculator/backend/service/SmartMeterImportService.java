@@ -0,0 +1,595 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
+import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
+import com.wx.renewableCalculator.backend.dto.MeterUploadResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Service for importing smart-meter consumption exports (CSV)
+ * Supported layouts (detected from the header row):
+ * 1. Timestamp + value, e.g. Octopus "Consumption (kWh), Start, End"
+ * 2. Date + time + value, e.g. "Date, Time, kWh" with dd/MM/yyyy or yyyy-MM-dd dates
+ * 3. Wide daily rows: date followed by 48 half-hourly values
+ * The file is parsed line by line and aggregated on the fly, so memory use does not grow with file size.
+ * Rows may come in any order; a row repeating the previous row's timestamp is treated as a duplicate and skipped.
+ */
+@Service
+public class SmartMeterImportService {
+
+    // Standard UK gas conversion: m³ × 1.02264 (volume correction) × 39.5 MJ/m³ (calorific value) / 3.6
+    private static final double GAS_M3_TO_KWH = 1.02264 * 39.5 / 3.6;
+
+    // Minimum share of a month's expected readings needed to use that month directly
+    private static final double MIN_MONTH_COVERAGE = 0.5;
+
+    private static final int SLOTS = ReferenceYear.HALF_HOURS_PER_DAY;
+
+    @Autowired
+    private EnergyDemandService energyDemandService;
+
+    @Autowired
+    private GasDemandService gasDemandService;
+
+    /**
+     * Import an electricity meter export and calculate electricity demand from it
+     */
+    public MeterUploadResult importElectricity(InputStream input, Boolean hasHeatPump) throws IOException {
+        MeterConsumptionSummary summary = parse(input, 1.0, EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS);
+
+        ElectricityDemandRequest request = new ElectricityDemandRequest();
+        request.setMonthlyElectricityUsage(toMonthlyMap(summary.getMonthlyTotals()));
+        request.setHasHeatPump(hasHeatPump);
+
+        MeterUploadResult result = createUploadResult(summary);
+        result.setHalfHourlyConsumptionKwh(toHalfHourlyKwh(summary));
+        result.setElectricityDemand(energyDemandService.calculateElectricityDemand(request));
+        return result;
+    }
+
+    /**
+     * Import a gas meter export (kWh or m³) and calculate gas demand from it
+     */
+    public MeterUploadResult importGas(InputStream input, String unit) throws IOException {
+        double unitFactor = "m3".equalsIgnoreCase(unit) ? GAS_M3_TO_KWH : 1.0;
+        MeterConsumptionSummary summary = parse(input, unitFactor, GasDemandService.STANDARD_GAS_MONTHLY_PROPORTIONS);
+
+        GasDemandRequest request = new GasDemandRequest();
+        request.setMonthlyGasUsage(toMonthlyMap(summary.getMonthlyTotals()));
+
+        MeterUploadResult result = createUploadResult(summary);
+        result.setGasDemand(gasDemandService.calculateGasDemand(request));
+        return result;
+    }
+
+    /**
+     * Stream-parse a meter export into monthly totals and a normalised half-hourly profile
+     *
+     * @param input CSV content
+     * @param unitFactor Multiplier converting the file's unit to kWh
+     * @param monthlyProportions Monthly proportions (%) used to fill months without enough data
+     */
+    public MeterConsumptionSummary parse(InputStream input, double unitFactor, double[] monthlyProportions) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        Aggregator aggregator = new Aggregator();
+
+        String headerLine = reader.readLine();
+        while (headerLine != null && headerLine.isBlank()) {
+            headerLine = reader.readLine();
+        }
+        if (headerLine == null) {
+            throw new IllegalArgumentException("Meter file is empty");
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+
+        Layout layout = detectLayout(splitFields(headerLine, new ArrayList<>()));
+        List<String> fields = new ArrayList<>(SLOTS + 8);
+        int[] dateTime = new int[5];
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            splitFields(line, fields);
+            if (layout.wide) {
+                parseWideRow(fields, layout, unitFactor, dateTime, aggregator);
+            } else {
+                parseReadingRow(fields, layout, unitFactor, dateTime, aggregator);
+            }
+        }
+
+        if (aggregator.readings == 0) {
+            throw new IllegalArgumentException("No valid readings found in meter file");
+        }
+        return aggregator.finish(monthlyProportions);
+    }
+
+    private void parseReadingRow(List<String> fields, Layout layout, double unitFactor, int[] dateTime, Aggregator aggregator) {
+        int required = Math.max(layout.valueColumn, Math.max(layout.dateColumn, layout.timeColumn));
+        if (fields.size() <= required) {
+            aggregator.skipped++;
+            return;
+        }
+
+        String date = fields.get(layout.dateColumn);
+        String time = layout.timeColumn >= 0 ? fields.get(layout.timeColumn) : "";
+        if (aggregator.isRepeat(date, time)) {
+            aggregator.skipped++;
+            return;
+        }
+
+        boolean parsed = parseDate(date, dateTime);
+        if (parsed && layout.timeColumn >= 0) {
+            parsed = parseTime(time, 0, dateTime);
+        }
+        Double value = parseValue(fields.get(layout.valueColumn));
+        if (!parsed || value == null) {
+            aggregator.skipped++;
+            return;
+        }
+
+        aggregator.add(dateTime[0], dateTime[1], dateTime[2], dateTime[3] * 2 + (dateTime[4] >= 30 ? 1 : 0), value * unitFactor);
+    }
+
+    private void parseWideRow(List<String> fields, Layout layout, double unitFactor, int[] dateTime, Aggregator aggregator) {
+        if (fields.size() < layout.firstSlotColumn + SLOTS || aggregator.isRepeat(fields.get(layout.dateColumn), "")
+                || !parseDate(fields.get(layout.dateColumn), dateTime)) {
+            aggregator.skipped++;
+            return;
+        }
+        for (int slot = 0; slot < SLOTS; slot++) {
+            Double value = parseValue(fields.get(layout.firstSlotColumn + slot));
+            if (value == null) {
+                aggregator.skipped++;
+                continue;
+            }
+            aggregator.add(dateTime[0], dateTime[1], dateTime[2], slot, value * unitFactor);
+        }
+    }
+
+    /**
+     * Work out which columns hold the timestamp/date, time of day and consumption
+     */
+    private Layout detectLayout(List<String> header) {
+        Layout layout = new Layout();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).toLowerCase();
+            if (layout.valueColumn < 0 && (name.contains("consumption") || name.contains("kwh")
+                    || name.contains("usage") || name.contains("value") || name.contains("reading"))) {
+                layout.valueColumn = i;
+            } else if (layout.dateColumn < 0 && (name.contains("start") || name.contains("timestamp")
+                    || name.contains("datetime") || name.contains("interval") || name.contains("date"))) {
+                layout.dateColumn = i;
+            } else if (layout.timeColumn < 0 && name.contains("time")) {
+                layout.timeColumn = i;
+            }
+        }
+
+        // Wide daily layout: date followed by 48 half-hour columns
+        if (layout.valueColumn < 0 && header.size() >= SLOTS + 1) {
+            layout.wide = true;
+            layout.dateColumn = Math.max(layout.dateColumn, 0);
+            layout.firstSlotColumn = layout.dateColumn + 1;
+            if (header.size() < layout.firstSlotColumn + SLOTS) {
+                throw new IllegalArgumentException("Unrecognised meter export format");
+            }
+            return layout;
+        }
+
+        if (layout.valueColumn < 0 || layout.dateColumn < 0) {
+            throw new IllegalArgumentException("Unrecognised meter export format: no timestamp or consumption column");
+        }
+        return layout;
+    }
+
+    /**
+     * Split a CSV line into trimmed fields, honouring double quotes (the list is reused between lines)
+     */
+    private List<String> splitFields(String line, List<String> fields) {
+        fields.clear();
+        int length = line.length();
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? line.charAt(i) : ',';
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                int from = start;
+                int to = i;
+                while (from < to && (line.charAt(from) == ' ' || line.charAt(from) == '"')) {
+                    from++;
+                }
+                while (to > from && (line.charAt(to - 1) == ' ' || line.charAt(to - 1) == '"')) {
+                    to--;
+                }
+                fields.add(line.substring(from, to));
+                start = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Parse yyyy-MM-dd[THH:mm...] or dd/MM/yyyy[ HH:mm] into {year, month, day, hour, minute}
+     */
+    private boolean parseDate(String text, int[] dateTime) {
+        dateTime[3] = 0;
+        dateTime[4] = 0;
+        int length = text.length();
+        int timeStart;
+
+        if (length >= 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            dateTime[0] = digits(text, 0, 4);
+            dateTime[1] = digits(text, 5, 7);
+            dateTime[2] = digits(text, 8, 10);
+            timeStart = 10;
+        } else {
+            int firstSlash = text.indexOf('/');
+            int secondSlash = firstSlash > 0 ? text.indexOf('/', firstSlash + 1) : -1;
+            if (secondSlash < 0 || length < secondSlash + 5) {
+                return false;
+            }
+            dateTime[2] = digits(text, 0, firstSlash);
+            dateTime[1] = digits(text, firstSlash + 1, secondSlash);
+            dateTime[0] = digits(text, secondSlash + 1, secondSlash + 5);
+            timeStart = secondSlash + 5;
+        }
+
+        if (dateTime[0] < 0 || dateTime[1] < 1 || dateTime[1] > 12 || dateTime[2] < 1 || dateTime[2] > 31) {
+            return false;
+        }
+        if (timeStart < length && (text.charAt(timeStart) == 'T' || text.charAt(timeStart) == ' ')) {
+            return parseTime(text, timeStart + 1, dateTime);
+        }
+        return true;
+    }
+
+    /**
+     * Parse H:mm or HH:mm starting at an offset into dateTime[3] and dateTime[4]
+     */
+    private boolean parseTime(String text, int offset, int[] dateTime) {
+        int colon = text.indexOf(':', offset);
+        if (colon < 0 || colon + 3 > text.length()) {
+            return false;
+        }
+        int hour = digits(text, offset, colon);
+        int minute = digits(text, colon + 1, colon + 3);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return false;
+        }
+        dateTime[3] = hour;
+        dateTime[4] = minute;
+        return true;
+    }
+
+    private int digits(String text, int from, int to) {
+        if (from >= to || to > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private Double parseValue(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            double value = Double.parseDouble(text);
+            return Double.isFinite(value) ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Map<Integer, Double> toMonthlyMap(double[] monthlyTotals) {
+        Map<Integer, Double> monthly = new HashMap<>();
+        for (int month = 1; month <= 12; month++) {
+            monthly.put(month, monthlyTotals[month - 1]);
+        }
+        return monthly;
+    }
+
+    /**
+     * Scale the normalised profile by the monthly totals (the layout TariffComparisonRequest takes as measured import)
+     */
+    private float[] toHalfHourlyKwh(MeterConsumptionSummary summary) {
+        float[] profile = summary.getHalfHourlyProfile();
+        float[] kwh = new float[profile.length];
+        for (int month = 1; month <= 12; month++) {
+            double monthTotal = summary.getMonthlyTotals()[month - 1];
+            int end = ReferenceYear.monthEndHalfHour(month);
+            for (int i = ReferenceYear.monthStartHalfHour(month); i < end; i++) {
+                kwh[i] = (float) (profile[i] * monthTotal);
+            }
+        }
+        return kwh;
+    }
+
+    private MeterUploadResult createUploadResult(MeterConsumptionSummary summary) {
+        MeterUploadResult result = new MeterUploadResult();
+        result.setRowsParsed(summary.getReadings());
+        result.setRowsSkipped(summary.getSkipped());
+        result.setReadingsPerDay(summary.getReadingsPerDay());
+        result.setFirstReadingDate(summary.getFirstReadingDate());
+        result.setLastReadingDate(summary.getLastReadingDate());
+        result.setEstimatedMonths(summary.getEstimatedMonths());
+        result.setAverageDayProfile(summary.getAverageDayProfile());
+        return result;
+    }
+
+    private static final class Layout {
+        private int valueColumn = -1;
+        private int dateColumn = -1;
+        private int timeColumn = -1;
+        private boolean wide;
+        private int firstSlotColumn;
+    }
+
+    /**
+     * Running totals for one file: per (year, month) sums and a reference-year half-hourly grid
+     */
+    private static final class Aggregator {
+        private final TreeMap<Integer, double[]> monthlySums = new TreeMap<>();
+        private final TreeMap<Integer, int[]> monthlyCounts = new TreeMap<>();
+        private final double[] profileSums = new double[ReferenceYear.HALF_HOURS_PER_YEAR];
+        private final int[] profileCounts = new int[ReferenceYear.HALF_HOURS_PER_YEAR];
+        private final Set<Integer> days = new HashSet<>();
+        private long readings;
+        private long skipped;
+        private int lastDayKey = -1;
+        private String lastDate;
+        private String lastTime;
+        private int firstDayKey = Integer.MAX_VALUE;
+        private int finalDayKey = Integer.MIN_VALUE;
+        private boolean oddSlotSeen;
+
+        private void add(int year, int month, int day, int slot, double kwh) {
+            int dayKey = year * 10000 + month * 100 + day;
+            if (dayKey != lastDayKey) {
+                days.add(dayKey);
+                lastDayKey = dayKey;
+                firstDayKey = Math.min(firstDayKey, dayKey);
+                finalDayKey = Math.max(finalDayKey, dayKey);
+            }
+
+            monthlySums.computeIfAbsent(year, y -> new double[12])[month - 1] += kwh;
+            monthlyCounts.computeIfAbsent(year, y -> new int[12])[month - 1]++;
+            readings++;
+
+            // 29 February has no place in the reference year; it still counts towards monthly totals
+            if (month == 2 && day == 29) {
+                return;
+            }
+            int dayOfYear = ReferenceYear.monthStartDay(month) + day - 1;
+            if (day > ReferenceYear.daysInMonth(month)) {
+                return;
+            }
+            int index = dayOfYear * SLOTS + slot;
+            profileSums[index] += kwh;
+            profileCounts[index]++;
+            oddSlotSeen |= (slot & 1) == 1;
+        }
+
+        /**
+         * True if the timestamp fields equal the previous row's (the repeated hour at a clock change differs in offset or order)
+         */
+        private boolean isRepeat(String date, String time) {
+            boolean repeat = date.equals(lastDate) && time.equals(lastTime);
+            lastDate = date;
+            lastTime = time;
+            return repeat;
+        }
+
+        private MeterConsumptionSummary finish(double[] monthlyProportions) {
+            int readingsPerDay = (int) Math.max(1, Math.round((double) readings / Math.max(1, days.size())));
+
+            // Monthly totals: average over years with enough coverage, scaled up for gaps
+            double[] monthlyTotals = new double[12];
+            boolean[] covered = new boolean[12];
+            for (int month = 1; month <= 12; month++) {
+                double estimateSum = 0.0;
+                int estimates = 0;
+                for (Map.Entry<Integer, double[]> entry : monthlySums.entrySet()) {
+                    int count = monthlyCounts.get(entry.getKey())[month - 1];
+                    double coverage = (double) count / (ReferenceYear.daysInMonth(month) * readingsPerDay);
+                    if (count > 0 && coverage >= MIN_MONTH_COVERAGE) {
+                        estimateSum += entry.getValue()[month - 1] / Math.min(1.0, coverage);
+                        estimates++;
+                    }
+                }
+                if (estimates > 0) {
+                    monthlyTotals[month - 1] = estimateSum / estimates;
+                    covered[month - 1] = true;
+                }
+            }
+
+            // Fill months without data using the standard monthly proportions
+            double coveredTotal = 0.0;
+            double coveredProportion = 0.0;
+            for (int month = 0; month < 12; month++) {
+                if (covered[month]) {
+                    coveredTotal += monthlyTotals[month];
+                    coveredProportion += monthlyProportions[month];
+                }
+            }
+            if (coveredProportion <= 0) {
+                throw new IllegalArgumentException("Meter file does not cover enough of any month");
+            }
+            List<Integer> estimatedMonths = new ArrayList<>();
+            for (int month = 0; month < 12; month++) {
+                if (!covered[month]) {
+                    monthlyTotals[month] = coveredTotal * monthlyProportions[month] / coveredProportion;
+                    estimatedMonths.add(month + 1);
+                }
+            }
+
+            MeterConsumptionSummary summary = new MeterConsumptionSummary();
+            summary.monthlyTotals = monthlyTotals;
+            summary.estimatedMonths = estimatedMonths;
+            summary.readings = readings;
+            summary.skipped = skipped;
+            summary.readingsPerDay = readingsPerDay;
+            summary.firstReadingDate = formatDayKey(firstDayKey);
+            summary.lastReadingDate = formatDayKey(finalDayKey);
+            buildProfiles(summary, readingsPerDay);
+            return summary;
+        }
+
+        /**
+         * Average the reference-year grid, fill days without data from the month's mean day, normalise per month
+         */
+        private void buildProfiles(MeterConsumptionSummary summary, int readingsPerDay) {
+            if (readingsPerDay < ReferenceYear.HOURS_PER_DAY) {
+                // Daily (or coarser) readings carry no intraday shape: spread each day evenly
+                for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+                    int offset = day * SLOTS;
+                    double dayTotal = 0.0;
+                    int dayCount = 0;
+                    for (int slot = 0; slot < SLOTS; slot++) {
+                        dayTotal += profileSums[offset + slot];
+                        dayCount = Math.max(dayCount, profileCounts[offset + slot]);
+                    }
+                    for (int slot = 0; slot < SLOTS; slot++) {
+                        profileSums[offset + slot] = dayTotal / SLOTS;
+                        profileCounts[offset + slot] = dayCount;
+                    }
+                }
+            } else if (!oddSlotSeen) {
+                // Hourly data only fills even slots; split each hour across its two half-hours
+                for (int i = 0; i < profileSums.length; i += 2) {
+                    profileSums[i] /= 2.0;
+                    profileSums[i + 1] = profileSums[i];
+                    profileCounts[i + 1] = profileCounts[i];
+                }
+            }
+
+            float[] profile = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+            double[] averageDay = new double[SLOTS];
+            for (int month = 1; month <= 12; month++) {
+                int start = ReferenceYear.monthStartHalfHour(month);
+                int end = ReferenceYear.monthEndHalfHour(month);
+
+                double[] monthDaySums = new double[SLOTS];
+                int[] monthDayCounts = new int[SLOTS];
+                for (int i = start; i < end; i++) {
+                    if (profileCounts[i] > 0) {
+                        monthDaySums[i % SLOTS] += profileSums[i] / profileCounts[i];
+                        monthDayCounts[i % SLOTS]++;
+                    }
+                }
+
+                double monthTotal = 0.0;
+                for (int i = start; i < end; i++) {
+                    int slot = i % SLOTS;
+                    double value;
+                    if (profileCounts[i] > 0) {
+                        value = profileSums[i] / profileCounts[i];
+                    } else if (monthDayCounts[slot] > 0) {
+                        value = monthDaySums[slot] / monthDayCounts[slot];
+                    } else {
+                        value = 1.0; // No data for the month: flat shape
+                    }
+                    profile[i] = (float) Math.max(0.0, value);
+                    monthTotal += profile[i];
+                }
+
+                for (int i = start; i < end; i++) {
+                    profile[i] = monthTotal > 0 ? (float) (profile[i] / monthTotal) : 0f;
+                    averageDay[i % SLOTS] += profile[i] * summary.monthlyTotals[month - 1];
+                }
+            }
+
+            double dayTotal = 0.0;
+            for (double value : averageDay) {
+                dayTotal += value;
+            }
+            for (int slot = 0; slot < SLOTS; slot++) {
+                averageDay[slot] = dayTotal > 0 ? averageDay[slot] / dayTotal : 1.0 / SLOTS;
+            }
+
+            summary.halfHourlyProfile = profile;
+            summary.averageDayProfile = averageDay;
+        }
+
+        private static String formatDayKey(int dayKey) {
+            return String.format("%04d-%02d-%02d", dayKey / 10000, (dayKey / 100) % 100, dayKey % 100);
+        }
+    }
+
+    /**
+     * Aggregated meter data
+     */
+    public static final class MeterConsumptionSummary {
+        private double[] monthlyTotals;          // kWh, January (index 0) to December (index 11)
+        private List<Integer> estimatedMonths;   // Months (1-12) filled from standard proportions
+        private float[] halfHourlyProfile;       // float[17520], half-hours of each month sum to 1.0
+        private double[] averageDayProfile;      // 48 half-hours, sums to 1.0
+        private long readings;
+        private long skipped;
+        private int readingsPerDay;
+        private String firstReadingDate;
+        private String lastReadingDate;
+
+        public double[] getMonthlyTotals() {
+            return monthlyTotals;
+        }
+
+        public List<Integer> getEstimatedMonths() {
+            return estimatedMonths;
+        }
+
+        public float[] getHalfHourlyProfile() {
+            return halfHourlyProfile;
+        }
+
+        public double[] getAverageDayProfile() {
+            return averageDayProfile;
+        }
+
+        public long getReadings() {
+            return readings;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public int getReadingsPerDay() {
+            return readingsPerDay;
+        }
+
+        public String getFirstReadingDate() {
+            return firstReadingDate;
+        }
+
+        public String getLastReadingDate() {
+            return lastReadingDate;
+        }
+    }
+}
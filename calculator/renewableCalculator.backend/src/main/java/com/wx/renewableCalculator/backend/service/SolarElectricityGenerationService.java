@@ -2,6 +2,7 @@ package com.wx.renewableCalculator.backend.service;
 
 import com.wx.renewableCalculator.backend.dto.MonthlyElectricityGenerationRequest;
 import com.wx.renewableCalculator.backend.dto.MonthlyElectricityGenerationResult;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -12,6 +13,15 @@ import java.util.Map;
 @Service
 public class SolarElectricityGenerationService {
 
+    @Autowired
+    private HorizonShadingService horizonShadingService;
+
+    @Autowired
+    private SolarHourlyProfileService solarHourlyProfileService;
+
+    @Autowired
+    private InverterClippingService inverterClippingService;
+
     // Shading correction factors (same as in SolarPotentialService)
     private static final Map<String, Double> SHADING_CORRECTION_FACTORS = new HashMap<>();
     static {
@@ -76,24 +86,32 @@ public class SolarElectricityGenerationService {
      * Calculate monthly electricity generation using the formula:
      * Monthly Generation = Total Installed Capacity × Location Specific Yield Per Month × 
      *                     Tilt and Orientation Correction Factor × Shading Correction Factor
+     *                     - Clipped Energy - Curtailed Energy
+     * Clipping and curtailment come from an hourly simulation over the location's synthetic profile
      * 
      * @param request Monthly electricity generation calculation parameters
      * @return Monthly electricity generation calculation results
      */
     public MonthlyElectricityGenerationResult calculateMonthlyElectricityGeneration(MonthlyElectricityGenerationRequest request) {
         // Get individual factors
-        Double shadingCorrectionFactor = SHADING_CORRECTION_FACTORS.getOrDefault(request.getShadingLevel(), 1.0);
+        Double shadingCorrectionFactor = getShadingCorrectionFactor(request);
         Double tiltOrientationCorrectionFactor = getTiltOrientationCorrectionFactor(request.getTiltAngle(), request.getOrientation());
         
         // Apply the formula: Total Installed Capacity × Location Specific Yield Per Month × 
         //                    Tilt and Orientation Correction Factor × Shading Correction Factor
-        Double monthlyGeneration = request.getTotalInstalledCapacity() * 
-                                  request.getLocationSpecificYieldPerMonth() * 
-                                  tiltOrientationCorrectionFactor * 
-                                  shadingCorrectionFactor;
+        Double dcGeneration = request.getTotalInstalledCapacity() * 
+                             request.getLocationSpecificYieldPerMonth() * 
+                             tiltOrientationCorrectionFactor * 
+                             shadingCorrectionFactor;
+
+        // Hourly inverter clipping and export limit
+        InverterClippingService.ClippingResult clipping = simulateClipping(request, dcGeneration);
         
         MonthlyElectricityGenerationResult result = new MonthlyElectricityGenerationResult();
-        result.setMonthlyElectricityGeneration(BigDecimal.valueOf(monthlyGeneration).setScale(2, RoundingMode.HALF_UP));
+        result.setMonthlyElectricityGeneration(BigDecimal.valueOf(clipping.getDeliveredKwh()).setScale(2, RoundingMode.HALF_UP));
+        result.setDcElectricityGeneration(BigDecimal.valueOf(dcGeneration).setScale(2, RoundingMode.HALF_UP));
+        result.setClippedEnergy(BigDecimal.valueOf(clipping.getClippedKwh()).setScale(2, RoundingMode.HALF_UP));
+        result.setCurtailedEnergy(BigDecimal.valueOf(clipping.getCurtailedKwh()).setScale(2, RoundingMode.HALF_UP));
         result.setTotalInstalledCapacity(BigDecimal.valueOf(request.getTotalInstalledCapacity()).setScale(2, RoundingMode.HALF_UP));
         result.setLocationSpecificYieldPerMonth(BigDecimal.valueOf(request.getLocationSpecificYieldPerMonth()).setScale(2, RoundingMode.HALF_UP));
         result.setTiltOrientationCorrectionFactor(BigDecimal.valueOf(tiltOrientationCorrectionFactor).setScale(4, RoundingMode.HALF_UP));
@@ -102,13 +120,57 @@ public class SolarElectricityGenerationService {
         return result;
     }
 
+    /**
+     * Run the hourly clipping simulation for the requested month (averaged over all months if none given)
+     */
+    private InverterClippingService.ClippingResult simulateClipping(MonthlyElectricityGenerationRequest request, double dcGeneration) {
+        double inverterKw = request.getInverterCapacityKw() != null && request.getInverterCapacityKw() > 0
+                ? request.getInverterCapacityKw()
+                : request.getTotalInstalledCapacity();
+        double exportLimitKw = request.getExportLimitKw() != null && request.getExportLimitKw() > 0
+                ? request.getExportLimitKw()
+                : Double.POSITIVE_INFINITY;
+
+        float[] profile = solarHourlyProfileService.getNormalisedProfile(request.getLatitude());
+        Integer month = request.getMonth();
+        if (month != null && month >= 1 && month <= 12) {
+            return inverterClippingService.simulateMonth(profile, month, dcGeneration, inverterKw, exportLimitKw);
+        }
+        return inverterClippingService.simulateAverageMonth(profile, dcGeneration, inverterKw, exportLimitKw);
+    }
+
+    /**
+     * Get shading correction factor
+     * A horizon profile takes precedence over the categorical shading level; without a month
+     * the annual horizon factor is used.
+     */
+    private Double getShadingCorrectionFactor(MonthlyElectricityGenerationRequest request) {
+        if (!horizonShadingService.hasHorizonProfile(request.getHorizonProfile())) {
+            return getShadingCorrectionFactor(request.getShadingLevel());
+        }
+
+        double[] monthlyFactors = horizonShadingService.calculateMonthlyShadingFactors(request.getLatitude(), request.getHorizonProfile());
+        Integer month = request.getMonth();
+        if (month != null && month >= 1 && month <= 12) {
+            return monthlyFactors[month - 1];
+        }
+        return horizonShadingService.calculateAnnualShadingFactor(request.getLatitude(), monthlyFactors);
+    }
+
+    /**
+     * Get shading correction factor for a categorical shading level (1.0 if unknown)
+     */
+    public Double getShadingCorrectionFactor(String shadingLevel) {
+        return SHADING_CORRECTION_FACTORS.getOrDefault(shadingLevel, 1.0);
+    }
+
     /**
      * Get tilt and orientation correction factor
      * @param tiltAngle Roof tilt angle in degrees
      * @param orientation Roof orientation code (e.g., 's', 'sw', 'n')
      * @return Correction factor as decimal (e.g., 0.95 for 95%)
      */
-    private Double getTiltOrientationCorrectionFactor(Integer tiltAngle, String orientation) {
+    public Double getTiltOrientationCorrectionFactor(Integer tiltAngle, String orientation) {
         Integer tiltIndex = TILT_MAPPING.get(tiltAngle);
         Integer orientationIndex = ORIENTATION_MAPPING.get(orientation != null ? orientation.toLowerCase() : "");
         
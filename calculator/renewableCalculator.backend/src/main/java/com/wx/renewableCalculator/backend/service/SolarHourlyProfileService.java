@@ -0,0 +1,97 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Service providing synthetic 8760-hour solar generation profiles
+ * Each profile is normalised so that the hours of every month sum to 1.0, which lets a monthly
+ * generation figure (kWh) be spread over the month by a single multiply per hour.
+ * Profiles are built once per whole-degree latitude band and cached.
+ */
+@Service
+public class SolarHourlyProfileService {
+
+    private static final double DEFAULT_LATITUDE = 51.5074; // London
+
+    // Daily clearness multipliers for UK weather: overcast, mixed and clear days
+    private static final double[] DAY_TYPE_MULTIPLIERS = {0.25, 0.8, 1.5};
+
+    // Probability of an overcast / mixed day by month (remainder are clear days)
+    private static final double[] OVERCAST_PROBABILITY = {0.50, 0.45, 0.40, 0.35, 0.30, 0.30, 0.30, 0.30, 0.35, 0.40, 0.45, 0.50};
+    private static final double[] MIXED_PROBABILITY = {0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35, 0.35};
+
+    private final ConcurrentMap<Integer, float[]> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Get the normalised hourly profile for a latitude (London used if null)
+     * @return float[8760] where the hours of each month sum to 1.0
+     */
+    public float[] getNormalisedProfile(Double latitude) {
+        double lat = latitude != null ? latitude : DEFAULT_LATITUDE;
+        int band = (int) Math.round(Math.max(-66.0, Math.min(66.0, lat)));
+        return profiles.computeIfAbsent(band, this::buildProfile);
+    }
+
+    /**
+     * Build a clear-sky profile modulated by a deterministic sequence of day types, then normalise per month
+     */
+    private float[] buildProfile(int latitudeBand) {
+        double latitude = Math.toRadians(latitudeBand);
+        double[] hourly = new double[ReferenceYear.HOURS_PER_YEAR];
+        SplittableRandom random = new SplittableRandom(latitudeBand);
+
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            int monthIndex = ReferenceYear.monthOfDay(day) - 1;
+            double declination = Math.toRadians(23.45 * Math.sin(2 * Math.PI * (284 + day + 1) / 365.0));
+            double dayMultiplier = pickDayMultiplier(random.nextDouble(), monthIndex);
+
+            for (int hour = 0; hour < ReferenceYear.HOURS_PER_DAY; hour++) {
+                double hourAngle = Math.toRadians(15.0 * (hour + 0.5 - 12.0));
+                double sinElevation = Math.sin(latitude) * Math.sin(declination)
+                        + Math.cos(latitude) * Math.cos(declination) * Math.cos(hourAngle);
+                if (sinElevation <= 0) {
+                    continue;
+                }
+
+                // Clear-sky global irradiance: beam DNI = 1367 × 0.7^(AM^0.678) plus ~10% diffuse
+                double airMass = 1.0 / Math.max(sinElevation, 0.05);
+                double directNormal = 1367.0 * Math.pow(0.7, Math.pow(airMass, 0.678));
+                double clearSky = directNormal * sinElevation + 0.1 * directNormal;
+
+                hourly[day * ReferenceYear.HOURS_PER_DAY + hour] = clearSky * dayMultiplier;
+            }
+        }
+
+        float[] profile = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int month = 1; month <= 12; month++) {
+            int start = ReferenceYear.monthStartHour(month);
+            int end = ReferenceYear.monthEndHour(month);
+
+            double monthTotal = 0.0;
+            for (int h = start; h < end; h++) {
+                monthTotal += hourly[h];
+            }
+            if (monthTotal <= 0) {
+                continue;
+            }
+            for (int h = start; h < end; h++) {
+                profile[h] = (float) (hourly[h] / monthTotal);
+            }
+        }
+        return profile;
+    }
+
+    private double pickDayMultiplier(double draw, int monthIndex) {
+        if (draw < OVERCAST_PROBABILITY[monthIndex]) {
+            return DAY_TYPE_MULTIPLIERS[0];
+        }
+        if (draw < OVERCAST_PROBABILITY[monthIndex] + MIXED_PROBABILITY[monthIndex]) {
+            return DAY_TYPE_MULTIPLIERS[1];
+        }
+        return DAY_TYPE_MULTIPLIERS[2];
+    }
+}
@@ -2,6 +2,7 @@ package com.wx.renewableCalculator.backend.service;
 
 import com.wx.renewableCalculator.backend.dto.SolarPotentialRequest;
 import com.wx.renewableCalculator.backend.dto.SolarPotentialResult;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -12,6 +13,9 @@ import java.util.Map;
 @Service
 public class SolarPotentialService {
 
+    @Autowired
+    private HorizonShadingService horizonShadingService;
+
     // Solar panel size in square meters
     private static final Double SOLAR_PANEL_SIZE = 2.0;
 
@@ -95,6 +99,16 @@ public class SolarPotentialService {
     public SolarPotentialResult calculateSolarPotential(SolarPotentialRequest request) {
         // Get individual factors
         Double shadingFactor = SHADING_FACTORS.getOrDefault(request.getShadingLevel(), 1.0);
+        Map<Integer, BigDecimal> monthlyShadingFactors = null;
+        if (horizonShadingService.hasHorizonProfile(request.getHorizonProfile())) {
+            // Horizon profile replaces the categorical shading level
+            double[] monthlyFactors = horizonShadingService.calculateMonthlyShadingFactors(request.getLatitude(), request.getHorizonProfile());
+            shadingFactor = horizonShadingService.calculateAnnualShadingFactor(request.getLatitude(), monthlyFactors);
+            monthlyShadingFactors = new HashMap<>();
+            for (int month = 1; month <= 12; month++) {
+                monthlyShadingFactors.put(month, BigDecimal.valueOf(monthlyFactors[month - 1]).setScale(2, RoundingMode.HALF_UP));
+            }
+        }
         Double rawUtilisationFactor = UTILISATION_FACTORS.getOrDefault(request.getUtilisationLevel(), 0.95);
         Double tiltOrientationFactor = getTiltOrientationFactor(request.getTiltAngle(), request.getOrientation());
         
@@ -129,6 +143,7 @@ public class SolarPotentialService {
         result.setUtilisationFactor(BigDecimal.valueOf(adjustedUtilisationFactor).setScale(4, RoundingMode.HALF_UP));
         result.setTiltOrientationFactor(BigDecimal.valueOf(tiltOrientationFactor).setScale(2, RoundingMode.HALF_UP));
         result.setSolarPanelCount(solarPanelCount);
+        result.setMonthlyShadingFactors(monthlyShadingFactors);
         
         return result;
     }
@@ -0,0 +1,430 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.SystemSizingRequest;
+import com.wx.renewableCalculator.backend.dto.SystemSizingResult;
+import com.wx.renewableCalculator.backend.entity.Battery;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solar array and battery sizing for maximum lifetime NPV or fastest payback
+ * Every panel count from 1 to the roof maximum is evaluated with no battery and with each candidate battery.
+ * Self-consumption comes from the hourly balance, evaluated incrementally in the panel count n: with one panel's
+ * hourly generation g(h), the load l(h) and r(h) = l(h) / g(h),
+ * SC(n) = ∑ min(n × g(h), l(h)) = ∑ l(h) over r(h) ≤ n + n × ∑ g(h) over r(h) > n
+ * The hours are sorted by r once, with prefix sums of l and suffix sums of g (plain and price-weighted), so
+ * each panel count is a binary search rather than another pass over the year. Batteries are dispatched hourly.
+ * Solar and battery lifetime cash flows are added year by year, with any subsidy as income in year 0.
+ */
+@Service
+public class SystemSizingService {
+
+    public static final String OBJECTIVE_NPV = "npv";
+    public static final String OBJECTIVE_PAYBACK = "payback";
+
+    // Simplified seasonal UK yield per kW (kWh/kW per month), as used by the equipment comparison
+    static final double[] SEASONAL_YIELD_KWH_PER_KW = new double[12];
+    static {
+        double[] monthlyFactors = {0.6, 0.8, 1.2, 1.5, 1.8, 1.9, 2.0, 1.8, 1.4, 1.0, 0.7, 0.5};
+        for (int m = 0; m < 12; m++) {
+            SEASONAL_YIELD_KWH_PER_KW[m] = monthlyFactors[m] * 30 * 24 * 0.2;
+        }
+    }
+
+    static final int MAX_PANEL_COUNT = 500;                           // Upper bound on panels for any roof
+    private static final double DEFAULT_ROOF_AREA = 30.0;             // m²
+    private static final double DEFAULT_PANEL_PRICE = 300.0;          // £ per panel
+    private static final double DEFAULT_BATTERY_COST = 5000.0;        // £
+    private static final double DEFAULT_ELECTRICITY_RATE = 24.5;      // pence/kWh
+    private static final double DEFAULT_EXPORT_RATE = 15.0;           // pence/kWh
+
+    @Autowired
+    private EquipmentCatalogService equipmentCatalogService;
+
+    @Autowired
+    private SolarInstallationCostService solarInstallationCostService;
+
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+
+    @Autowired
+    private BatteryDispatchService batteryDispatchService;
+
+    @Autowired
+    private TariffScheduleService tariffScheduleService;
+
+    @Autowired
+    private LifetimeCashFlowService lifetimeCashFlowService;
+
+    /**
+     * Panels of this type that fit the roof, at most MAX_PANEL_COUNT
+     * @throws IllegalArgumentException when the panel has no positive size or rated power
+     */
+    static int roofPanelCount(SolarPanelType panel, double roofArea) {
+        if (panel.getPanelSize() == null || !(panel.getPanelSize() > 0)
+                || panel.getRatedPowerPerPanel() == null || !(panel.getRatedPowerPerPanel() > 0)) {
+            throw new IllegalArgumentException("Solar panel type " + panel.getId() + " has no valid panel size or rated power");
+        }
+        double panels = Math.floor(roofArea / panel.getPanelSize());
+        return panels > 0 ? (int) Math.min(panels, MAX_PANEL_COUNT) : 0;
+    }
+
+    /**
+     * Search panel count and battery for the request's objective
+     */
+    public SystemSizingResult optimiseSize(SystemSizingRequest request) {
+        SolarPanelType panel = request.getSolarPanelTypeId() != null
+            ? equipmentCatalogService.getSolarPanelCatalog().findById(request.getSolarPanelTypeId()) : null;
+        if (panel == null) {
+            throw new IllegalArgumentException("Unknown solar panel type: " + request.getSolarPanelTypeId());
+        }
+        String objective = request.getObjective() != null ? request.getObjective().toLowerCase() : OBJECTIVE_NPV;
+        if (!OBJECTIVE_NPV.equals(objective) && !OBJECTIVE_PAYBACK.equals(objective)) {
+            throw new IllegalArgumentException("Unknown sizing objective: " + request.getObjective());
+        }
+        double roofArea = request.getRoofArea() != null ? request.getRoofArea() : DEFAULT_ROOF_AREA;
+        int maxPanels = roofPanelCount(panel, roofArea);
+        if (request.getMaxPanelCount() != null) {
+            maxPanels = Math.min(maxPanels, request.getMaxPanelCount());
+        }
+        if (maxPanels < 1) {
+            throw new IllegalArgumentException("No panel of this type fits the roof");
+        }
+
+        // Hourly series for one panel and the household load
+        double panelKw = panel.getRatedPowerPerPanel() / 1000.0;
+        double[] yieldPerKw = monthlyYield(request);
+        double[] monthlyPanelGeneration = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthlyPanelGeneration[m] = panelKw * yieldPerKw[m];
+        }
+        float[] panelGeneration = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+        energyBalanceService.fillHourlySeries(monthlyPanelGeneration, monthlyUsage(request), request.getLatitude(),
+            request.getHomeOccupancyFactor(), request.getHasHeatPump(), panelGeneration, load);
+        float[] importPrices = request.getTariffId() != null ? tariffScheduleService.getHourlyPrices(request.getTariffId()) : null;
+        double electricityRate = request.getElectricityRate() != null ? request.getElectricityRate() : DEFAULT_ELECTRICITY_RATE;
+        double exportRate = request.getExportRate() != null ? request.getExportRate() : DEFAULT_EXPORT_RATE;
+        SelfConsumptionCurve curve = new SelfConsumptionCurve(panelGeneration, load, importPrices, electricityRate);
+
+        // Batteries are dispatched against the tariff, else time-of-use prices (as in the equipment comparison)
+        List<Battery> batteries = Boolean.TRUE.equals(request.getHasBattery()) ? candidateBatteries(request) : List.of();
+        float[] batteryPrices = batteries.isEmpty() ? null : importPrices != null ? importPrices
+            : batteryDispatchService.timeOfUsePrices(
+                request.getPeakElectricityRate() != null ? request.getPeakElectricityRate() : 35.0,
+                request.getOffPeakElectricityRate() != null ? request.getOffPeakElectricityRate() : 15.0,
+                request.getElectricityRate());
+        float[] generation = batteries.isEmpty() ? null : new float[ReferenceYear.HOURS_PER_YEAR];
+        BatteryDispatchService.BatterySpec[] specs = new BatteryDispatchService.BatterySpec[batteries.size()];
+        double[] batteryCosts = new double[batteries.size()];
+        double[][] batteryBaseFlows = new double[batteries.size()][];
+        double[][] batteryUnitFlows = new double[batteries.size()][];
+        for (int b = 0; b < specs.length; b++) {
+            Battery battery = batteries.get(b);
+            specs[b] = BatteryDispatchService.BatterySpec.of(battery);
+            batteryCosts[b] = battery.getCost() != null ? battery.getCost().doubleValue() : DEFAULT_BATTERY_COST;
+            // Cash flows are linear in first-year savings: flows(S) = base + S × unit
+            batteryBaseFlows[b] = cashFlows("battery", batteryCosts[b], 0.0, request);
+            batteryUnitFlows[b] = cashFlows("battery", batteryCosts[b], 1.0, request);
+            for (int t = 0; t < batteryUnitFlows[b].length; t++) {
+                batteryUnitFlows[b][t] -= batteryBaseFlows[b][t];
+            }
+        }
+        double subsidyAmount = request.getSubsidyAmount() != null ? Math.max(0.0, request.getSubsidyAmount()) : 0.0;
+        double panelPrice = panel.getPrice() != null ? panel.getPrice() : DEFAULT_PANEL_PRICE;
+
+        List<Candidate> best = new ArrayList<>(maxPanels);
+        for (int n = 1; n <= maxPanels; n++) {
+            double capacityKw = n * panelKw;
+            double solarCost = n * panelPrice + solarInstallationCostService.getAverageCost(capacityKw);
+            double annualGeneration = n * curve.totalGeneration;
+            double selfConsumed = curve.selfConsumed(n);
+            double solarSavings = (curve.selfConsumedValue(n) + (annualGeneration - selfConsumed) * exportRate) / 100.0;
+            double[] solarCashFlows = cashFlows("solar", solarCost, solarSavings, request);
+
+            Candidate choice = evaluate(n, null, solarCost, solarSavings, solarCashFlows, null, subsidyAmount, request);
+            if (!batteries.isEmpty()) {
+                for (int h = 0; h < generation.length; h++) {
+                    generation[h] = n * panelGeneration[h];
+                }
+                BatteryDispatchService.BatteryDispatchResult[] dispatches =
+                    batteryDispatchService.simulate(generation, load, batteryPrices, exportRate, specs);
+                for (int b = 0; b < specs.length; b++) {
+                    double batterySavings = dispatches[b].getAnnualSavings() / 100.0;
+                    double[] batteryCashFlows = new double[batteryBaseFlows[b].length];
+                    for (int t = 0; t < batteryCashFlows.length; t++) {
+                        batteryCashFlows[t] = batteryBaseFlows[b][t] + batterySavings * batteryUnitFlows[b][t];
+                    }
+                    choice = better(choice, evaluate(n, batteries.get(b), solarCost + batteryCosts[b], solarSavings + batterySavings,
+                        solarCashFlows, batteryCashFlows, subsidyAmount, request), objective);
+                }
+            }
+            if (choice != null) {
+                choice.capacityKw = capacityKw;
+                choice.generation = annualGeneration;
+                choice.selfConsumed = selfConsumed;
+                best.add(choice);
+            }
+        }
+
+        SystemSizingResult result = new SystemSizingResult();
+        result.setSolarPanelTypeId(panel.getId());
+        result.setSolarPanelName(panel.getName());
+        result.setObjective(objective);
+        result.setMaxPanelCount(maxPanels);
+        List<SystemSizingResult.SizingOption> options = new ArrayList<>(best.size());
+        Candidate optimum = null;
+        for (Candidate candidate : best) {
+            options.add(toOption(candidate));
+            optimum = better(optimum, candidate, objective);
+        }
+        result.setOptions(options);
+        result.setOptimum(optimum != null ? options.get(best.indexOf(optimum)) : null);
+        return result;
+    }
+
+    /**
+     * Panel count of the optimum (0 if no size fits the budget)
+     */
+    public int optimalPanelCount(SystemSizingRequest request) {
+        SystemSizingResult result = optimiseSize(request);
+        return result.getOptimum() != null ? result.getOptimum().getPanelCount() : 0;
+    }
+
+    /**
+     * Score one size, or null when its net cost is over budget
+     */
+    private Candidate evaluate(int panelCount, Battery battery, double installationCost, double annualSavings,
+                               double[] solarCashFlows, double[] batteryCashFlows, double subsidyAmount, SystemSizingRequest request) {
+        double subsidy = Math.min(subsidyAmount, installationCost);
+        double netCost = installationCost - subsidy;
+        if (request.getBudget() != null && netCost > request.getBudget()) {
+            return null;
+        }
+
+        // Solar and battery lifetimes differ; each contributes until its own end
+        int years = Math.max(solarCashFlows.length, batteryCashFlows != null ? batteryCashFlows.length : 0);
+        double[] combined = Arrays.copyOf(solarCashFlows, years);
+        if (batteryCashFlows != null) {
+            for (int t = 0; t < batteryCashFlows.length; t++) {
+                combined[t] += batteryCashFlows[t];
+            }
+        }
+        combined[0] += subsidy;
+        double[] cumulative = new double[years];
+        double running = 0.0;
+        for (int t = 0; t < years; t++) {
+            running += combined[t];
+            cumulative[t] = running;
+        }
+
+        Candidate candidate = new Candidate();
+        candidate.panelCount = panelCount;
+        candidate.battery = battery;
+        candidate.installationCost = installationCost;
+        candidate.subsidy = subsidy;
+        candidate.annualSavings = annualSavings;
+        candidate.npv = LifetimeCashFlowService.npv(combined,
+            request.getDiscountRate() != null ? request.getDiscountRate() : LifetimeCashFlowService.DEFAULT_DISCOUNT_RATE);
+        candidate.payback = LifetimeCashFlowService.paybackYears(cumulative);
+        return candidate;
+    }
+
+    /**
+     * Yearly cash flows with the equipment type's lifetime assumptions
+     */
+    private double[] cashFlows(String equipmentType, double installationCost, double annualSavings, SystemSizingRequest request) {
+        LifetimeCashFlowRequest cashFlowRequest = LifetimeCashFlowService.defaultsFor(equipmentType, installationCost, annualSavings, 0.0);
+        cashFlowRequest.setDiscountRate(request.getDiscountRate());
+        cashFlowRequest.setEnergyPriceEscalation(request.getEnergyPriceEscalation());
+        cashFlowRequest.setInflationRate(request.getInflationRate());
+        LifetimeCashFlowService.CashFlowProjection projection = lifetimeCashFlowService.project(cashFlowRequest);
+        double[] cashFlows = new double[projection.getLifetimeYears() + 1];
+        for (int t = 0; t < cashFlows.length; t++) {
+            cashFlows[t] = projection.getCashFlow(t);
+        }
+        return cashFlows;
+    }
+
+    /**
+     * Higher NPV, or shorter payback with NPV breaking ties; null candidates lose
+     */
+    private static Candidate better(Candidate current, Candidate candidate, String objective) {
+        if (candidate == null) {
+            return current;
+        }
+        if (current == null) {
+            return candidate;
+        }
+        if (OBJECTIVE_PAYBACK.equals(objective) && candidate.payback != current.payback) {
+            return candidate.payback < current.payback ? candidate : current;
+        }
+        return candidate.npv > current.npv ? candidate : current;
+    }
+
+    private List<Battery> candidateBatteries(SystemSizingRequest request) {
+        EquipmentCatalogService.Catalog<Battery, Integer> catalog = equipmentCatalogService.getBatteryCatalog();
+        if (request.getBatteryIds() == null) {
+            return catalog.getAll();
+        }
+        List<Battery> batteries = new ArrayList<>(request.getBatteryIds().size());
+        for (Long id : request.getBatteryIds()) {
+            Battery battery = id != null ? catalog.findById(id.intValue()) : null;
+            if (battery != null) {
+                batteries.add(battery);
+            }
+        }
+        return batteries;
+    }
+
+    private static double[] monthlyYield(SystemSizingRequest request) {
+        List<Double> values = request.getMonthlyYieldKwhPerKw();
+        if (values == null) {
+            return SEASONAL_YIELD_KWH_PER_KW;
+        }
+        if (values.size() != 12) {
+            throw new IllegalArgumentException("Monthly yield must contain 12 values");
+        }
+        double[] yield = new double[12];
+        for (int m = 0; m < 12; m++) {
+            yield[m] = values.get(m) != null ? values.get(m) : 0.0;
+        }
+        return yield;
+    }
+
+    private static double[] monthlyUsage(SystemSizingRequest request) {
+        if (request.getMonthlyElectricityUsageKwh() == null && request.getAnnualElectricityUsageKwh() == null) {
+            throw new IllegalArgumentException("Annual or monthly electricity usage is required");
+        }
+        double[] usage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            usage[m] = request.getMonthlyElectricityUsageKwh() != null ? request.getMonthlyElectricityUsageKwh()
+                : request.getAnnualElectricityUsageKwh() * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[m] / 100.0;
+        }
+        return usage;
+    }
+
+    private static SystemSizingResult.SizingOption toOption(Candidate candidate) {
+        SystemSizingResult.SizingOption option = new SystemSizingResult.SizingOption();
+        option.setPanelCount(candidate.panelCount);
+        option.setSystemCapacityKw(round(candidate.capacityKw));
+        if (candidate.battery != null) {
+            option.setBatteryId(candidate.battery.getId().longValue());
+            option.setBatteryName(candidate.battery.getName());
+            option.setBatteryCapacityKwh(candidate.battery.getCapacityKwh() != null ? candidate.battery.getCapacityKwh().doubleValue() : null);
+        }
+        option.setInstallationCost(round(candidate.installationCost));
+        option.setSubsidy(round(candidate.subsidy));
+        option.setNetCost(round(candidate.installationCost - candidate.subsidy));
+        option.setAnnualGeneration(round(candidate.generation));
+        option.setAnnualSelfConsumed(round(candidate.selfConsumed));
+        option.setSelfConsumptionRate(candidate.generation > 0 ? Math.round(candidate.selfConsumed / candidate.generation * 1000.0) / 1000.0 : 0.0);
+        option.setAnnualSavings(round(candidate.annualSavings));
+        option.setNetPresentValue(round(candidate.npv));
+        option.setPaybackYears(Double.isFinite(candidate.payback) ? round(candidate.payback) : null);
+        return option;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * One evaluated size
+     */
+    private static final class Candidate {
+        int panelCount;
+        Battery battery;
+        double capacityKw;
+        double installationCost;
+        double subsidy;
+        double generation;
+        double selfConsumed;
+        double annualSavings;
+        double npv;
+        double payback;
+    }
+
+    /**
+     * Self-consumed energy and its import value as a function of the panel count, from one pass over the year
+     */
+    static final class SelfConsumptionCurve {
+        final double totalGeneration;        // kWh for one panel
+        private final double[] ratios;       // r(h) = l(h) / g(h), ascending (hours without generation last)
+        private final double[] loadPrefix;   // ∑ l over the first k sorted hours
+        private final double[] loadValuePrefix;      // ∑ l × price
+        private final double[] generationSuffix;     // ∑ g from sorted hour k on
+        private final double[] generationValueSuffix; // ∑ g × price
+
+        /**
+         * @param importPrices Hourly import prices (pence/kWh), or null for a flat rate
+         */
+        SelfConsumptionCurve(float[] generation, float[] load, float[] importPrices, double flatRate) {
+            int hours = generation.length;
+            // Ratio bits in the high word, hour in the low word: non-negative float bits sort like the floats
+            long[] keys = new long[hours];
+            double total = 0.0;
+            for (int h = 0; h < hours; h++) {
+                float ratio = generation[h] > 0 ? Math.max(0.0f, load[h]) / generation[h] : Float.POSITIVE_INFINITY;
+                keys[h] = (long) Float.floatToIntBits(ratio) << 32 | h;
+                total += generation[h];
+            }
+            Arrays.sort(keys);
+
+            this.totalGeneration = total;
+            this.ratios = new double[hours];
+            this.loadPrefix = new double[hours + 1];
+            this.loadValuePrefix = new double[hours + 1];
+            this.generationSuffix = new double[hours + 1];
+            this.generationValueSuffix = new double[hours + 1];
+            for (int k = 0; k < hours; k++) {
+                int h = (int) keys[k];
+                double price = importPrices != null ? importPrices[h] : flatRate;
+                ratios[k] = Float.intBitsToFloat((int) (keys[k] >>> 32));
+                loadPrefix[k + 1] = loadPrefix[k] + load[h];
+                loadValuePrefix[k + 1] = loadValuePrefix[k] + load[h] * price;
+            }
+            for (int k = hours - 1; k >= 0; k--) {
+                int h = (int) keys[k];
+                double price = importPrices != null ? importPrices[h] : flatRate;
+                generationSuffix[k] = generationSuffix[k + 1] + generation[h];
+                generationValueSuffix[k] = generationValueSuffix[k + 1] + generation[h] * price;
+            }
+        }
+
+        /** Self-consumed kWh with n panels */
+        double selfConsumed(double n) {
+            int k = split(n);
+            return loadPrefix[k] + n * generationSuffix[k];
+        }
+
+        /** Import cost avoided by self-consumption with n panels (pence) */
+        double selfConsumedValue(double n) {
+            int k = split(n);
+            return loadValuePrefix[k] + n * generationValueSuffix[k];
+        }
+
+        /**
+         * Number of sorted hours whose load n panels cover (r(h) ≤ n)
+         */
+        private int split(double n) {
+            int low = 0;
+            int high = ratios.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ratios[mid] <= n) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.TariffComparisonRequest;
+import com.wx.renewableCalculator.backend.dto.TariffComparisonResult;
+import com.wx.renewableCalculator.backend.entity.Tariff;
+import com.wx.renewableCalculator.backend.repository.TariffRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service for ranking every electricity tariff against one household profile
+ * The half-hourly import and export profiles are built once; each tariff's compiled price array then gives
+ * Annual cost = ∑ price(t) × import(t) - export rate × ∑ export(t)
+ * Tariffs are evaluated in parallel. With a battery, it is dispatched against each tariff's own prices.
+ */
+@Service
+public class TariffComparisonService {
+
+    @Autowired
+    private TariffRepository tariffRepository;
+
+    @Autowired
+    private TariffScheduleService tariffScheduleService;
+
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+
+    @Autowired
+    private BatteryDispatchService batteryDispatchService;
+
+    /**
+     * Rank all electricity tariffs by annual net cost for the household
+     */
+    public TariffComparisonResult compareTariffs(TariffComparisonRequest request) {
+        long start = System.nanoTime();
+        double exportRate = request.getExportRate() != null ? request.getExportRate() : 0.0;
+
+        // Household profile, shared read-only by all tariff evaluations
+        float[] importKwh;
+        float[] exportKwh;
+        float[] hourlyGeneration = null;
+        float[] hourlyLoad = null;
+        if (request.getHalfHourlyImportKwh() != null) {
+            importKwh = checkProfile(request.getHalfHourlyImportKwh());
+            exportKwh = request.getHalfHourlyExportKwh() != null
+                ? checkProfile(request.getHalfHourlyExportKwh())
+                : new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        } else {
+            hourlyGeneration = new float[ReferenceYear.HOURS_PER_YEAR];
+            hourlyLoad = new float[ReferenceYear.HOURS_PER_YEAR];
+            energyBalanceService.fillHourlySeries(getMonthlyGeneration(request), getMonthlyUsage(request),
+                request.getLatitude(), request.getHomeOccupancyFactor(), request.getHasHeatPump(), hourlyGeneration, hourlyLoad);
+            importKwh = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+            exportKwh = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+            for (int h = 0; h < ReferenceYear.HOURS_PER_YEAR; h++) {
+                float net = hourlyLoad[h] - hourlyGeneration[h];
+                importKwh[2 * h] = importKwh[2 * h + 1] = Math.max(0.0f, net) * 0.5f;
+                exportKwh[2 * h] = exportKwh[2 * h + 1] = Math.max(0.0f, -net) * 0.5f;
+            }
+        }
+
+        double annualImportKwh = sum(importKwh);
+        double annualExportKwh = sum(exportKwh);
+        double[] monthlyExportRevenue = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            double exported = 0.0;
+            int end = ReferenceYear.monthEndHalfHour(month);
+            for (int t = ReferenceYear.monthStartHalfHour(month); t < end; t++) {
+                exported += exportKwh[t];
+            }
+            monthlyExportRevenue[month - 1] = exported * exportRate;
+        }
+
+        BatteryDispatchService.BatterySpec battery = hourlyGeneration != null
+                && request.getBatteryCapacityKwh() != null && request.getBatteryCapacityKwh() > 0
+            ? BatteryDispatchService.BatterySpec.of(request.getBatteryCapacityKwh(),
+                request.getBatteryMaxPowerKw(), request.getBatteryRoundTripEfficiency())
+            : null;
+
+        // Prices are compiled from the loaded tariffs on this thread (any published prices are read here),
+        // so the parallel evaluation below does no database work; tariffs without any price are skipped
+        List<Tariff> tariffs = new ArrayList<>();
+        List<float[]> tariffPrices = new ArrayList<>();
+        long cacheVersion = tariffScheduleService.getCacheVersion();
+        for (Tariff tariff : tariffRepository.findAll()) {
+            if (tariff.getType() != null && tariff.getType() != Tariff.EnergyType.electricity) {
+                continue;
+            }
+            float[] prices = tariffScheduleService.getHalfHourlyPrices(tariff, cacheVersion);
+            if (hasPrices(prices)) {
+                tariffs.add(tariff);
+                tariffPrices.add(prices);
+            }
+        }
+
+        // Evaluate each tariff in parallel; the inputs are read-only
+        float[] generation = hourlyGeneration;
+        float[] load = hourlyLoad;
+        List<TariffComparisonResult.TariffCost> costs = IntStream.range(0, tariffs.size()).parallel()
+            .mapToObj(i -> evaluateTariff(tariffs.get(i), tariffPrices.get(i), importKwh, monthlyExportRevenue,
+                annualImportKwh, generation, load, battery, exportRate))
+            .sorted(Comparator.comparingDouble(TariffComparisonResult.TariffCost::getAnnualNetCost))
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < costs.size(); i++) {
+            costs.get(i).setRank(i + 1);
+            costs.get(i).setDifferenceFromCheapest(costs.get(i).getAnnualNetCost() - costs.get(0).getAnnualNetCost());
+        }
+
+        TariffComparisonResult result = new TariffComparisonResult();
+        result.setTariffs(costs);
+        result.setTariffsEvaluated(costs.size());
+        result.setAnnualImportKwh(annualImportKwh);
+        result.setAnnualExportKwh(annualExportKwh);
+        result.setCalculationTimeMicros((System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    private TariffComparisonResult.TariffCost evaluateTariff(Tariff tariff, float[] prices, float[] importKwh,
+                                                             double[] monthlyExportRevenue, double annualImportKwh,
+                                                             float[] hourlyGeneration, float[] hourlyLoad,
+                                                             BatteryDispatchService.BatterySpec battery, double exportRate) {
+        double[] monthlyNetCost = new double[12];
+        double importCost = 0.0;
+        double exportRevenue = 0.0;
+        double importedKwh = annualImportKwh;
+
+        if (battery != null) {
+            BatteryDispatchService.BatteryDispatchResult dispatch = batteryDispatchService.simulate(hourlyGeneration,
+                hourlyLoad, TariffScheduleService.toHourly(prices), exportRate, battery);
+            importedKwh = 0.0;
+            for (int month = 1; month <= 12; month++) {
+                double revenue = dispatch.getExported(month) * exportRate;
+                monthlyNetCost[month - 1] = dispatch.getNetCost(month);
+                importCost += dispatch.getNetCost(month) + revenue;
+                exportRevenue += revenue;
+                importedKwh += dispatch.getImported(month);
+            }
+        } else {
+            double[] monthlyImportCost = TariffScheduleService.monthlyCost(prices, importKwh);
+            for (int month = 1; month <= 12; month++) {
+                monthlyNetCost[month - 1] = monthlyImportCost[month - 1] - monthlyExportRevenue[month - 1];
+                importCost += monthlyImportCost[month - 1];
+                exportRevenue += monthlyExportRevenue[month - 1];
+            }
+        }
+
+        TariffComparisonResult.TariffCost cost = new TariffComparisonResult.TariffCost();
+        cost.setTariffId(tariff.getId());
+        cost.setTariffName(tariff.getName());
+        cost.setAnnualImportCost(importCost / 100.0); // Convert pence to pounds
+        cost.setAnnualExportRevenue(exportRevenue / 100.0);
+        cost.setAnnualNetCost((importCost - exportRevenue) / 100.0);
+        cost.setAverageImportPrice(importedKwh > 0 ? importCost / importedKwh : 0.0);
+        List<Double> monthly = new ArrayList<>();
+        for (double value : monthlyNetCost) {
+            monthly.add(value / 100.0);
+        }
+        cost.setMonthlyNetCost(monthly);
+        return cost;
+    }
+
+    private double[] getMonthlyUsage(TariffComparisonRequest request) {
+        double[] usage = new double[12];
+        if (request.getMonthlyElectricityUsageKwh() != null && request.getMonthlyElectricityUsageKwh().size() == 12) {
+            for (int month = 0; month < 12; month++) {
+                Double value = request.getMonthlyElectricityUsageKwh().get(month);
+                usage[month] = value != null ? value : 0.0;
+            }
+            return usage;
+        }
+        if (request.getAnnualElectricityUsageKwh() == null || request.getAnnualElectricityUsageKwh() <= 0) {
+            throw new IllegalArgumentException("A half-hourly profile or electricity usage is required");
+        }
+        double[] proportions = Boolean.TRUE.equals(request.getHasHeatPump())
+            ? EnergyDemandService.HEAT_PUMP_MONTHLY_PROPORTIONS
+            : EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS;
+        for (int month = 0; month < 12; month++) {
+            usage[month] = request.getAnnualElectricityUsageKwh() * proportions[month] / 100.0;
+        }
+        return usage;
+    }
+
+    private double[] getMonthlyGeneration(TariffComparisonRequest request) {
+        double[] generation = new double[12];
+        if (request.getMonthlySolarGenerationKwh() != null && request.getMonthlySolarGenerationKwh().size() == 12) {
+            for (int month = 0; month < 12; month++) {
+                Double value = request.getMonthlySolarGenerationKwh().get(month);
+                generation[month] = value != null ? value : 0.0;
+            }
+        }
+        return generation;
+    }
+
+    private float[] checkProfile(float[] profile) {
+        if (profile.length != ReferenceYear.HALF_HOURS_PER_YEAR) {
+            throw new IllegalArgumentException("Half-hourly profiles must contain 17520 values");
+        }
+        return profile;
+    }
+
+    /**
+     * Whether a compiled tariff has any price (no base rate, priced band or published price compiles to all zeros)
+     */
+    private static boolean hasPrices(float[] prices) {
+        for (float price : prices) {
+            if (price != 0.0f) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double sum(float[] values) {
+        double total = 0.0;
+        for (float value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
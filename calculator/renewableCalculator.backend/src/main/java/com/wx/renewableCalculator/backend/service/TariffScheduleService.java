@@ -0,0 +1,361 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.Tariff;
+import com.wx.renewableCalculator.backend.entity.TariffPriceSeries;
+import com.wx.renewableCalculator.backend.entity.TariffRate;
+import com.wx.renewableCalculator.backend.repository.TariffPriceSeriesRepository;
+import com.wx.renewableCalculator.backend.repository.TariffRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for compiling tariff schedules into dense price arrays
+ * Every tariff becomes one float per half-hour of the reference year (17520 values, pence/kWh):
+ * base rate, then each band in order, then any published dynamic prices on top.
+ * Costing a half-hourly profile is then a single dot product:
+ * Cost = ∑ price(t) × energy(t)
+ */
+@Service
+public class TariffScheduleService {
+
+    @Autowired
+    private TariffRepository tariffRepository;
+
+    @Autowired
+    private TariffPriceSeriesRepository tariffPriceSeriesRepository;
+
+    // Default off-peak window (Economy 7 style) for peak/off-peak scalar rates
+    public static final LocalTime OFF_PEAK_START = LocalTime.of(0, 0);
+    public static final LocalTime OFF_PEAK_END = LocalTime.of(7, 0);
+
+    private static final int SLOT_MINUTES = 30;
+
+    // Compiled arrays by tariff id; shared between requests, must not be modified
+    private final Map<Integer, float[]> compiledPrices = new ConcurrentHashMap<>();
+
+    // Bumped by every eviction; a compile is only cached if no eviction happened since its tariff was read
+    private final AtomicLong cacheVersion = new AtomicLong();
+
+    /**
+     * Half-hourly import prices of a stored tariff (pence/kWh, 17520 values)
+     */
+    public float[] getHalfHourlyPrices(Integer tariffId) {
+        float[] prices = compiledPrices.get(tariffId);
+        if (prices != null) {
+            return prices;
+        }
+        long version = getCacheVersion();
+        Tariff tariff = tariffRepository.findById(tariffId)
+            .orElseThrow(() -> new IllegalArgumentException("Tariff not found: " + tariffId));
+        return getHalfHourlyPrices(tariff, version);
+    }
+
+    /**
+     * Half-hourly import prices of a tariff the caller has already loaded (only its published prices are read)
+     * @param loadedAtVersion Cache version captured before the tariff was loaded
+     */
+    public float[] getHalfHourlyPrices(Tariff tariff, long loadedAtVersion) {
+        float[] prices = compiledPrices.get(tariff.getId());
+        if (prices != null) {
+            return prices;
+        }
+        // Compiled outside the map so no map lock is held during database reads. The result is
+        // only stored if no eviction happened since the tariff was loaded: a tariff or price upload
+        // in flight may have been read half-way, so this request uses it but later ones read again.
+        float[] dynamicPrices = tariffPriceSeriesRepository.findById(tariff.getId())
+            .map(series -> decode(series.getHalfHourlyPrices()))
+            .orElse(null);
+        float[] compiled = compile(tariff, dynamicPrices);
+        float[] stored = compiledPrices.compute(tariff.getId(), (id, existing) ->
+            existing != null ? existing : cacheVersion.get() == loadedAtVersion ? compiled : null);
+        return stored != null ? stored : compiled;
+    }
+
+    /**
+     * Cache version to capture before loading tariffs that are passed to getHalfHourlyPrices(Tariff, long)
+     */
+    public long getCacheVersion() {
+        return cacheVersion.get();
+    }
+
+    /**
+     * Hourly import prices of a stored tariff (mean of each hour's two half-hours, 8760 values)
+     */
+    public float[] getHourlyPrices(Integer tariffId) {
+        return toHourly(getHalfHourlyPrices(tariffId));
+    }
+
+    /**
+     * Drop the compiled array after the tariff or its prices change (call after the change is saved)
+     * The version is bumped before removing, so a compile that read the old rows is either
+     * refused when it tries to store or removed here.
+     */
+    public void evict(Integer tariffId) {
+        if (tariffId != null) {
+            cacheVersion.incrementAndGet();
+            compiledPrices.remove(tariffId);
+        }
+    }
+
+    /**
+     * Store dynamic half-hourly prices from a CSV of (timestamp, price) rows
+     * Timestamps are ISO date-times; the year is ignored and 29 February is skipped.
+     * Half-hours without a published price keep the tariff's scheduled price.
+     *
+     * @return Number of half-hours priced
+     */
+    public int importDynamicPrices(Integer tariffId, InputStream input) throws IOException {
+        if (!tariffRepository.existsById(tariffId)) {
+            throw new IllegalArgumentException("Tariff not found: " + tariffId);
+        }
+
+        float[] prices = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        Arrays.fill(prices, Float.NaN);
+        int priced = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split(",");
+            if (fields.length < 2) {
+                continue;
+            }
+            LocalDateTime timestamp = parseTimestamp(fields[0].trim().replace("\"", ""));
+            Double price = parsePrice(fields[fields.length - 1].trim().replace("\"", ""));
+            if (timestamp == null || price == null) {
+                continue;
+            }
+            int slot = ReferenceYear.halfHourOfYear(timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+                timestamp.getHour(), timestamp.getMinute());
+            if (slot < 0) {
+                continue;
+            }
+            if (Float.isNaN(prices[slot])) {
+                priced++;
+            }
+            prices[slot] = price.floatValue();
+        }
+        if (priced == 0) {
+            throw new IllegalArgumentException("No half-hourly prices found");
+        }
+
+        TariffPriceSeries series = new TariffPriceSeries();
+        series.setTariffId(tariffId);
+        series.setHalfHourlyPrices(encode(prices));
+        tariffPriceSeriesRepository.save(series);
+        evict(tariffId);
+        return priced;
+    }
+
+    /**
+     * Compile a tariff into half-hourly prices
+     * @param dynamicPrices Published prices overriding the schedule (NaN where missing), or null
+     */
+    public static float[] compile(Tariff tariff, float[] dynamicPrices) {
+        float[] prices = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        Arrays.fill(prices, tariff.getPricePerKwh() != null ? tariff.getPricePerKwh().floatValue() : 0.0f);
+
+        if (tariff.getRates() != null) {
+            for (TariffRate rate : tariff.getRates()) {
+                if (rate.getPricePerKwh() != null) {
+                    applyRate(prices, rate);
+                }
+            }
+        }
+
+        if (dynamicPrices != null) {
+            for (int t = 0; t < prices.length; t++) {
+                if (!Float.isNaN(dynamicPrices[t])) {
+                    prices[t] = dynamicPrices[t];
+                }
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Half-hourly prices for scalar rates: off-peak 00:00-07:00 and peak otherwise,
+     * or a flat tariff when only one rate is known
+     */
+    public static float[] scalarPrices(Double peakRate, Double offPeakRate, Double flatRate) {
+        double flat = flatRate != null ? flatRate : 0.0;
+        double peak = peakRate != null ? peakRate : flat;
+        double offPeak = offPeakRate != null ? offPeakRate : peak;
+
+        Tariff tariff = new Tariff();
+        tariff.setPricePerKwh(BigDecimal.valueOf(peak));
+        tariff.getRates().add(new TariffRate(OFF_PEAK_START, OFF_PEAK_END, null, null, null,
+            BigDecimal.valueOf(offPeak)));
+        return compile(tariff, null);
+    }
+
+    /**
+     * Cost of a half-hourly energy profile (pence)
+     */
+    public static double cost(float[] halfHourlyPrices, float[] halfHourlyKwh) {
+        if (halfHourlyPrices.length != halfHourlyKwh.length) {
+            throw new IllegalArgumentException("Price and energy series must have the same length");
+        }
+        return dot(halfHourlyPrices, halfHourlyKwh, 0, halfHourlyPrices.length);
+    }
+
+    /**
+     * Cost of a half-hourly energy profile by month (pence, January at index 0)
+     */
+    public static double[] monthlyCost(float[] halfHourlyPrices, float[] halfHourlyKwh) {
+        if (halfHourlyPrices.length != ReferenceYear.HALF_HOURS_PER_YEAR || halfHourlyKwh.length != ReferenceYear.HALF_HOURS_PER_YEAR) {
+            throw new IllegalArgumentException("Price and energy series must contain 17520 half-hourly values");
+        }
+        double[] monthlyCost = new double[12];
+        for (int month = 1; month <= 12; month++) {
+            monthlyCost[month - 1] = dot(halfHourlyPrices, halfHourlyKwh,
+                ReferenceYear.monthStartHalfHour(month), ReferenceYear.monthEndHalfHour(month));
+        }
+        return monthlyCost;
+    }
+
+    /**
+     * Average each hour's two half-hourly prices (8760 values)
+     */
+    public static float[] toHourly(float[] halfHourlyPrices) {
+        float[] hourly = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int h = 0; h < hourly.length; h++) {
+            hourly[h] = (halfHourlyPrices[2 * h] + halfHourlyPrices[2 * h + 1]) * 0.5f;
+        }
+        return hourly;
+    }
+
+    /**
+     * Mean price of a month (pence/kWh)
+     */
+    public static double averagePrice(float[] halfHourlyPrices, int month) {
+        double total = 0.0;
+        int start = ReferenceYear.monthStartHalfHour(month);
+        int end = ReferenceYear.monthEndHalfHour(month);
+        for (int t = start; t < end; t++) {
+            total += halfHourlyPrices[t];
+        }
+        return total / (end - start);
+    }
+
+    /**
+     * ∑ a[t] × b[t] over [from, to), with four independent accumulators so the additions can overlap
+     */
+    private static double dot(float[] a, float[] b, int from, int to) {
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        double sum2 = 0.0;
+        double sum3 = 0.0;
+        int t = from;
+        for (; t + 3 < to; t += 4) {
+            sum0 += a[t] * b[t];
+            sum1 += a[t + 1] * b[t + 1];
+            sum2 += a[t + 2] * b[t + 2];
+            sum3 += a[t + 3] * b[t + 3];
+        }
+        for (; t < to; t++) {
+            sum0 += a[t] * b[t];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    private static void applyRate(float[] prices, TariffRate rate) {
+        float price = rate.getPricePerKwh().floatValue();
+        int startSlot = rate.getStartTime() != null ? slotOfDay(rate.getStartTime()) : 0;
+        int endSlot = rate.getEndTime() != null ? slotOfDay(rate.getEndTime()) : ReferenceYear.HALF_HOURS_PER_DAY;
+        if (endSlot == 0) {
+            endSlot = ReferenceYear.HALF_HOURS_PER_DAY; // 00:00 end means midnight
+        }
+        boolean[] inBand = new boolean[ReferenceYear.HALF_HOURS_PER_DAY];
+        for (int slot = 0; slot < inBand.length; slot++) {
+            inBand[slot] = startSlot < endSlot
+                ? slot >= startSlot && slot < endSlot
+                : slot >= startSlot || slot < endSlot;
+        }
+
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            if (!matchesDay(rate, day)) {
+                continue;
+            }
+            int offset = day * ReferenceYear.HALF_HOURS_PER_DAY;
+            for (int slot = 0; slot < inBand.length; slot++) {
+                if (inBand[slot]) {
+                    prices[offset + slot] = price;
+                }
+            }
+        }
+    }
+
+    private static boolean matchesDay(TariffRate rate, int day) {
+        if (rate.getDayType() == TariffRate.DayType.weekday && ReferenceYear.isWeekend(day)) {
+            return false;
+        }
+        if (rate.getDayType() == TariffRate.DayType.weekend && !ReferenceYear.isWeekend(day)) {
+            return false;
+        }
+        if (rate.getStartMonth() == null && rate.getEndMonth() == null) {
+            return true;
+        }
+        int month = ReferenceYear.monthOfDay(day);
+        int startMonth = rate.getStartMonth() != null ? rate.getStartMonth() : 1;
+        int endMonth = rate.getEndMonth() != null ? rate.getEndMonth() : 12;
+        return startMonth <= endMonth
+            ? month >= startMonth && month <= endMonth
+            : month >= startMonth || month <= endMonth;
+    }
+
+    private static int slotOfDay(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private LocalDateTime parseTimestamp(String text) {
+        try {
+            return OffsetDateTime.parse(text).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(text.replace(' ', 'T'));
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private Double parsePrice(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(float[] prices) {
+        ByteBuffer buffer = ByteBuffer.allocate(prices.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(prices);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length != ReferenceYear.HALF_HOURS_PER_YEAR * Float.BYTES) {
+            return null;
+        }
+        float[] prices = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(prices);
+        return prices;
+    }
+}
@@ -1,23 +1,51 @@
 package com.wx.renewableCalculator.backend.service;
 
+import com.wx.renewableCalculator.backend.dto.LocationSpecificYieldRequest;
+import com.wx.renewableCalculator.backend.dto.PanelSweepRequest;
+import com.wx.renewableCalculator.backend.dto.PanelSweepResult;
 import com.wx.renewableCalculator.backend.dto.TotalInstalledCapacityRequest;
 import com.wx.renewableCalculator.backend.dto.TotalInstalledCapacityResult;
 import com.wx.renewableCalculator.backend.entity.SolarPanelType;
-import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 public class TotalInstalledCapacityService {
 
     @Autowired
-    private SolarPanelTypeRepository solarPanelTypeRepository;
+    private EquipmentCatalogService equipmentCatalogService;
+
+    @Autowired
+    private LocationSpecificYieldService locationSpecificYieldService;
+
+    @Autowired
+    private SolarElectricityGenerationService solarElectricityGenerationService;
+
+    @Autowired
+    private SolarInstallationCostService solarInstallationCostService;
+
+    @Autowired
+    private HorizonShadingService horizonShadingService;
+
+    @Autowired
+    private EnergyBalanceService energyBalanceService;
+
+    // Sweep defaults
+    private static final double DEFAULT_SELF_CONSUMPTION_RATE = 0.4;  // Without usage, same as EquipmentComparisonService
+    private static final int SELF_CONSUMPTION_STEPS = 16;             // Hourly balances sampled across the capacity range
+    private static final double DEFAULT_ELECTRICITY_RATE = 24.5;      // pence/kWh
+    private static final double DEFAULT_EXPORT_RATE = 15.0;           // pence/kWh
+    private static final double DEFAULT_LATITUDE = 51.5074;           // London
+    private static final double DEFAULT_LONGITUDE = -0.1278;
 
     // Area utilisation factors (same as in SolarPotentialService)
     private static final Map<String, Double> AREA_UTILISATION_FACTORS = new HashMap<>();
@@ -35,13 +63,19 @@ public class TotalInstalledCapacityService {
      * @return Total installed capacity calculation results
      */
     public TotalInstalledCapacityResult calculateTotalInstalledCapacity(TotalInstalledCapacityRequest request) {
-        // Get solar panel specifications from database
-        Optional<SolarPanelType> solarPanelOpt = solarPanelTypeRepository.findById(request.getSolarPanelTypeId());
-        if (solarPanelOpt.isEmpty()) {
+        if (request.getRoofArea() == null || request.getRoofArea() <= 0) {
+            throw new IllegalArgumentException("Roof area must be greater than 0");
+        }
+
+        // Get solar panel specifications from the equipment catalog
+        SolarPanelType solarPanel = equipmentCatalogService.getSolarPanelCatalog().findById(request.getSolarPanelTypeId());
+        if (solarPanel == null) {
             throw new RuntimeException("Solar panel type not found with ID: " + request.getSolarPanelTypeId());
         }
-        
-        SolarPanelType solarPanel = solarPanelOpt.get();
+        if (solarPanel.getPanelSize() == null || !(solarPanel.getPanelSize() > 0)
+                || solarPanel.getRatedPowerPerPanel() == null || !(solarPanel.getRatedPowerPerPanel() > 0)) {
+            throw new IllegalArgumentException("Solar panel type " + solarPanel.getId() + " has no valid panel size or rated power");
+        }
         
         // Get area utilisation factor
         Double areaUtilisationFactor = AREA_UTILISATION_FACTORS.getOrDefault(request.getUtilisationLevel(), 0.85);
@@ -65,4 +99,197 @@ public class TotalInstalledCapacityService {
         
         return result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Evaluate every solar panel type in the catalog for one roof and location
+     * Panel Count = floor(Roof Area × Area Utilisation Factor / Solar Panel's Size), capped as in SystemSizingService
+     * Annual Generation = Capacity × Σ (Monthly Yield × Tilt and Orientation Factor × Shading Factor)
+     * Annual Savings = Self-consumed × Electricity Rate + Exported × Export Rate
+     * Payback = (Panel Cost + Installation Cost) / Annual Savings
+     *
+     * With an annual usage and no explicit rate, self-consumption comes from the hourly energy balance,
+     * sampled at evenly spaced capacities and interpolated per panel.
+     * The location yield is fetched once and all panels are then evaluated over column arrays.
+     */
+    public PanelSweepResult sweepPanelCatalog(PanelSweepRequest request) {
+        if (request.getRoofArea() == null || request.getRoofArea() <= 0) {
+            throw new IllegalArgumentException("Roof area must be greater than 0");
+        }
+
+        EquipmentCatalogService.SolarPanelCatalog catalog = equipmentCatalogService.getSolarPanelCatalog();
+        int size = catalog.size();
+
+        // Per-request constants
+        double areaUtilisationFactor = AREA_UTILISATION_FACTORS.getOrDefault(request.getUtilisationLevel(), 0.85);
+        double usableRoofArea = request.getRoofArea() * areaUtilisationFactor;
+        double[] monthlySpecificYield = calculateMonthlySpecificYield(request);
+        double specificYield = MonthlyValues.sum(monthlySpecificYield);
+        double selfConsumptionRate = request.getSelfConsumptionRate() != null
+                ? Math.max(0.0, Math.min(1.0, request.getSelfConsumptionRate()))
+                : DEFAULT_SELF_CONSUMPTION_RATE;
+        double electricityRate = (request.getElectricityRate() != null ? request.getElectricityRate() : DEFAULT_ELECTRICITY_RATE) / 100.0;
+        double exportRate = (request.getExportRate() != null ? request.getExportRate() : DEFAULT_EXPORT_RATE) / 100.0;
+        Double annualUsage = request.getAnnualElectricityUsageKwh();
+
+        int[] panelCounts = new int[size];
+        double[] capacities = new double[size];
+        double[] generation = new double[size];
+        double[] costs = new double[size];
+        double[] savings = new double[size];
+        double[] paybacks = new double[size];
+
+        double maxCapacity = 0.0;
+        for (int i = 0; i < size; i++) {
+            panelCounts[i] = SystemSizingService.roofPanelCount(catalog.get(i), usableRoofArea);
+            capacities[i] = panelCounts[i] * catalog.ratedPower(i) / 1000.0;
+            maxCapacity = Math.max(maxCapacity, capacities[i]);
+        }
+        double[] selfConsumedCurve = request.getSelfConsumptionRate() == null && annualUsage != null && annualUsage > 0
+                ? buildSelfConsumedCurve(request, monthlySpecificYield, annualUsage, maxCapacity)
+                : null;
+
+        for (int i = 0; i < size; i++) {
+            int count = panelCounts[i];
+            double capacityKw = capacities[i];
+            double annualGeneration = capacityKw * specificYield;
+
+            double selfConsumed;
+            if (selfConsumedCurve != null) {
+                selfConsumed = Math.min(annualGeneration, interpolate(selfConsumedCurve, maxCapacity, capacityKw));
+            } else {
+                selfConsumed = annualGeneration * selfConsumptionRate;
+                if (annualUsage != null && annualUsage >= 0) {
+                    selfConsumed = Math.min(selfConsumed, annualUsage);
+                }
+            }
+            double exported = annualGeneration - selfConsumed;
+
+            generation[i] = annualGeneration;
+            costs[i] = count * catalog.price(i) + solarInstallationCostService.getAverageCost(capacityKw);
+            savings[i] = selfConsumed * electricityRate + exported * exportRate;
+            paybacks[i] = savings[i] > 0 ? costs[i] / savings[i] : Double.POSITIVE_INFINITY;
+        }
+
+        String sortBy = request.getSortBy() != null ? request.getSortBy().toLowerCase() : "payback";
+        Integer[] order = sortOrder(sortBy, size, capacities, generation, costs, savings, paybacks);
+
+        List<PanelSweepResult.PanelOption> options = new ArrayList<>(size);
+        for (Integer i : order) {
+            PanelSweepResult.PanelOption option = new PanelSweepResult.PanelOption();
+            option.setSolarPanelTypeId(catalog.get(i).getId());
+            option.setSolarPanelName(catalog.get(i).getName());
+            option.setSolarPanelManufacturer(catalog.get(i).getManufacturer());
+            option.setPanelCount(panelCounts[i]);
+            option.setTotalInstalledCapacity(BigDecimal.valueOf(capacities[i]).setScale(2, RoundingMode.HALF_UP));
+            option.setAnnualGeneration(BigDecimal.valueOf(generation[i]).setScale(2, RoundingMode.HALF_UP));
+            option.setInstallationCost(BigDecimal.valueOf(costs[i]).setScale(2, RoundingMode.HALF_UP));
+            option.setAnnualSavings(BigDecimal.valueOf(savings[i]).setScale(2, RoundingMode.HALF_UP));
+            option.setPaybackPeriodYears(Double.isInfinite(paybacks[i]) ? null
+                    : BigDecimal.valueOf(paybacks[i]).setScale(2, RoundingMode.HALF_UP));
+            options.add(option);
+        }
+
+        PanelSweepResult result = new PanelSweepResult();
+        result.setRoofArea(BigDecimal.valueOf(request.getRoofArea()).setScale(2, RoundingMode.HALF_UP));
+        result.setAreaUtilisationFactor(BigDecimal.valueOf(areaUtilisationFactor).setScale(2, RoundingMode.HALF_UP));
+        result.setAnnualSpecificYield(BigDecimal.valueOf(specificYield).setScale(2, RoundingMode.HALF_UP));
+        result.setSortBy(sortBy);
+        result.setOptions(options);
+        return result;
+    }
+
+    /**
+     * Monthly yield per kWp for the location, corrected for tilt/orientation and shading
+     * (monthly horizon shading when a horizon profile is given, else the shading level's factor)
+     */
+    private double[] calculateMonthlySpecificYield(PanelSweepRequest request) {
+        double latitude = request.getLatitude() != null ? request.getLatitude() : DEFAULT_LATITUDE;
+        LocationSpecificYieldRequest yieldRequest = new LocationSpecificYieldRequest();
+        yieldRequest.setLatitude(latitude);
+        yieldRequest.setLongitude(request.getLongitude() != null ? request.getLongitude() : DEFAULT_LONGITUDE);
+        double[] monthlyYield = locationSpecificYieldService.calculateMonthlyYield(yieldRequest).yield();
+
+        double tiltOrientationFactor = solarElectricityGenerationService.getTiltOrientationCorrectionFactor(request.getTiltAngle(), request.getOrientation());
+        double[] shadingFactors = horizonShadingService.hasHorizonProfile(request.getHorizonProfile())
+                ? horizonShadingService.calculateMonthlyShadingFactors(latitude, request.getHorizonProfile())
+                : null;
+        double shadingFactor = shadingFactors == null
+                ? solarElectricityGenerationService.getShadingCorrectionFactor(request.getShadingLevel()) : 1.0;
+
+        double[] specificYield = new double[12];
+        for (int m = 0; m < 12; m++) {
+            specificYield[m] = monthlyYield[m] * tiltOrientationFactor * (shadingFactors != null ? shadingFactors[m] : shadingFactor);
+        }
+        return specificYield;
+    }
+
+    /**
+     * Annual self-consumed kWh at evenly spaced capacities from 0 to the largest option, from the hourly balance
+     * of generation against the annual usage spread over the standard monthly proportions
+     */
+    private double[] buildSelfConsumedCurve(PanelSweepRequest request, double[] monthlySpecificYield,
+                                            double annualUsage, double maxCapacity) {
+        double[] usage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            usage[m] = annualUsage * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[m] / 100.0;
+        }
+        double latitude = request.getLatitude() != null ? request.getLatitude() : DEFAULT_LATITUDE;
+        double[] generation = new double[12];
+        double[] curve = new double[SELF_CONSUMPTION_STEPS + 1];
+        for (int step = 1; step <= SELF_CONSUMPTION_STEPS && maxCapacity > 0; step++) {
+            double capacity = maxCapacity * step / SELF_CONSUMPTION_STEPS;
+            for (int m = 0; m < 12; m++) {
+                generation[m] = monthlySpecificYield[m] * capacity;
+            }
+            curve[step] = energyBalanceService.calculateMonthly(generation, usage, latitude,
+                    request.getHomeOccupancyFactor(), request.getHasHeatPump()).getAnnualSelfConsumed();
+        }
+        return curve;
+    }
+
+    /**
+     * Linear interpolation of a curve sampled at evenly spaced capacities from 0 to maxCapacity
+     */
+    static double interpolate(double[] curve, double maxCapacity, double capacity) {
+        if (!(maxCapacity > 0)) {
+            return 0.0;
+        }
+        double position = Math.max(0.0, Math.min(1.0, capacity / maxCapacity)) * (curve.length - 1);
+        int index = Math.min((int) position, curve.length - 2);
+        return curve[index] + (curve[index + 1] - curve[index]) * (position - index);
+    }
+
+    /**
+     * Index order for the requested sort key (ascending for cost and payback, descending otherwise)
+     */
+    private Integer[] sortOrder(String sortBy, int size, double[] capacities, double[] generation,
+                                double[] costs, double[] savings, double[] paybacks) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        Comparator<Integer> comparator;
+        switch (sortBy) {
+            case "capacity":
+                comparator = Comparator.comparingDouble((Integer i) -> capacities[i]).reversed();
+                break;
+            case "generation":
+                comparator = Comparator.comparingDouble((Integer i) -> generation[i]).reversed();
+                break;
+            case "cost":
+                comparator = Comparator.comparingDouble((Integer i) -> costs[i]);
+                break;
+            case "savings":
+                comparator = Comparator.comparingDouble((Integer i) -> savings[i]).reversed();
+                break;
+            case "payback":
+                comparator = Comparator.comparingDouble((Integer i) -> paybacks[i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported sort key: " + sortBy);
+        }
+        Arrays.sort(order, comparator);
+        return order;
+    }
+}
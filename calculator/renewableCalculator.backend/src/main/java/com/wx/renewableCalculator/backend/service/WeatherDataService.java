@@ -0,0 +1,72 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Service for historical weather data from the Open-Meteo archive API
+ * Daily mean temperatures of the 2023 reference year feed the household thermal model and the archetype demand cube.
+ */
+@Service
+public class WeatherDataService {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Get daily mean outdoor temperatures from OpenMeteo API
+     * @return Mean outdoor temperature for each day of the reference year (365 values), or null if unavailable
+     */
+    public double[] getDailyTemperatures(double latitude, double longitude) {
+        double[] dailyTemperatures = new double[ReferenceYear.DAYS_PER_YEAR];
+
+        try {
+            String url = String.format(
+                "https://archive-api.open-meteo.com/v1/archive?latitude=%.4f&longitude=%.4f" +
+                "&start_date=2023-01-01&end_date=2023-12-31&daily=temperature_2m_mean&timezone=auto",
+                latitude, longitude
+            );
+
+            String response = restTemplate.getForObject(url, String.class);
+            JsonNode root = objectMapper.readTree(response);
+            JsonNode dailyTemps = root.path("daily").path("temperature_2m_mean");
+
+            // Monthly averages fill any days missing from the response
+            double[] monthlySum = new double[12];
+            int[] monthlyCounts = new int[12];
+            boolean[] present = new boolean[ReferenceYear.DAYS_PER_YEAR];
+
+            for (int day = 0; day < dailyTemps.size() && day < ReferenceYear.DAYS_PER_YEAR; day++) {
+                JsonNode value = dailyTemps.get(day);
+                if (value == null || !value.isNumber()) {
+                    continue;
+                }
+                int month = ReferenceYear.monthOfDay(day);
+                dailyTemperatures[day] = value.asDouble();
+                present[day] = true;
+                monthlySum[month - 1] += dailyTemperatures[day];
+                monthlyCounts[month - 1]++;
+            }
+
+            for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+                if (!present[day]) {
+                    int month = ReferenceYear.monthOfDay(day);
+                    dailyTemperatures[day] = monthlyCounts[month - 1] > 0
+                        ? monthlySum[month - 1] / monthlyCounts[month - 1]
+                        : 5.0; // Default temperature
+                }
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error fetching weather data: " + e.getMessage());
+            return null;
+        }
+
+        return dailyTemperatures;
+    }
+}
@@ -0,0 +1,159 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.City;
+import com.wx.renewableCalculator.backend.repository.CityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchetypeDemandCubeServiceTest {
+
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+    private volatile boolean weatherAvailable = true;
+    private ArchetypeDemandCubeService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void testFindSlot_BuildsCellOnFirstRequest() throws InterruptedException {
+        // Given: an empty cube and a constant 5 °C climate
+        service = createService(4, List.of());
+
+        // When: a location is requested, then requested again once built
+        assertEquals(-1, service.findSlot(51.5, -0.12));
+        int slot = awaitSlot(51.5, -0.12);
+
+        // Then: the slab holds the thermal model's values and the cell's temperatures
+        assertEquals(0, slot);
+        double[] monthly = HouseholdThermalModelService.monthlyMeans(service.getDailyTemperatures(slot));
+        for (int month = 1; month <= 12; month++) {
+            double expected = HouseholdThermalModelService.spaceHeatingPerArea(
+                HouseholdThermalModelService.heatLossCoefficient(7), monthly[month - 1], month);
+            assertEquals(expected, service.getSpaceHeatingPerArea(slot, 7, month), 1e-4);
+            assertEquals(HouseholdThermalModelService.hotWaterDemand(3, month), service.getHotWater(3, month), 1e-3);
+        }
+        assertEquals(slot, service.findSlot(51.51, -0.10));
+        assertEquals(1, weatherCalls.get());
+
+        // Locations outside the UK grid are never cached
+        assertEquals(-1, service.findSlot(40.4, -3.7));
+    }
+
+    @Test
+    void testFindSlot_CapacityReachedLeavesCellsUncached() throws InterruptedException {
+        // Given: a cube with room for two cells
+        service = createService(2, List.of());
+
+        // When: three different cells are requested
+        service.findSlot(51.5, -0.12);
+        service.findSlot(53.48, -2.24);
+        int first = awaitSlot(51.5, -0.12);
+        int second = awaitSlot(53.48, -2.24);
+
+        // Then: the first two are cached and the third keeps using the model without fetching weather
+        assertEquals(List.of(0, 1), Arrays.asList(Math.min(first, second), Math.max(first, second)));
+        assertEquals(-1, service.findSlot(55.95, -3.19));
+        assertEquals(2, weatherCalls.get());
+    }
+
+    @Test
+    void testFindSlot_WeatherUnavailableRetriedLater() throws InterruptedException {
+        // Given: the weather archive is down
+        service = createService(4, List.of());
+        weatherAvailable = false;
+        service.findSlot(51.5, -0.12);
+        awaitWeatherCalls(1);
+
+        // When: the archive is back and the location is requested again
+        weatherAvailable = true;
+
+        // Then: the cell is built on a later request
+        assertEquals(0, awaitSlot(51.5, -0.12));
+    }
+
+    @Test
+    void testQueueCityCells_PrecomputesCityLocations() throws InterruptedException {
+        // Given: two cities in the same cell, one elsewhere and one without coordinates
+        service = createService(4, List.of(city(51.50, -0.12), city(51.55, -0.05), city(52.48, -1.90), city(null, null)));
+
+        // When: the application is ready
+        service.queueCityCells();
+        awaitWeatherCalls(2);
+
+        // Then: one cell per distinct location is built
+        assertTrue(awaitSlot(51.5, -0.12) >= 0);
+        assertTrue(awaitSlot(52.48, -1.90) >= 0);
+        assertEquals(2, weatherCalls.get());
+    }
+
+    @Test
+    void testStart_InvalidCapacityRejected() {
+        ArchetypeDemandCubeService invalid = new ArchetypeDemandCubeService();
+        ReflectionTestUtils.setField(invalid, "maxCells", 0);
+
+        assertThrows(IllegalStateException.class, invalid::start);
+    }
+
+    private ArchetypeDemandCubeService createService(int maxCells, List<City> cities) {
+        ArchetypeDemandCubeService created = new ArchetypeDemandCubeService();
+        ReflectionTestUtils.setField(created, "maxCells", maxCells);
+        ReflectionTestUtils.setField(created, "weatherDataService", new WeatherDataService() {
+            @Override
+            public double[] getDailyTemperatures(double latitude, double longitude) {
+                weatherCalls.incrementAndGet();
+                if (!weatherAvailable) {
+                    return null;
+                }
+                double[] temperatures = new double[ReferenceYear.DAYS_PER_YEAR];
+                Arrays.fill(temperatures, 5.0);
+                return temperatures;
+            }
+        });
+        ReflectionTestUtils.setField(created, "cityRepository", Proxy.newProxyInstance(CityRepository.class.getClassLoader(),
+            new Class<?>[]{CityRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                    return cities;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }));
+        created.start();
+        return created;
+    }
+
+    private int awaitSlot(double latitude, double longitude) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            int slot = service.findSlot(latitude, longitude);
+            if (slot >= 0) {
+                return slot;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Cell was not built");
+    }
+
+    private void awaitWeatherCalls(int calls) throws InterruptedException {
+        for (int attempt = 0; attempt < 500 && weatherCalls.get() < calls; attempt++) {
+            Thread.sleep(10);
+        }
+        assertTrue(weatherCalls.get() >= calls);
+    }
+
+    private static City city(Double latitude, Double longitude) {
+        City city = new City();
+        city.setLatitude(latitude);
+        city.setLongitude(longitude);
+        return city;
+    }
+}
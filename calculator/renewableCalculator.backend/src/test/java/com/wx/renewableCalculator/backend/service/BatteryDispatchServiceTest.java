@@ -0,0 +1,81 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatteryDispatchServiceTest {
+
+    private BatteryDispatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatteryDispatchService();
+    }
+
+    @Test
+    void testSimulate_ShiftsSolarSurplusToEvening() {
+        // Given: 4 kWh solar surplus at noon, 4 kWh load at 20:00, flat 30p tariff, no export payment
+        float[] generation = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            generation[day * 24 + 12] = 4.0f;
+            load[day * 24 + 20] = 4.0f;
+        }
+        float[] prices = service.timeOfUsePrices(null, null, 30.0);
+
+        // When: a 10 kWh battery with 81% round-trip efficiency (90% each way)
+        BatteryDispatchService.BatteryDispatchResult result = service.simulate(generation, load, prices, 0.0,
+            BatteryDispatchService.BatterySpec.of(10.0, 5.0, 0.81));
+
+        // Then: 4 kWh stored as 3.6 kWh, 3.24 kWh delivered each evening
+        assertEquals(31 * 4.0, result.getSolarCharged(1), 0.01);
+        assertEquals(31 * 3.24, result.getDischarged(1), 0.01);
+        assertEquals(0.0, result.getGridCharged(1), 0.001);
+        assertEquals(0.0, result.getExported(1), 0.001);
+        assertEquals(31 * 3.24 * 30.0, result.getSavings(1), 0.5);
+    }
+
+    @Test
+    void testSimulate_ChargesOffPeakForEveningPeak() {
+        // Given: 3 kWh load at 18:00, 30p peak and 10p off-peak, no solar
+        float[] generation = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            load[day * 24 + 18] = 3.0f;
+        }
+        float[] prices = service.timeOfUsePrices(30.0, 10.0, null);
+
+        // When: a 10 kWh battery at 81% round-trip efficiency
+        BatteryDispatchService.BatteryDispatchResult result = service.simulate(generation, load, prices, 0.0,
+            BatteryDispatchService.BatterySpec.of(10.0, 5.0, 0.81));
+
+        // Then: only the energy the peak can use is bought off-peak
+        double gridChargedPerDay = 3.0 / 0.81;
+        assertEquals(31 * gridChargedPerDay, result.getGridCharged(1), 0.01);
+        assertEquals(31 * 3.0, result.getDischarged(1), 0.01);
+        assertEquals(0.0, result.getImported(1) - result.getGridCharged(1), 0.01);
+        assertEquals(31 * (3.0 * 30.0 - gridChargedPerDay * 10.0), result.getSavings(1), 0.5);
+        assertEquals(365 * 3.0 / 10.0, result.getEquivalentCycles(), 0.01);
+    }
+
+    @Test
+    void testSimulate_NoArbitrageWhenLossesExceedSpread() {
+        // Given: 12p peak and 11p off-peak, a spread smaller than the round-trip loss
+        float[] generation = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+        Arrays.fill(load, 0.5f);
+        float[] prices = service.timeOfUsePrices(12.0, 11.0, null);
+
+        // When: simulating with the default efficiency
+        BatteryDispatchService.BatteryDispatchResult result = service.simulate(generation, load, prices, 0.0,
+            BatteryDispatchService.BatterySpec.of(10.0, null, null));
+
+        // Then: the battery stays idle
+        assertEquals(0.0, result.getGridCharged(6), 0.001);
+        assertEquals(0.0, result.getAnnualSavings(), 0.001);
+    }
+}
@@ -0,0 +1,143 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCarbonResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarbonImpactServiceTest {
+    
+    @TempDir
+    Path dataDirectory;
+    
+    private GridTrajectoryService gridTrajectoryService;
+    private CarbonImpactService service;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        // Local scenario: 200 g/kWh in 2030 falling to 100 g/kWh in 2040, flat across months
+        StringBuilder csv = new StringBuilder("year,jan,feb,mar,apr,may,jun,jul,aug,sep,oct,nov,dec\n");
+        csv.append("2030").append(",200".repeat(12)).append('\n');
+        csv.append("2040").append(",100".repeat(12)).append('\n');
+        Files.writeString(dataDirectory.resolve("test-pathway.csv"), csv.toString());
+        
+        gridTrajectoryService = new GridTrajectoryService();
+        ReflectionTestUtils.setField(gridTrajectoryService, "dataDirectory", dataDirectory.toString());
+        gridTrajectoryService.loadTrajectories();
+        
+        service = new CarbonImpactService();
+        ReflectionTestUtils.setField(service, "gridTrajectoryService", gridTrajectoryService);
+    }
+    
+    @Test
+    void testIntensityMatrix_InterpolatesAndHoldsEnds() {
+        assertTrue(gridTrajectoryService.hasScenario("test-pathway"));
+        assertTrue(gridTrajectoryService.hasScenario("fast-decarbonisation"));
+        
+        double[] matrix = gridTrajectoryService.getIntensityMatrix("test-pathway", 2028, 15);
+        assertEquals(15 * 12, matrix.length);
+        assertEquals(0.2, matrix[0], 1e-9);              // 2028 holds the first year
+        assertEquals(0.15, matrix[7 * 12 + 5], 1e-9);    // 2035 halfway
+        assertEquals(0.1, matrix[14 * 12 + 11], 1e-9);   // 2042 holds the last year
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> gridTrajectoryService.getIntensityMatrix("unknown", 2030, 5));
+    }
+    
+    @Test
+    void testLoadTrajectories_MalformedLocalFilesSkipped() throws IOException {
+        // Given: a bad number, a short row, an empty trailing header field, and a broken bundled override
+        Files.writeString(dataDirectory.resolve("bad-number.csv"), "year,intensity\n2030,abc\n");
+        Files.writeString(dataDirectory.resolve("short-row.csv"), "year,jan,feb\n2030,200,190\n");
+        Files.writeString(dataDirectory.resolve("empty-header.csv"), "year,intensity,\n2030,120\n2040,60\n");
+        Files.writeString(dataDirectory.resolve("fast-decarbonisation.csv"), "year,intensity\n2030,\n");
+        
+        // When: loading the trajectories
+        gridTrajectoryService.loadTrajectories();
+        
+        // Then: malformed files are skipped, the bundled scenario stays, and valid files still load
+        assertFalse(gridTrajectoryService.hasScenario("bad-number"));
+        assertFalse(gridTrajectoryService.hasScenario("short-row"));
+        assertTrue(gridTrajectoryService.hasScenario("fast-decarbonisation"));
+        assertTrue(gridTrajectoryService.getIntensityMatrix("fast-decarbonisation", 2025, 1)[0] > 0.0);
+        assertTrue(gridTrajectoryService.hasScenario("test-pathway"));
+        assertTrue(gridTrajectoryService.hasScenario("empty-header"));
+        double[] annual = gridTrajectoryService.getIntensityMatrix("empty-header", 2035, 1);
+        assertEquals(0.09, Arrays.stream(annual).average().orElseThrow(), 1e-9);
+    }
+    
+    @Test
+    void testProjectLifetimeCarbon_CurrentGridMatchesConstantIntensity() {
+        LifetimeCarbonRequest request = new LifetimeCarbonRequest();
+        request.setSolarGenerationKwh(monthly(300.0));
+        request.setStartYear(2030);
+        request.setLifetimeYears(10);
+        request.setDegradationRate(0.0);
+        request.setTrajectories(List.of(CarbonImpactService.CURRENT_GRID_TRAJECTORY));
+        
+        LifetimeCarbonResult result = service.projectLifetimeCarbon(request);
+        
+        LifetimeCarbonResult.TrajectoryProjection projection = result.getProjections().get(0);
+        assertEquals(3600.0 * 0.233 * 10, projection.getLifetimeCarbonSavingsKg(), 0.01);
+        assertEquals(0.0, projection.getHeatPumpCarbonSavingsKg(), 0.01);
+        assertEquals(10, projection.getYearlyCarbonSavingsKg().length);
+        assertEquals(3600.0 * 0.233, projection.getYearlyCarbonSavingsKg()[9], 0.01);
+    }
+    
+    @Test
+    void testProjectLifetimeCarbon_DecarbonisationShiftsSavingsToHeatPump() {
+        LifetimeCarbonRequest request = new LifetimeCarbonRequest();
+        request.setSolarGenerationKwh(monthly(300.0));
+        request.setHeatPumpElectricityKwh(monthly(250.0));
+        request.setFuelReplacedKwh(monthly(750.0));
+        request.setStartYear(2030);
+        request.setLifetimeYears(11);
+        request.setDegradationRate(0.0);
+        request.setTrajectories(List.of(CarbonImpactService.CURRENT_GRID_TRAJECTORY, "test-pathway"));
+        
+        LifetimeCarbonResult result = service.projectLifetimeCarbon(request);
+        
+        assertEquals(2, result.getProjections().size());
+        LifetimeCarbonResult.TrajectoryProjection flat = result.getProjections().get(0);
+        LifetimeCarbonResult.TrajectoryProjection pathway = result.getProjections().get(1);
+        
+        // 2030..2040 averages 150 g/kWh: solar displaces 3600 kWh × 0.15 × 11 years
+        assertEquals(3600.0 * 0.15 * 11, pathway.getSolarCarbonSavingsKg(), 0.01);
+        assertEquals(0.15, pathway.getAverageGridIntensity(), 1e-4);
+        assertTrue(pathway.getSolarCarbonSavingsKg() < flat.getSolarCarbonSavingsKg());
+        assertTrue(pathway.getHeatPumpCarbonSavingsKg() > flat.getHeatPumpCarbonSavingsKg());
+        
+        // Heat pump savings grow as the grid cleans up
+        double[] yearly = pathway.getYearlyCarbonSavingsKg();
+        double fuelKg = 9000.0 * 0.185;
+        assertEquals(3600.0 * 0.2 + fuelKg - 3000.0 * 0.2, yearly[0], 0.01);
+        assertEquals(3600.0 * 0.1 + fuelKg - 3000.0 * 0.1, yearly[10], 0.01);
+    }
+    
+    @Test
+    void testProjectLifetimeCarbon_RejectsInvalidInput() {
+        LifetimeCarbonRequest request = new LifetimeCarbonRequest();
+        request.setSolarGenerationKwh(new double[6]);
+        assertThrows(IllegalArgumentException.class, () -> service.projectLifetimeCarbon(request));
+        
+        request.setSolarGenerationKwh(monthly(100.0));
+        request.setTrajectories(List.of("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> service.projectLifetimeCarbon(request));
+    }
+    
+    private static double[] monthly(double value) {
+        double[] values = new double[12];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
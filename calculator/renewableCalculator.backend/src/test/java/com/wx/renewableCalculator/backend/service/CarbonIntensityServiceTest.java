@@ -0,0 +1,133 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarbonIntensityServiceTest {
+
+    private static final int STORE_BYTES = 12 + 32 + ReferenceYear.HALF_HOURS_PER_YEAR * Float.BYTES;
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void testLoadStore_BuildsAndMapsRegionalSeries() throws IOException {
+        // Given: a full year for Scotland and three readings for North Wales on 1 January
+        writeSeries("Scotland", 50, 2023);
+        Files.writeString(dataDirectory.resolve("North Wales.csv"), "from,intensity\n"
+            + "2023-01-01T00:00Z,120\n2023-01-01T00:30Z,140\n2023-01-01T01:00Z,not a number\n2023-01-01 01:30,160\n");
+
+        // When: loading the store
+        CarbonIntensityService service = load();
+
+        // Then: both regions are mapped; missing half-hours take the same time of day in the month, or the overall mean
+        assertTrue(Files.exists(dataDirectory.resolve("carbon-intensity.bin")));
+        assertEquals(List.of("north-wales", "scotland"), service.getRegions());
+        assertTrue(service.hasRegion("North Wales"));
+        assertFalse(service.hasRegion("london"));
+        assertNull(service.getHourlyIntensity("london"));
+        assertNull(service.getMonthlyMeanIntensity(null));
+
+        IntToDoubleFunction wales = service.getHourlyIntensity("north-wales");
+        assertEquals(0.130, wales.applyAsDouble(0), 1e-6);
+        assertEquals(0.140, wales.applyAsDouble(24 * 40), 1e-6);
+        double[] scotland = service.getMonthlyMeanIntensity("Scotland");
+        assertEquals(12, scotland.length);
+        assertEquals(0.050, scotland[0], 1e-6);
+        assertSame(scotland, service.getMonthlyMeanIntensity("scotland"));
+    }
+
+    @Test
+    void testLoadStore_RebuiltOnlyWhenCsvIsNewer() throws IOException {
+        // Given: a store built from a 50 g/kWh series
+        Path csv = writeSeries("Scotland", 50, 2023);
+        Path store = dataDirectory.resolve("carbon-intensity.bin");
+        load();
+        FileTime built = Files.getLastModifiedTime(store);
+
+        // When: the CSV changes but keeps an older timestamp, the store is reused
+        writeSeries("Scotland", 80, 2023);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(built.toMillis() - 60_000));
+        assertEquals(0.050, load().getMonthlyMeanIntensity("scotland")[3], 1e-6);
+        assertEquals(built, Files.getLastModifiedTime(store));
+
+        // When: the CSV is newer than the store, it is re-imported
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(built.toMillis() + 60_000));
+        assertEquals(0.080, load().getMonthlyMeanIntensity("scotland")[3], 1e-6);
+    }
+
+    @Test
+    void testLoadStore_TruncatedOrCorruptStoreRebuilt() throws IOException {
+        // Given: a valid store whose source CSV is older than the store
+        Path csv = writeSeries("Scotland", 50, 2023);
+        Path store = dataDirectory.resolve("carbon-intensity.bin");
+        load();
+        assertEquals(STORE_BYTES, Files.size(store));
+        byte[] valid = Files.readAllBytes(store);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(0));
+
+        // When/Then: a truncated store is rebuilt from the CSV
+        Files.write(store, Arrays.copyOf(valid, valid.length / 2));
+        assertEquals(0.050, load().getMonthlyMeanIntensity("scotland")[0], 1e-6);
+        assertEquals(STORE_BYTES, Files.size(store));
+
+        // When/Then: so is a store with a corrupt header or region count
+        byte[] corrupt = valid.clone();
+        corrupt[0] = 0;
+        Files.write(store, corrupt);
+        assertTrue(load().hasRegion("scotland"));
+        corrupt = valid.clone();
+        corrupt[7] = (byte) 0x80;
+        Files.write(store, corrupt);
+        assertTrue(load().hasRegion("scotland"));
+    }
+
+    @Test
+    void testLoadStore_CorruptStoreWithoutCsvLeavesNoRegions() throws IOException {
+        // Given: only a truncated store
+        Files.write(dataDirectory.resolve("carbon-intensity.bin"), new byte[]{0x31, 0x53, 0x49});
+
+        // When: loading
+        CarbonIntensityService service = load();
+
+        // Then: nothing is mapped and callers fall back to flat factors
+        assertTrue(service.getRegions().isEmpty());
+        assertNull(service.getHourlyIntensity("scotland"));
+    }
+
+    @Test
+    void testLoadStore_MissingDirectory() {
+        CarbonIntensityService service = new CarbonIntensityService();
+        ReflectionTestUtils.setField(service, "dataDirectory", dataDirectory.resolve("missing").toString());
+        service.loadStore();
+
+        assertTrue(service.getRegions().isEmpty());
+    }
+
+    private CarbonIntensityService load() {
+        CarbonIntensityService service = new CarbonIntensityService();
+        ReflectionTestUtils.setField(service, "dataDirectory", dataDirectory.toString());
+        service.loadStore();
+        return service;
+    }
+
+    private Path writeSeries(String region, int intensity, int year) throws IOException {
+        StringBuilder csv = new StringBuilder("datetime,forecast,actual\n");
+        for (LocalDateTime t = LocalDateTime.of(year, 1, 1, 0, 0); t.getYear() == year; t = t.plusMinutes(30)) {
+            csv.append(t).append("Z,0,").append(intensity).append('\n');
+        }
+        return Files.writeString(dataDirectory.resolve(region + ".csv"), csv);
+    }
+}
@@ -1,9 +1,19 @@
 package com.wx.renewableCalculator.backend.service;
 
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.AnnualCarbonSavingsResult;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsRequest;
 import com.wx.renewableCalculator.backend.dto.CarbonSavingsResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CarbonSavingsServiceTest {
@@ -237,4 +247,162 @@ class CarbonSavingsServiceTest {
         assertEquals(0.183, result.getGasEmissionFactor());
         assertEquals(0.148, result.getElectricityEmissionFactor());
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void testCalculateCarbonSavings_RegionalHalfHourlyIntensity(@TempDir Path dataDirectory) throws IOException {
+        // Given: London intensity of 100 g/kWh from 10:00 to 16:00 and 300 g/kWh otherwise
+        CarbonIntensityService carbonIntensityService = useLondonIntensity(dataDirectory);
+        
+        CarbonSavingsRequest request = new CarbonSavingsRequest();
+        request.setHasSolarPanels(true);
+        request.setHasHeatPump(false);
+        request.setMonth(6);
+        request.setTotalElectricityDemandKwh(300.0);
+        request.setSolarGenerationKwh(400.0);
+        request.setSolarSelfConsumedKwh(120.0);
+        request.setCarbonIntensityRegion("london");
+        
+        // When: calculating carbon savings
+        CarbonSavingsResult result = service.calculateCarbonSavings(request);
+        
+        // Then: the store is built and mapped, June's mean is (12 × 100 + 36 × 300) / 48 g/kWh
+        assertTrue(Files.exists(dataDirectory.resolve("carbon-intensity.bin")));
+        assertEquals(0.25, carbonIntensityService.getMonthlyMeanIntensity("London")[5], 1e-6);
+        assertEquals("london", result.getCarbonIntensityRegion());
+        
+        // Solar hours are cleaner than the household's load-weighted average
+        double loadIntensity = result.getElectricityEmissionFactor();
+        assertTrue(loadIntensity > 0.1 && loadIntensity < 0.3);
+        assertEquals(300.0 * loadIntensity, result.getIndirectEmissionsBeforeKgCO2(), 1e-6);
+        double selfConsumedIntensity = (result.getIndirectEmissionsBeforeKgCO2() - result.getIndirectEmissionsAfterKgCO2()) / 120.0;
+        assertTrue(selfConsumedIntensity < loadIntensity);
+        double exportIntensity = result.getSolarExportDisplacedKgCO2() / 280.0;
+        assertTrue(exportIntensity >= 0.1 && exportIntensity < loadIntensity);
+        assertEquals(result.getIndirectEmissionsBeforeKgCO2() - result.getIndirectEmissionsAfterKgCO2()
+            + result.getSolarExportDisplacedKgCO2(), result.getIndirectEmissionsSavingsKgCO2(), 1e-6);
+    }
+    
+    @Test
+    void testCalculateAnnualCarbonSavings_RegionalMonthWithoutElectricityUsesMonthlyMean(@TempDir Path dataDirectory) throws IOException {
+        // Given: the London series and a household with no electricity in August
+        useLondonIntensity(dataDirectory);
+        double[] demand = {420, 380, 350, 300, 280, 260, 260, 0, 290, 330, 380, 430};
+        AnnualCarbonSavingsRequest request = new AnnualCarbonSavingsRequest();
+        request.setHasSolarPanels(false);
+        request.setHasHeatPump(false);
+        request.setTotalElectricityDemandKwh(demand);
+        request.setCarbonIntensityRegion("london");
+        
+        // When: calculating the year
+        AnnualCarbonSavingsResult result = service.calculateAnnualCarbonSavings(request);
+        
+        // Then: August takes the month's mean intensity, other months the load-weighted one
+        assertEquals(0.25, result.getElectricityEmissionFactor()[7], 1e-6);
+        assertEquals(0.0, result.getIndirectEmissionsBeforeKgCO2()[7]);
+        assertEquals(0.0, result.getTotalCarbonSavingsKgCO2()[7]);
+        double july = result.getElectricityEmissionFactor()[6];
+        assertTrue(july > 0.1 && july < 0.3);
+        assertEquals(260 * july, result.getIndirectEmissionsBeforeKgCO2()[6], 1e-9);
+    }
+    
+    @Test
+    void testCalculateAnnualCarbonSavings_RegionalHeatPumpUsageAtMonthlyMean(@TempDir Path dataDirectory) throws IOException {
+        // Given: the London series and a heat pump household, whose heat pump usage has no hourly shape
+        CarbonIntensityService carbonIntensityService = useLondonIntensity(dataDirectory);
+        double[] demand = {420, 380, 350, 300, 280, 260, 260, 270, 290, 330, 380, 430};
+        double[] gas = {1800, 1600, 1300, 900, 500, 250, 200, 220, 400, 900, 1400, 1750};
+        double[] heating = {450, 400, 320, 200, 90, 0, 0, 0, 70, 200, 340, 440};
+        AnnualCarbonSavingsRequest request = new AnnualCarbonSavingsRequest();
+        request.setHasSolarPanels(false);
+        request.setHasHeatPump(true);
+        request.setTotalElectricityDemandKwh(demand);
+        request.setGasConsumptionKwh(gas);
+        request.setHeatingHeatPumpUsageKwh(heating);
+        request.setCarbonIntensityRegion("london");
+        
+        // When: calculating the year
+        AnnualCarbonSavingsResult result = service.calculateAnnualCarbonSavings(request);
+        
+        // Then: the load keeps its weighted intensity and heat pump usage takes the month's cached mean
+        double[] means = carbonIntensityService.getMonthlyMeanIntensity("London");
+        for (int m = 0; m < 12; m++) {
+            double loadIntensity = result.getElectricityEmissionFactor()[m];
+            assertEquals(demand[m] * loadIntensity + heating[m] * means[m], result.getIndirectEmissionsAfterKgCO2()[m], 1e-6);
+        }
+        
+        // And January matches the single-month calculation
+        CarbonSavingsRequest january = new CarbonSavingsRequest();
+        january.setHasSolarPanels(false);
+        january.setHasHeatPump(true);
+        january.setMonth(1);
+        january.setTotalElectricityDemandKwh(demand[0]);
+        january.setGasConsumptionKwh(gas[0]);
+        january.setHeatingHeatPumpUsageKwh(heating[0]);
+        january.setCarbonIntensityRegion("london");
+        assertEquals(result.getIndirectEmissionsAfterKgCO2()[0],
+            service.calculateCarbonSavings(january).getIndirectEmissionsAfterKgCO2(), 1e-6);
+    }
+    
+    @Test
+    void testCalculateAnnualCarbonSavings_MatchesMonthlyCalls() {
+        // Given: solar self-consumption and heat pump usage for each month
+        double[] demand = {420, 380, 350, 300, 280, 260, 260, 270, 290, 330, 380, 430};
+        double[] gas = {1800, 1600, 1300, 900, 500, 250, 200, 220, 400, 900, 1400, 1750};
+        double[] selfConsumed = {40, 60, 100, 130, 150, 150, 150, 140, 110, 70, 45, 30};
+        double[] heating = {450, 400, 320, 200, 90, 0, 0, 0, 70, 200, 340, 440};
+        AnnualCarbonSavingsRequest annualRequest = new AnnualCarbonSavingsRequest();
+        annualRequest.setHasSolarPanels(true);
+        annualRequest.setHasHeatPump(true);
+        annualRequest.setTotalElectricityDemandKwh(demand);
+        annualRequest.setGasConsumptionKwh(gas);
+        annualRequest.setSolarSelfConsumedKwh(selfConsumed);
+        annualRequest.setHeatingHeatPumpUsageKwh(heating);
+        
+        // When: calculating the year in one call
+        AnnualCarbonSavingsResult annual = service.calculateAnnualCarbonSavings(annualRequest);
+        
+        // Then: every month equals the single-month endpoint
+        double total = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            CarbonSavingsRequest request = new CarbonSavingsRequest();
+            request.setHasSolarPanels(true);
+            request.setHasHeatPump(true);
+            request.setMonth(month);
+            request.setTotalElectricityDemandKwh(demand[month - 1]);
+            request.setGasConsumptionKwh(gas[month - 1]);
+            request.setSolarSelfConsumedKwh(selfConsumed[month - 1]);
+            request.setHeatingHeatPumpUsageKwh(heating[month - 1]);
+            CarbonSavingsResult monthly = service.calculateCarbonSavings(request);
+            
+            assertEquals(monthly.getTotalCarbonSavingsKgCO2(), annual.getTotalCarbonSavingsKgCO2()[month - 1], 1e-9);
+            assertEquals(monthly.getIndirectEmissionsAfterKgCO2(), annual.getIndirectEmissionsAfterKgCO2()[month - 1], 1e-9);
+            total += monthly.getTotalCarbonSavingsKgCO2();
+        }
+        assertEquals(total, annual.getAnnualCarbonSavingsKgCO2(), 1e-9);
+    }
+    
+    /**
+     * Map a London series of 100 g/kWh from 10:00 to 16:00 and 300 g/kWh otherwise, and wire the hourly balance
+     */
+    private CarbonIntensityService useLondonIntensity(Path dataDirectory) throws IOException {
+        StringBuilder csv = new StringBuilder("datetime,forecast,actual\n");
+        for (LocalDateTime t = LocalDateTime.of(2023, 1, 1, 0, 0); t.getYear() == 2023; t = t.plusMinutes(30)) {
+            int intensity = t.getHour() >= 10 && t.getHour() < 16 ? 100 : 300;
+            csv.append(t).append("Z,0,").append(intensity).append('\n');
+        }
+        Files.writeString(dataDirectory.resolve("London.csv"), csv);
+        
+        CarbonIntensityService carbonIntensityService = new CarbonIntensityService();
+        ReflectionTestUtils.setField(carbonIntensityService, "dataDirectory", dataDirectory.toString());
+        carbonIntensityService.loadStore();
+        
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        EnergyBalanceService energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "carbonIntensityService", carbonIntensityService);
+        return carbonIntensityService;
+    }
+}
@@ -0,0 +1,47 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyBalanceServiceTest {
+    
+    private EnergyBalanceService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new EnergyBalanceService();
+    }
+    
+    @Test
+    void testCalculate_HourlyMinimumOfGenerationAndLoad() {
+        // Given: 2 kWh generation at noon and 1 kWh load at noon and midnight every day
+        float[] generation = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            generation[day * 24 + 12] = 2.0f;
+            load[day * 24 + 12] = 1.0f;
+            load[day * 24] = 1.0f;
+        }
+        
+        // When: balancing the year
+        EnergyBalanceService.EnergyBalance balance = service.calculate(generation, load);
+        
+        // Then: January has 31 days of 1 kWh self-consumed, 1 kWh exported and 1 kWh imported
+        assertEquals(62.0, balance.getGeneration(1), 0.001);
+        assertEquals(62.0, balance.getLoad(1), 0.001);
+        assertEquals(31.0, balance.getSelfConsumed(1), 0.001);
+        assertEquals(31.0, balance.getExported(1), 0.001);
+        assertEquals(31.0, balance.getImported(1), 0.001);
+        assertEquals(0.5, balance.getSelfConsumptionRate(1), 0.001);
+        assertEquals(28.0, balance.getSelfConsumed(2), 0.001);
+        assertEquals(365.0, balance.getAnnualSelfConsumed(), 0.001);
+    }
+    
+    @Test
+    void testCalculate_RejectsWrongLength() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.calculate(new float[24], new float[ReferenceYear.HOURS_PER_YEAR]));
+    }
+}
@@ -0,0 +1,99 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
+import com.wx.renewableCalculator.backend.dto.ElectricityDemandResult;
+import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
+import com.wx.renewableCalculator.backend.dto.GasDemandResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyDemandServiceTest {
+    
+    private final EnergyDemandService energyDemandService = new EnergyDemandService();
+    private final GasDemandService gasDemandService = new GasDemandService();
+    
+    @Test
+    void testElectricityDemand_AnnualInputRoundedOnlyInResult() {
+        ElectricityDemandRequest request = new ElectricityDemandRequest();
+        request.setAnnualElectricityUsage(3333.0);
+        request.setHasHeatPump(true);
+        
+        ElectricityDemandResult result = energyDemandService.calculateElectricityDemand(request);
+        
+        assertEquals("user_annual_distributed", result.getCalculationMethod());
+        assertEquals(12, result.getMonthlyElectricityDemand().size());
+        assertEquals(new BigDecimal("399.96"), result.getMonthlyElectricityDemand().get(1));    // 12%
+        assertEquals(new BigDecimal("3333.00"), result.getAnnualElectricityDemand());
+        assertEquals(new BigDecimal("16.0"), result.getMonthlyProportions().get(12));
+        assertEquals(12, result.getPeakMonth());
+        assertEquals(new BigDecimal("533.28"), result.getPeakMonthDemand());
+        assertEquals(6, result.getLowMonth());                                                   // First of Jun-Aug at 5%
+        assertTrue(result.getUsedHeatPumpProportions());
+    }
+    
+    @Test
+    void testElectricityDemand_MonthlyInputPeakAndLow() {
+        Map<Integer, Double> usage = new HashMap<>();
+        for (int month = 1; month <= 12; month++) {
+            usage.put(month, 200.0 + month * 0.005);
+        }
+        usage.put(3, 410.125);
+        usage.remove(8);    // Missing months count as zero
+        ElectricityDemandRequest request = new ElectricityDemandRequest();
+        request.setMonthlyElectricityUsage(usage);
+        
+        ElectricityDemandResult result = energyDemandService.calculateElectricityDemand(request);
+        
+        assertEquals(3, result.getPeakMonth());
+        assertEquals(new BigDecimal("410.13"), result.getPeakMonthDemand());
+        assertEquals(8, result.getLowMonth());
+        assertEquals(new BigDecimal("0.00"), result.getLowMonthDemand());
+        assertEquals(new BigDecimal("200.03"), result.getMonthlyElectricityDemand().get(6));
+    }
+    
+    @Test
+    void testMonthlyValues_DecimalRoundsLikeBigDecimalValueOf() {
+        assertEquals(new BigDecimal("1.01"), MonthlyValues.decimal(1.005, 2));
+        assertEquals(new BigDecimal("0.29"), MonthlyValues.decimal(0.285, 2));
+        assertEquals(new BigDecimal("-2.68"), MonthlyValues.decimal(-2.675, 2));
+        assertEquals(new BigDecimal("16.0"), MonthlyValues.decimal(16.0, 1));
+        for (double value : new double[]{0.125, 1234.565, 99.995, 3333.0 * 0.12, 1e-7}) {
+            assertEquals(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP), MonthlyValues.decimal(value, 2));
+        }
+    }
+    
+    @Test
+    void testMonthlyValues_EstimatedPeakAndLowTakeLatestRoundedTie() {
+        double[] demand = {300.0, 410.124, 200.0, 410.12, 250.0, 199.996, 220.0, 200.004, 260.0, 300.0, 350.0, 400.0};
+        
+        Map<Integer, BigDecimal> rounded = MonthlyValues.toMap(demand, 2);
+        
+        // 410.124 and 410.12 both round to 410.12; 200.0, 199.996 and 200.004 all round to 200.00
+        assertEquals(4, MonthlyValues.latestPeakMonth(rounded));
+        assertEquals(8, MonthlyValues.latestLowMonth(rounded));
+        assertEquals(2, MonthlyValues.peakMonth(demand));
+        assertEquals(6, MonthlyValues.lowMonth(demand));
+    }
+    
+    @Test
+    void testGasDemand_AnnualInputMatchesProportions() {
+        GasDemandRequest request = new GasDemandRequest();
+        request.setAnnualGasUsage(12000.0);
+        
+        GasDemandResult result = gasDemandService.calculateGasDemand(request);
+        
+        assertEquals(new BigDecimal("1800.00"), result.getMonthlyGasDemand().get(1));
+        assertEquals(new BigDecimal("12000.00"), result.getAnnualGasDemand());
+        assertEquals(1, result.getPeakMonth());
+        assertEquals(6, result.getLowMonth());
+        assertEquals(new BigDecimal("360.00"), result.getLowMonthDemand());
+        
+        assertThrows(IllegalArgumentException.class, () -> gasDemandService.calculateGasDemand(new GasDemandRequest()));
+    }
+}
@@ -0,0 +1,158 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.Battery;
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquipmentCatalogServiceTest {
+    
+    private final AtomicInteger databaseReads = new AtomicInteger();
+    private final List<HeatPump> heatPumpRows = new ArrayList<>();
+    private EquipmentCatalogService service;
+    
+    @BeforeEach
+    void setUp() {
+        List<SolarPanelType> panels = List.of(
+            panel(1L, 400.0, 21.0, 250.0),
+            panel(2L, 350.0, null, 180.0),
+            panel(3L, 430.0, 22.5, null));
+        heatPumpRows.add(heatPump(1, "3.2", "8000"));
+        heatPumpRows.add(heatPump(2, "4.1", "9500"));
+        List<Battery> batteries = List.of(
+            battery(1, "5.0", "0.90", "3000"),
+            battery(2, "13.5", "0.92", "7000"),
+            battery(3, "10.0", null, "5000"));
+        
+        service = new EquipmentCatalogService();
+        ReflectionTestUtils.setField(service, "solarPanelTypeRepository", repository(SolarPanelTypeRepository.class, panels));
+        ReflectionTestUtils.setField(service, "heatPumpRepository", repository(HeatPumpRepository.class, heatPumpRows));
+        ReflectionTestUtils.setField(service, "batteryRepository", repository(BatteryRepository.class, batteries));
+    }
+    
+    @Test
+    void testSnapshot_LookupsAndSortOrdersWithoutDatabaseReads() {
+        service.loadOnStartup();
+        assertEquals(3, databaseReads.get());    // One findAll per equipment type
+        
+        EquipmentCatalogService.SolarPanelCatalog panels = service.getSolarPanelCatalog();
+        assertEquals(430.0, panels.findById(3L).getRatedPowerPerPanel());
+        assertNull(panels.findById(99L));
+        assertEquals(300.0, panels.price(panels.indexOf(3L)));    // Default panel price
+        assertEquals(List.of(2L, 1L, 3L), ids(panels.sortedBy(EquipmentCatalogService.SortKey.PRICE)));
+        assertEquals(List.of(3L, 1L, 2L), ids(panels.sortedBy(EquipmentCatalogService.SortKey.EFFICIENCY)));
+        assertEquals(List.of(3L, 1L, 2L), ids(panels.sortedBy(EquipmentCatalogService.SortKey.CAPACITY)));
+        
+        EquipmentCatalogService.Catalog<HeatPump, Integer> heatPumps = service.getHeatPumpCatalog();
+        assertEquals("HP 2", heatPumps.findById(2).getName());
+        assertEquals(2, heatPumps.sortedBy(EquipmentCatalogService.SortKey.EFFICIENCY).get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> heatPumps.sortedBy(EquipmentCatalogService.SortKey.CAPACITY));
+        
+        EquipmentCatalogService.Catalog<Battery, Integer> batteries = service.getBatteryCatalog();
+        assertEquals(List.of(2, 3, 1), batteries.sortedBy(EquipmentCatalogService.SortKey.CAPACITY).stream().map(Battery::getId).toList());
+        assertEquals(List.of(2, 1, 3), batteries.sortedBy(EquipmentCatalogService.SortKey.EFFICIENCY).stream().map(Battery::getId).toList());
+        assertThrows(UnsupportedOperationException.class, () -> batteries.getAll().add(new Battery()));
+        
+        assertEquals(3, databaseReads.get());
+    }
+    
+    @Test
+    void testRefresh_SwapsSnapshotAtomically() {
+        EquipmentCatalogService.CatalogSnapshot before = service.getSnapshot();
+        assertSame(before, service.getSnapshot());
+        
+        heatPumpRows.add(heatPump(3, "3.8", "8800"));
+        assertNull(service.getHeatPumpCatalog().findById(3));
+        
+        EquipmentCatalogService.CatalogSnapshot after = service.refresh();
+        assertNotSame(before, after);
+        assertEquals(3, service.getHeatPumpCatalog().size());
+        assertEquals(2, before.getHeatPumps().size());    // Readers of the old snapshot are unaffected
+        assertEquals(List.of(1, 3, 2), service.getHeatPumpCatalog().sortedBy(EquipmentCatalogService.SortKey.PRICE)
+            .stream().map(HeatPump::getId).toList());
+        
+        assertEquals(EquipmentCatalogService.SortKey.PRICE, EquipmentCatalogService.SortKey.fromParameter("price"));
+        assertThrows(IllegalArgumentException.class, () -> EquipmentCatalogService.SortKey.fromParameter("weight"));
+    }
+    
+    @Test
+    void testRefresh_PanelsWithoutSizeOrPowerSkipped() {
+        // Given: panels with no size, a zero size and no rated power next to a valid one
+        SolarPanelType noSize = panel(4L, 400.0, 20.0, 200.0);
+        noSize.setPanelSize(null);
+        SolarPanelType zeroSize = panel(5L, 400.0, 20.0, 200.0);
+        zeroSize.setPanelSize(0.0);
+        SolarPanelType noPower = new SolarPanelType("Panel 6", "Test", 1.9, null);
+        noPower.setId(6L);
+        ReflectionTestUtils.setField(service, "solarPanelTypeRepository", repository(SolarPanelTypeRepository.class,
+            List.of(noSize, panel(1L, 400.0, 21.0, 250.0), zeroSize, noPower)));
+        
+        // When: loading the catalog
+        EquipmentCatalogService.CatalogSnapshot snapshot = service.refresh();
+        
+        // Then: only the valid panel is served, and the other equipment still loads
+        EquipmentCatalogService.SolarPanelCatalog panels = snapshot.getSolarPanels();
+        assertEquals(List.of(1L), ids(panels.getAll()));
+        assertEquals(1.9, panels.panelSize(0));
+        assertNull(panels.findById(4L));
+        assertEquals(2, snapshot.getHeatPumps().size());
+        assertSame(snapshot, service.getSnapshot());
+    }
+    
+    /**
+     * Repository whose findAll returns the given rows; any other call fails the test
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R repository(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                databaseReads.incrementAndGet();
+                return new ArrayList<>(rows);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+    
+    private static List<Long> ids(List<SolarPanelType> panels) {
+        return panels.stream().map(SolarPanelType::getId).toList();
+    }
+    
+    private static SolarPanelType panel(Long id, double ratedPower, Double efficiency, Double price) {
+        SolarPanelType panel = new SolarPanelType("Panel " + id, "Test", 1.9, ratedPower);
+        panel.setId(id);
+        panel.setEfficiency(efficiency);
+        panel.setPrice(price);
+        return panel;
+    }
+    
+    private static HeatPump heatPump(Integer id, String cop, String cost) {
+        HeatPump heatPump = new HeatPump();
+        heatPump.setId(id);
+        heatPump.setName("HP " + id);
+        heatPump.setCop(new BigDecimal(cop));
+        heatPump.setCost(new BigDecimal(cost));
+        return heatPump;
+    }
+    
+    private static Battery battery(Integer id, String capacityKwh, String efficiency, String cost) {
+        Battery battery = new Battery();
+        battery.setId(id);
+        battery.setCapacityKwh(new BigDecimal(capacityKwh));
+        battery.setRoundTripEfficiency(efficiency != null ? new BigDecimal(efficiency) : null);
+        battery.setCost(new BigDecimal(cost));
+        return battery;
+    }
+}
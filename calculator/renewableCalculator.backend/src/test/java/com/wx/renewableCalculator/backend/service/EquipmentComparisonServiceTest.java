@@ -0,0 +1,554 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.CarbonSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.ConfigurationFrontierResult;
+import com.wx.renewableCalculator.backend.dto.EquipmentComparisonRequest;
+import com.wx.renewableCalculator.backend.dto.EquipmentComparisonResult;
+import com.wx.renewableCalculator.backend.dto.MonthlySavingsRequest;
+import com.wx.renewableCalculator.backend.dto.MonthlySavingsResult;
+import com.wx.renewableCalculator.backend.dto.SystemSizingRequest;
+import com.wx.renewableCalculator.backend.entity.Battery;
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquipmentComparisonServiceTest {
+    
+    private EquipmentComparisonService service;
+    private MonthlySavingsService monthlySavingsService;
+    private CarbonSavingsService carbonSavingsService;
+    private SystemSizingService systemSizingService;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        EnergyBalanceService energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+        
+        monthlySavingsService = new MonthlySavingsService();
+        ReflectionTestUtils.setField(monthlySavingsService, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(monthlySavingsService, "batteryDispatchService", new BatteryDispatchService());
+        ReflectionTestUtils.setField(monthlySavingsService, "tariffScheduleService", new TariffScheduleService());
+        carbonSavingsService = new CarbonSavingsService();
+        ReflectionTestUtils.setField(carbonSavingsService, "energyBalanceService", energyBalanceService);
+        
+        service = new EquipmentComparisonService();
+        EquipmentCatalogService catalogService = catalogService(20, 10, 10);
+        systemSizingService = new SystemSizingService();
+        ReflectionTestUtils.setField(systemSizingService, "equipmentCatalogService", catalogService);
+        ReflectionTestUtils.setField(systemSizingService, "solarInstallationCostService", new SolarInstallationCostService());
+        ReflectionTestUtils.setField(systemSizingService, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(systemSizingService, "batteryDispatchService", new BatteryDispatchService());
+        ReflectionTestUtils.setField(systemSizingService, "tariffScheduleService", new TariffScheduleService());
+        ReflectionTestUtils.setField(systemSizingService, "lifetimeCashFlowService", new LifetimeCashFlowService());
+        
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService);
+        ReflectionTestUtils.setField(service, "solarInstallationCostService", new SolarInstallationCostService());
+        ReflectionTestUtils.setField(service, "monthlySavingsService", monthlySavingsService);
+        ReflectionTestUtils.setField(service, "carbonSavingsService", carbonSavingsService);
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "batteryDispatchService", new BatteryDispatchService());
+        ReflectionTestUtils.setField(service, "tariffScheduleService", new TariffScheduleService());
+        ReflectionTestUtils.setField(service, "lifetimeCashFlowService", new LifetimeCashFlowService());
+        ReflectionTestUtils.setField(service, "systemSizingService", systemSizingService);
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+        ReflectionTestUtils.setField(service, "maxCombinations", 10);
+        service.init();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    void testCompareEquipment_SolarKernelMatchesMonthlyServices() {
+        EquipmentComparisonRequest request = createRequest();
+        request.setHasHeatPump(false);
+        request.setHasBattery(false);
+        request.setSolarPanelTypeIds(List.of(5L, 99L, 2L));    // Unknown ids are skipped
+        
+        EquipmentComparisonResult result = service.compareEquipment(request);
+        
+        assertEquals(List.of(5L, 2L), result.getSolarPanelOptions().stream()
+            .map(EquipmentComparisonResult.EquipmentOption::getEquipmentId).toList());
+        EquipmentComparisonResult.EquipmentOption option = result.getSolarPanelOptions().get(0);
+        
+        // Same figures as one monthly savings and carbon call per month
+        double costSavings = 0.0;
+        double exportRevenue = 0.0;
+        double indirectCO2 = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            double usage = request.getAnnualElectricityUsageKwh() * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[month - 1] / 100.0;
+            MonthlySavingsRequest savingsRequest = new MonthlySavingsRequest();
+            savingsRequest.setHasSolarPanels(true);
+            savingsRequest.setMonth(month);
+            savingsRequest.setSolarGenerationKwh(option.getMonthlyGeneration().get(month - 1));
+            savingsRequest.setMonthlyElectricityUsageKwh(usage);
+            savingsRequest.setElectricityRate(request.getElectricityRate());
+            savingsRequest.setExportRate(request.getExportRate());
+            savingsRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
+            MonthlySavingsResult savings = monthlySavingsService.calculateMonthlySavings(savingsRequest);
+            costSavings += savings.getSolarSavings() / 100.0;
+            exportRevenue += savings.getSolarExportSavings() / 100.0;
+            
+            CarbonSavingsRequest carbonRequest = new CarbonSavingsRequest();
+            carbonRequest.setHasSolarPanels(true);
+            carbonRequest.setMonth(month);
+            carbonRequest.setTotalElectricityDemandKwh(usage);
+            carbonRequest.setSolarSelfConsumedKwh(savings.getSolarSelfConsumedKwh());
+            carbonRequest.setSolarGenerationKwh(option.getMonthlyGeneration().get(month - 1));
+            indirectCO2 += carbonSavingsService.calculateCarbonSavings(carbonRequest).getIndirectEmissionsSavingsKgCO2();
+        }
+        assertEquals(costSavings, option.getAnnualCostSavings(), 0.01);
+        assertEquals(exportRevenue, option.getAnnualExportRevenue(), 0.01);
+        assertEquals(indirectCO2, option.getAnnualIndirectCO2Savings(), 0.01);
+        assertEquals(12, option.getMonthlyIndirectCO2Savings().size());
+        assertNotNull(option.getNetPresentValue());
+    }
+    
+    @Test
+    void testCompareEquipment_FullCatalogConcurrently() {
+        EquipmentComparisonRequest request = createRequest();
+        
+        EquipmentComparisonResult result = service.compareEquipment(request);
+        
+        assertEquals(20, result.getSolarPanelOptions().size());
+        assertEquals(10, result.getHeatPumpOptions().size());
+        assertEquals(10, result.getBatteryOptions().size());
+        // Options keep the requested order
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 1L, result.getSolarPanelOptions().get(i).getEquipmentId());
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1L, result.getBatteryOptions().get(i).getEquipmentId());
+            assertTrue(result.getBatteryOptions().get(i).getAnnualCostSavings() >= 0);
+        }
+    }
+    
+    @Test
+    void testCompareEquipment_CombinationsMatchExhaustiveSearch() {
+        EquipmentComparisonResult result = service.compareEquipment(createRequest());
+        List<EquipmentComparisonResult.SystemCombination> combinations = result.getRecommendedCombinations();
+        
+        // Every solar × heat pump × battery choice, "none" included, scored the same way
+        List<EquipmentComparisonResult.EquipmentOption> solar = withNone(result.getSolarPanelOptions());
+        List<EquipmentComparisonResult.EquipmentOption> heatPumps = withNone(result.getHeatPumpOptions());
+        List<EquipmentComparisonResult.EquipmentOption> batteries = withNone(result.getBatteryOptions());
+        double referenceGeneration = result.getSolarPanelOptions().stream()
+            .mapToDouble(EquipmentComparisonResult.EquipmentOption::getAnnualGeneration).max().orElse(0.0);
+        List<double[]> all = new ArrayList<>();    // cost, savings, CO₂, payback
+        List<String> names = new ArrayList<>();
+        for (EquipmentComparisonResult.EquipmentOption s : solar) {
+            double share = s != null ? Math.min(1.0, s.getAnnualGeneration() / referenceGeneration) : 0.0;
+            for (EquipmentComparisonResult.EquipmentOption h : heatPumps) {
+                for (EquipmentComparisonResult.EquipmentOption b : batteries) {
+                    double cost = cost(s) + cost(h) + cost(b);
+                    double savings = savings(s) + savings(h) + savings(b) * share;
+                    if (savings > 0) {
+                        all.add(new double[]{cost, savings, co2(s) + co2(h) + co2(b), cost / savings});
+                        names.add(Stream.of(s, h, b).filter(Objects::nonNull)
+                            .map(EquipmentComparisonResult.EquipmentOption::getEquipmentName).collect(Collectors.joining(" + ")));
+                    }
+                }
+            }
+        }
+        List<Integer> front = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            double[] c = all.get(i);
+            boolean dominated = all.stream().anyMatch(o -> o[0] <= c[0] && o[1] >= c[1] && o[2] >= c[2]
+                && (o[0] < c[0] || o[1] > c[1] || o[2] > c[2]));
+            if (!dominated) {
+                front.add(i);
+            }
+        }
+        front.sort(Comparator.comparingDouble(i -> all.get(i)[3]));
+        
+        // The returned combinations are the fastest-payback non-dominated ones
+        assertFalse(combinations.isEmpty());
+        assertTrue(combinations.size() <= 10);
+        for (int i = 0; i < combinations.size(); i++) {
+            double[] expected = all.get(front.get(i));
+            EquipmentComparisonResult.SystemCombination combination = combinations.get(i);
+            assertEquals(names.get(front.get(i)), combination.getCombinationName());
+            assertEquals(expected[0], combination.getTotalInstallationCost(), 1e-6);
+            assertEquals(expected[1], combination.getTotalAnnualSavings(), 1e-6);
+            assertEquals(expected[2], combination.getTotalAnnualCO2Savings(), 1e-6);
+            assertEquals(expected[3], combination.getCombinedPaybackPeriod(), 1e-9);
+        }
+        assertEquals("Fastest payback of all combinations", combinations.get(0).getRecommendation());
+    }
+    
+    @Test
+    void testGenerateSystemCombinations_AlwaysReturnsFastestKNonDominated() {
+        // Given: random options whose combinations often dominate each other across categories
+        ReflectionTestUtils.setField(service, "maxCombinations", 5);
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            EquipmentComparisonResult options = new EquipmentComparisonResult();
+            options.setSolarPanelOptions(randomOptions(random, 1 + random.nextInt(6), 0));
+            options.setHeatPumpOptions(randomOptions(random, 1 + random.nextInt(6), 100));
+            options.setBatteryOptions(randomOptions(random, 1 + random.nextInt(6), 200));
+            
+            // When: recommending combinations
+            List<EquipmentComparisonResult.SystemCombination> combinations =
+                ReflectionTestUtils.invokeMethod(service, "generateSystemCombinations", createRequest(), options);
+            
+            // Then: exactly the first five non-dominated combinations by payback (fewer only if fewer exist)
+            List<EquipmentComparisonResult.EquipmentOption> solar = withNone(options.getSolarPanelOptions());
+            List<EquipmentComparisonResult.EquipmentOption> heatPumps = withNone(options.getHeatPumpOptions());
+            List<EquipmentComparisonResult.EquipmentOption> batteries = withNone(options.getBatteryOptions());
+            List<double[]> all = new ArrayList<>();    // cost, savings, CO₂, payback
+            for (EquipmentComparisonResult.EquipmentOption s : solar) {
+                for (EquipmentComparisonResult.EquipmentOption h : heatPumps) {
+                    for (EquipmentComparisonResult.EquipmentOption b : batteries) {
+                        double cost = cost(s) + cost(h) + cost(b);
+                        double savings = savings(s) + savings(h) + savings(b);
+                        if (savings > 0) {
+                            all.add(new double[]{cost, savings, co2(s) + co2(h) + co2(b), cost / savings});
+                        }
+                    }
+                }
+            }
+            List<double[]> front = all.stream().filter(c -> all.stream().noneMatch(o -> o[0] <= c[0] && o[1] >= c[1] && o[2] >= c[2]
+                && (o[0] < c[0] || o[1] > c[1] || o[2] > c[2]))).sorted(Comparator.comparingDouble(c -> c[3])).toList();
+            assertEquals(Math.min(5, front.size()), combinations.size(), "trial " + trial);
+            for (int i = 0; i < combinations.size(); i++) {
+                assertEquals(front.get(i)[3], combinations.get(i).getCombinedPaybackPeriod(), 1e-12, "trial " + trial);
+            }
+        }
+    }
+    
+    @Test
+    void testCompareEquipment_CombinationSearchOverLargeCatalog() {
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService(300, 100, 100));
+        EquipmentComparisonRequest request = createRequest();
+        request.setSolarPanelTypeIds(LongStream.rangeClosed(1, 300).boxed().toList());
+        request.setHeatPumpTypeIds(LongStream.rangeClosed(1, 100).boxed().toList());
+        request.setBatteryIds(LongStream.rangeClosed(1, 100).boxed().toList());
+        List<EquipmentComparisonResult.SystemCombination> combinations = service.compareEquipment(request).getRecommendedCombinations();
+        
+        assertEquals(10, combinations.size());
+        for (int i = 1; i < combinations.size(); i++) {
+            assertTrue(combinations.get(i - 1).getCombinedPaybackPeriod() <= combinations.get(i).getCombinedPaybackPeriod());
+        }
+    }
+    
+    @Test
+    void testFindConfigurationFrontier_MatchesExhaustiveSearch() {
+        EquipmentComparisonRequest request = createRequest();
+        EquipmentComparisonResult options = service.compareEquipment(request);
+        request.setSolarPanelTypeIds(null);
+        request.setHeatPumpTypeIds(null);
+        request.setBatteryIds(null);
+        ConfigurationFrontierResult result = service.findConfigurationFrontier(request);
+        
+        // Every solar × heat pump × battery configuration, one of each
+        double referenceGeneration = options.getSolarPanelOptions().stream()
+            .mapToDouble(EquipmentComparisonResult.EquipmentOption::getAnnualGeneration).max().orElse(0.0);
+        List<double[]> all = new ArrayList<>();    // cost, CO₂, payback
+        for (EquipmentComparisonResult.EquipmentOption s : options.getSolarPanelOptions()) {
+            double share = Math.min(1.0, s.getAnnualGeneration() / referenceGeneration);
+            for (EquipmentComparisonResult.EquipmentOption h : options.getHeatPumpOptions()) {
+                for (EquipmentComparisonResult.EquipmentOption b : options.getBatteryOptions()) {
+                    double cost = cost(s) + cost(h) + cost(b);
+                    double savings = savings(s) + savings(h) + savings(b) * share;
+                    all.add(new double[]{cost, co2(s) + co2(h) + co2(b),
+                        savings > 0 ? cost / savings : Double.POSITIVE_INFINITY});
+                }
+            }
+        }
+        List<double[]> front = all.stream().filter(c -> all.stream().noneMatch(o -> o[0] <= c[0] && o[1] >= c[1] && o[2] <= c[2]
+            && (o[0] < c[0] || o[1] > c[1] || o[2] < c[2]))).sorted(Comparator.comparingDouble(c -> c[0])).toList();
+        
+        assertEquals(20L * 10 * 10, result.getCandidateCount());
+        assertEquals(front.size(), result.getFrontier().size());
+        for (int i = 0; i < front.size(); i++) {
+            ConfigurationFrontierResult.Configuration configuration = result.getFrontier().get(i);
+            assertNotNull(configuration.getSolarPanelTypeId());
+            assertNotNull(configuration.getHeatPumpTypeId());
+            assertNotNull(configuration.getBatteryId());
+            assertEquals(front.get(i)[0], configuration.getInstallationCost(), 1e-6);
+            assertEquals(front.get(i)[1], configuration.getAnnualCO2Savings(), 1e-6);
+            if (Double.isFinite(front.get(i)[2])) {
+                assertEquals(front.get(i)[2], configuration.getPaybackYears(), 1e-9);
+            } else {
+                assertNull(configuration.getPaybackYears());
+            }
+        }
+    }
+    
+    @Test
+    void testFindConfigurationFrontier_MarksArchetypes() {
+        List<ConfigurationFrontierResult.Configuration> frontier = service.findConfigurationFrontier(createRequest()).getFrontier();
+        
+        ConfigurationFrontierResult.Configuration cheapest = archetype(frontier, "Most Cost-Effective");
+        ConfigurationFrontierResult.Configuration greenest = archetype(frontier, "Most Eco-Friendly");
+        ConfigurationFrontierResult.Configuration balanced = archetype(frontier, "Balanced Option");
+        assertSame(frontier.get(0), cheapest);
+        for (ConfigurationFrontierResult.Configuration configuration : frontier) {
+            assertTrue(configuration.getAnnualCO2Savings() <= greenest.getAnnualCO2Savings());
+        }
+        assertNotSame(cheapest, balanced);
+        assertNotSame(greenest, balanced);
+        assertNotNull(balanced.getPaybackYears());
+    }
+    
+    @Test
+    void testFindConfigurationFrontier_SingleCategory() {
+        EquipmentComparisonRequest request = createRequest();
+        request.setHasSolarPanels(false);
+        request.setHasBattery(false);
+        ConfigurationFrontierResult result = service.findConfigurationFrontier(request);
+        
+        assertEquals(10L, result.getCandidateCount());
+        assertFalse(result.getFrontier().isEmpty());
+        for (ConfigurationFrontierResult.Configuration configuration : result.getFrontier()) {
+            assertNull(configuration.getSolarPanelTypeId());
+            assertNotNull(configuration.getHeatPumpTypeId());
+            assertNull(configuration.getBatteryId());
+        }
+    }
+    
+    @Test
+    void testSkyline_CostTiesAndEqualCO2() {
+        // Given: cost ties, equal CO₂ savings, equal paybacks and duplicates
+        List<EquipmentComparisonService.Combination> combinations = List.of(
+            combination(0, 100, 50, 5.0),                        // Same cost and CO₂ as 1, slower: dominated
+            combination(1, 100, 50, 4.0),
+            combination(2, 100, 50, 4.0),                        // Duplicate of 1: dropped
+            combination(3, 200, 50, 3.0),                        // Costlier but faster: kept
+            combination(4, 200, 50, 4.0),                        // Costlier than 1, same CO₂ and payback: dominated
+            combination(5, 100, 60, 6.0),                        // Same cost as 1, more CO₂, slower: kept
+            combination(6, 300, 60, 6.0),                        // Costlier than 5, same CO₂ and payback: dominated
+            combination(7, 300, 70, Double.POSITIVE_INFINITY),   // Most CO₂, never pays back: kept
+            combination(8, 300, 70, Double.POSITIVE_INFINITY));  // Duplicate of 7: dropped
+        
+        // When: taking the skyline
+        List<EquipmentComparisonService.Combination> front = EquipmentComparisonService.skyline(combinations);
+        
+        // Then: cheapest first, highest CO₂ first among equal costs
+        assertEquals(List.of(5, 1, 3, 7), front.stream().map(c -> c.solar).toList());
+        
+        // And: random grids full of ties match a brute-force check
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            List<EquipmentComparisonService.Combination> points = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                points.add(combination(i, 100 * random.nextInt(5), 10 * random.nextInt(5),
+                    random.nextInt(6) == 0 ? Double.POSITIVE_INFINITY : random.nextInt(5)));
+            }
+            List<String> expected = points.stream()
+                .filter(c -> points.stream().noneMatch(o -> o.cost <= c.cost && o.co2 >= c.co2 && o.payback <= c.payback
+                    && (o.cost < c.cost || o.co2 > c.co2 || o.payback < c.payback)))
+                .map(c -> c.cost + "/" + c.co2 + "/" + c.payback).distinct().sorted().toList();
+            List<String> actual = EquipmentComparisonService.skyline(points).stream()
+                .map(c -> c.cost + "/" + c.co2 + "/" + c.payback).sorted().toList();
+            assertEquals(expected, actual, "trial " + trial);
+        }
+    }
+    
+    @Test
+    void testFindConfigurationFrontier_LargeCatalog() {
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService(300, 100, 100));
+        EquipmentComparisonRequest request = createRequest();
+        request.setSolarPanelTypeIds(null);
+        request.setHeatPumpTypeIds(null);
+        request.setBatteryIds(null);
+        ConfigurationFrontierResult result = service.findConfigurationFrontier(request);
+        
+        assertEquals(300L * 100 * 100, result.getCandidateCount());
+        List<ConfigurationFrontierResult.Configuration> frontier = result.getFrontier();
+        for (int i = 1; i < frontier.size(); i++) {
+            assertTrue(frontier.get(i - 1).getInstallationCost() <= frontier.get(i).getInstallationCost());
+        }
+    }
+    
+    @Test
+    void testCompareEquipment_OptimisedSolarSize() {
+        EquipmentComparisonRequest request = createRequest();
+        request.setHasHeatPump(false);
+        request.setHasBattery(false);
+        request.setSolarPanelTypeIds(List.of(3L));
+        int roofFill = service.compareEquipment(request).getSolarPanelOptions().get(0).getRecommendedQuantity();
+        
+        request.setOptimiseSolarSize(true);
+        EquipmentComparisonResult.EquipmentOption option = service.compareEquipment(request).getSolarPanelOptions().get(0);
+        
+        SystemSizingRequest sizingRequest = new SystemSizingRequest();
+        sizingRequest.setSolarPanelTypeId(3L);
+        sizingRequest.setRoofArea(request.getRoofArea());
+        sizingRequest.setAnnualElectricityUsageKwh(request.getAnnualElectricityUsageKwh());
+        sizingRequest.setHomeOccupancyFactor(request.getHomeOccupancyFactor());
+        sizingRequest.setElectricityRate(request.getElectricityRate());
+        sizingRequest.setExportRate(request.getExportRate());
+        assertEquals(systemSizingService.optimalPanelCount(sizingRequest), option.getRecommendedQuantity());
+        assertTrue(option.getRecommendedQuantity() >= 1 && option.getRecommendedQuantity() <= roofFill);
+    }
+    
+    @Test
+    void testCompareEquipment_PanelCountCappedForHugeRoof() {
+        EquipmentComparisonRequest request = createRequest();
+        request.setHasHeatPump(false);
+        request.setHasBattery(false);
+        request.setSolarPanelTypeIds(List.of(1L));
+        request.setRoofArea(1e9);
+        
+        EquipmentComparisonResult.EquipmentOption option = service.compareEquipment(request).getSolarPanelOptions().get(0);
+        
+        assertEquals(SystemSizingService.MAX_PANEL_COUNT, option.getRecommendedQuantity());
+        assertEquals(SystemSizingService.MAX_PANEL_COUNT * 0.355, option.getTotalSystemCapacity(), 1e-9);
+    }
+    
+    @Test
+    void testCompareEquipment_EvaluationErrorsAreRethrown() {
+        ReflectionTestUtils.setField(carbonSavingsService, "carbonIntensityService", new CarbonIntensityService() {
+            @Override
+            public IntToDoubleFunction getHourlyIntensity(String region) {
+                throw new IllegalArgumentException("Unknown region: " + region);
+            }
+        });
+        EquipmentComparisonRequest request = createRequest();
+        request.setCarbonIntensityRegion("atlantis");
+        
+        // The option's own exception reaches the controller, not a CompletionException
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.compareEquipment(request));
+        assertEquals("Unknown region: atlantis", e.getMessage());
+    }
+    
+    private static EquipmentCatalogService catalogService(int panelCount, int heatPumpCount, int batteryCount) {
+        List<SolarPanelType> panels = new ArrayList<>();
+        List<HeatPump> heatPumps = new ArrayList<>();
+        List<Battery> batteries = new ArrayList<>();
+        for (int i = 1; i <= panelCount; i++) {
+            SolarPanelType panel = new SolarPanelType("Panel " + i, "Test", 1.7 + i * 0.02, 350.0 + i * 5);
+            panel.setId((long) i);
+            panel.setEfficiency(19.0 + i * 0.1);
+            panel.setPrice(200.0 + i * 4);
+            panels.add(panel);
+        }
+        for (int i = 1; i <= Math.max(heatPumpCount, batteryCount); i++) {
+            HeatPump heatPump = new HeatPump();
+            heatPump.setId(i);
+            heatPump.setName("HP " + i);
+            heatPump.setCop(BigDecimal.valueOf(2.8 + i * 0.1));
+            heatPump.setCost(BigDecimal.valueOf(7000 + i * 300));
+            if (i <= heatPumpCount) {
+                heatPumps.add(heatPump);
+            }
+            
+            Battery battery = new Battery();
+            battery.setId(i);
+            battery.setName("Battery " + i);
+            battery.setCapacityKwh(BigDecimal.valueOf(2.5 * i));
+            battery.setCost(BigDecimal.valueOf(2000 + i * 500));
+            if (i <= batteryCount) {
+                batteries.add(battery);
+            }
+        }
+        EquipmentCatalogService catalogService = new EquipmentCatalogService();
+        ReflectionTestUtils.setField(catalogService, "solarPanelTypeRepository", findAll(SolarPanelTypeRepository.class, panels));
+        ReflectionTestUtils.setField(catalogService, "heatPumpRepository", findAll(HeatPumpRepository.class, heatPumps));
+        ReflectionTestUtils.setField(catalogService, "batteryRepository", findAll(BatteryRepository.class, batteries));
+        
+        return catalogService;
+    }
+    
+    private static EquipmentComparisonRequest createRequest() {
+        EquipmentComparisonRequest request = new EquipmentComparisonRequest();
+        request.setHasSolarPanels(true);
+        request.setHasHeatPump(true);
+        request.setHasBattery(true);
+        request.setSolarPanelTypeIds(LongStream.rangeClosed(1, 20).boxed().toList());
+        request.setHeatPumpTypeIds(LongStream.rangeClosed(1, 10).boxed().toList());
+        request.setBatteryIds(LongStream.rangeClosed(1, 10).boxed().toList());
+        request.setRoofArea(25.0);
+        request.setAnnualElectricityUsageKwh(3600.0);
+        request.setAnnualGasUsageKwh(12000.0);
+        request.setHomeOccupancyFactor(0.5);
+        request.setElectricityRate(24.5);
+        request.setGasRate(6.3);
+        request.setExportRate(15.0);
+        request.setPeakElectricityRate(35.0);
+        request.setOffPeakElectricityRate(12.0);
+        return request;
+    }
+    
+    private static List<EquipmentComparisonResult.EquipmentOption> withNone(List<EquipmentComparisonResult.EquipmentOption> options) {
+        List<EquipmentComparisonResult.EquipmentOption> choices = new ArrayList<>();
+        choices.add(null);
+        choices.addAll(options);
+        return choices;
+    }
+    
+    private static ConfigurationFrontierResult.Configuration archetype(List<ConfigurationFrontierResult.Configuration> frontier,
+                                                                       String archetype) {
+        List<ConfigurationFrontierResult.Configuration> marked = frontier.stream()
+            .filter(configuration -> configuration.getArchetypes().contains(archetype)).toList();
+        assertEquals(1, marked.size(), archetype);
+        return marked.get(0);
+    }
+    
+    private static EquipmentComparisonService.Combination combination(int index, double cost, double co2, double payback) {
+        return new EquipmentComparisonService.Combination(index, 0, 0, cost, cost / payback, co2, payback);
+    }
+    
+    private static List<EquipmentComparisonResult.EquipmentOption> randomOptions(Random random, int count, long firstId) {
+        List<EquipmentComparisonResult.EquipmentOption> options = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EquipmentComparisonResult.EquipmentOption option = new EquipmentComparisonResult.EquipmentOption();
+            option.setEquipmentId(firstId + i + 1);
+            option.setEquipmentName("Option " + (firstId + i + 1));
+            option.setInstallationCost((double) (1 + random.nextInt(20)) * 500);
+            option.setAnnualCostSavings((double) random.nextInt(12) * 50 - 100);
+            option.setAnnualTotalCO2Savings((double) random.nextInt(10) * 100);
+            options.add(option);
+        }
+        return options;
+    }
+    
+    private static double cost(EquipmentComparisonResult.EquipmentOption option) {
+        return option != null ? option.getInstallationCost() : 0.0;
+    }
+    
+    private static double savings(EquipmentComparisonResult.EquipmentOption option) {
+        return option != null ? option.getAnnualCostSavings() : 0.0;
+    }
+    
+    private static double co2(EquipmentComparisonResult.EquipmentOption option) {
+        return option != null && option.getAnnualTotalCO2Savings() != null ? option.getAnnualTotalCO2Savings() : 0.0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <R> R findAll(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.HeatPumpPerformancePoint;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import com.wx.renewableCalculator.backend.service.HeatPumpPerformanceService.HeatPumpPerformance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeatPumpPerformanceServiceTest {
+
+    private HeatPumpPerformanceService service;
+
+    @BeforeEach
+    void setUp() {
+        // Heat pump 1: W35 curve at -7/2/7 °C and W55 curve at -7/7 °C, plus two unusable points
+        HeatPump mapped = heatPump(1, "3.5",
+            point("-7", "35", "2.5"), point("2", "35", "3.2"), point("7", "35", "4.0"),
+            point("-7", "55", "1.8"), point("7", "55", "2.8"),
+            point(null, "35", "9.9"), point("12", "35", "0"));
+        // Heat pump 2: rated COP only
+        HeatPump rated = heatPump(2, "4.0");
+        // Heat pump 3: one point below the backup heater floor
+        HeatPump poor = heatPump(3, "2.0", point("-20", "55", "0.6"));
+
+        EquipmentCatalogService catalogService = new EquipmentCatalogService();
+        ReflectionTestUtils.setField(catalogService, "solarPanelTypeRepository", repository(SolarPanelTypeRepository.class, List.of()));
+        ReflectionTestUtils.setField(catalogService, "heatPumpRepository", repository(HeatPumpRepository.class, List.of(mapped, rated, poor)));
+        ReflectionTestUtils.setField(catalogService, "batteryRepository", repository(BatteryRepository.class, List.of()));
+
+        service = new HeatPumpPerformanceService();
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService);
+    }
+
+    @Test
+    void testCop_PerformanceMapEndpointsAndInterpolation() {
+        // Given: the mapped heat pump
+        HeatPumpPerformance performance = service.getPerformance(1);
+
+        // Then: measured points are returned exactly and values between them are linear
+        assertTrue(performance.hasPerformanceMap());
+        assertEquals(2.5, performance.cop(-7.0, 35.0), 1e-9);
+        assertEquals(3.2, performance.cop(2.0, 35.0), 1e-9);
+        assertEquals(4.0, performance.cop(7.0, 35.0), 1e-9);
+        assertEquals(3.6, performance.cop(4.5, 35.0), 1e-9);
+        assertEquals(2.8, performance.cop(7.0, 55.0), 1e-9);
+
+        // Between flow temperatures both curves are blended
+        assertEquals(0.5 * 4.0 + 0.5 * 2.8, performance.cop(7.0, 45.0), 1e-9);
+        assertEquals(0.75 * (2.5 + 0.7 * 7.0 / 9.0) + 0.25 * (1.8 + 1.0 * 7.0 / 14.0), performance.cop(0.0, 40.0), 1e-9);
+    }
+
+    @Test
+    void testCop_OutOfRangeTemperaturesClamped() {
+        // Given: the mapped heat pump
+        HeatPumpPerformance performance = service.getPerformance(1);
+
+        // Then: outdoor and flow temperatures beyond the map hold the nearest measured value
+        assertEquals(2.5, performance.cop(-20.0, 35.0), 1e-9);
+        assertEquals(4.0, performance.cop(25.0, 35.0), 1e-9);
+        assertEquals(4.0, performance.cop(7.0, 25.0), 1e-9);
+        assertEquals(1.8, performance.cop(-15.0, 70.0), 1e-9);
+        assertEquals(2.8, performance.cop(25.0, 70.0), 1e-9);
+
+        // And no value falls below the backup heater floor
+        assertEquals(1.0, service.getPerformance(3).cop(-20.0, 55.0), 1e-9);
+    }
+
+    @Test
+    void testCop_RatedCopScaledByCarnot() {
+        // Given: a heat pump with a rated COP only, and one missing from the catalog
+        HeatPumpPerformance rated = service.getPerformance(2);
+        HeatPumpPerformance missing = service.getPerformance(99);
+
+        // Then: the rated COP applies at A7/W35 and scales with the Carnot COP elsewhere
+        assertFalse(rated.hasPerformanceMap());
+        assertEquals(4.0, rated.cop(7.0, 35.0), 1e-9);
+        assertEquals(4.0 * (308.15 / 38.0) / (308.15 / 28.0), rated.cop(-3.0, 35.0), 1e-9);
+        assertEquals(4.0 * (328.15 / 48.0) / (308.15 / 28.0), rated.cop(7.0, 55.0), 1e-9);
+        // A lift under 5 K is treated as 5 K
+        assertEquals(4.0 * (308.15 / 5.0) / (308.15 / 28.0), rated.cop(33.0, 35.0), 1e-9);
+        assertEquals(HeatPumpPerformanceService.DEFAULT_COP, missing.getRatedCop());
+        assertEquals(HeatPumpPerformanceService.DEFAULT_COP, missing.cop(7.0, 35.0), 1e-9);
+    }
+
+    @Test
+    void testCalculateMonthlyElectricity_DailyCop() {
+        // Given: 10 kWh of heat a day, at 2 °C in the first half of the year and 7 °C after, with no heat in August
+        double[] thermal = new double[ReferenceYear.DAYS_PER_YEAR];
+        double[] temperatures = new double[ReferenceYear.DAYS_PER_YEAR];
+        Arrays.fill(thermal, 10.0);
+        for (int day = 0; day < ReferenceYear.DAYS_PER_YEAR; day++) {
+            temperatures[day] = ReferenceYear.monthOfDay(day) <= 6 ? 2.0 : 7.0;
+        }
+        Arrays.fill(thermal, ReferenceYear.monthStartDay(8), ReferenceYear.monthEndDay(8), 0.0);
+
+        // When: evaluating the mapped heat pump at a 35 °C flow
+        double[] electricity = service.calculateMonthlyElectricity(service.getPerformance(1), thermal, temperatures, 35.0);
+
+        // Then: each day is divided by its own COP
+        assertEquals(31 * 10.0 / 3.2, electricity[0], 1e-9);
+        assertEquals(31 * 10.0 / 4.0, electricity[6], 1e-9);
+        assertEquals(0.0, electricity[7]);
+    }
+
+    private static HeatPump heatPump(int id, String cop, HeatPumpPerformancePoint... points) {
+        HeatPump heatPump = new HeatPump();
+        heatPump.setId(id);
+        heatPump.setName("Heat pump " + id);
+        heatPump.setCop(new BigDecimal(cop));
+        heatPump.setCost(new BigDecimal("8000"));
+        heatPump.getPerformanceMap().addAll(Arrays.asList(points));
+        return heatPump;
+    }
+
+    private static HeatPumpPerformancePoint point(String outdoor, String flow, String cop) {
+        return new HeatPumpPerformancePoint(outdoor != null ? new BigDecimal(outdoor) : null,
+            new BigDecimal(flow), new BigDecimal(cop));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.wx.renewableCalculator.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HorizonShadingServiceTest {
+
+    private static final double LONDON = 51.5;
+
+    private final HorizonShadingService service = new HorizonShadingService();
+
+    @Test
+    void testCalculateMonthlyShadingFactors_OpenAndClosedHorizon() {
+        // Given: a flat horizon and one walled in at 90°
+        List<Double> open = Collections.nCopies(36, 0.0);
+        List<Double> closed = Collections.nCopies(36, 90.0);
+
+        // When: calculating monthly factors
+        double[] openFactors = service.calculateMonthlyShadingFactors(LONDON, open);
+        double[] closedFactors = service.calculateMonthlyShadingFactors(LONDON, closed);
+
+        // Then: nothing is lost under an open sky and everything is lost behind the wall
+        for (int month = 0; month < 12; month++) {
+            assertEquals(1.0, openFactors[month], 1e-12);
+            assertEquals(0.0, closedFactors[month], 1e-9);
+        }
+    }
+
+    @Test
+    void testCalculateMonthlyShadingFactors_ObstructionDirection() {
+        // Given: a 60° obstruction across the northern sky, and the same across the southern sky
+        List<Double> north = horizon(0, 1, 2, 3, 4, 32, 33, 34, 35);
+        List<Double> south = horizon(14, 15, 16, 17, 18, 19, 20, 21, 22);
+
+        // When: calculating monthly factors
+        double[] northFactors = service.calculateMonthlyShadingFactors(LONDON, north);
+        double[] southFactors = service.calculateMonthlyShadingFactors(LONDON, south);
+
+        // Then: the winter sun never reaches the north, so December only loses diffuse light;
+        // sky view factor = (27 + 9 × cos²60°) / 36
+        double skyViewFactor = (27 + 9 * 0.25) / 36.0;
+        assertEquals(1.0 - 0.72 * (1.0 - skyViewFactor), northFactors[11], 1e-9);
+        assertTrue(southFactors[11] < northFactors[11]);
+        // The low winter sun is blocked more than the high summer sun
+        assertTrue(southFactors[11] < southFactors[5]);
+    }
+
+    @Test
+    void testCalculateMonthlyShadingFactors_ProfileResampled() {
+        // Given: the same 20° horizon at 8 and 72 azimuth bins, and a profile with missing and negative bins
+        List<Double> coarse = Collections.nCopies(8, 20.0);
+        List<Double> fine = Collections.nCopies(72, 20.0);
+        List<Double> sparse = new ArrayList<>(Arrays.asList(null, -5.0, 0.0, null));
+
+        // Then: the bin count does not change the result and missing or negative bins count as open sky
+        assertArrayEquals(service.calculateMonthlyShadingFactors(LONDON, coarse),
+            service.calculateMonthlyShadingFactors(LONDON, fine), 1e-12);
+        assertArrayEquals(service.calculateMonthlyShadingFactors(LONDON, Collections.nCopies(36, 0.0)),
+            service.calculateMonthlyShadingFactors(LONDON, sparse), 1e-12);
+    }
+
+    @Test
+    void testCalculateMonthlyShadingFactors_InvalidProfile() {
+        assertFalse(service.hasHorizonProfile(null));
+        assertFalse(service.hasHorizonProfile(List.of(10.0, 10.0, 10.0)));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.calculateMonthlyShadingFactors(LONDON, List.of(10.0, 10.0, 10.0)));
+    }
+
+    @Test
+    void testCalculateAnnualShadingFactor_BeamWeighted() {
+        // Given: full output in summer (Apr-Sep) and none in winter
+        double[] monthly = new double[12];
+        Arrays.fill(monthly, 3, 9, 1.0);
+
+        // When: combining into an annual factor
+        double annual = service.calculateAnnualShadingFactor(LONDON, monthly);
+
+        // Then: summer carries more than half the beam energy, and a constant factor is unchanged
+        assertTrue(annual > 0.5 && annual < 1.0);
+        double[] constant = new double[12];
+        Arrays.fill(constant, 0.8);
+        assertEquals(0.8, service.calculateAnnualShadingFactor(null, constant), 1e-12);
+    }
+
+    private static List<Double> horizon(int... raisedBins) {
+        List<Double> profile = new ArrayList<>(Collections.nCopies(36, 0.0));
+        for (int bin : raisedBins) {
+            profile.set(bin, 60.0);
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,189 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wx.renewableCalculator.backend.dto.BuildYear;
+import com.wx.renewableCalculator.backend.dto.ElectricityDemandRequest;
+import com.wx.renewableCalculator.backend.dto.FloorInsulation;
+import com.wx.renewableCalculator.backend.dto.GasDemandRequest;
+import com.wx.renewableCalculator.backend.dto.HouseType;
+import com.wx.renewableCalculator.backend.dto.RoofInsulation;
+import com.wx.renewableCalculator.backend.dto.WallType;
+import com.wx.renewableCalculator.backend.dto.WindowType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdThermalModelServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+    private boolean weatherAvailable = true;
+    private HouseholdThermalModelService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HouseholdThermalModelService();
+        ReflectionTestUtils.setField(service, "weatherDataService", new WeatherDataService() {
+            @Override
+            public double[] getDailyTemperatures(double latitude, double longitude) {
+                weatherCalls.incrementAndGet();
+                if (!weatherAvailable) {
+                    return null;
+                }
+                double[] temperatures = new double[ReferenceYear.DAYS_PER_YEAR];
+                Arrays.fill(temperatures, 5.0);
+                return temperatures;
+            }
+        });
+        ReflectionTestUtils.setField(service, "archetypeDemandCubeService", new ArchetypeDemandCubeService() {
+            @Override
+            public int findSlot(double latitude, double longitude) {
+                return -1;
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testParse_EnvelopeCodesResolvedAtBoundary() throws Exception {
+        // Given: a request with known codes, the legacy "cavity" code, unknown and wrongly cased codes and a null
+        String json = "{\"houseArea\":100,\"wallType\":\"cavity\",\"windowType\":\"quadruple\","
+            + "\"roofInsulation\":\"yes\",\"floorInsulation\":null,\"houseType\":\"DETACHED\",\"buildYear\":\"before-1930\"}";
+
+        // When: deserialising the electricity and gas requests
+        ElectricityDemandRequest electricity = objectMapper.readValue(json, ElectricityDemandRequest.class);
+        GasDemandRequest gas = objectMapper.readValue(json, GasDemandRequest.class);
+
+        // Then: known codes map to their enums, unknown codes to the calculator defaults and null stays unset
+        assertEquals(WallType.CAVITY_UNINSULATED, electricity.getWallType());
+        assertEquals(WindowType.DOUBLE, electricity.getWindowType());
+        assertEquals(RoofInsulation.YES, electricity.getRoofInsulation());
+        assertNull(electricity.getFloorInsulation());
+        assertEquals(HouseType.SEMI_DETACHED, electricity.getHouseType());
+        assertEquals(BuildYear.BEFORE_1930, electricity.getBuildYear());
+        assertEquals(electricity.getWallType(), gas.getWallType());
+        assertEquals(electricity.getHouseType(), gas.getHouseType());
+
+        // Codes are written back unchanged
+        assertTrue(objectMapper.writeValueAsString(electricity).contains("\"wallType\":\"cavity-uninsulated\""));
+    }
+
+    @Test
+    void testGetThermalDemand_HeatLossFromEnvelopeTable() {
+        // Given: a 100 m² detached pre-1930 brick house with single glazing and no insulation
+        ElectricityDemandRequest request = new ElectricityDemandRequest();
+        request.setHouseArea(100.0);
+        request.setWallType(WallType.BRICK);
+        request.setWindowType(WindowType.SINGLE);
+        request.setRoofInsulation(RoofInsulation.NO);
+        request.setFloorInsulation(FloorInsulation.NO);
+        request.setHouseType(HouseType.DETACHED);
+        request.setBuildYear(BuildYear.BEFORE_1930);
+
+        // When: running the thermal model at a constant 5 °C
+        HouseholdThermalModelService.ThermalDemand demand = service.getThermalDemand(request, null, null);
+
+        // Then: (2.0 × 0.3 + 5.0 × 0.15 + 0.6 × 0.2 + 0.6 × 0.2) × 1.0 + 0.33 × 0.9 × 2.4
+        double expected = 1.59 + 0.33 * 0.9 * 2.4;
+        assertEquals(expected, demand.getHeatLossCoefficient(), 1e-9);
+        assertEquals(HouseholdThermalModelService.spaceHeatingPerArea(expected, 5.0, 1) * 100.0, demand.getSpaceHeating(1), 1e-6);
+    }
+
+    @Test
+    void testGetThermalDemand_MissingAndUnknownCodesUseDefaults() throws Exception {
+        // Given: one house with no envelope inputs, one with unrecognised codes and one with the defaults spelled out
+        ElectricityDemandRequest missing = new ElectricityDemandRequest();
+        missing.setHouseArea(80.0);
+        ElectricityDemandRequest unknown = objectMapper.readValue("{\"houseArea\":80,\"wallType\":\"straw\","
+            + "\"windowType\":\"\",\"roofInsulation\":\"maybe\",\"floorInsulation\":\"1\",\"houseType\":\"castle\","
+            + "\"buildYear\":\"2050\"}", ElectricityDemandRequest.class);
+        ElectricityDemandRequest defaults = new ElectricityDemandRequest();
+        defaults.setHouseArea(80.0);
+        defaults.setWallType(WallType.CAVITY_UNINSULATED);
+        defaults.setWindowType(WindowType.DOUBLE);
+        defaults.setRoofInsulation(RoofInsulation.NO);
+        defaults.setFloorInsulation(FloorInsulation.NO);
+        defaults.setHouseType(HouseType.SEMI_DETACHED);
+        defaults.setBuildYear(BuildYear.FROM_1981_TO_2002);
+
+        // When: running the thermal model for each
+        double expected = service.getThermalDemand(defaults, null, null).getHeatLossCoefficient();
+
+        // Then: all three share the default envelope's coefficient
+        assertEquals((1.5 * 0.3 + 2.8 * 0.15 + 0.6 * 0.2 + 0.6 * 0.2) * 0.85 + 0.33 * 0.55 * 2.4, expected, 1e-9);
+        assertEquals(expected, service.getThermalDemand(missing, null, null).getHeatLossCoefficient(), 1e-12);
+        assertEquals(expected, service.getThermalDemand(unknown, null, null).getHeatLossCoefficient(), 1e-12);
+    }
+
+    @Test
+    void testGetThermalDemand_SharedBetweenElectricityAndGas() {
+        // Given: the same 90 m² house described by an electricity request and a gas request
+        ElectricityDemandRequest electricity = new ElectricityDemandRequest();
+        electricity.setHouseArea(90.0);
+        electricity.setOccupants(3);
+        electricity.setWallType(WallType.STONE);
+        GasDemandRequest gas = new GasDemandRequest();
+        gas.setHouseArea(90.0);
+        gas.setOccupants(3);
+        gas.setWallType(WallType.STONE);
+
+        // When: both ask for the thermal demand at nearby points in the same climate cell
+        HouseholdThermalModelService.ThermalDemand first = service.getThermalDemand(electricity, 51.50, -0.12);
+        HouseholdThermalModelService.ThermalDemand second = service.getThermalDemand(gas, 51.51, -0.11);
+
+        // Then: the model runs once and both projections read the same result
+        assertSame(first, second);
+        assertEquals(1, weatherCalls.get());
+        assertEquals(HouseholdThermalModelService.hotWaterDemand(3, 1), second.getHotWater(1), 1e-9);
+
+        // A different building runs the model again
+        gas.setHouseArea(120.0);
+        assertNotSame(first, service.getThermalDemand(gas, 51.50, -0.12));
+        assertEquals(2, weatherCalls.get());
+    }
+
+    @Test
+    void testGetThermalDemand_WeatherFallbackMemoisedOnlyWithinRequest() {
+        // Given: the weather archive is down
+        weatherAvailable = false;
+        ElectricityDemandRequest request = new ElectricityDemandRequest();
+        request.setHouseArea(100.0);
+
+        // When: the same house is requested twice outside an HTTP request
+        HouseholdThermalModelService.ThermalDemand fallback = service.getThermalDemand(request, null, null);
+        service.getThermalDemand(request, null, null);
+
+        // Then: default temperatures are used and the fetch is retried rather than cached
+        assertTrue(fallback.getAnnualSpaceHeating() > 0);
+        assertEquals(2, weatherCalls.get());
+
+        // Within one HTTP request the result is memoised regardless
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        HouseholdThermalModelService.ThermalDemand memoised = service.getThermalDemand(request, null, null);
+        assertSame(memoised, service.getThermalDemand(request, null, null));
+        assertEquals(3, weatherCalls.get());
+    }
+
+    @Test
+    void testHeatLossCoefficient_TableCoversEveryCombination() {
+        assertEquals(WallType.values().length * WindowType.values().length * RoofInsulation.values().length
+            * FloorInsulation.values().length * HouseType.values().length * BuildYear.values().length,
+            HouseholdThermalModelService.ENVELOPE_COMBINATIONS);
+        for (int i = 0; i < HouseholdThermalModelService.ENVELOPE_COMBINATIONS; i++) {
+            assertTrue(HouseholdThermalModelService.heatLossCoefficient(i) > 0);
+        }
+    }
+}
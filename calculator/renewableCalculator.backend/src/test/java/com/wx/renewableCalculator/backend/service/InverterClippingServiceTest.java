@@ -0,0 +1,85 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.service.InverterClippingService.ClippingResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InverterClippingServiceTest {
+
+    private final InverterClippingService service = new InverterClippingService();
+
+    @Test
+    void testSimulateMonth_ClippingThenExportLimit() {
+        // Given: January's output packed into seven hours of 5%, 10%, 20%, 30%, 20%, 10% and 5%
+        float[] profile = januaryPeakProfile();
+
+        // When: 20 kWh DC runs through a 5 kW inverter, with and without the G98 limit
+        ClippingResult unlimited = service.simulateMonth(profile, 1, 20.0, 5.0, Double.POSITIVE_INFINITY);
+        ClippingResult limited = service.simulateMonth(profile, 1, 20.0, 5.0, InverterClippingService.G98_EXPORT_LIMIT_KW);
+
+        // Then: the 6 kWh hour clips to 5 kW, and the 4 and 5 kWh hours are curtailed to 3.68 kW
+        assertEquals(1.0, unlimited.getClippedKwh(), 1e-6);
+        assertEquals(0.0, unlimited.getCurtailedKwh());
+        assertEquals(19.0, unlimited.getDeliveredKwh(), 1e-6);
+        assertEquals(1.0, limited.getClippedKwh(), 1e-6);
+        assertEquals(2 * (4.0 - 3.68) + (5.0 - 3.68), limited.getCurtailedKwh(), 1e-6);
+        assertEquals(20.0, limited.getDeliveredKwh() + limited.getClippedKwh() + limited.getCurtailedKwh(), 1e-9);
+    }
+
+    @Test
+    void testSimulateMonth_OversizedInverterLosesNothing() {
+        ClippingResult result = service.simulateMonth(januaryPeakProfile(), 1, 20.0, 10.0, Double.POSITIVE_INFINITY);
+
+        assertEquals(0.0, result.getClippedKwh());
+        assertEquals(0.0, result.getCurtailedKwh());
+        assertEquals(20.0, result.getDeliveredKwh(), 1e-9);
+    }
+
+    @Test
+    void testSimulateAverageMonth_LossesAveragedOverMonths() {
+        // Given: a profile where only January has any output
+        float[] profile = januaryPeakProfile();
+
+        // When: the month is unknown
+        ClippingResult average = service.simulateAverageMonth(profile, 20.0, 5.0, InverterClippingService.G98_EXPORT_LIMIT_KW);
+        ClippingResult january = service.simulateMonth(profile, 1, 20.0, 5.0, InverterClippingService.G98_EXPORT_LIMIT_KW);
+
+        // Then: January's losses are spread over the year
+        assertEquals(january.getClippedKwh() / 12.0, average.getClippedKwh(), 1e-9);
+        assertEquals(january.getCurtailedKwh() / 12.0, average.getCurtailedKwh(), 1e-9);
+        assertEquals(20.0 - average.getClippedKwh() - average.getCurtailedKwh(), average.getDeliveredKwh(), 1e-9);
+    }
+
+    @Test
+    void testSimulateMonth_SyntheticProfileClipsOversizedArrays() {
+        // Given: the synthetic London profile, whose hours sum to 1.0 in every month
+        float[] profile = new SolarHourlyProfileService().getNormalisedProfile(null);
+        for (int month = 1; month <= 12; month++) {
+            double sum = 0.0;
+            for (int h = ReferenceYear.monthStartHour(month); h < ReferenceYear.monthEndHour(month); h++) {
+                assertTrue(profile[h] >= 0);
+                sum += profile[h];
+            }
+            assertEquals(1.0, sum, 1e-4);
+        }
+
+        // When: a June month from 6 kWp DC and 4.8 kWp DC run through a 3.6 kW inverter
+        double kwhPerKwp = 130.0;
+        ClippingResult large = service.simulateMonth(profile, 6, 6.0 * kwhPerKwp, 3.6, Double.POSITIVE_INFINITY);
+        ClippingResult small = service.simulateMonth(profile, 6, 4.8 * kwhPerKwp, 3.6, Double.POSITIVE_INFINITY);
+
+        // Then: the more oversized array clips a larger share of its output
+        assertTrue(large.getClippedKwh() > 0);
+        assertTrue(large.getClippedKwh() / large.getDcKwh() > small.getClippedKwh() / small.getDcKwh());
+    }
+
+    private static float[] januaryPeakProfile() {
+        float[] profile = new float[ReferenceYear.HOURS_PER_YEAR];
+        float[] shares = {0.05f, 0.1f, 0.2f, 0.3f, 0.2f, 0.1f, 0.05f};
+        for (int i = 0; i < shares.length; i++) {
+            profile[ReferenceYear.monthStartHour(1) + 9 + i] = shares[i];
+        }
+        return profile;
+    }
+}
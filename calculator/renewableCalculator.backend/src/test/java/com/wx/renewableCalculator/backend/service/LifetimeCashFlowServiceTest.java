@@ -0,0 +1,75 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LifetimeCashFlowServiceTest {
+
+    private LifetimeCashFlowService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LifetimeCashFlowService();
+    }
+
+    @Test
+    void testNpvAndIrr_KnownCashFlows() {
+        // Given: -1000 then 500, 400, 300
+        double[] cashFlows = {-1000.0, 500.0, 400.0, 300.0};
+
+        // Then: NPV at 10% = 500/1.1 + 400/1.21 + 300/1.331 - 1000, IRR about 10.65%
+        assertEquals(500 / 1.1 + 400 / 1.21 + 300 / 1.331 - 1000, LifetimeCashFlowService.npv(cashFlows, 0.1), 1e-9);
+        double irr = LifetimeCashFlowService.irr(cashFlows);
+        assertEquals(0.0, LifetimeCashFlowService.npv(cashFlows, irr), 1e-6);
+        assertEquals(0.1065, irr, 0.0005);
+        assertTrue(Double.isNaN(LifetimeCashFlowService.irr(new double[]{-1000.0, -10.0})));
+    }
+
+    @Test
+    void testProject_FlatSavingsPaybackInterpolated() {
+        // Given: £1000 system saving £300 a year with no escalation or degradation
+        LifetimeCashFlowRequest request = new LifetimeCashFlowRequest();
+        request.setInstallationCost(1000.0);
+        request.setFirstYearSavings(300.0);
+        request.setLifetimeYears(10);
+        request.setEnergyPriceEscalation(0.0);
+        request.setDiscountRate(0.05);
+
+        // When: projecting
+        LifetimeCashFlowResult result = service.toResult(service.project(request));
+
+        // Then: payback after 3.33 years, discounted payback later, 10 yearly flows plus installation
+        assertEquals(3.33, result.getSimplePaybackYears(), 0.01);
+        assertTrue(result.getDiscountedPaybackYears() > 3.33);
+        assertEquals(2000.0, result.getLifetimeNetSavings(), 0.01);
+        assertEquals(11, result.getYearlyCashFlows().size());
+        assertEquals(200.0, result.getLifetimeROI(), 0.01);
+    }
+
+    @Test
+    void testDefaultsFor_SolarInverterReplacementAndDegradation() {
+        // Given: solar defaults with everything at today's prices
+        LifetimeCashFlowRequest request = LifetimeCashFlowService.defaultsFor("solar", 10000.0, 1000.0, 0.0);
+        request.setEnergyPriceEscalation(0.0);
+        request.setInflationRate(0.0);
+
+        // When: projecting
+        LifetimeCashFlowService.CashFlowProjection projection = service.project(request);
+
+        // Then: the inverter is replaced in years 12 and 24, output fades 0.5% a year
+        assertEquals(25, projection.getLifetimeYears());
+        assertEquals(1000.0 * Math.pow(0.995, 10), projection.getCashFlow(11), 1e-6);
+        assertEquals(1000.0 * Math.pow(0.995, 11) - 1200.0, projection.getCashFlow(12), 1e-6);
+        assertEquals(1000.0 * Math.pow(0.995, 23) - 1200.0, projection.getCashFlow(24), 1e-6);
+        assertEquals(1000.0 * Math.pow(0.995, 24), projection.getCashFlow(25), 1e-6);
+
+        // A battery with no savings never pays back
+        LifetimeCashFlowRequest battery = LifetimeCashFlowService.defaultsFor("battery", 5000.0, 0.0, 0.0);
+        assertTrue(Double.isInfinite(service.project(battery).getSimplePaybackYears()));
+        assertNull(service.toResult(service.project(battery)).getInternalRateOfReturn());
+    }
+}
@@ -0,0 +1,128 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LoadArchetype;
+import com.wx.renewableCalculator.backend.dto.OccupancyPattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadProfileLibraryServiceTest {
+
+    private final LoadProfileLibraryService service = new LoadProfileLibraryService();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service.loadProfiles();
+    }
+
+    @Test
+    void testLoadProfiles_EveryProfileNormalisedPerMonth() {
+        for (LoadArchetype archetype : LoadArchetype.values()) {
+            for (OccupancyPattern occupancy : OccupancyPattern.values()) {
+                float[] profile = service.getNormalisedProfile(archetype, occupancy);
+                float[] hourly = service.getNormalisedHourlyProfile(archetype, occupancy);
+                assertEquals(ReferenceYear.HALF_HOURS_PER_YEAR, profile.length);
+                assertArrayEquals(LoadProfileLibraryService.toHourly(profile), hourly);
+
+                for (int month = 1; month <= 12; month++) {
+                    double sum = 0.0;
+                    for (int i = ReferenceYear.monthStartHalfHour(month); i < ReferenceYear.monthEndHalfHour(month); i++) {
+                        assertTrue(profile[i] >= 0);
+                        sum += profile[i];
+                    }
+                    assertEquals(1.0, sum, 1e-4, archetype.getCode() + "/" + occupancy.getCode() + " month " + month);
+                }
+            }
+        }
+
+        // Missing selections use the defaults
+        assertSame(service.getNormalisedProfile(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY),
+            service.getNormalisedProfile(null, null));
+    }
+
+    @Test
+    void testGetNormalisedProfile_OccupancyShiftsWeekdayDaytime() {
+        // Given: the first weekday of January
+        int day = 0;
+        while (ReferenceYear.isWeekend(day)) {
+            day++;
+        }
+
+        // When: comparing the 10:00-16:00 share of that day for both occupancy patterns
+        double outDuringDay = share(service.getNormalisedProfile(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY), day);
+        double homeAllDay = share(service.getNormalisedProfile(LoadArchetype.STANDARD, OccupancyPattern.HOME_ALL_DAY), day);
+
+        // Then: a household at home uses more of its day's energy in the daytime
+        assertTrue(homeAllDay > outDuringDay);
+    }
+
+    @Test
+    void testScaleMonthly_PreservesMonthlyTotals() {
+        // Given: monthly totals of 100 to 320 kWh
+        double[] monthly = new double[12];
+        for (int month = 0; month < 12; month++) {
+            monthly[month] = 100.0 + 20.0 * month;
+        }
+
+        // When: scaling into a half-hourly year
+        float[] scaled = service.scaleMonthly(LoadArchetype.HEAT_PUMP, OccupancyPattern.HOME_ALL_DAY, monthly);
+
+        // Then: each month sums back to its total
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(monthly[month - 1], monthTotal(scaled, month), monthly[month - 1] * 1e-4);
+        }
+
+        // Months missing from a map are zero
+        float[] partial = service.scaleMonthly(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY, Map.of(1, 300.0));
+        assertEquals(300.0, monthTotal(partial, 1), 0.03);
+        assertEquals(0.0, monthTotal(partial, 2));
+    }
+
+    @Test
+    void testScaleAnnual_SplitByArchetypeProportions() {
+        // When: scaling 3650 kWh for a standard and a heat pump household
+        float[] standard = service.scaleAnnual(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY, 3650.0);
+        float[] heatPump = service.scaleAnnual(LoadArchetype.HEAT_PUMP, OccupancyPattern.OUT_DURING_DAY, 3650.0);
+
+        // Then: months follow the matching demand proportions
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(3650.0 * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[month - 1] / 100.0,
+                monthTotal(standard, month), 0.05);
+            assertEquals(3650.0 * EnergyDemandService.HEAT_PUMP_MONTHLY_PROPORTIONS[month - 1] / 100.0,
+                monthTotal(heatPump, month), 0.05);
+        }
+    }
+
+    @Test
+    void testScaleMonthly_InvalidTotals() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.scaleMonthly(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY, new double[11]));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.scaleMonthly(LoadArchetype.STANDARD, OccupancyPattern.OUT_DURING_DAY, (double[]) null));
+    }
+
+    private static double share(float[] profile, int day) {
+        int offset = day * ReferenceYear.HALF_HOURS_PER_DAY;
+        double daytime = 0.0;
+        double total = 0.0;
+        for (int slot = 0; slot < ReferenceYear.HALF_HOURS_PER_DAY; slot++) {
+            total += profile[offset + slot];
+            if (slot >= 20 && slot < 32) {
+                daytime += profile[offset + slot];
+            }
+        }
+        return daytime / total;
+    }
+
+    private static double monthTotal(float[] profile, int month) {
+        double sum = 0.0;
+        for (int i = ReferenceYear.monthStartHalfHour(month); i < ReferenceYear.monthEndHalfHour(month); i++) {
+            sum += profile[i];
+        }
+        return sum;
+    }
+}
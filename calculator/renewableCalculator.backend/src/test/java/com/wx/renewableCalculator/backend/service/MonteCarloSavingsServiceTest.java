@@ -0,0 +1,137 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LifetimeCashFlowRequest;
+import com.wx.renewableCalculator.backend.dto.MonteCarloRequest;
+import com.wx.renewableCalculator.backend.dto.MonteCarloResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSavingsServiceTest {
+
+    private EnergyBalanceService energyBalanceService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+
+        energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+    }
+
+    private MonteCarloSavingsService createService(int parallelism) {
+        MonteCarloSavingsService service = new MonteCarloSavingsService();
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "parallelism", parallelism);
+        service.init();
+        return service;
+    }
+
+    private MonteCarloRequest createSolarRequest() {
+        MonteCarloRequest request = new MonteCarloRequest();
+        request.setMonthlySolarGenerationKwh(Arrays.asList(120.0, 180.0, 280.0, 380.0, 450.0, 460.0,
+            470.0, 400.0, 310.0, 220.0, 140.0, 100.0));
+        request.setMonthlyElectricityUsageKwh(Collections.nCopies(12, 300.0));
+        request.setHomeOccupancyFactor(0.5);
+        request.setElectricityRate(25.0);
+        request.setExportRate(15.0);
+        request.setInstallationCost(7000.0);
+        request.setScenarios(5000);
+        request.setSeed(42L);
+        return request;
+    }
+
+    @Test
+    void testSimulate_NoUncertaintyMatchesLifetimeCashFlow() {
+        // Given: a heat pump only, with every uncertainty switched off
+        MonteCarloRequest request = new MonteCarloRequest();
+        request.setMonthlyElectricityUsageKwh(Collections.nCopies(12, 250.0));
+        request.setHasHeatPump(true);
+        request.setAnnualGasReplacedKwh(12000.0);
+        request.setHeatPumpCop(3.0);
+        request.setGasRate(7.0);
+        request.setElectricityRate(24.0);
+        request.setInstallationCost(5000.0);
+        request.setLifetimeYears(20);
+        request.setAnnualMaintenanceCost(100.0);
+        request.setEnergyPriceVolatility(0.0);
+        request.setOccupancyUncertainty(0.0);
+        request.setCopUncertainty(0.0);
+        request.setScenarios(100);
+
+        // When: simulating
+        MonteCarloResult result = createService(1).simulate(request);
+
+        // Then: every scenario equals the deterministic projection (12000 × 7p - 4000 × 24p = -£120 a year)
+        LifetimeCashFlowRequest cashFlow = new LifetimeCashFlowRequest();
+        cashFlow.setInstallationCost(5000.0);
+        cashFlow.setFirstYearSavings(-120.0);
+        cashFlow.setLifetimeYears(20);
+        cashFlow.setAnnualMaintenanceCost(100.0);
+        double expectedNpv = new LifetimeCashFlowService().project(cashFlow).getNpv();
+        assertEquals(expectedNpv, result.getNetPresentValue().getP10(), 0.01);
+        assertEquals(expectedNpv, result.getNetPresentValue().getP90(), 0.01);
+        assertEquals(-120.0, result.getFirstYearSavings().getP50(), 0.01);
+        assertEquals(12000 * 0.183 - 4000 * 0.148, result.getAnnualCarbonSavedKg().getMean(), 0.01);
+        assertNull(result.getPaybackYears().getP50());
+        assertEquals(0.0, result.getProbabilityOfPayback());
+    }
+
+    @Test
+    void testSimulate_SeededRunIndependentOfThreadCount() {
+        // Given: the same seeded solar request
+        MonteCarloRequest request = createSolarRequest();
+
+        // When: simulating on one and on four threads
+        MonteCarloResult single = createService(1).simulate(request);
+        MonteCarloResult parallel = createService(4).simulate(request);
+
+        // Then: identical distributions with a real spread
+        assertEquals(single.getNetPresentValue(), parallel.getNetPresentValue());
+        assertEquals(single.getPaybackYears(), parallel.getPaybackYears());
+        MonteCarloResult.Distribution savings = single.getFirstYearSavings();
+        assertTrue(savings.getP10() < savings.getP50() && savings.getP50() < savings.getP90());
+        MonteCarloResult.Distribution npv = single.getNetPresentValue();
+        assertTrue(npv.getP90() - npv.getP10() > 100.0);
+    }
+
+    @Test
+    void testSimulate_ScenarioCountValidatedBeforeBuildingModel() {
+        // Given: an energy balance that must not be reached
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", null);
+        MonteCarloSavingsService service = createService(1);
+        MonteCarloRequest request = createSolarRequest();
+
+        // When/Then: out-of-range counts are rejected with the scenario message, not a failed balance
+        request.setScenarios(0);
+        IllegalArgumentException tooFew = assertThrows(IllegalArgumentException.class, () -> service.simulate(request));
+        assertTrue(tooFew.getMessage().startsWith("Scenarios must be between 1 and"));
+        request.setScenarios(Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(request));
+    }
+
+    @Test
+    void testSelfConsumed_InterpolatesTable() {
+        // Given: a table of occupancy × 100 + yield step
+        double[] table = new double[5 * 11];
+        for (int s = 0; s < 5; s++) {
+            for (int y = 0; y < 11; y++) {
+                table[s * 11 + y] = s * 100 + y;
+            }
+        }
+
+        // Then: bilinear between grid points, proportional below the grid
+        assertEquals(200 + 6, MonteCarloSavingsService.selfConsumed(table, 0.5, 1.0), 1e-9);
+        assertEquals(250 + 6.5, MonteCarloSavingsService.selfConsumed(table, 0.625, 1.0625), 1e-9);
+        assertEquals(410, MonteCarloSavingsService.selfConsumed(table, 1.0, 1.5), 1e-9);
+        assertEquals(100 * 0.5, MonteCarloSavingsService.selfConsumed(table, 0.25, 0.125), 1e-9);
+    }
+}
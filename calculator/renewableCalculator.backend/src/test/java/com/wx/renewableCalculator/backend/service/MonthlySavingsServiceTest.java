@@ -1,9 +1,15 @@
 package com.wx.renewableCalculator.backend.service;
 
+import com.wx.renewableCalculator.backend.dto.AnnualSavingsRequest;
+import com.wx.renewableCalculator.backend.dto.AnnualSavingsResult;
 import com.wx.renewableCalculator.backend.dto.MonthlySavingsRequest;
 import com.wx.renewableCalculator.backend.dto.MonthlySavingsResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MonthlySavingsServiceTest {
@@ -11,8 +17,18 @@ class MonthlySavingsServiceTest {
     private MonthlySavingsService service;
     
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        
+        EnergyBalanceService energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+        
         service = new MonthlySavingsService();
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "batteryDispatchService", new BatteryDispatchService());
+        ReflectionTestUtils.setField(service, "tariffScheduleService", new TariffScheduleService());
     }
     
     @Test
@@ -38,7 +54,7 @@ class MonthlySavingsServiceTest {
     
     @Test
     void testCalculateMonthlySavings_OnlySolarPanels() {
-        // Given: Only solar panels installed, home most of day (s=1, SCR=50%)
+        // Given: Only solar panels installed with an explicit SCR of 50%
         MonthlySavingsRequest request = new MonthlySavingsRequest();
         request.setHasSolarPanels(true);
         request.setHasHeatPump(false);
@@ -46,6 +62,7 @@ class MonthlySavingsServiceTest {
         request.setHasSupportEquipment(false);
         request.setMonth(6);
         request.setHomeOccupancyFactor(1.0); // Stay home most of day
+        request.setSelfConsumptionRate(0.5); // Explicit SCR overrides the hourly balance
         request.setSolarGenerationKwh(400.0); // 400 kWh generation
         request.setMonthlyElectricityUsageKwh(300.0); // 300 kWh usage
         request.setElectricityRate(30.0); // 30 pence/kWh
@@ -55,14 +72,13 @@ class MonthlySavingsServiceTest {
         MonthlySavingsResult result = service.calculateMonthlySavings(request);
         
         // Then: verify solar savings calculation
-        // SCR = 50% for s=1
         // Self-consumed = min(400, 300 * 0.5) = min(400, 150) = 150 kWh
         // Exported = 400 - 150 = 250 kWh
         // Self-consumption savings = 150 * 30 = 4500 pence
         // Export savings = 250 * 5 = 1250 pence
         // Total solar savings = 4500 + 1250 = 5750 pence
         
-        assertEquals(50.0, result.getSelfConsumptionRate(), 0.1); // 50% SCR
+        assertEquals(37.5, result.getSelfConsumptionRate(), 0.1); // 150 / 400 of generation
         assertEquals(150.0, result.getSolarSelfConsumedKwh(), 0.1);
         assertEquals(250.0, result.getSolarExportedKwh(), 0.1);
         assertEquals(4500.0, result.getSolarSelfConsumptionSavings(), 0.1);
@@ -137,7 +153,7 @@ class MonthlySavingsServiceTest {
         request.setMonth(6);
         
         // Solar parameters
-        request.setHomeOccupancyFactor(0.5); // Half day home (SCR=40%)
+        request.setHomeOccupancyFactor(0.5); // Half day home
         request.setSolarGenerationKwh(300.0);
         request.setMonthlyElectricityUsageKwh(250.0);
         request.setElectricityRate(30.0);
@@ -172,28 +188,104 @@ class MonthlySavingsServiceTest {
     }
     
     @Test
-    void testSelfConsumptionRateCalculation() {
-        // Test different home occupancy factors
+    void testSelfConsumptionRateFromHourlyBalance() {
+        // Given: the same generation and usage for different home occupancy factors
         MonthlySavingsRequest request = new MonthlySavingsRequest();
         request.setHasSolarPanels(true);
-        request.setSolarGenerationKwh(100.0);
-        request.setMonthlyElectricityUsageKwh(200.0);
+        request.setSolarGenerationKwh(300.0);
+        request.setMonthlyElectricityUsageKwh(250.0);
         request.setElectricityRate(30.0);
+        request.setExportRate(5.0);
         request.setMonth(6);
         
-        // Test s=1 (home most of day) -> SCR=50%
         request.setHomeOccupancyFactor(1.0);
-        MonthlySavingsResult result1 = service.calculateMonthlySavings(request);
-        assertEquals(50.0, result1.getSelfConsumptionRate(), 0.1);
+        MonthlySavingsResult home = service.calculateMonthlySavings(request);
         
-        // Test s=0.5 (home half day) -> SCR=40%
         request.setHomeOccupancyFactor(0.5);
-        MonthlySavingsResult result2 = service.calculateMonthlySavings(request);
-        assertEquals(40.0, result2.getSelfConsumptionRate(), 0.1);
+        MonthlySavingsResult halfDay = service.calculateMonthlySavings(request);
         
-        // Test s=0 (away most of day) -> SCR=30%
         request.setHomeOccupancyFactor(0.0);
-        MonthlySavingsResult result3 = service.calculateMonthlySavings(request);
-        assertEquals(30.0, result3.getSelfConsumptionRate(), 0.1);
+        MonthlySavingsResult away = service.calculateMonthlySavings(request);
+        
+        // Then: being at home in daylight hours raises self-consumption
+        assertTrue(home.getSelfConsumptionRate() > halfDay.getSelfConsumptionRate());
+        assertTrue(halfDay.getSelfConsumptionRate() > away.getSelfConsumptionRate());
+        assertTrue(away.getSelfConsumptionRate() > 0);
+        
+        // Energy is conserved and self-consumption cannot exceed generation or usage
+        for (MonthlySavingsResult result : new MonthlySavingsResult[]{home, halfDay, away}) {
+            assertTrue(result.getSolarSelfConsumedKwh() <= 250.0);
+            assertEquals(300.0, result.getSolarSelfConsumedKwh() + result.getSolarExportedKwh(), 0.001);
+            assertEquals(result.getSolarSelfConsumedKwh() * 30.0 + result.getSolarExportedKwh() * 5.0,
+                result.getSolarSavings(), 0.001);
+        }
+    }
+    
+    @Test
+    void testSelfConsumptionRateSeasonality() {
+        // Given: the same monthly totals in winter and summer
+        MonthlySavingsRequest request = new MonthlySavingsRequest();
+        request.setHasSolarPanels(true);
+        request.setSolarGenerationKwh(200.0);
+        request.setMonthlyElectricityUsageKwh(300.0);
+        request.setElectricityRate(30.0);
+        request.setHomeOccupancyFactor(0.5);
+        
+        request.setMonth(12);
+        MonthlySavingsResult december = service.calculateMonthlySavings(request);
+        
+        request.setMonth(6);
+        MonthlySavingsResult june = service.calculateMonthlySavings(request);
+        
+        // Then: short winter days concentrate generation at midday, long summer days spread it into lower-load hours
+        assertNotEquals(december.getSelfConsumptionRate(), june.getSelfConsumptionRate(), 0.1);
+        assertTrue(december.getSelfConsumptionRate() <= 100.0 && june.getSelfConsumptionRate() <= 100.0);
+    }
+    
+    @Test
+    void testCalculateAnnualSavings_MatchesMonthlyCalls() {
+        // Given: solar and a heat pump with seasonal generation, usage and gas
+        double[] generation = {80, 130, 220, 310, 380, 400, 390, 330, 250, 160, 90, 60};
+        double[] usage = {420, 380, 350, 300, 280, 260, 260, 270, 290, 330, 380, 430};
+        double[] gas = {1800, 1600, 1300, 900, 500, 250, 200, 220, 400, 900, 1400, 1750};
+        AnnualSavingsRequest annualRequest = new AnnualSavingsRequest();
+        annualRequest.setHasSolarPanels(true);
+        annualRequest.setHasHeatPump(true);
+        annualRequest.setSolarGenerationKwh(generation);
+        annualRequest.setElectricityUsageKwh(usage);
+        annualRequest.setGasConsumptionKwh(gas);
+        annualRequest.setElectricityRate(28.0);
+        annualRequest.setExportRate(12.0);
+        annualRequest.setGasRate(7.0);
+        annualRequest.setHeatPumpCop(3.2);
+        annualRequest.setHomeOccupancyFactor(0.5);
+        
+        // When: calculating the year in one call
+        AnnualSavingsResult annual = service.calculateAnnualSavings(annualRequest);
+        
+        // Then: every month equals the single-month endpoint
+        double total = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            MonthlySavingsRequest request = new MonthlySavingsRequest();
+            request.setHasSolarPanels(true);
+            request.setHasHeatPump(true);
+            request.setMonth(month);
+            request.setSolarGenerationKwh(generation[month - 1]);
+            request.setMonthlyElectricityUsageKwh(usage[month - 1]);
+            request.setGasConsumptionKwh(gas[month - 1]);
+            request.setElectricityRate(28.0);
+            request.setExportRate(12.0);
+            request.setGasRate(7.0);
+            request.setHeatPumpCop(3.2);
+            request.setHomeOccupancyFactor(0.5);
+            MonthlySavingsResult monthly = service.calculateMonthlySavings(request);
+            
+            assertEquals(monthly.getSolarSavings(), annual.getSolarSavings()[month - 1], 1e-6);
+            assertEquals(monthly.getHeatPumpSavings(), annual.getHeatPumpSavings()[month - 1], 1e-6);
+            assertEquals(monthly.getSelfConsumptionRate(), annual.getSelfConsumptionRate()[month - 1], 1e-6);
+            total += monthly.getTotalMonthlySavings();
+        }
+        assertEquals(total, annual.getTotalAnnualSavings(), 1e-6);
+        assertEquals(12, annual.getTotalMonthlySavings().length);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LocationSpecificYieldRequest;
+import com.wx.renewableCalculator.backend.dto.SensitivityRequest;
+import com.wx.renewableCalculator.backend.dto.SensitivityResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensitivityAnalysisServiceTest {
+
+    private SensitivityAnalysisService service;
+    private int climateLookups;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        EnergyBalanceService energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+
+        // 100 kWh/kWp every month without calling NASA POWER
+        LocationSpecificYieldService yieldService = new LocationSpecificYieldService() {
+            @Override
+            public MonthlyYield calculateMonthlyYield(LocationSpecificYieldRequest request) {
+                climateLookups++;
+                double[] monthlyYield = new double[12];
+                Arrays.fill(monthlyYield, 100.0);
+                return new MonthlyYield(monthlyYield, new double[12], new int[12]);
+            }
+        };
+
+        service = new SensitivityAnalysisService();
+        ReflectionTestUtils.setField(service, "locationSpecificYieldService", yieldService);
+        ReflectionTestUtils.setField(service, "solarElectricityGenerationService", new SolarElectricityGenerationService());
+        ReflectionTestUtils.setField(service, "solarInstallationCostService", new SolarInstallationCostService());
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "lifetimeCashFlowService", new LifetimeCashFlowService());
+    }
+
+    @Test
+    void testAnalyse_SolarInputsRankedByPaybackSwing() {
+        // Given: 4 kWp south-facing at 30°, 250 kWh a month
+        SensitivityRequest request = new SensitivityRequest();
+        request.setCapacityKw(4.0);
+        request.setTiltAngle(30);
+        request.setOrientation("s");
+        request.setMonthlyElectricityUsageKwh(Collections.nCopies(12, 250.0));
+        request.setHomeOccupancyFactor(0.5);
+        request.setElectricityRate(25.0);
+        request.setExportRate(15.0);
+        request.setInstallationCost(6000.0);
+
+        // When: analysing with the default ±20%
+        SensitivityResult result = service.analyse(request);
+
+        // Then: one climate lookup for 13 scenarios, swings in descending order
+        assertEquals(1, climateLookups);
+        assertEquals(13, result.getScenarios());
+        assertEquals(6, result.getInputs().size());
+        for (int i = 1; i < result.getInputs().size(); i++) {
+            assertTrue(result.getInputs().get(i - 1).getSwing() >= result.getInputs().get(i).getSwing());
+            assertEquals(i, result.getInputs().get(i - 1).getRank());
+        }
+
+        Map<String, SensitivityResult.InputSensitivity> byInput = result.getInputs().stream()
+            .collect(Collectors.toMap(SensitivityResult.InputSensitivity::getInput, Function.identity()));
+        assertTrue(byInput.get("installationCost").getDeltaHigh() > 0);
+        assertTrue(byInput.get("electricityRate").getDeltaHigh() < 0);
+        assertTrue(byInput.get("exportRate").getDeltaHigh() < 0);
+        // South at 30° is already the best tilt: 20° loses output, 40° matches it
+        assertTrue(byInput.get("tiltAngle").getDeltaLow() > 0);
+        assertEquals(0.0, byInput.get("tiltAngle").getDeltaHigh(), 1e-9);
+        assertEquals(40.0, byInput.get("tiltAngle").getHighValue());
+    }
+
+    @Test
+    void testAnalyse_HeatPumpOnlyRankedByNpv() {
+        // Given: a heat pump without solar
+        SensitivityRequest request = new SensitivityRequest();
+        request.setMonthlyElectricityUsageKwh(Collections.nCopies(12, 300.0));
+        request.setHasHeatPump(true);
+        request.setAnnualGasReplacedKwh(12000.0);
+        request.setHeatPumpCop(3.0);
+        request.setGasRate(7.0);
+        request.setElectricityRate(24.0);
+        request.setInstallationCost(3000.0);
+        request.setRankBy("npv");
+
+        // When: analysing
+        SensitivityResult result = service.analyse(request);
+
+        // Then: no climate lookup and no solar inputs; better COP raises NPV
+        assertEquals(0, climateLookups);
+        assertEquals("npv", result.getRankBy());
+        Map<String, SensitivityResult.InputSensitivity> byInput = result.getInputs().stream()
+            .collect(Collectors.toMap(SensitivityResult.InputSensitivity::getInput, Function.identity()));
+        assertFalse(byInput.containsKey("tiltAngle"));
+        assertTrue(byInput.get("heatPumpCop").getDeltaHigh() > 0);
+        assertTrue(byInput.get("gasRate").getDeltaHigh() > 0);
+        assertEquals(5, result.getInputs().size());
+    }
+}
@@ -0,0 +1,176 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.service.SmartMeterImportService.MeterConsumptionSummary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmartMeterImportServiceTest {
+
+    private final SmartMeterImportService service = new SmartMeterImportService();
+
+    @Test
+    void testParse_BomHeaderWithHalfHourlyReadings() throws IOException {
+        // Given: an Octopus export for January 2024 at 0.5 kWh per half-hour, saved with a UTF-8 BOM
+        StringBuilder csv = new StringBuilder("\uFEFFConsumption (kWh), Start, End\n");
+        for (int day = 1; day <= 31; day++) {
+            for (int slot = 0; slot < 48; slot++) {
+                csv.append(octopusRow(2024, 1, day, slot, "+00:00", 0.5));
+            }
+        }
+
+        // When: parsing
+        MeterConsumptionSummary summary = parse(csv.toString());
+
+        // Then: the header is recognised and January is measured; the other months are estimated
+        assertEquals(31 * 48, summary.getReadings());
+        assertEquals(0, summary.getSkipped());
+        assertEquals(48, summary.getReadingsPerDay());
+        assertEquals(31 * 48 * 0.5, summary.getMonthlyTotals()[0], 1e-9);
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), summary.getEstimatedMonths());
+        assertEquals(744.0 * 10.0 / 11.0, summary.getMonthlyTotals()[1], 1e-9);
+        assertEquals(1.0, monthProfileSum(summary, 1), 1e-4);
+        assertEquals(1.0, monthProfileSum(summary, 7), 1e-4);
+    }
+
+    @Test
+    void testParse_ClockChangeDays() throws IOException {
+        // Given: March and October 2024 at 1 kWh per half-hour, in local time with UTC offsets;
+        // 31 March loses 01:00-02:00 and 27 October repeats it
+        StringBuilder csv = new StringBuilder("Consumption (kWh),Start,End\n");
+        for (int day = 1; day <= 31; day++) {
+            for (int slot = 0; slot < 48; slot++) {
+                if (day == 31 && (slot == 2 || slot == 3)) {
+                    continue;
+                }
+                csv.append(octopusRow(2024, 3, day, slot, day == 31 && slot >= 4 ? "+01:00" : "+00:00", 1.0));
+            }
+        }
+        for (int day = 1; day <= 31; day++) {
+            for (int slot = 0; slot < 48; slot++) {
+                boolean summerTime = day < 27 || (day == 27 && slot < 4);
+                csv.append(octopusRow(2024, 10, day, slot, summerTime ? "+01:00" : "+00:00", 1.0));
+                if (day == 27 && slot == 3) {
+                    csv.append(octopusRow(2024, 10, day, 2, "+00:00", 1.0));
+                    csv.append(octopusRow(2024, 10, day, 3, "+00:00", 1.0));
+                }
+            }
+        }
+
+        // When: parsing
+        MeterConsumptionSummary summary = parse(csv.toString());
+
+        // Then: the repeated hour is kept, the missing hour is scaled up and neither day distorts the shape
+        assertEquals(31 * 48 * 2, summary.getReadings());
+        assertEquals(0, summary.getSkipped());
+        assertEquals(48, summary.getReadingsPerDay());
+        assertEquals(31 * 48, summary.getMonthlyTotals()[2], 1e-9);
+        assertEquals(31 * 48 + 2, summary.getMonthlyTotals()[9], 1e-9);
+        assertFalse(summary.getEstimatedMonths().contains(3));
+        assertFalse(summary.getEstimatedMonths().contains(10));
+        float[] profile = summary.getHalfHourlyProfile();
+        int march31 = ReferenceYear.halfHourOfYear(3, 31, 1, 0);
+        int october27 = ReferenceYear.halfHourOfYear(10, 27, 1, 0);
+        assertEquals(1.0 / (31 * 48), profile[march31], 1e-7);
+        assertEquals(1.0 / (31 * 48), profile[october27], 1e-7);
+        assertEquals("2024-03-01", summary.getFirstReadingDate());
+        assertEquals("2024-10-31", summary.getLastReadingDate());
+    }
+
+    @Test
+    void testParse_GapsFilledFromMonthShape() throws IOException {
+        // Given: hourly readings for February 2023 with 10-14 February missing, and only five days of March
+        StringBuilder csv = new StringBuilder("Date,Time,kWh\n");
+        for (int day = 1; day <= 28; day++) {
+            if (day >= 10 && day <= 14) {
+                continue;
+            }
+            for (int hour = 0; hour < 24; hour++) {
+                csv.append(String.format("%02d/02/2023,%02d:00,%s%n", day, hour, hour == 18 ? "3.0" : "1.0"));
+            }
+        }
+        for (int day = 1; day <= 5; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                csv.append(String.format("%02d/03/2023,%02d:00,1.0%n", day, hour));
+            }
+        }
+
+        // When: parsing
+        MeterConsumptionSummary summary = parse(csv.toString());
+
+        // Then: February is scaled up for the gap, March has too little data and is estimated
+        assertEquals(24, summary.getReadingsPerDay());
+        double measured = 23 * 26.0;
+        assertEquals(measured * 28 / 23, summary.getMonthlyTotals()[1], 1e-9);
+        assertTrue(summary.getEstimatedMonths().contains(3));
+        assertFalse(summary.getEstimatedMonths().contains(2));
+
+        // The missing days take February's mean day, with each hour split across its two half-hours
+        float[] profile = summary.getHalfHourlyProfile();
+        int gapEvening = ReferenceYear.halfHourOfYear(2, 12, 18, 0);
+        int gapNight = ReferenceYear.halfHourOfYear(2, 12, 3, 30);
+        int measuredEvening = ReferenceYear.halfHourOfYear(2, 20, 18, 30);
+        assertEquals(profile[measuredEvening], profile[gapEvening], 1e-9);
+        assertEquals(3.0, profile[gapEvening] / profile[gapNight], 1e-4);
+        assertEquals(1.0, monthProfileSum(summary, 2), 1e-4);
+    }
+
+    @Test
+    void testParse_DuplicateAndUnsortedRows() throws IOException {
+        // Given: May 2024 at 0.25 kWh per half-hour, rows shuffled, with every row exported twice
+        List<String> rows = new ArrayList<>();
+        for (int day = 1; day <= 31; day++) {
+            for (int slot = 0; slot < 48; slot++) {
+                String row = octopusRow(2024, 5, day, slot, "+01:00", 0.25);
+                rows.add(row + row);
+            }
+        }
+        Collections.shuffle(rows, new Random(7));
+        String csv = "Consumption (kWh),Start,End\n" + String.join("", rows);
+
+        // When: parsing
+        MeterConsumptionSummary summary = parse(csv);
+
+        // Then: duplicates are skipped and the day count does not depend on the row order
+        assertEquals(31 * 48, summary.getReadings());
+        assertEquals(31 * 48, summary.getSkipped());
+        assertEquals(48, summary.getReadingsPerDay());
+        assertEquals(31 * 48 * 0.25, summary.getMonthlyTotals()[4], 1e-9);
+        assertEquals("2024-05-01", summary.getFirstReadingDate());
+        assertEquals("2024-05-31", summary.getLastReadingDate());
+    }
+
+    @Test
+    void testParse_InvalidFiles() {
+        assertThrows(IllegalArgumentException.class, () -> parse(""));
+        assertThrows(IllegalArgumentException.class, () -> parse("Name,Address\nA,B\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("Consumption (kWh),Start\nabc,not a date\n"));
+    }
+
+    private MeterConsumptionSummary parse(String csv) throws IOException {
+        return service.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 1.0,
+            EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS);
+    }
+
+    private static String octopusRow(int year, int month, int day, int slot, String offset, double kwh) {
+        int hour = slot / 2;
+        int minute = (slot % 2) * 30;
+        return String.format("%s,%04d-%02d-%02dT%02d:%02d:00%s,%n", kwh, year, month, day, hour, minute, offset);
+    }
+
+    private static double monthProfileSum(MeterConsumptionSummary summary, int month) {
+        double sum = 0.0;
+        for (int i = ReferenceYear.monthStartHalfHour(month); i < ReferenceYear.monthEndHalfHour(month); i++) {
+            sum += summary.getHalfHourlyProfile()[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,214 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.SystemSizingRequest;
+import com.wx.renewableCalculator.backend.dto.SystemSizingResult;
+import com.wx.renewableCalculator.backend.entity.Battery;
+import com.wx.renewableCalculator.backend.entity.HeatPump;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SystemSizingServiceTest {
+    
+    private SystemSizingService service;
+    private EnergyBalanceService energyBalanceService;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+        
+        SolarPanelType panel = new SolarPanelType("Panel 400", "Test", 1.7, 400.0);
+        panel.setId(1L);
+        panel.setPrice(180.0);
+        List<Battery> batteries = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Battery battery = new Battery();
+            battery.setId(i);
+            battery.setName("Battery " + i);
+            battery.setCapacityKwh(BigDecimal.valueOf(1.5 * i));
+            battery.setCost(BigDecimal.valueOf(1500 + i * 450));
+            batteries.add(battery);
+        }
+        EquipmentCatalogService catalogService = new EquipmentCatalogService();
+        ReflectionTestUtils.setField(catalogService, "solarPanelTypeRepository", findAll(SolarPanelTypeRepository.class, List.of(panel)));
+        ReflectionTestUtils.setField(catalogService, "heatPumpRepository", findAll(HeatPumpRepository.class, List.<HeatPump>of()));
+        ReflectionTestUtils.setField(catalogService, "batteryRepository", findAll(BatteryRepository.class, batteries));
+        
+        service = new SystemSizingService();
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService);
+        ReflectionTestUtils.setField(service, "solarInstallationCostService", new SolarInstallationCostService());
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+        ReflectionTestUtils.setField(service, "batteryDispatchService", new BatteryDispatchService());
+        ReflectionTestUtils.setField(service, "tariffScheduleService", new TariffScheduleService());
+        ReflectionTestUtils.setField(service, "lifetimeCashFlowService", new LifetimeCashFlowService());
+    }
+    
+    @Test
+    void testOptimiseSize_SelfConsumptionMatchesHourlyBalance() {
+        SystemSizingRequest request = createRequest();
+        SystemSizingResult result = service.optimiseSize(request);
+        
+        assertEquals(17, result.getMaxPanelCount());    // floor(30 / 1.7)
+        assertEquals(17, result.getOptions().size());
+        
+        // Incremental self-consumption equals a full hourly balance of each array size
+        double[] monthlyUsage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            monthlyUsage[m] = 3600.0 * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[m] / 100.0;
+        }
+        for (SystemSizingResult.SizingOption option : result.getOptions()) {
+            double[] monthlyGeneration = new double[12];
+            for (int m = 0; m < 12; m++) {
+                monthlyGeneration[m] = option.getPanelCount() * 0.4 * SystemSizingService.SEASONAL_YIELD_KWH_PER_KW[m];
+            }
+            float[] generation = new float[ReferenceYear.HOURS_PER_YEAR];
+            float[] load = new float[ReferenceYear.HOURS_PER_YEAR];
+            energyBalanceService.fillHourlySeries(monthlyGeneration, monthlyUsage, null, 0.5, false, generation, load);
+            EnergyBalanceService.EnergyBalance balance = energyBalanceService.calculate(generation, load);
+            
+            assertEquals(balance.getAnnualGeneration(), option.getAnnualGeneration(), 0.1);
+            assertEquals(balance.getAnnualSelfConsumed(), option.getAnnualSelfConsumed(), 0.1);
+            double savings = (balance.getAnnualSelfConsumed() * 24.5 + balance.getAnnualExported() * 15.0) / 100.0;
+            assertEquals(savings, option.getAnnualSavings(), 0.05);
+        }
+        
+        // Self-consumption rate falls as the array grows
+        for (int i = 1; i < result.getOptions().size(); i++) {
+            assertTrue(result.getOptions().get(i).getSelfConsumptionRate() <= result.getOptions().get(i - 1).getSelfConsumptionRate());
+        }
+    }
+    
+    @Test
+    void testOptimiseSize_OptimumForEachObjective() {
+        SystemSizingRequest request = createRequest();
+        SystemSizingResult npv = service.optimiseSize(request);
+        SystemSizingResult.SizingOption bestNpv = npv.getOptions().stream()
+            .max(Comparator.comparingDouble(SystemSizingResult.SizingOption::getNetPresentValue)).orElseThrow();
+        assertEquals(bestNpv.getPanelCount(), npv.getOptimum().getPanelCount());
+        assertEquals(bestNpv.getPanelCount(), service.optimalPanelCount(request));
+        
+        request.setObjective("payback");
+        SystemSizingResult payback = service.optimiseSize(request);
+        double fastest = payback.getOptions().stream().filter(option -> option.getPaybackYears() != null)
+            .mapToDouble(SystemSizingResult.SizingOption::getPaybackYears).min().orElseThrow();
+        assertEquals(fastest, payback.getOptimum().getPaybackYears(), 1e-9);
+        
+        request.setObjective("irr");
+        assertThrows(IllegalArgumentException.class, () -> service.optimiseSize(request));
+    }
+    
+    @Test
+    void testOptimiseSize_BudgetAndSubsidy() {
+        SystemSizingRequest request = createRequest();
+        SystemSizingResult unlimited = service.optimiseSize(request);
+        
+        // A subsidy lowers the net cost and adds its amount to the NPV
+        request.setSubsidyAmount(150.0);
+        SystemSizingResult subsidised = service.optimiseSize(request);
+        for (int i = 0; i < unlimited.getOptions().size(); i++) {
+            SystemSizingResult.SizingOption before = unlimited.getOptions().get(i);
+            SystemSizingResult.SizingOption after = subsidised.getOptions().get(i);
+            assertEquals(150.0, after.getSubsidy());
+            assertEquals(before.getInstallationCost() - 150.0, after.getNetCost(), 0.01);
+            assertEquals(before.getNetPresentValue() + 150.0, after.getNetPresentValue(), 0.02);
+        }
+        
+        // Only sizes within the budget are returned
+        request.setBudget(subsidised.getOptions().get(5).getNetCost());
+        SystemSizingResult capped = service.optimiseSize(request);
+        assertEquals(6, capped.getOptions().size());
+        assertTrue(capped.getOptimum().getNetCost() <= request.getBudget());
+        
+        request.setBudget(10.0);
+        assertNull(service.optimiseSize(request).getOptimum());
+    }
+    
+    @Test
+    void testOptimiseSize_WithBatteries() {
+        SystemSizingRequest request = createRequest();
+        request.setRoofArea(60.0);
+        SystemSizingResult solarOnly = service.optimiseSize(request);
+        
+        request.setHasBattery(true);
+        SystemSizingResult withBattery = service.optimiseSize(request);
+        
+        // Each panel count keeps the better of no battery and the best battery
+        assertEquals(35, withBattery.getOptions().size());
+        for (int i = 0; i < withBattery.getOptions().size(); i++) {
+            SystemSizingResult.SizingOption option = withBattery.getOptions().get(i);
+            assertTrue(option.getNetPresentValue() >= solarOnly.getOptions().get(i).getNetPresentValue());
+            if (option.getBatteryId() != null) {
+                assertEquals(option.getBatteryCapacityKwh() * 300 + 1500, option.getInstallationCost() - solarOnly.getOptions().get(i).getInstallationCost(), 0.01);
+            }
+        }
+        assertTrue(withBattery.getOptimum().getNetPresentValue() >= solarOnly.getOptimum().getNetPresentValue());
+    }
+    
+    @Test
+    void testOptimiseSize_InvalidRequests() {
+        SystemSizingRequest request = createRequest();
+        request.setSolarPanelTypeId(99L);
+        assertThrows(IllegalArgumentException.class, () -> service.optimiseSize(request));
+        
+        request.setSolarPanelTypeId(1L);
+        request.setRoofArea(1.0);
+        assertThrows(IllegalArgumentException.class, () -> service.optimiseSize(request));
+        
+        request.setRoofArea(30.0);
+        request.setAnnualElectricityUsageKwh(null);
+        assertThrows(IllegalArgumentException.class, () -> service.optimiseSize(request));
+    }
+    
+    @Test
+    void testRoofPanelCount_InvalidPanelsRejectedAndCountCapped() {
+        SolarPanelType tiny = new SolarPanelType("Tiny", "Test", 0.01, 5.0);
+        
+        int count = SystemSizingService.roofPanelCount(tiny, 1000.0);
+        
+        assertEquals(SystemSizingService.MAX_PANEL_COUNT, count);
+        assertEquals(0, SystemSizingService.roofPanelCount(new SolarPanelType("Large", "Test", 2.0, 400.0), 1.0));
+        for (SolarPanelType invalid : List.of(new SolarPanelType("No size", "Test", null, 400.0),
+                new SolarPanelType("Zero size", "Test", 0.0, 400.0), new SolarPanelType("No power", "Test", 1.7, null),
+                new SolarPanelType("Negative power", "Test", 1.7, -1.0))) {
+            assertThrows(IllegalArgumentException.class, () -> SystemSizingService.roofPanelCount(invalid, 30.0));
+        }
+    }
+    
+    private static SystemSizingRequest createRequest() {
+        SystemSizingRequest request = new SystemSizingRequest();
+        request.setSolarPanelTypeId(1L);
+        request.setRoofArea(30.0);
+        request.setAnnualElectricityUsageKwh(3600.0);
+        request.setHomeOccupancyFactor(0.5);
+        request.setElectricityRate(24.5);
+        request.setExportRate(15.0);
+        return request;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <R> R findAll(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
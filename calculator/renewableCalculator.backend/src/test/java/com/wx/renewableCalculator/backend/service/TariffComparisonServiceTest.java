@@ -0,0 +1,152 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.TariffComparisonRequest;
+import com.wx.renewableCalculator.backend.dto.TariffComparisonResult;
+import com.wx.renewableCalculator.backend.entity.Tariff;
+import com.wx.renewableCalculator.backend.entity.TariffRate;
+import com.wx.renewableCalculator.backend.repository.TariffPriceSeriesRepository;
+import com.wx.renewableCalculator.backend.repository.TariffRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TariffComparisonServiceTest {
+
+    private final AtomicInteger tariffReads = new AtomicInteger();
+
+    @Test
+    void testCompareTariffs_RankedByAnnualNetCost() {
+        // Given: a flat 25p tariff, Economy 7 (30p day, 10p night) and a 20p flat gas tariff
+        Tariff flat = tariff(1, "Flat", "25");
+        Tariff economy7 = tariff(2, "Economy 7", "30");
+        economy7.getRates().add(new TariffRate(LocalTime.of(0, 0), LocalTime.of(7, 0), null, null, null, new BigDecimal("10")));
+        Tariff gas = tariff(3, "Gas", "20");
+        gas.setType(Tariff.EnergyType.gas);
+        TariffComparisonService service = service(List.of(flat, economy7, gas));
+
+        // When: comparing a profile of 0.5 kWh every half-hour with 0.1 kWh exported at 15p
+        TariffComparisonResult result = service.compareTariffs(request(0.5f, 0.1f, 15.0));
+
+        // Then: 24 kWh a day costs 600p flat and 7 × 10p + 17 × 30p = 580p on Economy 7
+        assertEquals(2, result.getTariffsEvaluated());
+        assertEquals(365 * 24.0, result.getAnnualImportKwh(), 0.01);
+        TariffComparisonResult.TariffCost cheapest = result.getTariffs().get(0);
+        TariffComparisonResult.TariffCost second = result.getTariffs().get(1);
+        assertEquals("Economy 7", cheapest.getTariffName());
+        assertEquals(1, cheapest.getRank());
+        assertEquals(0.0, cheapest.getDifferenceFromCheapest());
+        double exportRevenue = 365 * 48 * 0.1 * 15.0 / 100.0;
+        assertEquals(365 * 5.80, cheapest.getAnnualImportCost(), 0.05);
+        assertEquals(exportRevenue, cheapest.getAnnualExportRevenue(), 0.05);
+        assertEquals(365 * 5.80 - exportRevenue, cheapest.getAnnualNetCost(), 0.05);
+        assertEquals(580.0 / 24.0, cheapest.getAverageImportPrice(), 0.01);
+        assertEquals(12, cheapest.getMonthlyNetCost().size());
+        assertEquals("Flat", second.getTariffName());
+        assertEquals(2, second.getRank());
+        assertEquals(365 * 0.20, second.getDifferenceFromCheapest(), 0.05);
+
+        // Prices were compiled from the loaded tariffs, without reading them again
+        assertEquals(0, tariffReads.get());
+    }
+
+    @Test
+    void testCompareTariffs_TariffWithoutRates() {
+        // Given: a flat 20p tariff with no bands and a tariff with no base rate or priced band
+        Tariff noBands = tariff(1, "No bands", "20");
+        Tariff unpriced = tariff(2, "Unpriced", null);
+        unpriced.getRates().add(new TariffRate(LocalTime.of(0, 0), LocalTime.of(7, 0), null, null, null, null));
+        TariffComparisonService service = service(List.of(noBands, unpriced));
+
+        // When: comparing a profile of 1 kWh every half-hour
+        TariffComparisonResult result = service.compareTariffs(request(1.0f, 0.0f, null));
+
+        // Then: the flat tariff is costed at its base rate; the unpriced one is not ranked as free
+        assertEquals(1, result.getTariffsEvaluated());
+        assertEquals("No bands", result.getTariffs().get(0).getTariffName());
+        assertEquals(365 * 48 * 0.20, result.getTariffs().get(0).getAnnualNetCost(), 0.05);
+        assertEquals(20.0, result.getTariffs().get(0).getAverageImportPrice(), 1e-6);
+    }
+
+    @Test
+    void testCompareTariffs_EmptyRepository() {
+        // Given: no tariffs
+        TariffComparisonService service = service(List.of());
+
+        // When: comparing any profile
+        TariffComparisonResult result = service.compareTariffs(request(0.5f, 0.0f, null));
+
+        // Then: nothing is ranked and the profile totals are still reported
+        assertEquals(0, result.getTariffsEvaluated());
+        assertTrue(result.getTariffs().isEmpty());
+        assertEquals(365 * 24.0, result.getAnnualImportKwh(), 0.01);
+        assertEquals(0.0, result.getAnnualExportKwh());
+    }
+
+    @Test
+    void testCompareTariffs_InvalidProfile() {
+        TariffComparisonService service = service(List.of(tariff(1, "Flat", "25")));
+        TariffComparisonRequest request = new TariffComparisonRequest();
+        request.setHalfHourlyImportKwh(new float[48]);
+
+        assertThrows(IllegalArgumentException.class, () -> service.compareTariffs(request));
+    }
+
+    private TariffComparisonService service(List<Tariff> tariffs) {
+        TariffScheduleService tariffScheduleService = new TariffScheduleService();
+        ReflectionTestUtils.setField(tariffScheduleService, "tariffRepository", repository(TariffRepository.class, tariffs));
+        ReflectionTestUtils.setField(tariffScheduleService, "tariffPriceSeriesRepository",
+            repository(TariffPriceSeriesRepository.class, List.of()));
+
+        TariffComparisonService service = new TariffComparisonService();
+        ReflectionTestUtils.setField(service, "tariffRepository", repository(TariffRepository.class, tariffs));
+        ReflectionTestUtils.setField(service, "tariffScheduleService", tariffScheduleService);
+        ReflectionTestUtils.setField(service, "batteryDispatchService", new BatteryDispatchService());
+        return service;
+    }
+
+    private static Tariff tariff(int id, String name, String pricePerKwh) {
+        Tariff tariff = new Tariff();
+        tariff.setId(id);
+        tariff.setName(name);
+        tariff.setType(Tariff.EnergyType.electricity);
+        tariff.setPricePerKwh(pricePerKwh != null ? new BigDecimal(pricePerKwh) : null);
+        return tariff;
+    }
+
+    private static TariffComparisonRequest request(float importKwh, float exportKwh, Double exportRate) {
+        float[] imported = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        float[] exported = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        Arrays.fill(imported, importKwh);
+        Arrays.fill(exported, exportKwh);
+        TariffComparisonRequest request = new TariffComparisonRequest();
+        request.setHalfHourlyImportKwh(imported);
+        request.setHalfHourlyExportKwh(exported);
+        request.setExportRate(exportRate);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R repository(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                return rows;
+            }
+            if (method.getName().equals("findById")) {
+                if (type == TariffRepository.class) {
+                    tariffReads.incrementAndGet();
+                }
+                return Optional.empty();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.entity.Tariff;
+import com.wx.renewableCalculator.backend.entity.TariffRate;
+import com.wx.renewableCalculator.backend.repository.TariffPriceSeriesRepository;
+import com.wx.renewableCalculator.backend.repository.TariffRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TariffScheduleServiceTest {
+
+    private static final int DAY = ReferenceYear.HALF_HOURS_PER_DAY;
+
+    @Test
+    void testCompile_BandsInOrderWithDayTypesAndSeasons() {
+        // Given: 25p base, 10p nights 23:30-06:30, 35p weekday peak 16:00-19:00 in winter (Nov-Feb)
+        Tariff tariff = new Tariff();
+        tariff.setPricePerKwh(new BigDecimal("25"));
+        tariff.getRates().add(new TariffRate(LocalTime.of(23, 30), LocalTime.of(6, 30), null, null, null, new BigDecimal("10")));
+        tariff.getRates().add(new TariffRate(LocalTime.of(16, 0), LocalTime.of(19, 0), TariffRate.DayType.weekday, 11, 2, new BigDecimal("35")));
+
+        // When: compiling the reference year
+        float[] prices = TariffScheduleService.compile(tariff, null);
+
+        // Then: 1 January is a Sunday, 2 January a Monday, 1 June a Thursday
+        assertEquals(ReferenceYear.HALF_HOURS_PER_YEAR, prices.length);
+        assertEquals(10.0f, prices[0]);                      // 00:00 Sunday
+        assertEquals(10.0f, prices[12]);                     // 06:00
+        assertEquals(25.0f, prices[13]);                     // 06:30
+        assertEquals(10.0f, prices[47]);                     // 23:30
+        assertEquals(25.0f, prices[32]);                     // 16:00 Sunday, no weekday peak
+        assertEquals(35.0f, prices[DAY + 32]);               // 16:00 Monday
+        assertEquals(25.0f, prices[DAY + 38]);               // 19:00 Monday
+        int juneFirst = ReferenceYear.monthStartDay(6) * DAY;
+        assertEquals(25.0f, prices[juneFirst + 32]);         // Summer weekday, no peak band
+        int decemberFirst = ReferenceYear.monthStartDay(12) * DAY;
+        assertFalse(ReferenceYear.isWeekend(ReferenceYear.monthStartDay(12)));
+        assertEquals(35.0f, prices[decemberFirst + 32]);
+    }
+
+    @Test
+    void testCompile_DynamicPricesOverrideSchedule() {
+        Tariff tariff = new Tariff();
+        tariff.setPricePerKwh(new BigDecimal("20"));
+        float[] published = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        Arrays.fill(published, Float.NaN);
+        published[100] = -2.5f;
+
+        float[] prices = TariffScheduleService.compile(tariff, published);
+
+        assertEquals(-2.5f, prices[100]);
+        assertEquals(20.0f, prices[101]);
+    }
+
+    @Test
+    void testCost_DotProductAndMonthlySplit() {
+        // Given: Economy 7 from scalar rates and 0.5 kWh every half-hour
+        float[] prices = TariffScheduleService.scalarPrices(30.0, 10.0, null);
+        float[] energy = new float[ReferenceYear.HALF_HOURS_PER_YEAR];
+        Arrays.fill(energy, 0.5f);
+
+        // When: costing the profile
+        double annualCost = TariffScheduleService.cost(prices, energy);
+        double[] monthlyCost = TariffScheduleService.monthlyCost(prices, energy);
+
+        // Then: 7 hours a day at 10p and 17 at 30p, 24 kWh a day
+        double dailyCost = 7 * 10.0 + 17 * 30.0;
+        assertEquals(365 * dailyCost, annualCost, 0.5);
+        assertEquals(31 * dailyCost, monthlyCost[0], 0.5);
+        assertEquals(28 * dailyCost, monthlyCost[1], 0.5);
+        assertEquals(dailyCost / 24.0, TariffScheduleService.averagePrice(prices, 3), 0.001);
+        assertEquals(10.0f, TariffScheduleService.toHourly(prices)[6]);
+        assertEquals(30.0f, TariffScheduleService.toHourly(prices)[7]);
+    }
+
+    @Test
+    void testGetHalfHourlyPrices_CompiledOnceUntilEvicted() {
+        // Given: a stored 20p flat tariff without published prices
+        Tariff tariff = new Tariff();
+        tariff.setId(7);
+        tariff.setPricePerKwh(new BigDecimal("20"));
+        AtomicInteger reads = new AtomicInteger();
+        TariffScheduleService service = new TariffScheduleService();
+        ReflectionTestUtils.setField(service, "tariffRepository", findById(TariffRepository.class, 7, tariff, reads));
+        ReflectionTestUtils.setField(service, "tariffPriceSeriesRepository", findById(TariffPriceSeriesRepository.class, 7, null, reads));
+
+        // When: asking for its prices twice
+        float[] first = service.getHalfHourlyPrices(7);
+        float[] second = service.getHalfHourlyPrices(7);
+
+        // Then: the database is read once and the same array is shared
+        assertSame(first, second);
+        assertEquals(20.0f, first[0]);
+        assertEquals(2, reads.get());
+        service.evict(7);
+        assertNotSame(first, service.getHalfHourlyPrices(7));
+        assertEquals(4, reads.get());
+        assertThrows(IllegalArgumentException.class, () -> service.getHalfHourlyPrices(8));
+    }
+
+    @Test
+    void testGetHalfHourlyPrices_EvictedDuringCompileNotCached() {
+        // Given: a 20p flat tariff whose prices are uploaded while the first compile is reading them
+        Tariff tariff = new Tariff();
+        tariff.setId(7);
+        tariff.setPricePerKwh(new BigDecimal("20"));
+        AtomicInteger reads = new AtomicInteger();
+        TariffScheduleService service = new TariffScheduleService();
+        ReflectionTestUtils.setField(service, "tariffRepository", findById(TariffRepository.class, 7, tariff, reads));
+        ReflectionTestUtils.setField(service, "tariffPriceSeriesRepository", Proxy.newProxyInstance(
+            TariffPriceSeriesRepository.class.getClassLoader(), new Class<?>[]{TariffPriceSeriesRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findById")) {
+                    if (reads.incrementAndGet() == 2) {
+                        service.evict(7);
+                    }
+                    return Optional.empty();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }));
+
+        // When: asking for its prices twice
+        float[] first = service.getHalfHourlyPrices(7);
+        float[] second = service.getHalfHourlyPrices(7);
+
+        // Then: the compile that overlapped the upload is used once but not cached; the next one is
+        assertEquals(20.0f, first[0]);
+        assertNotSame(first, second);
+        assertEquals(4, reads.get());
+        assertSame(second, service.getHalfHourlyPrices(7));
+        assertEquals(4, reads.get());
+
+        // A tariff loaded before an eviction is not cached either
+        long version = service.getCacheVersion();
+        service.evict(7);
+        float[] stale = service.getHalfHourlyPrices(tariff, version);
+        assertNotSame(stale, service.getHalfHourlyPrices(7));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R findById(Class<R> type, Integer id, Object row, AtomicInteger reads) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findById")) {
+                reads.incrementAndGet();
+                return id.equals(args[0]) ? Optional.ofNullable(row) : Optional.empty();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
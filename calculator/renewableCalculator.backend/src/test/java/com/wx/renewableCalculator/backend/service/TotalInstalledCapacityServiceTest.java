@@ -0,0 +1,203 @@
+package com.wx.renewableCalculator.backend.service;
+
+import com.wx.renewableCalculator.backend.dto.LocationSpecificYieldRequest;
+import com.wx.renewableCalculator.backend.dto.PanelSweepRequest;
+import com.wx.renewableCalculator.backend.dto.PanelSweepResult;
+import com.wx.renewableCalculator.backend.dto.TotalInstalledCapacityRequest;
+import com.wx.renewableCalculator.backend.entity.SolarPanelType;
+import com.wx.renewableCalculator.backend.repository.BatteryRepository;
+import com.wx.renewableCalculator.backend.repository.HeatPumpRepository;
+import com.wx.renewableCalculator.backend.repository.SolarPanelTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TotalInstalledCapacityServiceTest {
+
+    // kWh/kWp by month, 1000 a year before tilt and shading
+    private static final double[] MONTHLY_YIELD = {25, 45, 80, 110, 135, 140, 140, 120, 90, 60, 35, 20};
+    private static final double DEFAULT_TILT_FACTOR = 0.82;
+
+    private TotalInstalledCapacityService service;
+    private EnergyBalanceService energyBalanceService;
+    private final SolarInstallationCostService costService = new SolarInstallationCostService();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        EquipmentCatalogService catalogService = new EquipmentCatalogService();
+        ReflectionTestUtils.setField(catalogService, "solarPanelTypeRepository", repository(SolarPanelTypeRepository.class, List.of(
+            panel(1L, 1.9, 400.0, 200.0),
+            panel(2L, 1.7, 350.0, 150.0),
+            panel(3L, 2.2, 450.0, 320.0),
+            panel(4L, null, 400.0, 100.0),
+            panel(5L, 1.8, 0.0, 100.0))));
+        ReflectionTestUtils.setField(catalogService, "heatPumpRepository", repository(HeatPumpRepository.class, List.of()));
+        ReflectionTestUtils.setField(catalogService, "batteryRepository", repository(BatteryRepository.class, List.of()));
+
+        LoadProfileLibraryService loadProfileLibraryService = new LoadProfileLibraryService();
+        loadProfileLibraryService.loadProfiles();
+        energyBalanceService = new EnergyBalanceService();
+        ReflectionTestUtils.setField(energyBalanceService, "solarHourlyProfileService", new SolarHourlyProfileService());
+        ReflectionTestUtils.setField(energyBalanceService, "loadProfileLibraryService", loadProfileLibraryService);
+
+        service = new TotalInstalledCapacityService();
+        ReflectionTestUtils.setField(service, "equipmentCatalogService", catalogService);
+        ReflectionTestUtils.setField(service, "locationSpecificYieldService", new LocationSpecificYieldService() {
+            @Override
+            public MonthlyYield calculateMonthlyYield(LocationSpecificYieldRequest request) {
+                return new MonthlyYield(MONTHLY_YIELD.clone(), new double[12], new int[12]);
+            }
+        });
+        ReflectionTestUtils.setField(service, "solarElectricityGenerationService", new SolarElectricityGenerationService());
+        ReflectionTestUtils.setField(service, "solarInstallationCostService", costService);
+        ReflectionTestUtils.setField(service, "horizonShadingService", new HorizonShadingService());
+        ReflectionTestUtils.setField(service, "energyBalanceService", energyBalanceService);
+    }
+
+    @Test
+    void testSweepPanelCatalog_ExplicitRateRankedByPayback() {
+        // Given: a 20 m² roof with few obstacles and a fixed 40% self-consumption rate
+        PanelSweepRequest request = sweepRequest(20.0);
+        request.setSelfConsumptionRate(0.4);
+
+        // When: sweeping the catalog
+        PanelSweepResult result = service.sweepPanelCatalog(request);
+
+        // Then: panels without a size or rated power are left out and the rest are costed per the formulas
+        assertEquals(3, result.getOptions().size());
+        assertEquals(1000 * DEFAULT_TILT_FACTOR, result.getAnnualSpecificYield().doubleValue(), 0.01);
+        PanelSweepResult.PanelOption panel1 = option(result, 1L);
+        assertEquals(9, panel1.getPanelCount());   // floor(20 × 0.92 / 1.9)
+        double generation = 3.6 * 1000 * DEFAULT_TILT_FACTOR;
+        double savings = generation * 0.4 * 0.245 + generation * 0.6 * 0.15;
+        double cost = 9 * 200.0 + costService.getAverageCost(3.6);
+        assertEquals(generation, panel1.getAnnualGeneration().doubleValue(), 0.01);
+        assertEquals(savings, panel1.getAnnualSavings().doubleValue(), 0.01);
+        assertEquals(cost, panel1.getInstallationCost().doubleValue(), 0.01);
+        assertEquals(cost / savings, panel1.getPaybackPeriodYears().doubleValue(), 0.01);
+
+        for (int i = 1; i < result.getOptions().size(); i++) {
+            assertTrue(result.getOptions().get(i - 1).getPaybackPeriodYears()
+                .compareTo(result.getOptions().get(i).getPaybackPeriodYears()) <= 0);
+        }
+    }
+
+    @Test
+    void testSweepPanelCatalog_SelfConsumptionFromHourlyBalance() {
+        // Given: a household using 3000 kWh a year, at home half the day, with no explicit rate
+        PanelSweepRequest request = sweepRequest(20.0);
+        request.setAnnualElectricityUsageKwh(3000.0);
+        request.setHomeOccupancyFactor(0.5);
+        request.setSortBy("capacity");
+
+        // When: sweeping the catalog
+        PanelSweepResult result = service.sweepPanelCatalog(request);
+
+        // Then: each option's self-consumption matches the hourly balance for its capacity
+        double[] usage = new double[12];
+        for (int m = 0; m < 12; m++) {
+            usage[m] = 3000.0 * EnergyDemandService.STANDARD_MONTHLY_PROPORTIONS[m] / 100.0;
+        }
+        for (PanelSweepResult.PanelOption option : result.getOptions()) {
+            double capacity = option.getTotalInstalledCapacity().doubleValue();
+            double[] generation = new double[12];
+            for (int m = 0; m < 12; m++) {
+                generation[m] = MONTHLY_YIELD[m] * DEFAULT_TILT_FACTOR * capacity;
+            }
+            double expected = energyBalanceService.calculateMonthly(generation, usage, 51.5074, 0.5, null).getAnnualSelfConsumed();
+            double annualGeneration = option.getAnnualGeneration().doubleValue();
+            double selfConsumed = (option.getAnnualSavings().doubleValue() - annualGeneration * 0.15) / (0.245 - 0.15);
+            assertEquals(expected, selfConsumed, expected * 0.01);
+            assertNotEquals(0.4, selfConsumed / annualGeneration, 0.02);
+        }
+    }
+
+    @Test
+    void testSweepPanelCatalog_HorizonProfileShadesMonthly() {
+        // Given: a horizon raised 25° all around, which overrides the categorical shading level
+        PanelSweepRequest request = sweepRequest(20.0);
+        request.setShadingLevel("heavy");
+        request.setHorizonProfile(Collections.nCopies(36, 25.0));
+
+        // When: sweeping the catalog
+        PanelSweepResult result = service.sweepPanelCatalog(request);
+
+        // Then: the specific yield applies each month's horizon factor
+        double[] factors = new HorizonShadingService().calculateMonthlyShadingFactors(51.5074, request.getHorizonProfile());
+        double expected = 0.0;
+        for (int m = 0; m < 12; m++) {
+            expected += MONTHLY_YIELD[m] * DEFAULT_TILT_FACTOR * factors[m];
+        }
+        assertEquals(expected, result.getAnnualSpecificYield().doubleValue(), 0.01);
+        assertTrue(expected < 1000 * DEFAULT_TILT_FACTOR);
+    }
+
+    @Test
+    void testSweepPanelCatalog_PanelCountCappedAndInvalidInputRejected() {
+        PanelSweepResult result = service.sweepPanelCatalog(sweepRequest(100_000.0));
+        assertTrue(result.getOptions().stream().allMatch(option -> option.getPanelCount() == SystemSizingService.MAX_PANEL_COUNT));
+
+        assertThrows(IllegalArgumentException.class, () -> service.sweepPanelCatalog(sweepRequest(0.0)));
+        PanelSweepRequest unsorted = sweepRequest(20.0);
+        unsorted.setSortBy("colour");
+        assertThrows(IllegalArgumentException.class, () -> service.sweepPanelCatalog(unsorted));
+    }
+
+    @Test
+    void testCalculateTotalInstalledCapacity_InvalidInputs() {
+        // Given: no roof area, and a panel left out of the catalog for its missing size
+        TotalInstalledCapacityRequest noRoof = new TotalInstalledCapacityRequest();
+        noRoof.setSolarPanelTypeId(1L);
+        TotalInstalledCapacityRequest noSize = new TotalInstalledCapacityRequest();
+        noSize.setSolarPanelTypeId(4L);
+        noSize.setRoofArea(20.0);
+
+        // Then: neither reaches the division by panel size
+        assertThrows(IllegalArgumentException.class, () -> service.calculateTotalInstalledCapacity(noRoof));
+        assertThrows(RuntimeException.class, () -> service.calculateTotalInstalledCapacity(noSize));
+
+        TotalInstalledCapacityRequest valid = new TotalInstalledCapacityRequest();
+        valid.setSolarPanelTypeId(1L);
+        valid.setRoofArea(20.0);
+        valid.setUtilisationLevel("minimal-obstacles");
+        assertEquals(20.0 * 0.92 / 1.9 * 0.4, service.calculateTotalInstalledCapacity(valid).getTotalInstalledCapacity().doubleValue(), 0.005);
+    }
+
+    private static PanelSweepRequest sweepRequest(double roofArea) {
+        PanelSweepRequest request = new PanelSweepRequest();
+        request.setRoofArea(roofArea);
+        request.setUtilisationLevel("minimal-obstacles");
+        return request;
+    }
+
+    private static PanelSweepResult.PanelOption option(PanelSweepResult result, Long id) {
+        return result.getOptions().stream()
+            .filter(option -> option.getSolarPanelTypeId().equals(id))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static SolarPanelType panel(Long id, Double size, Double ratedPower, Double price) {
+        SolarPanelType panel = new SolarPanelType("Panel " + id, "Test", size, ratedPower);
+        panel.setId(id);
+        panel.setPrice(price);
+        return panel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, List<?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}